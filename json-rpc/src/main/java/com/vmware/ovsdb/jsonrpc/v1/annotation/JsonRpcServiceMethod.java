@@ -20,7 +20,8 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
- * Annotate the RPC handler methods.
+ * Annotate the RPC handler methods. A method may return a {@link
+ * java.util.concurrent.CompletionStage} to respond to the request asynchronously.
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
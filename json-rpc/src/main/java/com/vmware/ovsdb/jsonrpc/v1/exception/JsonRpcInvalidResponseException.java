@@ -19,6 +19,10 @@ package com.vmware.ovsdb.jsonrpc.v1.exception;
  */
 public class JsonRpcInvalidResponseException extends JsonRpcException {
 
+  public JsonRpcInvalidResponseException(String message) {
+    super(message);
+  }
+
   public JsonRpcInvalidResponseException(String message, Throwable cause) {
     super(message, cause);
   }
@@ -20,7 +20,10 @@ import static com.vmware.ovsdb.jsonrpc.v1.util.JsonRpcConstant.PARAMS;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.vmware.ovsdb.jsonrpc.v1.model.serializer.JsonRpcV1RequestSerializer;
 import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
 
 import java.util.Objects;
@@ -36,11 +39,18 @@ import java.util.Objects;
  *
  * @see <a href=http://www.jsonrpc.org/specification_v1>JSON-RPC 1.0 Specification</a>
  */
+@JsonSerialize(using = JsonRpcV1RequestSerializer.class)
 public class JsonRpcV1Request {
 
   private final String method;
 
-  private final ArrayNode params;
+  /**
+   * Parameters as given by the caller. They are serialized directly and only converted to
+   * {@link #params} when {@link #getParams()} is called.
+   */
+  private final Object[] rawParams;
+
+  private volatile ArrayNode params;
 
   private final String id;
 
@@ -59,6 +69,7 @@ public class JsonRpcV1Request {
   ) {
     this.method = method;
     this.params = params;
+    this.rawParams = params == null ? null : toArray(params);
     this.id = id;
   }
 
@@ -71,19 +82,46 @@ public class JsonRpcV1Request {
    */
   public JsonRpcV1Request(String id, String method, Object... params) {
     this.method = method;
-    this.params = JsonUtil.createArrayNode();
-    for (Object param : params) {
-      this.params.add(JsonUtil.toJsonNode(param));
-    }
+    this.rawParams = params;
     this.id = id;
   }
 
+  private static Object[] toArray(ArrayNode arrayNode) {
+    Object[] array = new Object[arrayNode.size()];
+    for (int i = 0; i < array.length; i++) {
+      array[i] = arrayNode.get(i);
+    }
+    return array;
+  }
+
   public String getMethod() {
     return method;
   }
 
+  /**
+   * Get the parameters formatted as a {@link ArrayNode} object.
+   *
+   * @return the parameters
+   */
   public ArrayNode getParams() {
-    return params;
+    ArrayNode arrayNode = params;
+    if (arrayNode == null && rawParams != null) {
+      arrayNode = JsonUtil.createArrayNode();
+      for (Object param : rawParams) {
+        arrayNode.add(param instanceof JsonNode ? (JsonNode) param : JsonUtil.toJsonNode(param));
+      }
+      params = arrayNode;
+    }
+    return arrayNode;
+  }
+
+  /**
+   * Get the parameters as given to this request, without converting them to {@link JsonNode}.
+   *
+   * @return the parameters
+   */
+  public Object[] getRawParams() {
+    return rawParams;
   }
 
   public String getId() {
@@ -101,20 +139,20 @@ public class JsonRpcV1Request {
     }
     JsonRpcV1Request that = (JsonRpcV1Request) other;
     return Objects.equals(method, that.method)
-        && Objects.equals(params, that.params)
+        && Objects.equals(getParams(), that.getParams())
         && Objects.equals(id, that.id);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(method, params, id);
+    return Objects.hash(method, getParams(), id);
   }
 
   @Override
   public String toString() {
     return getClass().getSimpleName() + " ["
         + "methods=" + method
-        + ", params=" + params
+        + ", params=" + getParams()
         + ", id=" + id
         + "]";
   }
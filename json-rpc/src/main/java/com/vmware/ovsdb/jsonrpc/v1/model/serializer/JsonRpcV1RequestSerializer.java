@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.jsonrpc.v1.model.serializer;
+
+import static com.vmware.ovsdb.jsonrpc.v1.util.JsonRpcConstant.ID;
+import static com.vmware.ovsdb.jsonrpc.v1.util.JsonRpcConstant.METHOD;
+import static com.vmware.ovsdb.jsonrpc.v1.util.JsonRpcConstant.PARAMS;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.vmware.ovsdb.jsonrpc.v1.model.JsonRpcV1Request;
+
+import java.io.IOException;
+
+/**
+ * Serialize a {@link JsonRpcV1Request}. The parameters are written straight from the objects
+ * given to the request, without converting them to a tree first.
+ */
+public class JsonRpcV1RequestSerializer extends StdSerializer<JsonRpcV1Request> {
+
+  public JsonRpcV1RequestSerializer() {
+    this(null);
+  }
+
+  protected JsonRpcV1RequestSerializer(Class<JsonRpcV1Request> klass) {
+    super(klass);
+  }
+
+  @Override
+  public void serialize(
+      JsonRpcV1Request request, JsonGenerator jgen, SerializerProvider provider
+  ) throws IOException {
+    jgen.writeStartObject();
+    jgen.writeStringField(METHOD, request.getMethod());
+    Object[] params = request.getRawParams();
+    if (params == null) {
+      jgen.writeNullField(PARAMS);
+    } else {
+      jgen.writeArrayFieldStart(PARAMS);
+      for (Object param : params) {
+        provider.defaultSerializeValue(param, jgen);
+      }
+      jgen.writeEndArray();
+    }
+    jgen.writeStringField(ID, request.getId());
+    jgen.writeEndObject();
+  }
+}
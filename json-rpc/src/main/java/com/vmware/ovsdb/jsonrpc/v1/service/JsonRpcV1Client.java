@@ -39,6 +39,25 @@ public interface JsonRpcV1Client {
   <T> CompletableFuture<T> call(String id, String method, Class<T> returnType, Object... params)
       throws JsonRpcException;
 
+  /**
+   * Send a JSON-RPC request with a numeric id. The id must be unique among all calls. It is sent
+   * as its decimal string, so the call is equivalent to {@link #call(String, String, Class,
+   * Object...)} with that string. An implementation can use it to avoid building and hashing a
+   * string key for each call.
+   *
+   * @param id a unique ID for the call
+   * @param method method name
+   * @param returnType return type of the method
+   * @param params params of the method
+   * @return a {@link CompletableFuture} to get the method result from
+   * @throws JsonRpcException if fail to send the request
+   */
+  default <T> CompletableFuture<T> call(
+      long id, String method, Class<T> returnType, Object... params
+  ) throws JsonRpcException {
+    return call(Long.toString(id), method, returnType, params);
+  }
+
   /**
    * Send a JSON-RPC notification.
    *
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.jsonrpc.v1.service.impl;
+
+import com.fasterxml.jackson.core.TreeNode;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * A handler method of a {@link JsonRpcV1ServerImpl}, prepared once so that calling it is cheap.
+ * The method is called through a {@link MethodHandle} that takes the parameters as one array and
+ * is bound to the handler. Each parameter is converted by an {@link ObjectReader} made for its
+ * type when the method is prepared.
+ */
+class JsonRpcMethod {
+
+  // Invokes the method with an Object[] of parameters and returns the boxed result
+  private static final MethodType INVOKER_TYPE = MethodType.methodType(
+      Object.class, Object[].class);
+
+  private final Method method;
+
+  private final MethodHandle invoker;
+
+  private final Class<?>[] paramTypes;
+
+  private final ParamReader[] paramReaders;
+
+  private final boolean isVarArgs;
+
+  /**
+   * Create a {@link JsonRpcMethod} object.
+   *
+   * @param method a public method of the handler
+   * @param handler the object to call the method on
+   * @throws IllegalArgumentException if the method cannot be accessed
+   */
+  JsonRpcMethod(Method method, Object handler) {
+    this.method = method;
+    this.invoker = newInvoker(method, handler);
+    this.isVarArgs = method.isVarArgs();
+    paramTypes = method.getParameterTypes();
+    paramReaders = new ParamReader[paramTypes.length];
+    for (int i = 0; i < paramTypes.length; i++) {
+      Class<?> type = isVarArgs && i == paramTypes.length - 1
+          ? paramTypes[i].getComponentType()
+          : paramTypes[i];
+      paramReaders[i] = newParamReader(type);
+    }
+  }
+
+  /**
+   * Convert the params of a request to the parameters of this method.
+   *
+   * @param paramsNode the params of the request
+   * @return the parameters
+   * @throws IllegalArgumentException if the params do not match the parameters of this method
+   */
+  Object[] toMethodParams(ArrayNode paramsNode) {
+    int methodParamSize = paramTypes.length;
+    int actualParamSize = paramsNode.size();
+
+    Object[] actualParams = new Object[methodParamSize];
+    int lastIndex = methodParamSize - 1;
+
+    // If a methods has n params and the last one is a vararg,
+    // then the number of actual params must be in range [n-1, ...)
+    if (isVarArgs && actualParamSize >= lastIndex) {
+      actualParams[lastIndex] = buildVarargParam(paramsNode, lastIndex);
+      // We have handled the last param, no need to handle it later
+      --methodParamSize;
+    } else if (methodParamSize != actualParamSize) {
+      throw new IllegalArgumentException(
+          "Parameters number doesn't match. Expected: "
+              + methodParamSize + ". Got: " + paramsNode.size());
+    }
+
+    for (int i = 0; i < methodParamSize; i++) {
+      actualParams[i] = readParam(paramsNode.get(i), i, paramTypes[i]);
+    }
+    return actualParams;
+  }
+
+  /**
+   * Call this method.
+   *
+   * @param params the parameters from {@link #toMethodParams(ArrayNode)}
+   * @return the result of the method, or null if it returns void
+   * @throws InvocationTargetException if the method throws an exception
+   */
+  Object invoke(Object[] params) throws InvocationTargetException {
+    try {
+      return (Object) invoker.invokeExact(params);
+    } catch (Throwable ex) {
+      // Wrap it as Method.invoke() does, so that the caller can tell it from a bad parameter
+      throw new InvocationTargetException(ex);
+    }
+  }
+
+  private Object buildVarargParam(ArrayNode paramsNode, int start) {
+    Class<?> type = paramTypes[start].getComponentType();
+    int varArgParamSize = paramsNode.size() - start;
+    Object varArgParam = Array.newInstance(type, varArgParamSize);
+    // Only an array of primitives has to be filled through reflection
+    Object[] objectArray = type.isPrimitive() ? null : (Object[]) varArgParam;
+
+    for (int i = 0; i < varArgParamSize; i++) {
+      Object param = readParam(paramsNode.get(start + i), start, type);
+      if (objectArray != null) {
+        objectArray[i] = param;
+      } else {
+        Array.set(varArgParam, i, param);
+      }
+    }
+    return varArgParam;
+  }
+
+  private Object readParam(JsonNode paramNode, int index, Class<?> type) {
+    try {
+      return paramReaders[index].read(paramNode);
+    } catch (IOException ex) {
+      throw new IllegalArgumentException(
+          "Failed to convert param " + paramNode + " to type " + type);
+    }
+  }
+
+  private static MethodHandle newInvoker(Method method, Object handler) {
+    MethodHandle methodHandle;
+    try {
+      methodHandle = MethodHandles.lookup().unreflect(method);
+    } catch (IllegalAccessException ex) {
+      // Such as a public method of a class that is not public
+      method.setAccessible(true);
+      try {
+        methodHandle = MethodHandles.lookup().unreflect(method);
+      } catch (IllegalAccessException ex2) {
+        throw new IllegalArgumentException("Method " + method + " is not accessible", ex2);
+      }
+    }
+    return methodHandle.asFixedArity()
+        .bindTo(handler)
+        .asSpreader(Object[].class, method.getParameterCount())
+        .asType(INVOKER_TYPE);
+  }
+
+  private static ParamReader newParamReader(Class<?> type) {
+    ObjectReader objectReader = JsonUtil.readerFor(type);
+    // The common types are taken straight from the node. Anything else, including the
+    // conversions such as from "1" to int, is left to Jackson
+    if (TreeNode.class.isAssignableFrom(type)) {
+      // Hand over the node itself if it fits, as ObjectMapper.treeToValue() does
+      return paramNode -> type.isInstance(paramNode)
+          ? paramNode
+          : objectReader.readValue(paramNode);
+    } else if (type == String.class) {
+      return paramNode -> paramNode.isTextual()
+          ? paramNode.textValue()
+          : objectReader.readValue(paramNode);
+    } else if (type == int.class || type == Integer.class) {
+      return paramNode -> paramNode.isIntegralNumber() && paramNode.canConvertToInt()
+          ? paramNode.intValue()
+          : objectReader.readValue(paramNode);
+    } else if (type == long.class || type == Long.class) {
+      return paramNode -> paramNode.isIntegralNumber() && paramNode.canConvertToLong()
+          ? paramNode.longValue()
+          : objectReader.readValue(paramNode);
+    } else if (type == boolean.class || type == Boolean.class) {
+      return paramNode -> paramNode.isBoolean()
+          ? paramNode.booleanValue()
+          : objectReader.readValue(paramNode);
+    }
+    return objectReader::readValue;
+  }
+
+  @Override
+  public String toString() {
+    return method.toString();
+  }
+
+  @FunctionalInterface
+  private interface ParamReader {
+
+    Object read(JsonNode paramNode) throws IOException;
+  }
+}
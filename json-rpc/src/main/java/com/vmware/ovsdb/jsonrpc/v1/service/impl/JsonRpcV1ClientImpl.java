@@ -14,6 +14,10 @@
 
 package com.vmware.ovsdb.jsonrpc.v1.service.impl;
 
+import static com.vmware.ovsdb.jsonrpc.v1.util.JsonRpcConstant.ERROR;
+import static com.vmware.ovsdb.jsonrpc.v1.util.JsonRpcConstant.ID;
+import static com.vmware.ovsdb.jsonrpc.v1.util.JsonRpcConstant.RESULT;
+
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.vmware.ovsdb.jsonrpc.v1.exception.JsonRpcConnectionClosedException;
@@ -23,8 +27,8 @@ import com.vmware.ovsdb.jsonrpc.v1.exception.JsonRpcInvalidResponseException;
 import com.vmware.ovsdb.jsonrpc.v1.exception.JsonRpcResultTypeMismatchException;
 import com.vmware.ovsdb.jsonrpc.v1.exception.JsonRpcTransportException;
 import com.vmware.ovsdb.jsonrpc.v1.model.JsonRpcV1Request;
-import com.vmware.ovsdb.jsonrpc.v1.model.JsonRpcV1Response;
 import com.vmware.ovsdb.jsonrpc.v1.service.JsonRpcV1Client;
+import com.vmware.ovsdb.jsonrpc.v1.spi.JsonRpcTimer;
 import com.vmware.ovsdb.jsonrpc.v1.spi.JsonRpcTransporter;
 import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
 import org.slf4j.Logger;
@@ -36,7 +40,6 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -49,6 +52,13 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * be used anymore and all following request will result in
  * {@link JsonRpcConnectionClosedException}.
  *
+ * <p>Calls whose id is a non-negative long, or the canonical decimal string of one, are tracked in
+ * a primitive long map. A response is matched against them by reading its id as a long, whether
+ * the id is sent back as a JSON string or a JSON number. Other ids are tracked by string.</p>
+ *
+ * <p>Cancelling the future of a call forgets the call and its timeout at once. A response that
+ * comes later is ignored as unknown.</p>
+ *
  * <p>The implementation is thread-safe.</p>
  */
 public class JsonRpcV1ClientImpl implements JsonRpcV1Client {
@@ -69,9 +79,12 @@ public class JsonRpcV1ClientImpl implements JsonRpcV1Client {
   private final ConcurrentMap<String, CallContext> callContexts
       = new ConcurrentHashMap<>();
 
+  private final StripedLongObjectMap<CallContext> numericCallContexts
+      = new StripedLongObjectMap<>();
+
   private final AtomicBoolean isActive = new AtomicBoolean(true);
 
-  private final ScheduledExecutorService scheduler;
+  private final JsonRpcTimer timer;
 
   /**
    * Construct a JsonRpcV1ClientImpl object. If the user calls {@link CompletableFuture#get()}  on
@@ -88,9 +101,25 @@ public class JsonRpcV1ClientImpl implements JsonRpcV1Client {
   public JsonRpcV1ClientImpl(
       JsonRpcTransporter transporter, ScheduledExecutorService scheduler,
       long maxTimeout, TimeUnit maxTimeoutUnit
+  ) {
+    this(transporter, JsonRpcTimer.fromScheduler(scheduler), maxTimeout, maxTimeoutUnit);
+  }
+
+  /**
+   * Construct a JsonRpcV1ClientImpl object that expires the calls with the given
+   * {@link JsonRpcTimer}. The same timer can be shared by many clients.
+   *
+   * @param transporter a {@link JsonRpcTransporter} used to send outgoing requests
+   * @param timer a timer used to expire the calls that are not answered within maxTimeout
+   * @param maxTimeout maximum timeout of each call
+   * @param maxTimeoutUnit the time unit of the maxTimeout parameter
+   */
+  public JsonRpcV1ClientImpl(
+      JsonRpcTransporter transporter, JsonRpcTimer timer,
+      long maxTimeout, TimeUnit maxTimeoutUnit
   ) {
     this.transporter = transporter;
-    this.scheduler = scheduler;
+    this.timer = timer;
     this.maxTimeout = maxTimeout;
     this.maxTimeoutUnit = maxTimeoutUnit;
   }
@@ -111,39 +140,85 @@ public class JsonRpcV1ClientImpl implements JsonRpcV1Client {
   public <T> CompletableFuture<T> call(
       String id, String method, Class<T> returnType, Object... params
   ) throws JsonRpcException {
+    long numericId = parseId(id);
+    if (numericId >= 0) {
+      return call(numericId, method, returnType, params);
+    }
     throwExceptionIfNotActive();
-    JsonNode request = JsonUtil.toJsonNode(new JsonRpcV1Request(id, method, params));
+    JsonRpcV1Request request = new JsonRpcV1Request(id, method, params);
 
-    CompletableFuture<T> completableFuture = new CompletableFuture<>();
-    CallContext<T> callContext = new CallContext<>(completableFuture, returnType);
+    CallContext<T> callContext = new CallContext<>(new CompletableFuture<>(), returnType);
     if (callContexts.putIfAbsent(id, callContext) != null) {
       LOGGER.error("Duplicate call id {} in request {}", id, request);
       throw new JsonRpcDuplicateIdException("Duplicate call id " + id);
     }
+    return startCall(request, callContext, () -> callContexts.remove(id));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> call(
+      long id, String method, Class<T> returnType, Object... params
+  ) throws JsonRpcException {
+    if (id < 0) {
+      return call(Long.toString(id), method, returnType, params);
+    }
+    throwExceptionIfNotActive();
+    JsonRpcV1Request request = new JsonRpcV1Request(Long.toString(id), method, params);
+
+    CallContext<T> callContext = new CallContext<>(new CompletableFuture<>(), returnType);
+    if (numericCallContexts.putIfAbsent(id, callContext) != null) {
+      LOGGER.error("Duplicate call id {} in request {}", id, request);
+      throw new JsonRpcDuplicateIdException("Duplicate call id " + id);
+    }
+    return startCall(request, callContext, () -> numericCallContexts.remove(id));
+  }
+
+  private <T> CompletableFuture<T> startCall(
+      JsonRpcV1Request request, CallContext<T> callContext, Runnable removeCallContext
+  ) throws JsonRpcTransportException {
+    String id = request.getId();
+    CompletableFuture<T> completableFuture = callContext.getCompletableFuture();
 
     // TODO: After upgrade to Java 9, change this to
     // completableFuture.orTimeout(maxTimeout, maxTimeoutUnit);
     // completableFuture.exceptionally(ex -> {
     //    if (ex instanceof TimeoutException) {
-    //        callContexts.remove(id);
+    //        removeCallContext.run();
     //    }
     //    return null;
     // });
-    ScheduledFuture timeoutFuture = scheduler.schedule(() -> {
+    JsonRpcTimer.Timeout timeout = timer.newTimeout(() -> {
       completableFuture.completeExceptionally(
           new TimeoutException("Request " + id
               + " timeout at " + Calendar.getInstance().getTime()));
-      callContexts.remove(id);
+      removeCallContext.run();
     }, maxTimeout, maxTimeoutUnit);
 
-    callContext.setTimeoutFuture(timeoutFuture);
+    callContext.setTimeout(timeout);
+    CompletableFuture<Void> writeFuture;
     try {
-      sendRequest(request);
+      writeFuture = sendRequest(request);
     } catch (JsonRpcTransportException ex) {
-      timeoutFuture.cancel(true);
-      callContexts.remove(id);
+      timeout.cancel();
+      removeCallContext.run();
       throw ex;
     }
+    completableFuture.whenComplete((result, ex) -> {
+      if (completableFuture.isCancelled()) {
+        // No one waits for the response any more, so forget the call at once
+        timeout.cancel();
+        removeCallContext.run();
+      }
+    });
+    writeFuture.whenComplete((result, ex) -> {
+      if (ex != null) {
+        // The request never made it to the peer, so there is no response to wait for
+        LOGGER.error("Failed to write request " + id, ex);
+        timeout.cancel();
+        removeCallContext.run();
+        completableFuture.completeExceptionally(new JsonRpcTransportException(ex));
+      }
+    });
 
     return completableFuture;
   }
@@ -151,42 +226,44 @@ public class JsonRpcV1ClientImpl implements JsonRpcV1Client {
   @Override
   public void notify(String method, Object... params) throws JsonRpcException {
     throwExceptionIfNotActive();
-    JsonNode request = JsonUtil.toJsonNode(new JsonRpcV1Request(null, method, params));
-    sendRequest(request);
+    JsonRpcV1Request request = new JsonRpcV1Request(null, method, params);
+    sendRequest(request).whenComplete((result, ex) -> {
+      if (ex != null) {
+        LOGGER.error("Failed to write notification " + method, ex);
+      }
+    });
   }
 
   @Override
   public void handleResponse(JsonNode responseNode) throws JsonRpcException {
     throwExceptionIfNotActive();
-    JsonRpcV1Response jsonRpcV1Response;
-    try {
-      jsonRpcV1Response = JsonUtil.treeToValue(responseNode, JsonRpcV1Response.class);
-    } catch (JsonProcessingException ex) {
+    JsonNode idNode = responseNode.get(ID);
+    JsonNode errorNode = responseNode.get(ERROR);
+    JsonNode resultNode = responseNode.get(RESULT);
+    if (!responseNode.isObject() || !isValueNode(idNode) || !isValueNode(errorNode)
+        || resultNode == null) {
       LOGGER.error("Invalid response {}. Closing the client.", responseNode);
       shutdown();
-      throw new JsonRpcInvalidResponseException("Invalid response " + responseNode, ex);
+      throw new JsonRpcInvalidResponseException("Invalid response " + responseNode);
     }
-    String id = jsonRpcV1Response.getId();
-    if (id == null) {
+    if (idNode.isNull()) {
       // Ignore response without ID
-      LOGGER.warn("Response {} doesn't have an ID. Ignore.", jsonRpcV1Response);
+      LOGGER.warn("Response {} doesn't have an ID. Ignore.", responseNode);
       return;
     }
-    CallContext callContext = callContexts.remove(id);
+    CallContext callContext = removeCallContext(idNode);
     if (callContext == null) {
       // Ignore response with unknown ID
-      LOGGER.warn("Unknown response {}", jsonRpcV1Response);
+      LOGGER.warn("Unknown response {}", responseNode);
       return;
     }
-    // Cancel the timeout future since we have received the response
-    callContext.getTimeoutFuture().cancel(true);
+    // Cancel the timeout since we have received the response
+    callContext.getTimeout().cancel();
     CompletableFuture completableFuture = callContext.getCompletableFuture();
 
-    String error = jsonRpcV1Response.getError();
-    if (error != null) {
-      completableFuture.completeExceptionally(new JsonRpcException(error));
+    if (!errorNode.isNull()) {
+      completableFuture.completeExceptionally(new JsonRpcException(errorNode.asText()));
     } else {
-      JsonNode resultNode = jsonRpcV1Response.getResult();
       Class<?> returnType = callContext.getReturnType();
       try {
         Object result = JsonUtil.treeToValue(resultNode, returnType);
@@ -205,25 +282,80 @@ public class JsonRpcV1ClientImpl implements JsonRpcV1Client {
     if (isActive.getAndSet(false)) {
       transporter.close();
 
-      callContexts.forEach((key, callContext) -> callContext.getCompletableFuture()
-          .completeExceptionally(
-              new JsonRpcConnectionClosedException("Connection for this client is closed.")
-          )
-      );
+      // Cancel the timeouts too, since the timer may be shared and outlive this client
+      callContexts.forEach((key, callContext) -> closeCall(callContext));
       callContexts.clear();
+      numericCallContexts.removeAll().forEach(this::closeCall);
       LOGGER.info("The client is shutdown.");
     }
   }
 
+  private void closeCall(CallContext<?> callContext) {
+    JsonRpcTimer.Timeout timeout = callContext.getTimeout();
+    // Null if the call is being started right now
+    if (timeout != null) {
+      timeout.cancel();
+    }
+    callContext.getCompletableFuture().completeExceptionally(
+        new JsonRpcConnectionClosedException("Connection for this client is closed."));
+  }
+
   private void throwExceptionIfNotActive() throws JsonRpcConnectionClosedException {
     if (!isActive.get()) {
       throw new JsonRpcConnectionClosedException("Connection for this client is closed.");
     }
   }
 
-  private void sendRequest(JsonNode requst) throws JsonRpcTransportException {
-    LOGGER.debug("Sending request {}", requst);
-    transporter.send(requst);
+  private CallContext removeCallContext(JsonNode idNode) {
+    if (idNode.isIntegralNumber() && idNode.canConvertToLong()) {
+      long id = idNode.longValue();
+      return id >= 0 ? numericCallContexts.remove(id) : callContexts.remove(idNode.asText());
+    }
+    String id = idNode.asText();
+    long numericId = parseId(id);
+    return numericId >= 0 ? numericCallContexts.remove(numericId) : callContexts.remove(id);
+  }
+
+  /**
+   * Parse an id that is the canonical decimal string of a non-negative long, which is what
+   * {@link Long#toString(long)} produces. This is done by hand so that a non-numeric id does not
+   * cost an exception.
+   *
+   * @param id the id to parse
+   * @return the parsed id, or -1 if the id is not such a string
+   */
+  private static long parseId(String id) {
+    if (id == null || id.isEmpty() || id.length() > 19
+        || (id.charAt(0) == '0' && id.length() > 1)) {
+      return -1;
+    }
+    long value = 0;
+    for (int i = 0; i < id.length(); i++) {
+      int digit = id.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      value = value * 10 + digit;
+      if (value < 0) {
+        // Overflow
+        return -1;
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Jackson reads a scalar JSON value or null into a {@link String} property, which is how the id
+   * and error of a response have always been read.
+   */
+  private static boolean isValueNode(JsonNode node) {
+    return node != null && (node.isValueNode() || node.isNull());
+  }
+
+  private CompletableFuture<Void> sendRequest(JsonRpcV1Request request)
+      throws JsonRpcTransportException {
+    LOGGER.debug("Sending request {}", request);
+    return transporter.sendRequest(request);
   }
 
   private static class CallContext<T> {
@@ -232,7 +364,7 @@ public class JsonRpcV1ClientImpl implements JsonRpcV1Client {
 
     private CompletableFuture<T> completableFuture = null;
 
-    private ScheduledFuture timeoutFuture = null;
+    private JsonRpcTimer.Timeout timeout = null;
 
     CallContext(CompletableFuture<T> completableFuture, Class<T> returnType) {
       this.completableFuture = completableFuture;
@@ -247,12 +379,12 @@ public class JsonRpcV1ClientImpl implements JsonRpcV1Client {
       return returnType;
     }
 
-    ScheduledFuture getTimeoutFuture() {
-      return timeoutFuture;
+    JsonRpcTimer.Timeout getTimeout() {
+      return timeout;
     }
 
-    void setTimeoutFuture(ScheduledFuture timeoutFuture) {
-      this.timeoutFuture = timeoutFuture;
+    void setTimeout(JsonRpcTimer.Timeout timeout) {
+      this.timeout = timeout;
     }
   }
 }
@@ -14,13 +14,15 @@
 
 package com.vmware.ovsdb.jsonrpc.v1.service.impl;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import static com.vmware.ovsdb.jsonrpc.v1.util.JsonRpcConstant.ID;
+import static com.vmware.ovsdb.jsonrpc.v1.util.JsonRpcConstant.METHOD;
+import static com.vmware.ovsdb.jsonrpc.v1.util.JsonRpcConstant.PARAMS;
+
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.vmware.ovsdb.jsonrpc.v1.annotation.JsonRpcServiceMethod;
 import com.vmware.ovsdb.jsonrpc.v1.exception.JsonRpcConnectionClosedException;
 import com.vmware.ovsdb.jsonrpc.v1.exception.JsonRpcException;
-import com.vmware.ovsdb.jsonrpc.v1.model.JsonRpcV1Request;
 import com.vmware.ovsdb.jsonrpc.v1.model.JsonRpcV1Response;
 import com.vmware.ovsdb.jsonrpc.v1.service.JsonRpcV1Server;
 import com.vmware.ovsdb.jsonrpc.v1.spi.JsonRpcTransporter;
@@ -29,18 +31,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.invoke.MethodHandles;
-import java.lang.reflect.Array;
-import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * An implementation of {@link JsonRpcV1Server} interface. It depends on a request handler that
  * contains methods to handle each incoming request. Only methods in the handler that are annotated
- * with {@link JsonRpcServiceMethod} will be used to handle requests.
+ * with {@link JsonRpcServiceMethod} will be used to handle requests. The methods are prepared
+ * once, when the server is created, and are called through method handles.
+ *
+ * <p>A handler method can return a {@link CompletionStage}, such as a {@link
+ * java.util.concurrent.CompletableFuture}, to finish the request later without holding the thread
+ * that handles it. The response is sent when the stage completes, with its value as the result or
+ * with the message of its exception as the error.
  *
  * <p>It depends on a {@link JsonRpcTransporter} to send the responses to the client. Whenever the
  * server receives an invalid request, the connection will be closed by {@link
@@ -56,9 +63,7 @@ public class JsonRpcV1ServerImpl implements JsonRpcV1Server {
 
   private final JsonRpcTransporter transporter;
 
-  private final Object requestHandler;
-
-  private final Map<String, Method> methods;
+  private final Map<String, JsonRpcMethod> methods;
 
   private AtomicBoolean isActive = new AtomicBoolean(true);
 
@@ -71,7 +76,6 @@ public class JsonRpcV1ServerImpl implements JsonRpcV1Server {
    */
   public JsonRpcV1ServerImpl(JsonRpcTransporter transporter, Object requestHandler) {
     this.transporter = transporter;
-    this.requestHandler = requestHandler;
     methods = createMethodMap(requestHandler);
   }
 
@@ -79,20 +83,23 @@ public class JsonRpcV1ServerImpl implements JsonRpcV1Server {
   public void handleRequest(JsonNode requestNode) throws JsonRpcException {
     throwExceptionIfNotActive();
 
-    JsonRpcV1Request request;
-    try {
-      request = JsonUtil.treeToValue(requestNode, JsonRpcV1Request.class);
-    } catch (JsonProcessingException ex) {
+    // Read the members straight from the tree, so that the params, which can be as large as a
+    // whole table update, are not copied before they are converted to the method parameters
+    JsonNode methodNode = requestNode.get(METHOD);
+    JsonNode paramsNode = requestNode.get(PARAMS);
+    JsonNode idNode = requestNode.get(ID);
+    if (!requestNode.isObject() || methodNode == null || !methodNode.isTextual()
+        || paramsNode == null || !paramsNode.isArray() || !isValueNode(idNode)) {
       LOGGER.error("Invalid request {}. Closing the server.", requestNode);
       shutdown();
       return;
     }
-    String method = request.getMethod();
-    String id = request.getId();
-    Method methodHandle = methods.get(method);
+    String method = methodNode.textValue();
+    String id = idNode.isNull() ? null : idNode.asText();
+    JsonRpcMethod jsonRpcMethod = methods.get(method);
 
-    LOGGER.debug("Handling request {} using method {}", requestNode, methodHandle);
-    if (methodHandle == null) {
+    LOGGER.debug("Handling request {} using method {}", requestNode, jsonRpcMethod);
+    if (jsonRpcMethod == null) {
       LOGGER.warn("Unknown method: {}", method);
       if (id != null) {
         sendResponse(id, null, "unknown method " + method);
@@ -102,15 +109,29 @@ public class JsonRpcV1ServerImpl implements JsonRpcV1Server {
     Object result = null;
     String error = null;
     try {
-      Object[] params = toMethodParams(request.getParams(), methodHandle);
+      Object[] params = jsonRpcMethod.toMethodParams((ArrayNode) paramsNode);
       LOGGER.debug("Calling {}({})", method, params);
-      result = methodHandle.invoke(requestHandler, params);
+      result = jsonRpcMethod.invoke(params);
     } catch (Throwable ex) {
       LOGGER.error("Invocation of methods " + method + " throws exception", ex);
       error = ex.getCause() == null
           ? ex.getMessage()
           : ex.getCause().getMessage();
     }
+    if (result instanceof CompletionStage) {
+      // The handler finishes the request later. Respond when it is done
+      ((CompletionStage<?>) result).whenComplete((asyncResult, ex) -> {
+        if (ex != null) {
+          Throwable cause = ex instanceof CompletionException && ex.getCause() != null
+              ? ex.getCause() : ex;
+          LOGGER.error("Asynchronous invocation of method " + method + " fails", cause);
+          sendAsyncResponse(id, null, cause.getMessage());
+        } else {
+          sendAsyncResponse(id, asyncResult, null);
+        }
+      });
+      return;
+    }
     // Only response to client if this is not a notification
     if (id != null) {
       LOGGER.debug("Sending response of request {}", id);
@@ -126,6 +147,23 @@ public class JsonRpcV1ServerImpl implements JsonRpcV1Server {
     }
   }
 
+  private void sendAsyncResponse(String id, Object result, String error) {
+    // Only response to client if this is not a notification
+    if (id == null) {
+      return;
+    }
+    if (!isActive.get()) {
+      LOGGER.debug("The server is shutdown. Dropping the response of request {}", id);
+      return;
+    }
+    try {
+      LOGGER.debug("Sending response of request {}", id);
+      sendResponse(id, result, error);
+    } catch (JsonRpcException ex) {
+      LOGGER.error("Failed to send the response of request " + id, ex);
+    }
+  }
+
   private void sendResponse(String id, Object result, String error) throws JsonRpcException {
     JsonRpcV1Response response = new JsonRpcV1Response(result, error, id);
     JsonNode responseNode = JsonUtil.toJsonNode(response);
@@ -133,58 +171,8 @@ public class JsonRpcV1ServerImpl implements JsonRpcV1Server {
     transporter.send(responseNode);
   }
 
-  private Object[] toMethodParams(ArrayNode paramsNode, Method method) {
-    Parameter[] parameters = method.getParameters();
-    int methodParamSize = parameters.length;
-    int actualParamSize = paramsNode.size();
-
-    Object[] actualParams = new Object[methodParamSize];
-    int lastIndex = methodParamSize - 1;
-
-    // If a methods has n params and the last one is a vararg,
-    // then the number of actual params must be in range [n-1, ...)
-    if (lastIndex >= 0 && parameters[lastIndex].isVarArgs() && actualParamSize >= lastIndex) {
-      Class<?> type = parameters[lastIndex].getType().getComponentType();
-      actualParams[lastIndex] = buildVarargParam(paramsNode, lastIndex, type);
-      // We have handled the last param, no need to handle it later
-      --methodParamSize;
-    } else if (methodParamSize != actualParamSize) {
-      throw new IllegalArgumentException(
-          "Parameters number doesn't match. Expected: "
-              + methodParamSize + ". Got: " + paramsNode.size());
-    }
-
-    for (int i = 0; i < methodParamSize; i++) {
-      JsonNode paramNode = paramsNode.get(i);
-      Class<?> type = parameters[i].getType();
-      try {
-        actualParams[i] = JsonUtil.treeToValue(paramNode, type);
-      } catch (JsonProcessingException ex) {
-        throw new IllegalArgumentException(
-              "Failed to convert param " + paramNode + " to type " + type);
-      }
-    }
-    return actualParams;
-  }
-
-  private Object buildVarargParam(
-      ArrayNode paramsNode, int start, Class<?> type
-  ) {
-    int varArgParamSize = paramsNode.size() - start;
-    Object varArgParam = Array.newInstance(type, varArgParamSize);
-
-    for (int i = 0; i < varArgParamSize; i++) {
-      JsonNode paramNode = paramsNode.get(start + i);
-      try {
-        Array.set(varArgParam, i, JsonUtil.treeToValue(paramNode, type));
-      } catch (JsonProcessingException ex) {
-        throw new IllegalArgumentException(
-            "Failed to convert param " + paramNode + " to type "
-                + type
-        );
-      }
-    }
-    return varArgParam;
+  private static boolean isValueNode(JsonNode node) {
+    return node != null && (node.isValueNode() || node.isNull());
   }
 
   private void throwExceptionIfNotActive() throws JsonRpcConnectionClosedException {
@@ -193,8 +181,8 @@ public class JsonRpcV1ServerImpl implements JsonRpcV1Server {
     }
   }
 
-  private Map<String, Method> createMethodMap(Object requestHandler) {
-    Map<String, Method> methodMap = new HashMap<>();
+  private Map<String, JsonRpcMethod> createMethodMap(Object requestHandler) {
+    Map<String, JsonRpcMethod> methodMap = new HashMap<>();
     Arrays.stream(requestHandler.getClass().getMethods())
         .filter(method -> method.getAnnotation(JsonRpcServiceMethod.class) != null)
         .forEach(method -> {
@@ -203,7 +191,7 @@ public class JsonRpcV1ServerImpl implements JsonRpcV1Server {
           rpcMethodName = rpcMethodName.isEmpty() ? method.getName() : rpcMethodName;
 
           if (!methodMap.containsKey(rpcMethodName)) {
-            methodMap.put(rpcMethodName, method);
+            methodMap.put(rpcMethodName, new JsonRpcMethod(method, requestHandler));
           } else {
             // If there are two methods with the same RPC method name, throw an exception
             throw new IllegalArgumentException(
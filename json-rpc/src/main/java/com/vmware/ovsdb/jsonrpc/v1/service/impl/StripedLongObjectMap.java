@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.jsonrpc.v1.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A thread-safe map from primitive long keys to non-null values. The keys are spread over a fixed
+ * number of stripes, each of which is an open-addressing hash table guarded by its own lock. Unlike
+ * a {@link java.util.concurrent.ConcurrentHashMap} keyed by {@link Long} or {@link String}, it does
+ * not box the keys or allocate a node per entry.
+ *
+ * @param <V> the type of the values
+ */
+class StripedLongObjectMap<V> {
+
+  private static final int STRIPE_COUNT = 16;
+
+  private static final int INITIAL_STRIPE_CAPACITY = 16;
+
+  private final Stripe<V>[] stripes;
+
+  @SuppressWarnings("unchecked")
+  StripedLongObjectMap() {
+    stripes = new Stripe[STRIPE_COUNT];
+    for (int i = 0; i < STRIPE_COUNT; i++) {
+      stripes[i] = new Stripe<>();
+    }
+  }
+
+  /**
+   * Associate the value with the key if the key is not in the map.
+   *
+   * @param key the key
+   * @param value the non-null value
+   * @return the value already associated with the key, or null if the value is put into the map
+   */
+  V putIfAbsent(long key, V value) {
+    if (value == null) {
+      throw new NullPointerException("value");
+    }
+    int hash = hash(key);
+    return stripeOf(hash).putIfAbsent(key, value, hash);
+  }
+
+  /**
+   * Remove the value associated with the key.
+   *
+   * @param key the key
+   * @return the removed value, or null if the key is not in the map
+   */
+  V remove(long key) {
+    int hash = hash(key);
+    return stripeOf(hash).remove(key, hash);
+  }
+
+  /**
+   * Remove all the values from the map.
+   *
+   * @return the removed values
+   */
+  List<V> removeAll() {
+    List<V> removed = new ArrayList<>();
+    for (Stripe<V> stripe : stripes) {
+      stripe.drainTo(removed);
+    }
+    return removed;
+  }
+
+  int size() {
+    int size = 0;
+    for (Stripe<V> stripe : stripes) {
+      size += stripe.size();
+    }
+    return size;
+  }
+
+  private Stripe<V> stripeOf(int hash) {
+    // The low bits choose the slot within a stripe, so use the high bits to choose the stripe
+    return stripes[(hash >>> 28) & (STRIPE_COUNT - 1)];
+  }
+
+  private static int hash(long key) {
+    // The finalizer of MurmurHash3, so that sequential ids spread over all stripes and slots
+    long hash = key;
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return (int) hash;
+  }
+
+  private static class Stripe<V> {
+
+    private long[] keys = new long[INITIAL_STRIPE_CAPACITY];
+
+    private Object[] values = new Object[INITIAL_STRIPE_CAPACITY];
+
+    private int size = 0;
+
+    synchronized V putIfAbsent(long key, V value, int hash) {
+      int mask = values.length - 1;
+      int index = hash & mask;
+      while (values[index] != null) {
+        if (keys[index] == key) {
+          return valueAt(index);
+        }
+        index = (index + 1) & mask;
+      }
+      keys[index] = key;
+      values[index] = value;
+      // Keep the load factor at or below 0.5 so that the probe sequences stay short
+      if (++size > values.length >>> 1) {
+        resize();
+      }
+      return null;
+    }
+
+    synchronized V remove(long key, int hash) {
+      int mask = values.length - 1;
+      int index = hash & mask;
+      while (values[index] != null) {
+        if (keys[index] == key) {
+          V value = valueAt(index);
+          removeAt(index);
+          return value;
+        }
+        index = (index + 1) & mask;
+      }
+      return null;
+    }
+
+    synchronized void drainTo(List<V> list) {
+      for (int i = 0; i < values.length; i++) {
+        if (values[i] != null) {
+          list.add(valueAt(i));
+        }
+      }
+      Arrays.fill(values, null);
+      size = 0;
+    }
+
+    synchronized int size() {
+      return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int index) {
+      return (V) values[index];
+    }
+
+    /**
+     * Remove the entry at the index and shift the following entries of the probe sequence back, so
+     * that no tombstone is needed.
+     */
+    private void removeAt(int index) {
+      int mask = values.length - 1;
+      int hole = index;
+      int next = (hole + 1) & mask;
+      while (values[next] != null) {
+        int home = hash(keys[next]) & mask;
+        // Move the entry into the hole unless its home slot lies cyclically in (hole, next]
+        boolean movable = hole <= next
+            ? home <= hole || home > next
+            : home <= hole && home > next;
+        if (movable) {
+          keys[hole] = keys[next];
+          values[hole] = values[next];
+          hole = next;
+        }
+        next = (next + 1) & mask;
+      }
+      values[hole] = null;
+      size--;
+    }
+
+    private void resize() {
+      long[] oldKeys = keys;
+      Object[] oldValues = values;
+      keys = new long[oldKeys.length << 1];
+      values = new Object[oldValues.length << 1];
+      int mask = values.length - 1;
+      for (int i = 0; i < oldValues.length; i++) {
+        if (oldValues[i] != null) {
+          int index = hash(oldKeys[i]) & mask;
+          while (values[index] != null) {
+            index = (index + 1) & mask;
+          }
+          keys[index] = oldKeys[i];
+          values[index] = oldValues[i];
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.jsonrpc.v1.spi;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A timer used by the JSON-RPC client to expire calls that are not answered in time. Every call
+ * schedules one timeout and almost all of them are cancelled when the response arrives, so an
+ * implementation should make both operations cheap. The implementation must be thread-safe.
+ */
+public interface JsonRpcTimer {
+
+  /**
+   * Schedule a task to run once after the given delay.
+   *
+   * @param task the task to run
+   * @param delay the delay before running the task
+   * @param unit the time unit of the delay
+   * @return a {@link Timeout} that can be used to cancel the task
+   */
+  Timeout newTimeout(Runnable task, long delay, TimeUnit unit);
+
+  /**
+   * Create a {@link JsonRpcTimer} that schedules the tasks on a {@link ScheduledExecutorService}.
+   *
+   * @param scheduler the scheduler to run the tasks
+   * @return a {@link JsonRpcTimer} backed by the scheduler
+   */
+  static JsonRpcTimer fromScheduler(ScheduledExecutorService scheduler) {
+    return (task, delay, unit) -> {
+      ScheduledFuture<?> scheduledFuture = scheduler.schedule(task, delay, unit);
+      return () -> scheduledFuture.cancel(false);
+    };
+  }
+
+  /**
+   * A handle of a task scheduled by {@link JsonRpcTimer#newTimeout(Runnable, long, TimeUnit)}.
+   */
+  @FunctionalInterface
+  interface Timeout {
+
+    /**
+     * Cancel the task if it has not run yet.
+     *
+     * @return true if the task is cancelled
+     */
+    boolean cancel();
+  }
+}
@@ -16,6 +16,10 @@ package com.vmware.ovsdb.jsonrpc.v1.spi;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.vmware.ovsdb.jsonrpc.v1.exception.JsonRpcTransportException;
+import com.vmware.ovsdb.jsonrpc.v1.model.JsonRpcV1Request;
+import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The underlying transport com.vmware.ovsdb.protocol for JSON-RPC. The implementation must be
@@ -31,6 +35,26 @@ public interface JsonRpcTransporter {
    */
   void send(JsonNode data) throws JsonRpcTransportException;
 
+  /**
+   * Send a JSON-RPC request to peer. The default implementation converts the request to a
+   * {@link JsonNode} and calls {@link #send(JsonNode)}. Implementations that can serialize the
+   * request directly should override this to avoid building the intermediate tree.
+   *
+   * <p>The request must be serialized before this method returns, because the caller may
+   * change its parameters afterwards. Writing the bytes may finish later, which the returned
+   * future tells.</p>
+   *
+   * @param request the request to send
+   * @return a {@link CompletableFuture} that completes when the request is written, or
+   *     completes exceptionally if the write fails
+   * @throws JsonRpcTransportException if fail to send the request
+   */
+  default CompletableFuture<Void> sendRequest(JsonRpcV1Request request)
+      throws JsonRpcTransportException {
+    send(JsonUtil.toJsonNode(request));
+    return CompletableFuture.completedFuture(null);
+  }
+
   /**
    * Close the transporter.
    */
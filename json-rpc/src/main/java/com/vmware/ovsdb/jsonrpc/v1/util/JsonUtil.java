@@ -18,9 +18,12 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
 
 /**
@@ -137,6 +140,18 @@ public class JsonUtil {
     }
   }
 
+  /**
+   * Create an {@link ObjectReader} that converts {@link JsonNode}s to objects of given class. The
+   * deserializer of the class is looked up once, so it is cheaper to convert many nodes with one
+   * reader than with {@link #treeToValue(JsonNode, Class)}.
+   *
+   * @param klass class of the objects
+   * @return an {@link ObjectReader} for the class
+   */
+  public static ObjectReader readerFor(Class<?> klass) {
+    return objectMapper.readerFor(klass);
+  }
+
   /**
    * Serialize an object to a JSON string.
    *
@@ -148,6 +163,18 @@ public class JsonUtil {
     return objectMapper.writeValueAsString(object);
   }
 
+  /**
+   * Serialize an object as JSON to an output stream. The output is written as UTF-8 bytes while
+   * the object is being serialized, so no intermediate string is created.
+   *
+   * @param outputStream the output stream to write to
+   * @param object the object to serialize
+   * @throws IOException if fail to serialize the object or write to the output stream
+   */
+  public static void serialize(OutputStream outputStream, Object object) throws IOException {
+    objectMapper.writeValue(outputStream, object);
+  }
+
   /**
    * Create an empty {@link ArrayNode}.
    *
@@ -166,4 +193,15 @@ public class JsonUtil {
   public static JsonNode readTree(String string) throws IOException {
     return objectMapper.readTree(string);
   }
+
+  /**
+   * Read a {@link JsonNode} from an input stream. The bytes are parsed as they are read, so no
+   * intermediate string is created.
+   *
+   * @param inputStream the input stream to read from
+   * @return the {@link JsonNode} object read from the input stream
+   */
+  public static JsonNode readTree(InputStream inputStream) throws IOException {
+    return objectMapper.readTree(inputStream);
+  }
 }
@@ -21,6 +21,10 @@ import com.vmware.ovsdb.jsonrpc.v1.util.JsonRpcConstant;
 import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
 public class JsonRpcV1RequestTest {
 
   private final JsonRpcV1Request request =
@@ -40,6 +44,21 @@ public class JsonRpcV1RequestTest {
     assertEquals(request, JsonUtil.deserializeNoException(jsonString, JsonRpcV1Request.class));
   }
 
+  @Test
+  public void testSerializeDeserialized() {
+    JsonRpcV1Request deserialized = JsonUtil.deserializeNoException(
+        jsonString, JsonRpcV1Request.class);
+    assertEquals(jsonString, JsonUtil.serializeNoException(deserialized));
+  }
+
+  @Test
+  public void testSerializeToOutputStream() throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    JsonUtil.serialize(outputStream, request);
+    assertEquals(jsonString, new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    assertEquals(JsonUtil.readTree(jsonString), JsonUtil.toJsonNode(request));
+  }
+
   @Test
   public void testEquals() {
     new EqualsTester()
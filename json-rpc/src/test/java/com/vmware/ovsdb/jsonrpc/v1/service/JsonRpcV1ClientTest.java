@@ -17,14 +17,19 @@ package com.vmware.ovsdb.jsonrpc.v1.service;
 import static com.vmware.ovsdb.jsonrpc.v1.util.TestUtil.getRequestNode;
 import static com.vmware.ovsdb.jsonrpc.v1.util.TestUtil.getResponseNode;
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.timeout;
@@ -39,8 +44,11 @@ import com.vmware.ovsdb.jsonrpc.v1.exception.JsonRpcDuplicateIdException;
 import com.vmware.ovsdb.jsonrpc.v1.exception.JsonRpcException;
 import com.vmware.ovsdb.jsonrpc.v1.exception.JsonRpcTransportException;
 import com.vmware.ovsdb.jsonrpc.v1.service.impl.JsonRpcV1ClientImpl;
+import com.vmware.ovsdb.jsonrpc.v1.spi.JsonRpcTimer;
 import com.vmware.ovsdb.jsonrpc.v1.spi.JsonRpcTransporter;
 import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -58,7 +66,9 @@ public class JsonRpcV1ClientTest {
 
   private static final int MAX_TIMEOUT = TIMEOUT * 2;
   private static Integer counter = 0;
-  private final JsonRpcTransporter transporter = mock(JsonRpcTransporter.class);
+  // Call the default methods so that all outgoing data goes through send(JsonNode)
+  private final JsonRpcTransporter transporter =
+      mock(JsonRpcTransporter.class, CALLS_REAL_METHODS);
   private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
   private JsonRpcV1Client jsonRpcV1Client;
 
@@ -328,6 +338,28 @@ public class JsonRpcV1ClientTest {
     jsonRpcV1Client.call(id, "method", Object.class);
   }
 
+  @Test
+  public void testWriteFailure() throws JsonRpcException, InterruptedException {
+    String id = getNextId();
+
+    CompletableFuture<Void> writeFuture = new CompletableFuture<>();
+    doReturn(writeFuture).when(transporter).sendRequest(any());
+    CompletableFuture<Object> completableFuture = jsonRpcV1Client.call(id, "method", Object.class);
+    assertFalse(completableFuture.isDone());
+
+    writeFuture.completeExceptionally(new IllegalStateException("Test exception"));
+    try {
+      completableFuture.get();
+      fail();
+    } catch (ExecutionException ex) {
+      assertTrue(ex.getCause() instanceof JsonRpcTransportException);
+    }
+    // The call is gone, so the same id can be used again
+    doNothing().when(transporter).send(any());
+    doCallRealMethod().when(transporter).sendRequest(any());
+    jsonRpcV1Client.call(id, "method", Object.class);
+  }
+
   @Test
   public void testDuplicateId() throws JsonRpcException {
     String id = "randomId";
@@ -344,6 +376,115 @@ public class JsonRpcV1ClientTest {
     fail();
   }
 
+  @Test
+  public void testNumericId() throws Exception {
+    String[] expectedResult = {"string1", "string2"};
+    long id = Long.MAX_VALUE - (++counter);
+    String method = "echo";
+
+    JsonNode request = getRequestNode(Long.toString(id), method);
+    setUpMockTransporter(
+        expectedResult, null, Long.toString(id), request, randomDelayWithinTimeout());
+
+    CompletableFuture<String[]> completableFuture =
+        jsonRpcV1Client.call(id, method, String[].class);
+    assertArrayEquals(expectedResult, completableFuture.get(TIMEOUT, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testNumericIdInResponse() throws Exception {
+    String id = getNextId();
+    doNothing().when(transporter).send(any());
+
+    CompletableFuture<String> completableFuture =
+        jsonRpcV1Client.call(id, "method", String.class);
+    // Some servers send the id back as a JSON number
+    jsonRpcV1Client.handleResponse(JsonUtil.readTree(
+        "{\"result\":\"ok\",\"error\":null,\"id\":" + id + "}"));
+    assertEquals("ok", completableFuture.get(TIMEOUT, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testNonCanonicalNumericId() throws Exception {
+    String id = "0" + getNextId();
+    doNothing().when(transporter).send(any());
+
+    CompletableFuture<String> completableFuture =
+        jsonRpcV1Client.call(id, "method", String.class);
+    // "1" is not the id "01" and must not complete the call
+    jsonRpcV1Client.handleResponse(getResponseNode(id.substring(1), "wrong", null));
+    jsonRpcV1Client.handleResponse(getResponseNode(id, "ok", null));
+    assertEquals("ok", completableFuture.get(TIMEOUT, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testDuplicateNumericId() throws JsonRpcException {
+    long id = Integer.MAX_VALUE + (long) (++counter);
+
+    doNothing().when(transporter).send(any());
+    jsonRpcV1Client.call(Long.toString(id), "method", Object.class);
+
+    try {
+      jsonRpcV1Client.call(id, "method", Object.class);
+    } catch (JsonRpcDuplicateIdException e) {
+      return;
+    }
+    fail();
+  }
+
+  @Test
+  public void testShutdownWithNumericId() throws Exception {
+    doNothing().when(transporter).send(any());
+    CompletableFuture<Object> completableFuture =
+        jsonRpcV1Client.call(++counter, "method", Object.class);
+
+    jsonRpcV1Client.shutdown();
+    try {
+      completableFuture.get(TIMEOUT, TimeUnit.SECONDS);
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof JsonRpcConnectionClosedException);
+      return;
+    }
+    fail();
+  }
+
+  @Test
+  public void testShutdownCancelsTimeouts() throws Exception {
+    List<Runnable> timeoutTasks = new ArrayList<>();
+    JsonRpcTimer timer = (task, delay, unit) -> {
+      timeoutTasks.add(task);
+      return () -> timeoutTasks.remove(task);
+    };
+    JsonRpcV1Client client = new JsonRpcV1ClientImpl(transporter, timer, MAX_TIMEOUT,
+        TimeUnit.SECONDS);
+    doNothing().when(transporter).send(any());
+    client.call(++counter, "method", Object.class);
+    client.call("non-numeric", "method", Object.class);
+    assertEquals(2, timeoutTasks.size());
+
+    client.shutdown();
+    assertTrue(timeoutTasks.isEmpty());
+  }
+
+  @Test
+  public void testCancel() throws Exception {
+    List<Runnable> timeoutTasks = new ArrayList<>();
+    JsonRpcTimer timer = (task, delay, unit) -> {
+      timeoutTasks.add(task);
+      return () -> timeoutTasks.remove(task);
+    };
+    JsonRpcV1Client client = new JsonRpcV1ClientImpl(transporter, timer, MAX_TIMEOUT,
+        TimeUnit.SECONDS);
+    doNothing().when(transporter).send(any());
+    long id = ++counter;
+    client.call(id, "method", Object.class).cancel(true);
+    assertTrue(timeoutTasks.isEmpty());
+
+    // The call is forgotten, so its id can be used again
+    client.call(id, "method", Object.class);
+    assertEquals(1, timeoutTasks.size());
+  }
+
   private void setUpMockTransporter(
       Object result, String error, String id, JsonNode request, int delay
   ) throws JsonRpcTransportException {
@@ -21,6 +21,7 @@ import static junit.framework.TestCase.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -37,6 +38,7 @@ import com.vmware.ovsdb.jsonrpc.v1.spi.JsonRpcTransporter;
 import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -179,6 +181,59 @@ public class JsonRpcV1ServerTest {
     fail();
   }
 
+  @Test
+  public void testMalformedRequest() throws Exception {
+    String[] requests = {
+        "{\"method\":\"add\",\"params\":[1,2]}",
+        "{\"method\":42,\"params\":[1,2],\"id\":\"id\"}",
+        "{\"method\":\"add\",\"params\":{},\"id\":\"id\"}",
+        "{\"method\":\"add\",\"id\":\"id\"}",
+        "{\"method\":\"add\",\"params\":[1,2],\"id\":[\"id\"]}"
+    };
+    for (String request : requests) {
+      reset(mockTransporter);
+      jsonRpcServer = new JsonRpcV1ServerImpl(mockTransporter, sillyCalculator);
+      jsonRpcServer.handleRequest(JsonUtil.readTree(request));
+      verify(mockTransporter, times(1)).close();
+      verify(mockTransporter, never()).send(any());
+    }
+  }
+
+  @Test
+  public void testAsyncResult() throws JsonRpcException {
+    String id = testName.getMethodName();
+    AsyncHandler asyncHandler = new AsyncHandler();
+    jsonRpcServer = new JsonRpcV1ServerImpl(mockTransporter, asyncHandler);
+
+    jsonRpcServer.handleRequest(getRequestNode(id, "later"));
+    verify(mockTransporter, never()).send(any());
+
+    asyncHandler.result.complete(42);
+    verify(mockTransporter, times(1)).send(getResponseNode(id, 42, null));
+  }
+
+  @Test
+  public void testAsyncError() throws JsonRpcException {
+    String id = testName.getMethodName();
+    AsyncHandler asyncHandler = new AsyncHandler();
+    jsonRpcServer = new JsonRpcV1ServerImpl(mockTransporter, asyncHandler);
+
+    jsonRpcServer.handleRequest(getRequestNode(id, "later"));
+    asyncHandler.result.completeExceptionally(new RuntimeException("Error!"));
+    verify(mockTransporter, times(1)).send(getResponseNode(id, null, "Error!"));
+  }
+
+  @Test
+  public void testAsyncResultAfterShutdown() throws JsonRpcException {
+    AsyncHandler asyncHandler = new AsyncHandler();
+    jsonRpcServer = new JsonRpcV1ServerImpl(mockTransporter, asyncHandler);
+
+    jsonRpcServer.handleRequest(getRequestNode(testName.getMethodName(), "later"));
+    jsonRpcServer.shutdown();
+    asyncHandler.result.complete(42);
+    verify(mockTransporter, never()).send(any());
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testDuplicateMethodName() {
     class ClassWithDuplicateMethodName {
@@ -218,4 +273,14 @@ public class JsonRpcV1ServerTest {
         getResponseNode(id, null, expectedError)
     );
   }
+
+  public static class AsyncHandler {
+
+    private final CompletableFuture<Integer> result = new CompletableFuture<>();
+
+    @JsonRpcServiceMethod
+    public CompletableFuture<Integer> later() {
+      return result;
+    }
+  }
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.jsonrpc.v1.service.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the bookkeeping of one call: register the call under a fresh id, then look it up and
+ * remove it by the id read from the response. Compares string ids in a {@link ConcurrentHashMap}
+ * with long ids in a {@link StripedLongObjectMap}, with a number of calls already in flight. Run
+ * the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@Threads(4)
+public class CallIdMapBenchmark {
+
+  private static final Object CALL_CONTEXT = new Object();
+
+  @Param({"100", "10000"})
+  private int inFlight;
+
+  private final AtomicLong callId = new AtomicLong();
+
+  private ConcurrentMap<String, Object> stringMap;
+
+  private StripedLongObjectMap<Object> longMap;
+
+  @Setup
+  public void setUp() {
+    stringMap = new ConcurrentHashMap<>();
+    longMap = new StripedLongObjectMap<>();
+    for (int i = 0; i < inFlight; i++) {
+      long id = callId.getAndIncrement();
+      stringMap.put(String.valueOf(id), CALL_CONTEXT);
+      longMap.putIfAbsent(id, CALL_CONTEXT);
+    }
+  }
+
+  @Benchmark
+  public Object stringIds() {
+    String id = String.valueOf(callId.getAndIncrement());
+    stringMap.putIfAbsent(id, CALL_CONTEXT);
+    // The response id is a separate string instance
+    return stringMap.remove(new String(id));
+  }
+
+  @Benchmark
+  public Object longIds() {
+    long id = callId.getAndIncrement();
+    longMap.putIfAbsent(id, CALL_CONTEXT);
+    return longMap.remove(id);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(CallIdMapBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.jsonrpc.v1.service.impl;
+
+import static com.vmware.ovsdb.jsonrpc.v1.util.JsonRpcConstant.ID;
+import static com.vmware.ovsdb.jsonrpc.v1.util.JsonRpcConstant.METHOD;
+import static com.vmware.ovsdb.jsonrpc.v1.util.JsonRpcConstant.PARAMS;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.vmware.ovsdb.jsonrpc.v1.service.domain.SillyCalculator;
+import com.vmware.ovsdb.jsonrpc.v1.spi.JsonRpcTransporter;
+import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how a server turns the params of a request into a call of a handler method, on the
+ * {@link SillyCalculator}. Compares a {@link JsonRpcMethod} with the reflective dispatch it
+ * replaces, which looks up the parameter types and converts each param with
+ * {@link JsonUtil#treeToValue(JsonNode, Class)} on every call. The server case handles a whole
+ * notification with a {@link JsonRpcV1ServerImpl}, including reading the request members from the
+ * tree. Run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ServerDispatchBenchmark {
+
+  @Param({"add", "sum", "echo"})
+  private String methodName;
+
+  private final SillyCalculator calculator = new SillyCalculator();
+
+  private ArrayNode paramsNode;
+
+  private Method method;
+
+  private JsonRpcMethod jsonRpcMethod;
+
+  private JsonNode requestNode;
+
+  private JsonRpcV1ServerImpl server;
+
+  @Setup
+  public void setUp() {
+    method = Arrays.stream(SillyCalculator.class.getMethods())
+        .filter(candidate -> candidate.getName().equals(methodName))
+        .findFirst()
+        .orElseThrow(IllegalArgumentException::new);
+    jsonRpcMethod = new JsonRpcMethod(method, calculator);
+    paramsNode = JsonUtil.createArrayNode();
+    if (methodName.equals("echo")) {
+      paramsNode.add("monitor-id").add(42).add(true);
+    } else {
+      paramsNode.add(1).add(2);
+    }
+    requestNode = JsonNodeFactory.instance.objectNode()
+        .put(METHOD, methodName)
+        .putNull(ID)
+        .set(PARAMS, paramsNode);
+    server = new JsonRpcV1ServerImpl(new JsonRpcTransporter() {
+      @Override
+      public void send(JsonNode data) {
+      }
+
+      @Override
+      public void close() {
+      }
+    }, calculator);
+  }
+
+  @Benchmark
+  public Object reflection() throws Exception {
+    return method.invoke(calculator, toMethodParams(paramsNode, method));
+  }
+
+  @Benchmark
+  public Object methodHandle() throws Exception {
+    return jsonRpcMethod.invoke(jsonRpcMethod.toMethodParams(paramsNode));
+  }
+
+  @Benchmark
+  public void server() throws Exception {
+    server.handleRequest(requestNode);
+  }
+
+  private static Object[] toMethodParams(ArrayNode paramsNode, Method method) throws Exception {
+    Parameter[] parameters = method.getParameters();
+    int methodParamSize = parameters.length;
+    Object[] actualParams = new Object[methodParamSize];
+    int lastIndex = methodParamSize - 1;
+    if (lastIndex >= 0 && parameters[lastIndex].isVarArgs()) {
+      Class<?> type = parameters[lastIndex].getType().getComponentType();
+      int varArgParamSize = paramsNode.size() - lastIndex;
+      Object varArgParam = Array.newInstance(type, varArgParamSize);
+      for (int i = 0; i < varArgParamSize; i++) {
+        Array.set(varArgParam, i, JsonUtil.treeToValue(paramsNode.get(lastIndex + i), type));
+      }
+      actualParams[lastIndex] = varArgParam;
+      --methodParamSize;
+    }
+    for (int i = 0; i < methodParamSize; i++) {
+      actualParams[i] = JsonUtil.treeToValue(paramsNode.get(i), parameters[i].getType());
+    }
+    return actualParams;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(ServerDispatchBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
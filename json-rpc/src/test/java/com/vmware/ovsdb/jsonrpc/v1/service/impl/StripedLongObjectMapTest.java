@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.jsonrpc.v1.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+
+public class StripedLongObjectMapTest {
+
+  private final StripedLongObjectMap<String> map = new StripedLongObjectMap<>();
+
+  @Test
+  public void testPutAndRemove() {
+    assertNull(map.putIfAbsent(1, "a"));
+    assertEquals("a", map.putIfAbsent(1, "b"));
+    assertNull(map.putIfAbsent(-1, "c"));
+    assertNull(map.putIfAbsent(Long.MIN_VALUE, "d"));
+    assertEquals(3, map.size());
+
+    assertEquals("a", map.remove(1));
+    assertNull(map.remove(1));
+    assertEquals("c", map.remove(-1));
+    assertEquals("d", map.remove(Long.MIN_VALUE));
+    assertEquals(0, map.size());
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testNullValue() {
+    map.putIfAbsent(1, null);
+  }
+
+  @Test
+  public void testRemoveAll() {
+    for (long i = 0; i < 1000; i++) {
+      map.putIfAbsent(i, String.valueOf(i));
+    }
+    assertEquals(1000, new HashSet<>(map.removeAll()).size());
+    assertEquals(0, map.size());
+    assertNull(map.remove(10));
+    assertNull(map.putIfAbsent(10, "10"));
+  }
+
+  /**
+   * Mix sequential and random keys with interleaved removals, so that entries get shifted back
+   * across resized and wrapped-around probe sequences, and compare with a {@link HashMap}.
+   */
+  @Test
+  public void testAgainstHashMap() {
+    Map<Long, String> expected = new HashMap<>();
+    Random random = new Random(42);
+    for (int i = 0; i < 200000; i++) {
+      long key = random.nextBoolean() ? random.nextInt(5000) : random.nextLong();
+      if (random.nextInt(3) == 0) {
+        assertEquals(expected.remove(key), map.remove(key));
+      } else {
+        String value = String.valueOf(i);
+        assertEquals(expected.putIfAbsent(key, value), map.putIfAbsent(key, value));
+      }
+    }
+    assertEquals(expected.size(), map.size());
+    for (Map.Entry<Long, String> entry : expected.entrySet()) {
+      assertEquals(entry.getValue(), map.remove(entry.getKey()));
+    }
+    assertTrue(map.removeAll().isEmpty());
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.cache;
+
+import com.vmware.ovsdb.protocol.operation.notation.Atom;
+import com.vmware.ovsdb.protocol.operation.notation.Row;
+import com.vmware.ovsdb.protocol.operation.notation.Value;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A hash index of the rows of a cached table on a set of columns. It maps the values of the
+ * columns, taken together, to the UUIDs of the rows that have them. A column that a row doesn't
+ * have counts as a null value, and a set of one element counts as the element, the same as an
+ * optional column that is decoded without a schema.
+ *
+ * <p>Only the thread that applies updates to the cache modifies the index, while it holds the
+ * write lock of the cache. The sets of UUIDs are concurrent sets that are modified in place, so
+ * adding or removing a row costs the same however many rows share its key. Readers can get them
+ * without a lock, but may see a set in the middle of an update, which the cache detects by
+ * validating its optimistic read.</p>
+ *
+ * <p>Each indexed row with a key of its own costs about 220 bytes on a 64-bit JVM with compressed
+ * pointers: a hash map node (32 bytes), the key list with its array (40 bytes plus 4 bytes per
+ * column), a concurrent set of UUIDs with its map, table and node (136 bytes) and a slot of the
+ * hash table. The column values and UUIDs are shared with the rows, not copied. Each more row that
+ * shares a key costs about 40 bytes.</p>
+ */
+class HashIndex {
+
+  // Sorted, so that the same columns always make the same key
+  private final List<String> columns;
+
+  private final ConcurrentHashMap<List<Value>, Set<UUID>> uuids = new ConcurrentHashMap<>();
+
+  HashIndex(Set<String> columns) {
+    this.columns = new ArrayList<>(new TreeSet<>(columns));
+  }
+
+  Set<String> getColumns() {
+    return new TreeSet<>(columns);
+  }
+
+  /**
+   * Get the UUIDs of the rows that have the given column values.
+   *
+   * @param columnValues the value of each indexed column. A missing column matches rows that
+   *     don't have it
+   * @return the UUIDs, which must not be modified
+   */
+  Set<UUID> get(Map<String, Value> columnValues) {
+    List<Value> key = new ArrayList<>(columns.size());
+    for (String column : columns) {
+      key.add(normalize(columnValues.get(column)));
+    }
+    return uuids.getOrDefault(key, Collections.emptySet());
+  }
+
+  /**
+   * Update the index when a row changes.
+   *
+   * @param uuid UUID of the row
+   * @param oldRow the row before the change, or null if it is inserted
+   * @param newRow the row after the change, or null if it is deleted
+   */
+  void update(UUID uuid, Row oldRow, Row newRow) {
+    List<Value> oldKey = oldRow == null ? null : getKey(oldRow);
+    List<Value> newKey = newRow == null ? null : getKey(newRow);
+    if (Objects.equals(oldKey, newKey)) {
+      return;
+    }
+    if (oldKey != null) {
+      remove(oldKey, uuid);
+    }
+    if (newKey != null) {
+      add(newKey, uuid);
+    }
+  }
+
+  private List<Value> getKey(Row row) {
+    Map<String, Value> rowColumns = row.getColumns();
+    List<Value> key = new ArrayList<>(columns.size());
+    for (String column : columns) {
+      key.add(normalize(rowColumns.get(column)));
+    }
+    return key;
+  }
+
+  private static Value normalize(Value value) {
+    if (value instanceof com.vmware.ovsdb.protocol.operation.notation.Set) {
+      Set<Atom> set = ((com.vmware.ovsdb.protocol.operation.notation.Set) value).getSet();
+      if (set.size() == 1) {
+        return set.iterator().next();
+      }
+    }
+    return value;
+  }
+
+  private void add(List<Value> key, UUID uuid) {
+    uuids.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet(1)).add(uuid);
+  }
+
+  private void remove(List<Value> key, UUID uuid) {
+    Set<UUID> current = uuids.get(key);
+    if (current != null && current.remove(uuid) && current.isEmpty()) {
+      uuids.remove(key);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " ["
+        + "columns=" + columns
+        + ", keys=" + uuids.size()
+        + "]";
+  }
+}
@@ -0,0 +1,398 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.cache;
+
+import com.vmware.ovsdb.callback.MonitorCallback;
+import com.vmware.ovsdb.exception.OvsdbClientException;
+import com.vmware.ovsdb.protocol.methods.MonitorRequest;
+import com.vmware.ovsdb.protocol.methods.MonitorRequests;
+import com.vmware.ovsdb.protocol.methods.RowUpdate;
+import com.vmware.ovsdb.protocol.methods.TableUpdate;
+import com.vmware.ovsdb.protocol.methods.TableUpdates;
+import com.vmware.ovsdb.protocol.operation.Select;
+import com.vmware.ovsdb.protocol.operation.notation.Row;
+import com.vmware.ovsdb.protocol.operation.notation.Value;
+import com.vmware.ovsdb.protocol.operation.result.SelectResult;
+import com.vmware.ovsdb.protocol.schema.DatabaseSchema;
+import com.vmware.ovsdb.protocol.schema.TableSchema;
+import com.vmware.ovsdb.service.OvsdbClient;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A client-side replica of OVSDB tables, kept up to date by a "monitor" request. Each update
+ * notification is applied as a whole: a scan never sees some of the rows of a notification
+ * applied and others not.
+ *
+ * <p>Reading a row by UUID is a lookup in a {@link ConcurrentHashMap} and never blocks. A scan of a
+ * table copies the rows optimistically and checks that no update was applied meanwhile. Only when
+ * one was does it take a read lock, which waits for the update to finish, so updates never wait
+ * for readers that do not conflict with them. The rows returned are shared by all readers and
+ * must not be modified.</p>
+ *
+ * <p>The monitor should select the initial contents, insertions, deletions and modifications,
+ * which is the default, or the cache misses the changes it does not see. Used with a
+ * {@link com.vmware.ovsdb.service.impl.ReconnectingOvsdbClient}, the cache stays up to date
+ * across reconnections, because the client reports the changes made while the connection was
+ * down as ordinary updates.</p>
+ *
+ * <p>A table can have hash indexes on sets of columns, so that finding the rows with given values
+ * in these columns doesn't scan the table. When the cache is created with a
+ * {@link DatabaseSchema}, each table gets an index for each of the "indexes" of its schema whose
+ * columns are all monitored. More indexes can be added with
+ * {@link #addIndex(String, Set)}. The indexes are updated with each notification, while the
+ * write lock is held. Each index costs about 220 bytes per row, see {@link HashIndex}.</p>
+ *
+ * <p>{@link #select(Select)} executes a select operation on the cached rows, using the indexes
+ * for "==" conditions, see {@link PreparedSelect}.</p>
+ */
+public class OvsdbTableCache {
+
+  private final OvsdbClient ovsdbClient;
+
+  private final String monitorId;
+
+  private final Map<String, ConcurrentHashMap<UUID, Row>> tables;
+
+  private final Map<String, ConcurrentHashMap<Set<String>, HashIndex>> indexes;
+
+  // Held for writing while a notification is applied
+  private final StampedLock lock = new StampedLock();
+
+  // Updates that arrived before the initial contents were applied, or null once they are.
+  // Guarded by this
+  private List<TableUpdates> pendingUpdates = new ArrayList<>();
+
+  private volatile boolean closed;
+
+  private OvsdbTableCache(
+      OvsdbClient ovsdbClient, String monitorId, MonitorRequests monitorRequests,
+      DatabaseSchema databaseSchema
+  ) {
+    this.ovsdbClient = ovsdbClient;
+    this.monitorId = monitorId;
+    tables = new HashMap<>();
+    indexes = new HashMap<>();
+    for (Map.Entry<String, MonitorRequest> entry
+        : monitorRequests.getMonitorRequests().entrySet()) {
+      String table = entry.getKey();
+      tables.put(table, new ConcurrentHashMap<>());
+      ConcurrentHashMap<Set<String>, HashIndex> tableIndexes = new ConcurrentHashMap<>();
+      indexes.put(table, tableIndexes);
+      TableSchema tableSchema = databaseSchema == null
+          ? null : databaseSchema.getTables().get(table);
+      if (tableSchema == null || tableSchema.getIndexes() == null) {
+        continue;
+      }
+      List<String> monitoredColumns = entry.getValue().getColumns();
+      for (Set<String> columns : tableSchema.getIndexes()) {
+        if (monitoredColumns == null || monitoredColumns.containsAll(columns)) {
+          tableIndexes.put(new TreeSet<>(columns), new HashIndex(columns));
+        }
+      }
+    }
+  }
+
+  /**
+   * Create an {@link OvsdbTableCache} of the tables in the monitor requests.
+   *
+   * @param ovsdbClient the client to monitor the tables with
+   * @param dbName the database name
+   * @param monitorId a unique id of the monitor
+   * @param monitorRequests the tables and columns to cache
+   * @return a {@link CompletableFuture} that completes with the cache once the initial contents
+   *     are in it
+   * @throws OvsdbClientException when the monitor request doesn't go through
+   */
+  public static CompletableFuture<OvsdbTableCache> create(
+      OvsdbClient ovsdbClient, String dbName, String monitorId, MonitorRequests monitorRequests
+  ) throws OvsdbClientException {
+    return create(ovsdbClient, dbName, monitorId, monitorRequests, null);
+  }
+
+  /**
+   * Create an {@link OvsdbTableCache} of the tables in the monitor requests, whose updates are
+   * decoded with a {@link DatabaseSchema}.
+   *
+   * @param ovsdbClient the client to monitor the tables with
+   * @param dbName the database name
+   * @param monitorId a unique id of the monitor
+   * @param monitorRequests the tables and columns to cache
+   * @param databaseSchema schema of the database, or null to decode the updates without one
+   * @return a {@link CompletableFuture} that completes with the cache once the initial contents
+   *     are in it
+   * @throws OvsdbClientException when the monitor request doesn't go through
+   */
+  public static CompletableFuture<OvsdbTableCache> create(
+      OvsdbClient ovsdbClient, String dbName, String monitorId, MonitorRequests monitorRequests,
+      DatabaseSchema databaseSchema
+  ) throws OvsdbClientException {
+    OvsdbTableCache cache = new OvsdbTableCache(
+        ovsdbClient, monitorId, monitorRequests, databaseSchema);
+    MonitorCallback monitorCallback = cache::onUpdate;
+    CompletableFuture<TableUpdates> monitorFuture = databaseSchema == null
+        ? ovsdbClient.monitor(dbName, monitorId, monitorRequests, monitorCallback)
+        : ovsdbClient.monitor(dbName, monitorId, monitorRequests, monitorCallback, databaseSchema);
+    return monitorFuture.thenApply(initialUpdates -> {
+      cache.onInitialUpdates(initialUpdates);
+      return cache;
+    });
+  }
+
+  /**
+   * Get a row by its UUID.
+   *
+   * @param table name of the table
+   * @param uuid UUID of the row
+   * @return the row, or null if the table has no row with this UUID
+   * @throws IllegalArgumentException if the table is not cached
+   */
+  public Row getRow(String table, UUID uuid) {
+    return getTable(table).get(uuid);
+  }
+
+  /**
+   * Get all the rows of a table.
+   *
+   * @param table name of the table
+   * @return an unmodifiable map of the rows by UUID, as they were after some update
+   * @throws IllegalArgumentException if the table is not cached
+   */
+  public Map<UUID, Row> getRows(String table) {
+    ConcurrentHashMap<UUID, Row> rows = getTable(table);
+    long stamp = lock.tryOptimisticRead();
+    if (stamp != 0) {
+      Map<UUID, Row> copy = new HashMap<>(rows);
+      if (lock.validate(stamp)) {
+        return Collections.unmodifiableMap(copy);
+      }
+    }
+    stamp = lock.readLock();
+    try {
+      return Collections.unmodifiableMap(new HashMap<>(rows));
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Get the rows of a table that have the given values in the columns of an index. Only the rows
+   * whose values are equal, as {@link Value} objects, to the given ones match. So the values
+   * should be of the types the rows are decoded to, see
+   * {@link OvsdbClient#monitor(String, String, MonitorRequests, MonitorCallback, DatabaseSchema)}.
+   *
+   * @param table name of the table
+   * @param columnValues the value of each column of the index. A null value matches the rows that
+   *     don't have the column
+   * @return an unmodifiable map of the matching rows by UUID, as they were after some update
+   * @throws IllegalArgumentException if the table is not cached or there is no index on exactly
+   *     these columns
+   */
+  public Map<UUID, Row> getRows(String table, Map<String, Value> columnValues) {
+    ConcurrentHashMap<UUID, Row> rows = getTable(table);
+    HashIndex index = indexes.get(table).get(columnValues.keySet());
+    if (index == null) {
+      throw new IllegalArgumentException(
+          "Table " + table + " has no index on " + columnValues.keySet());
+    }
+    long stamp = lock.tryOptimisticRead();
+    if (stamp != 0) {
+      Map<UUID, Row> result = lookup(rows, index, columnValues);
+      if (lock.validate(stamp)) {
+        return Collections.unmodifiableMap(result);
+      }
+    }
+    stamp = lock.readLock();
+    try {
+      return Collections.unmodifiableMap(lookup(rows, index, columnValues));
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Add a hash index on a set of columns of a table and build it from the rows in the cache. Does
+   * nothing if the table already has an index on these columns.
+   *
+   * @param table name of the table
+   * @param columns the columns to index
+   * @throws IllegalArgumentException if the table is not cached or the columns are empty
+   */
+  public void addIndex(String table, Set<String> columns) {
+    ConcurrentHashMap<UUID, Row> rows = getTable(table);
+    if (columns.isEmpty()) {
+      throw new IllegalArgumentException("An index must have at least one column");
+    }
+    ConcurrentHashMap<Set<String>, HashIndex> tableIndexes = indexes.get(table);
+    Set<String> key = new TreeSet<>(columns);
+    long stamp = lock.writeLock();
+    try {
+      if (tableIndexes.containsKey(key)) {
+        return;
+      }
+      HashIndex index = new HashIndex(columns);
+      rows.forEach((uuid, row) -> index.update(uuid, null, row));
+      tableIndexes.put(key, index);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Get the column sets of the indexes of a table.
+   *
+   * @param table name of the table
+   * @return the column sets
+   * @throws IllegalArgumentException if the table is not cached
+   */
+  public Set<Set<String>> getIndexes(String table) {
+    getTable(table);
+    return Collections.unmodifiableSet(indexes.get(table).keySet());
+  }
+
+  /**
+   * Compile a select operation on a cached table, to execute it locally.
+   *
+   * @param select the select operation
+   * @return the compiled operation
+   * @throws IllegalArgumentException if the table is not cached or a condition is invalid
+   */
+  public PreparedSelect prepare(Select select) {
+    getTable(select.getTable());
+    return new PreparedSelect(this, select);
+  }
+
+  /**
+   * Execute a select operation on a cached table locally. Use {@link #prepare(Select)} to
+   * execute the same operation more than once.
+   *
+   * @param select the select operation
+   * @return the selected rows, as they would be returned by the server after some update
+   * @throws IllegalArgumentException if the table is not cached or a condition is invalid
+   */
+  public SelectResult select(Select select) {
+    return prepare(select).execute();
+  }
+
+  /**
+   * Get the number of rows in a table.
+   *
+   * @param table name of the table
+   * @return the number of rows
+   * @throws IllegalArgumentException if the table is not cached
+   */
+  public int size(String table) {
+    return getTable(table).size();
+  }
+
+  public String getMonitorId() {
+    return monitorId;
+  }
+
+  /**
+   * Cancel the monitor. The cache keeps the rows it has but is no longer updated.
+   *
+   * @return a {@link CompletableFuture} that completes when the monitor is canceled
+   * @throws OvsdbClientException when the monitor_cancel request doesn't go through
+   */
+  public CompletableFuture<Void> close() throws OvsdbClientException {
+    closed = true;
+    return ovsdbClient.cancelMonitor(monitorId);
+  }
+
+  private ConcurrentHashMap<UUID, Row> getTable(String table) {
+    ConcurrentHashMap<UUID, Row> rows = tables.get(table);
+    if (rows == null) {
+      throw new IllegalArgumentException("Table " + table + " is not cached");
+    }
+    return rows;
+  }
+
+  private static Map<UUID, Row> lookup(
+      Map<UUID, Row> rows, HashIndex index, Map<String, Value> columnValues
+  ) {
+    Map<UUID, Row> result = new HashMap<>();
+    for (UUID uuid : index.get(columnValues)) {
+      Row row = rows.get(uuid);
+      if (row != null) {
+        result.put(uuid, row);
+      }
+    }
+    return result;
+  }
+
+  private synchronized void onInitialUpdates(TableUpdates initialUpdates) {
+    apply(initialUpdates);
+    List<TableUpdates> updates = pendingUpdates;
+    pendingUpdates = null;
+    updates.forEach(this::apply);
+  }
+
+  private synchronized void onUpdate(TableUpdates tableUpdates) {
+    if (pendingUpdates != null) {
+      pendingUpdates.add(tableUpdates);
+      return;
+    }
+    apply(tableUpdates);
+  }
+
+  private void apply(TableUpdates tableUpdates) {
+    if (closed) {
+      return;
+    }
+    long stamp = lock.writeLock();
+    try {
+      for (Map.Entry<String, TableUpdate> tableEntry
+          : tableUpdates.getTableUpdates().entrySet()) {
+        ConcurrentHashMap<UUID, Row> rows = tables.get(tableEntry.getKey());
+        if (rows == null) {
+          continue;
+        }
+        Collection<HashIndex> tableIndexes = indexes.get(tableEntry.getKey()).values();
+        for (Map.Entry<UUID, RowUpdate> rowEntry
+            : tableEntry.getValue().getRowUpdates().entrySet()) {
+          UUID uuid = rowEntry.getKey();
+          Row newRow = rowEntry.getValue().getNew();
+          Row oldRow = newRow == null ? rows.remove(uuid) : rows.put(uuid, newRow);
+          for (HashIndex index : tableIndexes) {
+            index.update(uuid, oldRow, newRow);
+          }
+        }
+      }
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " ["
+        + "monitorId=" + monitorId
+        + ", tables=" + tables.keySet()
+        + ", indexes=" + indexes
+        + "]";
+  }
+}
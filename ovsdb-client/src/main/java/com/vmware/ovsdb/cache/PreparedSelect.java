@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.cache;
+
+import static com.vmware.ovsdb.cache.RowPredicates.UUID_COLUMN;
+
+import com.vmware.ovsdb.protocol.operation.Select;
+import com.vmware.ovsdb.protocol.operation.notation.Atom;
+import com.vmware.ovsdb.protocol.operation.notation.Condition;
+import com.vmware.ovsdb.protocol.operation.notation.Function;
+import com.vmware.ovsdb.protocol.operation.notation.Row;
+import com.vmware.ovsdb.protocol.operation.notation.Set;
+import com.vmware.ovsdb.protocol.operation.notation.Uuid;
+import com.vmware.ovsdb.protocol.operation.notation.Value;
+import com.vmware.ovsdb.protocol.operation.result.SelectResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiPredicate;
+
+/**
+ * A select operation compiled against an {@link OvsdbTableCache}, which can be executed any number
+ * of times without a round trip to the server. Create one with
+ * {@link OvsdbTableCache#prepare(Select)}.
+ *
+ * <p>The conditions are compiled into a predicate once. If one of them is {@code _uuid == <uuid>},
+ * only that row is read. Otherwise, if the table has an index whose columns are all compared with
+ * "==" to an atom or a non-empty set, only the rows of the index key are read, using the index
+ * with the most columns. Indexes added after the operation is prepared are not used.</p>
+ *
+ * <p>The result has the same rows as a {@link SelectResult} from the server, in no particular
+ * order, as the server's are. The "_version" column is not in the cache, so a select without
+ * columns returns all the cached columns and "_uuid" but not "_version".</p>
+ */
+public class PreparedSelect {
+
+  private final OvsdbTableCache cache;
+
+  private final String table;
+
+  private final BiPredicate<UUID, Row> predicate;
+
+  private final List<String> columns;
+
+  // UUID of the only row that can match, or null
+  private final UUID uuid;
+
+  // Values of the columns of the index to look up, or null to scan the table
+  private final Map<String, Value> indexKey;
+
+  PreparedSelect(OvsdbTableCache cache, Select select) {
+    this.cache = cache;
+    this.table = select.getTable();
+    this.predicate = RowPredicates.compile(select.getWhere());
+    this.columns = select.getColumns();
+    Map<String, Value> equalities = new HashMap<>();
+    for (Condition condition : select.getWhere()) {
+      Value value = (Value) condition.getValue();
+      if (condition.getFunction() == Function.EQUALS && isIndexable(value)) {
+        equalities.putIfAbsent(condition.getColumn(), value);
+      }
+    }
+    Value uuidValue = equalities.get(UUID_COLUMN);
+    this.uuid = uuidValue instanceof Atom && ((Atom<?>) uuidValue).getValue() instanceof Uuid
+        ? ((Uuid) ((Atom<?>) uuidValue).getValue()).getUuid() : null;
+    this.indexKey = uuid == null ? getIndexKey(cache, table, equalities) : null;
+  }
+
+  /**
+   * Execute the select operation on the rows in the cache.
+   *
+   * @return the selected rows, as they were after some update
+   */
+  public SelectResult execute() {
+    Map<UUID, Row> candidates;
+    if (uuid != null) {
+      Row row = cache.getRow(table, uuid);
+      candidates = row == null ? Collections.emptyMap() : Collections.singletonMap(uuid, row);
+    } else if (indexKey != null) {
+      candidates = cache.getRows(table, indexKey);
+    } else {
+      candidates = cache.getRows(table);
+    }
+    List<Row> rows = new ArrayList<>();
+    candidates.forEach((rowUuid, row) -> {
+      if (predicate.test(rowUuid, row)) {
+        rows.add(project(rowUuid, row));
+      }
+    });
+    return new SelectResult(rows);
+  }
+
+  private static boolean isIndexable(Value value) {
+    return value instanceof Atom
+        || (value instanceof Set && !((Set) value).getSet().isEmpty());
+  }
+
+  private static Map<String, Value> getIndexKey(
+      OvsdbTableCache cache, String table, Map<String, Value> equalities
+  ) {
+    java.util.Set<String> bestIndex = null;
+    for (java.util.Set<String> index : cache.getIndexes(table)) {
+      if (equalities.keySet().containsAll(index)
+          && (bestIndex == null || index.size() > bestIndex.size())) {
+        bestIndex = index;
+      }
+    }
+    if (bestIndex == null) {
+      return null;
+    }
+    Map<String, Value> indexKey = new HashMap<>();
+    for (String column : bestIndex) {
+      indexKey.put(column, equalities.get(column));
+    }
+    return indexKey;
+  }
+
+  private Row project(UUID rowUuid, Row row) {
+    Map<String, Value> projected = new LinkedHashMap<>();
+    if (columns == null) {
+      projected.putAll(row.getColumns());
+      projected.put(UUID_COLUMN, Atom.uuid(rowUuid));
+    } else {
+      for (String column : columns) {
+        Value value = UUID_COLUMN.equals(column)
+            ? Atom.uuid(rowUuid) : row.getColumns().get(column);
+        if (value != null) {
+          projected.put(column, value);
+        }
+      }
+    }
+    return new Row(projected);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " ["
+        + "table=" + table
+        + ", columns=" + columns
+        + ", uuid=" + uuid
+        + ", indexKey=" + indexKey
+        + "]";
+  }
+}
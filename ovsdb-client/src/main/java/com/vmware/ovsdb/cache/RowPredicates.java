@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.cache;
+
+import com.vmware.ovsdb.protocol.operation.notation.Atom;
+import com.vmware.ovsdb.protocol.operation.notation.Condition;
+import com.vmware.ovsdb.protocol.operation.notation.Map;
+import com.vmware.ovsdb.protocol.operation.notation.Pair;
+import com.vmware.ovsdb.protocol.operation.notation.Row;
+import com.vmware.ovsdb.protocol.operation.notation.Set;
+import com.vmware.ovsdb.protocol.operation.notation.Value;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiPredicate;
+
+/**
+ * Compiles the "where" conditions of a select operation into a predicate on cached rows, which
+ * is evaluated the way RFC 7047 section 5.1 defines for the server.
+ *
+ * <p>Each value is turned into a collection once: an atom is a set of one element and a map is a
+ * {@link java.util.Map} of atoms, so a condition on a scalar or an optional column and one on a set
+ * column are evaluated the same way. A column that a row doesn't have is an empty set or map.
+ * The "_uuid" column is the UUID of the row.</p>
+ */
+final class RowPredicates {
+
+  static final String UUID_COLUMN = "_uuid";
+
+  private RowPredicates() {
+  }
+
+  /**
+   * Compile conditions into a predicate on a row and its UUID that is true if all the conditions
+   * are.
+   *
+   * @param conditions the conditions
+   * @return the predicate
+   * @throws IllegalArgumentException if a condition compares a column with a value that is not
+   *     an integer or a real with "&lt;", "&lt;=", "&gt;" or "&gt;="
+   */
+  static BiPredicate<UUID, Row> compile(List<Condition> conditions) {
+    BiPredicate<UUID, Row> predicate = (uuid, row) -> true;
+    for (Condition condition : conditions) {
+      predicate = predicate.and(compile(condition));
+    }
+    return predicate;
+  }
+
+  private static BiPredicate<UUID, Row> compile(Condition condition) {
+    if (condition.getConstant() != null) {
+      boolean constant = condition.getConstant();
+      return (uuid, row) -> constant;
+    }
+    String column = condition.getColumn();
+    Value value = (Value) condition.getValue();
+    boolean isMap = value instanceof Map;
+    Object expected = normalize(value, isMap);
+    switch (condition.getFunction()) {
+      case EQUALS:
+        return (uuid, row) -> expected.equals(getValue(uuid, row, column, isMap));
+      case NOT_EQUALS:
+        return (uuid, row) -> !expected.equals(getValue(uuid, row, column, isMap));
+      case INCLUDES:
+        return (uuid, row) -> includes(getValue(uuid, row, column, isMap), expected);
+      case EXCLUDES:
+        return (uuid, row) -> excludes(getValue(uuid, row, column, isMap), expected);
+      case LESS_THAN:
+      case LESS_THAN_OR_EQUALS:
+      case GREATER_THAN:
+      case GREATER_THAN_OR_EQUALS:
+        Number bound = getNumber(value);
+        if (bound == null) {
+          throw new IllegalArgumentException(
+              "Function " + condition.getFunction() + " needs an integer or a real: " + condition);
+        }
+        return (uuid, row) -> {
+          Number number = getNumber(getValue(uuid, row, column, false));
+          return number != null && matches(condition, compare(number, bound));
+        };
+      default:
+        throw new IllegalArgumentException("Unknown function " + condition.getFunction());
+    }
+  }
+
+  private static Object getValue(UUID uuid, Row row, String column, boolean isMap) {
+    if (UUID_COLUMN.equals(column)) {
+      return Collections.singleton(Atom.uuid(uuid));
+    }
+    return normalize(row.getColumns().get(column), isMap);
+  }
+
+  private static Object normalize(Object value, boolean isMap) {
+    if (value instanceof Atom) {
+      return Collections.singleton(value);
+    } else if (value instanceof Set) {
+      return ((Set) value).getSet();
+    } else if (value instanceof Map) {
+      java.util.Map<Atom, Atom> map = new HashMap<>();
+      for (Object pair : ((Map<?, ?>) value).getPairs()) {
+        map.put(((Pair<?, ?>) pair).getKey(), ((Pair<?, ?>) pair).getValue());
+      }
+      return map;
+    }
+    return isMap ? Collections.emptyMap() : Collections.emptySet();
+  }
+
+  private static boolean includes(Object actual, Object expected) {
+    if (actual instanceof java.util.Map && expected instanceof java.util.Map) {
+      return ((java.util.Map<?, ?>) actual).entrySet()
+          .containsAll(((java.util.Map<?, ?>) expected).entrySet());
+    }
+    return actual instanceof Collection && expected instanceof Collection
+        && ((Collection<?>) actual).containsAll((Collection<?>) expected);
+  }
+
+  private static boolean excludes(Object actual, Object expected) {
+    if (actual instanceof java.util.Map && expected instanceof java.util.Map) {
+      return Collections.disjoint(((java.util.Map<?, ?>) actual).entrySet(),
+          ((java.util.Map<?, ?>) expected).entrySet());
+    }
+    return actual instanceof Collection && expected instanceof Collection
+        && Collections.disjoint((Collection<?>) actual, (Collection<?>) expected);
+  }
+
+  private static Number getNumber(Object value) {
+    Object atom = value;
+    if (value instanceof Collection) {
+      Collection<?> collection = (Collection<?>) value;
+      if (collection.size() != 1) {
+        return null;
+      }
+      atom = collection.iterator().next();
+    } else if (value instanceof Set) {
+      return getNumber(((Set) value).getSet());
+    }
+    if (atom instanceof Atom && ((Atom<?>) atom).getValue() instanceof Number) {
+      return (Number) ((Atom<?>) atom).getValue();
+    }
+    return null;
+  }
+
+  private static int compare(Number number, Number bound) {
+    if (number instanceof Long && bound instanceof Long) {
+      return Long.compare(number.longValue(), bound.longValue());
+    }
+    return Double.compare(number.doubleValue(), bound.doubleValue());
+  }
+
+  private static boolean matches(Condition condition, int comparison) {
+    switch (condition.getFunction()) {
+      case LESS_THAN:
+        return comparison < 0;
+      case LESS_THAN_OR_EQUALS:
+        return comparison <= 0;
+      case GREATER_THAN:
+        return comparison > 0;
+      default:
+        return comparison >= 0;
+    }
+  }
+}
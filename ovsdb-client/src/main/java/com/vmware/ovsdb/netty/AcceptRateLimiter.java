@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.netty;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the rate at which a server channel accepts connections. It is added to the pipeline of
+ * the server channel, where each message read is a newly accepted connection.
+ *
+ * <p>Connections are never refused. Once the rate is exceeded, the limiter turns off auto-read of
+ * the server channel until the next connection is due, so the pending connections wait in the
+ * accept backlog of the kernel and are accepted at the given rate. Up to {@code burst} connections
+ * are accepted at once after a quiet period. Netty may accept a few more connections in the read
+ * loop that is running when auto-read is turned off, so the rate is approximate.</p>
+ *
+ * <p>A limiter can be shared by the server channels bound on the same port, which then share the
+ * rate.</p>
+ */
+@Sharable
+public class AcceptRateLimiter extends ChannelInboundHandlerAdapter {
+
+  private final long intervalNanos;
+
+  private final long burstNanos;
+
+  private final LongSupplier nanoClock;
+
+  // The time at which the next connection is due if connections arrive steadily at the rate
+  private final AtomicLong nextDueNanos;
+
+  /**
+   * Create an {@link AcceptRateLimiter} object.
+   *
+   * @param acceptsPerSecond the number of connections to accept per second
+   * @param burst the number of connections that can be accepted at once
+   */
+  public AcceptRateLimiter(int acceptsPerSecond, int burst) {
+    this(acceptsPerSecond, burst, System::nanoTime);
+  }
+
+  AcceptRateLimiter(int acceptsPerSecond, int burst, LongSupplier nanoClock) {
+    if (acceptsPerSecond <= 0) {
+      throw new IllegalArgumentException("acceptsPerSecond must be positive: " + acceptsPerSecond);
+    }
+    this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / acceptsPerSecond;
+    this.burstNanos = (Math.max(1, burst) - 1) * intervalNanos;
+    this.nanoClock = nanoClock;
+    this.nextDueNanos = new AtomicLong(nanoClock.getAsLong());
+  }
+
+  @Override
+  public void channelRead(ChannelHandlerContext ctx, Object msg) {
+    ctx.fireChannelRead(msg);
+    long pauseNanos = acquire();
+    if (pauseNanos > 0) {
+      Channel serverChannel = ctx.channel();
+      serverChannel.config().setAutoRead(false);
+      ctx.executor().schedule(
+          () -> serverChannel.config().setAutoRead(true), pauseNanos, TimeUnit.NANOSECONDS
+      );
+    }
+  }
+
+  /**
+   * Account for one accepted connection.
+   *
+   * @return how long in nanoseconds to wait before accepting the next connection. 0 or less means
+   *     the next connection can be accepted right away
+   */
+  long acquire() {
+    long now = nanoClock.getAsLong();
+    while (true) {
+      long due = nextDueNanos.get();
+      long nextDue = Math.max(due, now) + intervalNanos;
+      if (nextDueNanos.compareAndSet(due, nextDue)) {
+        return nextDue - now - burstNanos;
+      }
+    }
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.netty;
+
+import com.vmware.ovsdb.jsonrpc.v1.spi.JsonRpcTimer;
+import com.vmware.ovsdb.util.PropertyManager;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link JsonRpcTimer} backed by a Netty {@link HashedWheelTimer}. Scheduling and cancelling a
+ * timeout are O(1), at the cost of firing up to one tick late. All instances created by
+ * {@link #newSharedTimer(Executor)} share one wheel and its worker thread. The expired tasks are
+ * handed to an {@link Executor} so that slow completion callbacks never hold up the wheel.
+ */
+public class HashedWheelJsonRpcTimer implements JsonRpcTimer {
+
+  private static final long TICK_DURATION_MILLIS = PropertyManager
+      .getLongProperty("rpc.timeout.tick.ms", 100);
+
+  private static final int TICKS_PER_WHEEL = 512;
+
+  private final Timer timer;
+
+  private final Executor executor;
+
+  /**
+   * Create a {@link HashedWheelJsonRpcTimer} object.
+   *
+   * @param timer the Netty timer that tracks the timeouts
+   * @param executor used to run the expired tasks
+   */
+  public HashedWheelJsonRpcTimer(Timer timer, Executor executor) {
+    this.timer = timer;
+    this.executor = executor;
+  }
+
+  /**
+   * Create a {@link HashedWheelJsonRpcTimer} that uses the wheel shared by all clients.
+   *
+   * @param executor used to run the expired tasks
+   * @return a {@link HashedWheelJsonRpcTimer} object
+   */
+  public static HashedWheelJsonRpcTimer newSharedTimer(Executor executor) {
+    return new HashedWheelJsonRpcTimer(SharedTimerHolder.TIMER, executor);
+  }
+
+  @Override
+  public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+    io.netty.util.Timeout timeout = timer.newTimeout(
+        expired -> executor.execute(task), delay, unit);
+    return timeout::cancel;
+  }
+
+  private static class SharedTimerHolder {
+
+    private static final Timer TIMER = new HashedWheelTimer(
+        new DefaultThreadFactory("ovsdb-rpc-timer", true),
+        TICK_DURATION_MILLIS, TimeUnit.MILLISECONDS, TICKS_PER_WHEEL
+    );
+  }
+}
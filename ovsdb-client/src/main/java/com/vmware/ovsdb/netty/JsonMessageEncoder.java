@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.netty;
+
+import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.util.CharsetUtil;
+import io.netty.util.ReferenceCounted;
+
+import java.io.OutputStream;
+
+/**
+ * Encode outgoing messages into JSON bytes. Objects such as
+ * {@link com.vmware.ovsdb.jsonrpc.v1.model.JsonRpcV1Request} or
+ * {@link com.fasterxml.jackson.databind.JsonNode} are serialized straight into the buffer
+ * allocated by the channel, without an intermediate string. A {@link CharSequence} is
+ * taken as JSON text that is already serialized and is written as UTF-8.
+ */
+class JsonMessageEncoder extends MessageToByteEncoder<Object> {
+
+  @Override
+  public boolean acceptOutboundMessage(Object msg) {
+    // Buffers and other reference counted messages are passed through as they are
+    return !(msg instanceof ReferenceCounted);
+  }
+
+  @Override
+  protected void encode(ChannelHandlerContext ctx, Object msg, ByteBuf out) throws Exception {
+    if (msg instanceof CharSequence) {
+      out.writeCharSequence((CharSequence) msg, CharsetUtil.UTF_8);
+      return;
+    }
+    try (OutputStream outputStream = new ByteBufOutputStream(out)) {
+      JsonUtil.serialize(outputStream, msg);
+    }
+  }
+}
@@ -16,12 +16,14 @@ package com.vmware.ovsdb.netty;
 
 import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.json.JsonObjectDecoder;
 import io.netty.util.CharsetUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.InputStream;
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
 import java.util.List;
@@ -45,11 +47,15 @@ class JsonNodeDecoder extends JsonObjectDecoder {
 
     for (Object byteBuf : jsonByteBufs) {
       ByteBuf json = (ByteBuf) byteBuf;
-      String textJson = json.toString(CharsetUtil.UTF_8);
-
-      LOGGER.debug("Received message {} from channel {}", textJson, ctx.channel());
-      out.add(JsonUtil.readTree(textJson));
-      json.release();
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Received message {} from channel {}",
+            json.toString(CharsetUtil.UTF_8), ctx.channel());
+      }
+      // Parse the framed bytes directly instead of decoding them to a String first.
+      // The buffer is released when the stream is closed.
+      try (InputStream inputStream = new ByteBufInputStream(json, true)) {
+        out.add(JsonUtil.readTree(inputStream));
+      }
     }
   }
 }
@@ -25,24 +25,28 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.invoke.MethodHandles;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
 
 public class JsonRpcHandler extends ChannelInboundHandlerAdapter {
 
   private static final Logger LOGGER = LoggerFactory
       .getLogger(MethodHandles.lookup().lookupClass());
 
-  private final ExecutorService executorService;
+  // All the messages in one lane, which handles them one by one in the order they arrive
+  private static final String SINGLE_LANE = "";
 
   private final JsonRpcV1Client jsonRpcClient;
 
   private final JsonRpcV1Server jsonRpcServer;
 
-  private CompletableFuture<Void> completableFuture = CompletableFuture.completedFuture(null);
+  private final OrderedDispatcher dispatcher;
+
+  private final Function<JsonNode, String> laneResolver;
 
   /**
-   * Create a {@link JsonRpcHandler} that can handle JSON-RPC inbound messages.
+   * Create a {@link JsonRpcHandler} that can handle JSON-RPC inbound messages. The messages are
+   * handled one by one in the order they arrive.
    *
    * @param jsonRpcClient a {@link JsonRpcV1Client} used to handle JSON-RPC response
    * @param jsonRpcServer a {@link JsonRpcV1Server} used to handle JSON-RPC request
@@ -51,10 +55,30 @@ public class JsonRpcHandler extends ChannelInboundHandlerAdapter {
   public JsonRpcHandler(
       JsonRpcV1Client jsonRpcClient, JsonRpcV1Server jsonRpcServer,
       ExecutorService executorService
+  ) {
+    this(jsonRpcClient, jsonRpcServer, new OrderedDispatcher(executorService),
+        jsonNode -> SINGLE_LANE);
+  }
+
+  /**
+   * Create a {@link JsonRpcHandler} that can handle JSON-RPC inbound messages. The messages of
+   * the same lane are handled in the order they arrive. The other messages are handled in
+   * parallel.
+   *
+   * @param jsonRpcClient a {@link JsonRpcV1Client} used to handle JSON-RPC response
+   * @param jsonRpcServer a {@link JsonRpcV1Server} used to handle JSON-RPC request
+   * @param dispatcher an {@link OrderedDispatcher} used to run the handling tasks
+   * @param laneResolver gives the lane of a message, or null if the message does not need to be
+   *     ordered. It is called on the event loop
+   */
+  public JsonRpcHandler(
+      JsonRpcV1Client jsonRpcClient, JsonRpcV1Server jsonRpcServer,
+      OrderedDispatcher dispatcher, Function<JsonNode, String> laneResolver
   ) {
     this.jsonRpcClient = jsonRpcClient;
     this.jsonRpcServer = jsonRpcServer;
-    this.executorService = executorService;
+    this.dispatcher = dispatcher;
+    this.laneResolver = laneResolver;
   }
 
   @Override
@@ -83,7 +107,7 @@ public class JsonRpcHandler extends ChannelInboundHandlerAdapter {
     }
 
     if (runnable != null) {
-      completableFuture = completableFuture.thenRunAsync(runnable, executorService);
+      dispatcher.dispatch(laneResolver.apply(jsonNode), runnable);
     }
   }
 
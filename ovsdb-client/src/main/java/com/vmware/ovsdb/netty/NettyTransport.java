@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.netty;
+
+import com.vmware.ovsdb.util.PropertyManager;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollMode;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Chooses the Netty transport of the OVSDB channels. NIO is used by default. If
+ * "channel.epoll.enabled" is true and the native epoll transport is available, which is on Linux
+ * only, epoll is used instead. It falls back to NIO otherwise.
+ *
+ * <p>With epoll, the following properties apply:
+ * <ul>
+ * <li>"channel.epoll.mode": edge_triggered (default) or level_triggered</li>
+ * <li>"channel.epoll.reuse.port": whether server channels set SO_REUSEPORT, which lets several
+ * acceptor threads bind the same port</li>
+ * <li>"channel.epoll.acceptors": the number of server channels bound on a port when
+ * SO_REUSEPORT is set</li>
+ * <li>"channel.tcp.user.timeout.ms": TCP_USER_TIMEOUT of the connections. 0 keeps the system
+ * default</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Unix domain sockets are always carried by epoll, whatever transport TCP uses, so they are
+ * only available where epoll is.</p>
+ */
+public final class NettyTransport {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(
+      MethodHandles.lookup().lookupClass());
+
+  private static final boolean EPOLL_ENABLED = PropertyManager
+      .getBooleanProperty("channel.epoll.enabled", false);
+
+  private static final EpollMode EPOLL_MODE = PropertyManager
+      .getEnumProperty("channel.epoll.mode", EpollMode.EDGE_TRIGGERED);
+
+  private static final boolean REUSE_PORT = PropertyManager
+      .getBooleanProperty("channel.epoll.reuse.port", false);
+
+  private static final int ACCEPTORS = PropertyManager
+      .getIntProperty("channel.epoll.acceptors", 1);
+
+  private static final int TCP_USER_TIMEOUT_MS = PropertyManager
+      .getIntProperty("channel.tcp.user.timeout.ms", 0);
+
+  private static final boolean USE_EPOLL = EPOLL_ENABLED && isEpollAvailable();
+
+  private NettyTransport() {
+  }
+
+  /**
+   * Returns true if the epoll transport is used.
+   */
+  public static boolean isEpoll() {
+    return USE_EPOLL;
+  }
+
+  /**
+   * Create an {@link EventLoopGroup} of the chosen transport.
+   *
+   * @param threads the number of threads. 0 means the Netty default
+   * @param threadFactory the factory of the threads
+   * @return the {@link EventLoopGroup}
+   */
+  public static EventLoopGroup newEventLoopGroup(int threads, ThreadFactory threadFactory) {
+    return USE_EPOLL
+        ? new EpollEventLoopGroup(threads, threadFactory)
+        : new NioEventLoopGroup(threads, threadFactory);
+  }
+
+  /**
+   * Get the number of server channels to bind on a port. It is more than 1 only if the server
+   * channels set SO_REUSEPORT, which needs an epoll group.
+   *
+   * @param group the group of the server channels
+   * @return the number of server channels
+   */
+  public static int getAcceptorCount(EventLoopGroup group) {
+    return group instanceof EpollEventLoopGroup && REUSE_PORT ? Math.max(1, ACCEPTORS) : 1;
+  }
+
+  /**
+   * Set the channel class and the transport options of a client {@link Bootstrap}. The channel
+   * class follows the type of the group, so a group given by the caller always fits.
+   *
+   * @param bootstrap the bootstrap, whose group is already set
+   * @return the bootstrap
+   */
+  public static Bootstrap configure(Bootstrap bootstrap) {
+    if (bootstrap.config().group() instanceof EpollEventLoopGroup) {
+      bootstrap.channel(EpollSocketChannel.class)
+          .option(EpollChannelOption.EPOLL_MODE, EPOLL_MODE);
+      if (TCP_USER_TIMEOUT_MS > 0) {
+        bootstrap.option(EpollChannelOption.TCP_USER_TIMEOUT, TCP_USER_TIMEOUT_MS);
+      }
+    } else {
+      bootstrap.channel(NioSocketChannel.class);
+    }
+    return bootstrap;
+  }
+
+  /**
+   * Set the channel class and the transport options of a {@link ServerBootstrap}, for both the
+   * server channels and the accepted channels.
+   *
+   * @param serverBootstrap the server bootstrap, whose groups are already set
+   * @return the server bootstrap
+   */
+  public static ServerBootstrap configure(ServerBootstrap serverBootstrap) {
+    if (serverBootstrap.config().group() instanceof EpollEventLoopGroup) {
+      serverBootstrap.channel(EpollServerSocketChannel.class)
+          .option(EpollChannelOption.EPOLL_MODE, EPOLL_MODE)
+          .childOption(EpollChannelOption.EPOLL_MODE, EPOLL_MODE);
+      if (REUSE_PORT) {
+        serverBootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+      }
+      if (TCP_USER_TIMEOUT_MS > 0) {
+        serverBootstrap.childOption(EpollChannelOption.TCP_USER_TIMEOUT, TCP_USER_TIMEOUT_MS);
+      }
+    } else {
+      serverBootstrap.channel(NioServerSocketChannel.class);
+    }
+    return serverBootstrap;
+  }
+
+  /**
+   * Returns true if Unix domain sockets can be used.
+   */
+  public static boolean isDomainSocketAvailable() {
+    return Epoll.isAvailable();
+  }
+
+  /**
+   * Get the reason why Unix domain sockets cannot be used.
+   *
+   * @return the cause, or null if they can be used
+   */
+  public static Throwable domainSocketUnavailabilityCause() {
+    return Epoll.unavailabilityCause();
+  }
+
+  /**
+   * Create an {@link EventLoopGroup} that can run Unix domain socket channels.
+   *
+   * @param threads the number of threads. 0 means the Netty default
+   * @param threadFactory the factory of the threads
+   * @return the {@link EventLoopGroup}
+   */
+  public static EventLoopGroup newDomainSocketEventLoopGroup(
+      int threads, ThreadFactory threadFactory
+  ) {
+    return new EpollEventLoopGroup(threads, threadFactory);
+  }
+
+  /**
+   * Set the channel class and the options of a client {@link Bootstrap} for Unix domain sockets.
+   *
+   * @param bootstrap the bootstrap, whose group is already set to an epoll group
+   * @return the bootstrap
+   */
+  public static Bootstrap configureDomainSocket(Bootstrap bootstrap) {
+    return bootstrap.channel(EpollDomainSocketChannel.class)
+        .option(EpollChannelOption.EPOLL_MODE, EPOLL_MODE);
+  }
+
+  /**
+   * Set the channel class and the options of a {@link ServerBootstrap} for Unix domain sockets.
+   *
+   * @param serverBootstrap the server bootstrap, whose groups are already set to epoll groups
+   * @return the server bootstrap
+   */
+  public static ServerBootstrap configureDomainSocket(ServerBootstrap serverBootstrap) {
+    return serverBootstrap.channel(EpollServerDomainSocketChannel.class)
+        .option(EpollChannelOption.EPOLL_MODE, EPOLL_MODE)
+        .childOption(EpollChannelOption.EPOLL_MODE, EPOLL_MODE);
+  }
+
+  private static boolean isEpollAvailable() {
+    if (Epoll.isAvailable()) {
+      LOGGER.info("Using the native epoll transport");
+      return true;
+    }
+    LOGGER.warn("The native epoll transport is not available. Falling back to NIO",
+        Epoll.unavailabilityCause());
+    return false;
+  }
+}
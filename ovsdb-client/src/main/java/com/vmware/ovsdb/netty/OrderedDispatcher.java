@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.netty;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs tasks on an {@link Executor} while keeping the order only where it matters. The tasks of
+ * the same lane run one after another, in the order they are dispatched. The tasks of different
+ * lanes, and the tasks without a lane, run in parallel. A lane exists only while it has tasks, so
+ * lanes can be keyed by ids that come and go, such as monitor ids.
+ *
+ * <p>If the executor rejects a lane, its tasks stay queued and the lane runs again with the next
+ * task dispatched to it.</p>
+ */
+public class OrderedDispatcher {
+
+  private static final Logger LOGGER = LoggerFactory
+      .getLogger(MethodHandles.lookup().lookupClass());
+
+  // How many tasks a lane runs before it gives the thread back to the executor
+  private static final int MAX_TASKS_PER_RUN = 16;
+
+  private final Executor executor;
+
+  private final Map<String, Lane> lanes = new HashMap<>();
+
+  private int maxQueueDepth = 0;
+
+  /**
+   * Create an {@link OrderedDispatcher} object.
+   *
+   * @param executor the executor that runs the tasks
+   */
+  public OrderedDispatcher(Executor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Run a task after all the tasks dispatched earlier to the same lane.
+   *
+   * @param lane the lane of the task. If it is null, the task is not ordered with any other task
+   * @param task the task to run
+   */
+  public void dispatch(String lane, Runnable task) {
+    if (lane == null) {
+      executor.execute(task);
+      return;
+    }
+    Lane laneToRun;
+    synchronized (lanes) {
+      Lane existingLane = lanes.computeIfAbsent(lane, Lane::new);
+      existingLane.tasks.add(task);
+      maxQueueDepth = Math.max(maxQueueDepth, existingLane.tasks.size());
+      if (existingLane.isRunning) {
+        return;
+      }
+      existingLane.isRunning = true;
+      laneToRun = existingLane;
+    }
+    execute(laneToRun);
+  }
+
+  /**
+   * Get the number of tasks of a lane that have not finished yet, including the running one.
+   *
+   * @param lane the lane
+   * @return the queue depth of the lane, or 0 if the lane has no task
+   */
+  public int getQueueDepth(String lane) {
+    synchronized (lanes) {
+      Lane existingLane = lanes.get(lane);
+      return existingLane == null ? 0 : existingLane.tasks.size();
+    }
+  }
+
+  /**
+   * Get the queue depth of every lane that has tasks.
+   *
+   * @return a snapshot of the queue depths, keyed by lane
+   */
+  public Map<String, Integer> getQueueDepths() {
+    Map<String, Integer> queueDepths = new HashMap<>();
+    synchronized (lanes) {
+      lanes.forEach((name, lane) -> queueDepths.put(name, lane.tasks.size()));
+    }
+    return queueDepths;
+  }
+
+  /**
+   * Get the largest queue depth any lane has reached so far.
+   *
+   * @return the largest queue depth
+   */
+  public int getMaxQueueDepth() {
+    synchronized (lanes) {
+      return maxQueueDepth;
+    }
+  }
+
+  private void execute(Lane lane) {
+    try {
+      executor.execute(lane);
+    } catch (RejectedExecutionException ex) {
+      // Otherwise the lane would look running forever and no later task would ever run
+      synchronized (lanes) {
+        lane.isRunning = false;
+      }
+      LOGGER.error("Executor rejected lane " + lane.name + " with " + lane.tasks.size()
+          + " tasks queued", ex);
+    }
+  }
+
+  private class Lane implements Runnable {
+
+    private final String name;
+
+    // The head of the queue is the running task. It is removed when it finishes
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+    private boolean isRunning = false;
+
+    Lane(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public void run() {
+      Runnable task;
+      synchronized (lanes) {
+        task = tasks.peek();
+      }
+      for (int i = 0; ; i++) {
+        try {
+          task.run();
+        } catch (RuntimeException ex) {
+          // Do not let one failed task stall the rest of the lane
+          LOGGER.error("Failed to run a task of lane " + name, ex);
+        }
+        synchronized (lanes) {
+          tasks.poll();
+          task = tasks.peek();
+          if (task == null) {
+            isRunning = false;
+            lanes.remove(name);
+          }
+        }
+        if (task == null) {
+          return;
+        }
+        if (i + 1 == MAX_TASKS_PER_RUN) {
+          // Let the other lanes have the thread
+          execute(this);
+          return;
+        }
+      }
+    }
+  }
+}
@@ -17,16 +17,17 @@ package com.vmware.ovsdb.netty;
 import com.vmware.ovsdb.callback.ConnectionCallback;
 import com.vmware.ovsdb.service.OvsdbClient;
 import com.vmware.ovsdb.util.PropertyManager;
+import io.netty.channel.AdaptiveRecvByteBufAllocator;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
-import io.netty.channel.socket.SocketChannel;
-import io.netty.handler.codec.string.StringEncoder;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.handler.timeout.IdleStateHandler;
-import io.netty.util.CharsetUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,7 +37,11 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import javax.net.ssl.SSLEngine;
 
-public class OvsdbChannelInitializer extends ChannelInitializer<SocketChannel> {
+/**
+ * Sets up the pipeline of an OVSDB channel, which is either a TCP or a Unix domain socket
+ * channel.
+ */
+public class OvsdbChannelInitializer extends ChannelInitializer<Channel> {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(
       MethodHandles.lookup().lookupClass());
@@ -48,6 +53,34 @@ public class OvsdbChannelInitializer extends ChannelInitializer<SocketChannel> {
   private static long READ_IDLE_TIMEOUT = PropertyManager
       .getLongProperty(KEY_CHANNEL_READ_IDLE_TIMEOUT_SEC, DEFAULT_READ_IDLE_TIMEOUT_SEC);
 
+  private static final String KEY_CHANNEL_FLUSH_MAX_MESSAGES = "channel.flush.max.messages";
+
+  private static final int DEFAULT_FLUSH_MAX_MESSAGES = 0;
+
+  // Flush coalescing is disabled if this is 1 or less. Otherwise up to this many flushes are
+  // merged into one write to the socket
+  private static final int FLUSH_MAX_MESSAGES = PropertyManager
+      .getIntProperty(KEY_CHANNEL_FLUSH_MAX_MESSAGES, DEFAULT_FLUSH_MAX_MESSAGES);
+
+  // The channel turns unwritable when the bytes pending in the outbound buffer exceed the high
+  // water mark, which holds back new calls until they drop below the low water mark
+  private static final WriteBufferWaterMark WRITE_BUFFER_WATER_MARK = new WriteBufferWaterMark(
+      PropertyManager.getIntProperty("channel.write.buffer.low.water.mark",
+          WriteBufferWaterMark.DEFAULT.low()),
+      PropertyManager.getIntProperty("channel.write.buffer.high.water.mark",
+          WriteBufferWaterMark.DEFAULT.high())
+  );
+
+  // Each read allocates a buffer sized by the recent reads, between the minimum and the maximum.
+  // An idle channel holds no buffer, so a small initial size keeps the bursts of reads of many
+  // reconnecting channels cheap
+  private static final AdaptiveRecvByteBufAllocator RECV_BYTE_BUF_ALLOCATOR =
+      new AdaptiveRecvByteBufAllocator(
+          PropertyManager.getIntProperty("channel.recv.buffer.min", 64),
+          PropertyManager.getIntProperty("channel.recv.buffer.initial", 1024),
+          PropertyManager.getIntProperty("channel.recv.buffer.max", 65536)
+      );
+
   private final SslContext sslContext;
 
   private final ConnectionCallback connectionCallback;
@@ -78,8 +111,10 @@ public class OvsdbChannelInitializer extends ChannelInitializer<SocketChannel> {
   }
 
   @Override
-  protected void initChannel(SocketChannel ch) {
+  protected void initChannel(Channel ch) {
     LOGGER.debug("New channel created: {}", ch);
+    ch.config().setWriteBufferWaterMark(WRITE_BUFFER_WATER_MARK);
+    ch.config().setRecvByteBufAllocator(RECV_BYTE_BUF_ALLOCATOR);
 
     ChannelPipeline pipeline = ch.pipeline();
     pipeline.addLast(
@@ -96,9 +131,14 @@ public class OvsdbChannelInitializer extends ChannelInitializer<SocketChannel> {
       }
       pipeline.addLast("ssl", new SslHandler(engine));
     }
+    if (FLUSH_MAX_MESSAGES > 1) {
+      pipeline.addLast(
+          "flushConsolidation", new FlushConsolidationHandler(FLUSH_MAX_MESSAGES, true)
+      );
+    }
     pipeline.addLast("logger", new LoggingHandler(LogLevel.TRACE));
     pipeline.addLast("decoder", new JsonNodeDecoder());
-    pipeline.addLast("encoder", new StringEncoder(CharsetUtil.UTF_8));
+    pipeline.addLast("encoder", new JsonMessageEncoder());
     OvsdbConnectionHandler ovsdbConnectionHandler;
     if (isPassiveMode()) {
       ovsdbConnectionHandler = new OvsdbConnectionHandler(connectionCallback, executorService);
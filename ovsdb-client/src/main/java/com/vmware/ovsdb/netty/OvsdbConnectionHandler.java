@@ -24,14 +24,19 @@ import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
 import com.vmware.ovsdb.service.OvsdbClient;
 import com.vmware.ovsdb.service.impl.OvsdbClientImpl;
 import com.vmware.ovsdb.util.PropertyManager;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.util.CharsetUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.invoke.MethodHandles;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
@@ -47,6 +52,15 @@ class OvsdbConnectionHandler extends ChannelInboundHandlerAdapter {
 
   private static final String HEARTBEAT_PREFIX = "heartbeat-";
 
+  // An echo reply is {"result":<params>,"error":null,"id":<id>}. Only the params and the id
+  // are encoded for each reply
+  private static final byte[] ECHO_REPLY_HEAD = "{\"result\":".getBytes(CharsetUtil.UTF_8);
+
+  private static final byte[] ECHO_REPLY_MIDDLE = ",\"error\":null,\"id\":"
+      .getBytes(CharsetUtil.UTF_8);
+
+  private static final byte[] ECHO_REPLY_TAIL = "}".getBytes(CharsetUtil.UTF_8);
+
   private int heartbeatCount = 0;
 
   private int readIdleCount = 0;
@@ -111,11 +125,16 @@ class OvsdbConnectionHandler extends ChannelInboundHandlerAdapter {
   @Override
   public void channelRead(ChannelHandlerContext ctx, Object msg) {
     readIdleCount = 0;
-    // Don't send heartbeat response to user
-    if (!isHeartbeatResponse((JsonNode) msg)) {
-      ctx.fireChannelRead(msg);
-    } else {
+    JsonNode jsonNode = (JsonNode) msg;
+    if (isHeartbeatResponse(jsonNode)) {
+      // Don't send heartbeat response to user
       LOGGER.debug("Received heartbeat response {}", msg);
+    } else if (isEchoRequest(jsonNode)) {
+      // Reply right here on the event loop, so that the peer's inactivity probe never waits
+      // behind the updates that are being handled
+      replyEcho(ctx, jsonNode);
+    } else {
+      ctx.fireChannelRead(msg);
     }
   }
 
@@ -143,7 +162,7 @@ class OvsdbConnectionHandler extends ChannelInboundHandlerAdapter {
             ctx.channel());
         ctx.close();
       } else {
-        String heartbeatMsg = getHeartbeatMsg();
+        JsonRpcV1Request heartbeatMsg = getHeartbeatMsg();
         LOGGER.debug("Sending heartbeat {} to channel {}", heartbeatMsg, ctx.channel());
         ctx.writeAndFlush(heartbeatMsg);
       }
@@ -157,10 +176,36 @@ class OvsdbConnectionHandler extends ChannelInboundHandlerAdapter {
     return idNode != null && idNode.asText().startsWith(HEARTBEAT_PREFIX);
   }
 
-  private String getHeartbeatMsg() {
+  private boolean isEchoRequest(JsonNode msgNode) {
+    JsonNode methodNode = msgNode.get(JsonRpcConstant.METHOD);
+    JsonNode idNode = msgNode.get(JsonRpcConstant.ID);
+    JsonNode paramsNode = msgNode.get(JsonRpcConstant.PARAMS);
+    return methodNode != null && ECHO.equals(methodNode.asText())
+        && idNode != null && !idNode.isNull()
+        && paramsNode != null && paramsNode.isArray();
+  }
+
+  private void replyEcho(ChannelHandlerContext ctx, JsonNode echoNode) {
+    ByteBuf reply = ctx.alloc().buffer();
+    try {
+      reply.writeBytes(ECHO_REPLY_HEAD);
+      JsonUtil.serialize(
+          new ByteBufOutputStream(reply), echoNode.get(JsonRpcConstant.PARAMS));
+      reply.writeBytes(ECHO_REPLY_MIDDLE);
+      JsonUtil.serialize(new ByteBufOutputStream(reply), echoNode.get(JsonRpcConstant.ID));
+      reply.writeBytes(ECHO_REPLY_TAIL);
+    } catch (IOException ex) {
+      reply.release();
+      LOGGER.error("Failed to reply echo " + echoNode, ex);
+      return;
+    }
+    LOGGER.debug("Replying echo {} to channel {}", echoNode, ctx.channel());
+    ctx.writeAndFlush(reply);
+  }
+
+  private JsonRpcV1Request getHeartbeatMsg() {
     String id = HEARTBEAT_PREFIX + heartbeatCount++;
-    JsonRpcV1Request jsonRpcRequest = new JsonRpcV1Request(id, ECHO);
-    return JsonUtil.serializeNoException(jsonRpcRequest);
+    return new JsonRpcV1Request(id, ECHO);
   }
 
   private void notifyConnection(Channel channel) {
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.protocol.methods;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.vmware.ovsdb.protocol.operation.notation.Condition;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Representation of {@literal <monitor-cond-request>}, the request of one table in a
+ * "monitor_cond" request. It is a {@literal <monitor-request>} with an additional "where" member.
+ * The server only reports the rows that match all the conditions, so an empty or missing "where"
+ * matches all rows. To match no row, use a "where" of {@link Condition#FALSE}.
+ *
+ * <pre>
+ * {@literal <monitor-cond-request>} is an object with the following members:
+ *
+ * "columns": [{@literal <column>}*]            optional
+ * "where": [{@literal <condition>}*]           optional
+ * "select": {@literal <monitor-select>}        optional
+ * </pre>
+ *
+ * <p>In a "monitor_cond_change" request, only the "columns" and "where" members are used, and
+ * "select" must be null.</p>
+ *
+ * @see <a href=http://www.openvswitch.org/support/dist-docs/ovsdb-server.7.html>ovsdb-server(7)</a>
+ */
+public class MonitorCondRequest {
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private final List<String> columns;
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private final List<Condition> where;
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private final MonitorSelect select;
+
+  /**
+   * Create a {@link MonitorCondRequest} object with all fields being default values.
+   */
+  public MonitorCondRequest() {
+    this(null, null, null);
+  }
+
+  /**
+   * Create a {@link MonitorCondRequest} object with columns and select being default values.
+   *
+   * @param where value of the "where" field
+   */
+  public MonitorCondRequest(List<Condition> where) {
+    this(null, where, null);
+  }
+
+  /**
+   * Create a {@link MonitorCondRequest} object.
+   *
+   * @param columns value of the "columns" field
+   * @param where value of the "where" field
+   * @param select value of the "select" field
+   */
+  public MonitorCondRequest(List<String> columns, List<Condition> where, MonitorSelect select) {
+    this.columns = columns;
+    this.where = where;
+    this.select = select;
+  }
+
+  public List<String> getColumns() {
+    return columns;
+  }
+
+  public List<Condition> getWhere() {
+    return where;
+  }
+
+  public MonitorSelect getSelect() {
+    return select;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof MonitorCondRequest)) {
+      return false;
+    }
+    MonitorCondRequest that = (MonitorCondRequest) other;
+    return Objects.equals(columns, that.getColumns())
+        && Objects.equals(where, that.getWhere())
+        && Objects.equals(select, that.getSelect());
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(columns, where, select);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " ["
+        + "columns=" + columns
+        + ", where=" + where
+        + ", select=" + select
+        + "]";
+  }
+}
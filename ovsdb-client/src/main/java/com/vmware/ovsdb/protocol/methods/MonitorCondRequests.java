@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.protocol.methods;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.vmware.ovsdb.protocol.methods.serializer.MonitorCondRequestsSerializer;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The {@literal <monitor-requests>} object maps the name of the table to be monitored to an array
+ * of {@literal <monitor-request>} objects.
+ */
+@JsonSerialize(using = MonitorCondRequestsSerializer.class)
+public class MonitorCondRequests {
+
+  private final Map<String, MonitorCondRequest> monitorCondRequests;
+
+  public MonitorCondRequests(Map<String, MonitorCondRequest> monitorCondRequests) {
+    this.monitorCondRequests = monitorCondRequests;
+  }
+
+  public Map<String, MonitorCondRequest> getMonitorCondRequests() {
+    return monitorCondRequests;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof MonitorCondRequests)) {
+      return false;
+    }
+    MonitorCondRequests that = (MonitorCondRequests) other;
+    return Objects.equals(monitorCondRequests, that.getMonitorCondRequests());
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(monitorCondRequests);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " ["
+        + "monitorCondRequests=" + monitorCondRequests
+        + "]";
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.protocol.methods;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.vmware.ovsdb.protocol.methods.deserializer.MonitorCondSinceResultDeserializer;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Represent the result of monitor_cond_since operation, which is a 3-element JSON array.
+ *
+ * <pre>
+ * {@literal
+ * [<found>, <last-txn-id>, <table-updates2>]
+ * }
+ * </pre>
+ *
+ * <p>"found" is true if the server found the requested last-txn-id in its history. Then
+ * "table-updates2" holds only the changes made after that transaction. Otherwise it holds all
+ * the rows that match the conditions, as for a "monitor_cond" request. "last-txn-id" is the id
+ * of the latest transaction the server knows of, or all zeros if the database does not keep a
+ * transaction history, which is the case for a database that is not clustered.</p>
+ *
+ * @see <a href=http://www.openvswitch.org/support/dist-docs/ovsdb-server.7.html>ovsdb-server(7)</a>
+ */
+@JsonDeserialize(using = MonitorCondSinceResultDeserializer.class)
+public class MonitorCondSinceResult {
+
+  private final boolean found;
+
+  private final UUID lastTxnId;
+
+  private final TableUpdates2 tableUpdates2;
+
+  /**
+   * Create a {@link MonitorCondSinceResult} object.
+   *
+   * @param found whether the requested last-txn-id was found
+   * @param lastTxnId id of the latest transaction
+   * @param tableUpdates2 the changes since the requested transaction if found, or all the rows
+   */
+  public MonitorCondSinceResult(boolean found, UUID lastTxnId, TableUpdates2 tableUpdates2) {
+    this.found = found;
+    this.lastTxnId = lastTxnId;
+    this.tableUpdates2 = tableUpdates2;
+  }
+
+  public boolean isFound() {
+    return found;
+  }
+
+  public UUID getLastTxnId() {
+    return lastTxnId;
+  }
+
+  public TableUpdates2 getTableUpdates2() {
+    return tableUpdates2;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof MonitorCondSinceResult)) {
+      return false;
+    }
+    MonitorCondSinceResult that = (MonitorCondSinceResult) other;
+    return found == that.isFound()
+        && Objects.equals(lastTxnId, that.getLastTxnId())
+        && Objects.equals(tableUpdates2, that.getTableUpdates2());
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(found, lastTxnId, tableUpdates2);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " ["
+        + "found=" + found
+        + ", lastTxnId=" + lastTxnId
+        + ", tableUpdates2=" + tableUpdates2
+        + "]";
+  }
+}
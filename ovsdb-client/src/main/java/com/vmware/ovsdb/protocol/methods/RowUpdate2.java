@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.protocol.methods;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.vmware.ovsdb.protocol.operation.notation.Row;
+
+import java.util.Objects;
+
+/**
+ * Representation of {@literal <row-update2>}, which has exactly one of the following members.
+ *
+ * <pre>
+ * "initial": {@literal <row>}    the row is in the initial contents of the monitor
+ * "insert": {@literal <row>}     the row is inserted
+ * "delete": null                 the row is deleted
+ * "modify": {@literal <row>}     the row is modified
+ * </pre>
+ *
+ * <p>"initial" and "insert" hold all the monitored columns whose values are not the defaults.
+ * "modify" holds only the modified columns. For a scalar column, it is the new value. For a set
+ * column, it is the set of the elements that are added or removed. For a map column, it is a map
+ * of the pairs that are added or removed, and of the keys whose values change, with their new
+ * values.</p>
+ *
+ * @see <a href=http://www.openvswitch.org/support/dist-docs/ovsdb-server.7.html>ovsdb-server(7)</a>
+ */
+public class RowUpdate2 {
+
+  private Row initial;
+
+  private Row insert;
+
+  @JsonIgnore
+  private boolean delete;
+
+  private Row modify;
+
+  public RowUpdate2() {
+  }
+
+  public Row getInitial() {
+    return initial;
+  }
+
+  public RowUpdate2 setInitial(Row initial) {
+    this.initial = initial;
+    return this;
+  }
+
+  public Row getInsert() {
+    return insert;
+  }
+
+  public RowUpdate2 setInsert(Row insert) {
+    this.insert = insert;
+    return this;
+  }
+
+  public boolean isDelete() {
+    return delete;
+  }
+
+  public RowUpdate2 setDelete(boolean delete) {
+    this.delete = delete;
+    return this;
+  }
+
+  /**
+   * The value of "delete" is always null, so its presence is what marks a deletion.
+   */
+  @JsonProperty(value = "delete")
+  private void setDeleteNode(JsonNode deleteNode) {
+    this.delete = true;
+  }
+
+  public Row getModify() {
+    return modify;
+  }
+
+  public RowUpdate2 setModify(Row modify) {
+    this.modify = modify;
+    return this;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof RowUpdate2)) {
+      return false;
+    }
+    RowUpdate2 that = (RowUpdate2) other;
+    return delete == that.isDelete()
+        && Objects.equals(initial, that.getInitial())
+        && Objects.equals(insert, that.getInsert())
+        && Objects.equals(modify, that.getModify());
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(initial, insert, delete, modify);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " ["
+        + "initial=" + initial
+        + ", insert=" + insert
+        + ", delete=" + delete
+        + ", modify=" + modify
+        + "]";
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.protocol.methods;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.vmware.ovsdb.protocol.methods.deserializer.TableUpdate2Deserializer;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Representation of {@literal <table-update2>}, which maps the UUID of a row to a
+ * {@literal <row-update2>}.
+ */
+@JsonDeserialize(using = TableUpdate2Deserializer.class)
+public class TableUpdate2 {
+
+  private final Map<UUID, RowUpdate2> rowUpdates;
+
+  public TableUpdate2(Map<UUID, RowUpdate2> rowUpdates) {
+    this.rowUpdates = rowUpdates;
+  }
+
+  public Map<UUID, RowUpdate2> getRowUpdates() {
+    return rowUpdates;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof TableUpdate2)) {
+      return false;
+    }
+    TableUpdate2 that = (TableUpdate2) other;
+    return Objects.equals(rowUpdates, that.getRowUpdates());
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(rowUpdates);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " ["
+        + "rowUpdates=" + rowUpdates
+        + "]";
+  }
+}
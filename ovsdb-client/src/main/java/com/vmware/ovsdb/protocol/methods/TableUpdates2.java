@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.protocol.methods;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.vmware.ovsdb.protocol.methods.deserializer.TableUpdates2Deserializer;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Representation of {@literal <table-updates2>}, the result of "monitor_cond" and the content of
+ * "update2" notifications. It maps the name of a table to a {@literal <table-update2>}.
+ *
+ * @see <a href=http://www.openvswitch.org/support/dist-docs/ovsdb-server.7.html>ovsdb-server(7)</a>
+ */
+@JsonDeserialize(using = TableUpdates2Deserializer.class)
+public class TableUpdates2 {
+
+  private final Map<String, TableUpdate2> tableUpdates;
+
+  public TableUpdates2(Map<String, TableUpdate2> tableUpdates) {
+    this.tableUpdates = tableUpdates;
+  }
+
+  public Map<String, TableUpdate2> getTableUpdates() {
+    return tableUpdates;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof TableUpdates2)) {
+      return false;
+    }
+    TableUpdates2 that = (TableUpdates2) other;
+    return Objects.equals(tableUpdates, that.getTableUpdates());
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(tableUpdates);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " ["
+        + "tableUpdates=" + tableUpdates
+        + "]";
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.protocol.methods.deserializer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
+import com.vmware.ovsdb.protocol.methods.MonitorCondSinceResult;
+import com.vmware.ovsdb.protocol.methods.TableUpdates2;
+
+import java.io.IOException;
+import java.util.UUID;
+
+public class MonitorCondSinceResultDeserializer
+    extends StdDeserializer<MonitorCondSinceResult> {
+
+  protected MonitorCondSinceResultDeserializer() {
+    this(null);
+  }
+
+  protected MonitorCondSinceResultDeserializer(Class<?> vc) {
+    super(vc);
+  }
+
+  @Override
+  public MonitorCondSinceResult deserialize(
+      JsonParser jp, DeserializationContext ctxt
+  ) throws IOException {
+    JsonNode jsonNode = jp.getCodec().readTree(jp);
+    if (!jsonNode.isArray() || jsonNode.size() != 3) {
+      throw new IOException(
+          "monitor_cond_since result should be a 3-element JSON array. Found " + jsonNode);
+    }
+    boolean found = jsonNode.get(0).asBoolean();
+    UUID lastTxnId = UUID.fromString(jsonNode.get(1).asText());
+    TableUpdates2 tableUpdates2 = JsonUtil.treeToValue(jsonNode.get(2), TableUpdates2.class);
+    return new MonitorCondSinceResult(found, lastTxnId, tableUpdates2);
+  }
+}
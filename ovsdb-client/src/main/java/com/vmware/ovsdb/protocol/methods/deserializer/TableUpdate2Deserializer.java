@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.protocol.methods.deserializer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.vmware.ovsdb.protocol.methods.RowUpdate2;
+import com.vmware.ovsdb.protocol.methods.TableUpdate2;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+
+public class TableUpdate2Deserializer extends StdDeserializer<TableUpdate2> {
+
+  protected TableUpdate2Deserializer() {
+    this(null);
+  }
+
+  protected TableUpdate2Deserializer(Class<?> vc) {
+    super(vc);
+  }
+
+  @Override
+  public TableUpdate2 deserialize(
+      JsonParser jp, DeserializationContext ctxt
+  ) throws IOException {
+    TypeReference<Map<UUID, RowUpdate2>> typeRef = new TypeReference<Map<UUID, RowUpdate2>>() {};
+    Map<UUID, RowUpdate2> rowUpdates = jp.readValueAs(typeRef);
+    return new TableUpdate2(rowUpdates);
+  }
+}
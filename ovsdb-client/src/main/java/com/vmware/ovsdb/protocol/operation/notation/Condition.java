@@ -14,9 +14,10 @@
 
 package com.vmware.ovsdb.protocol.operation.notation;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.vmware.ovsdb.protocol.operation.notation.deserializer.ConditionDeserializer;
+import com.vmware.ovsdb.protocol.operation.notation.serializer.ConditionSerializer;
 
 import java.util.Objects;
 
@@ -75,17 +76,34 @@ import java.util.Objects;
  *     maximum number of elements specified by the column's type.
  * }
  * </pre>
+ *
+ * <p>A {@literal <condition>} may also be the JSON boolean true or false, whose test is true or
+ * false for every row. ovsdb-server(7) defines them for the "where" of "monitor_cond" and
+ * "monitor_cond_change", for example to monitor no row of a table. They are {@link #TRUE} and
+ * {@link #FALSE}.</p>
  */
-@JsonFormat(shape = JsonFormat.Shape.ARRAY)
+@JsonSerialize(using = ConditionSerializer.class)
 @JsonDeserialize(using = ConditionDeserializer.class)
 public class Condition {
 
+  /**
+   * The condition that is true for every row.
+   */
+  public static final Condition TRUE = new Condition(true);
+
+  /**
+   * The condition that is false for every row.
+   */
+  public static final Condition FALSE = new Condition(false);
+
   private final String column;
 
   private final Function function;
 
   private final Value value;
 
+  private final Boolean constant;
+
   /**
    * Create a {@link Condition} object.
    *
@@ -97,6 +115,14 @@ public class Condition {
     this.column = column;
     this.function = function;
     this.value = value;
+    this.constant = null;
+  }
+
+  private Condition(boolean constant) {
+    this.column = null;
+    this.function = null;
+    this.value = null;
+    this.constant = constant;
   }
 
   public String getColumn() {
@@ -111,6 +137,15 @@ public class Condition {
     return value;
   }
 
+  /**
+   * Get the value of a constant condition.
+   *
+   * @return true or false for {@link #TRUE} or {@link #FALSE}, or null for a test on a column
+   */
+  public Boolean getConstant() {
+    return constant;
+  }
+
   @Override
   public boolean equals(Object other) {
     if (this == other) {
@@ -122,16 +157,20 @@ public class Condition {
     Condition condition = (Condition) other;
     return Objects.equals(column, condition.getColumn())
         && function == condition.getFunction()
-        && Objects.equals(value, condition.getValue());
+        && Objects.equals(value, condition.getValue())
+        && Objects.equals(constant, condition.getConstant());
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(column, function, value);
+    return Objects.hash(column, function, value, constant);
   }
 
   @Override
   public String toString() {
+    if (constant != null) {
+      return getClass().getSimpleName() + " [" + constant + "]";
+    }
     return getClass().getSimpleName() + " ["
         + "column=" + column
         + ", function=" + function
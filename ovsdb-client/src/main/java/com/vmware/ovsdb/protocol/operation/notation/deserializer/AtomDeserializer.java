@@ -14,14 +14,15 @@
 
 package com.vmware.ovsdb.protocol.operation.notation.deserializer;
 
+import static com.vmware.ovsdb.protocol.operation.notation.deserializer.NamedUuidDeserializer.toNamedUuid;
+import static com.vmware.ovsdb.protocol.operation.notation.deserializer.UuidDeserializer.toUuid;
+
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
-import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
 import com.vmware.ovsdb.protocol.operation.notation.Atom;
-import com.vmware.ovsdb.protocol.operation.notation.NamedUuid;
-import com.vmware.ovsdb.protocol.operation.notation.Uuid;
+import com.vmware.ovsdb.protocol.util.OvsdbConstant;
 
 import java.io.IOException;
 
@@ -39,7 +40,10 @@ public class AtomDeserializer extends StdDeserializer<Atom> {
   public Atom deserialize(
       JsonParser jp, DeserializationContext ctxt
   ) throws IOException {
-    JsonNode jsonNode = jp.getCodec().readTree(jp);
+    return toAtom(jp.getCodec().readTree(jp));
+  }
+
+  static Atom toAtom(JsonNode jsonNode) throws IOException {
     if (jsonNode.isTextual()) {
       // <string>
       return Atom.string(jsonNode.asText());
@@ -52,17 +56,13 @@ public class AtomDeserializer extends StdDeserializer<Atom> {
     } else if (jsonNode.isBoolean()) {
       // <boolean>
       return Atom.bool(jsonNode.asBoolean());
-    } else if (jsonNode.isArray()) {
-      // <uuid>
-      Uuid uuid = JsonUtil.treeToValueNoException(jsonNode, Uuid.class);
-      if (uuid != null) {
-        return Atom.uuid(uuid);
-      }
-      // <named-uuid>
-      NamedUuid namedUuid = JsonUtil.treeToValueNoException(jsonNode, NamedUuid.class);
-      if (namedUuid != null) {
-        return Atom.namedUuid(namedUuid);
-      }
+    }
+    // <uuid> or <named-uuid>, decided by the tag in the first element
+    String tag = DeserializerUtil.getArrayTag(jsonNode);
+    if (OvsdbConstant.UUID.equals(tag)) {
+      return Atom.uuid(toUuid(jsonNode));
+    } else if (OvsdbConstant.NAMED_UUID.equals(tag)) {
+      return Atom.namedUuid(toNamedUuid(jsonNode));
     }
     throw new IOException(jsonNode + " is not a valid <atom>");
   }
@@ -16,8 +16,8 @@ package com.vmware.ovsdb.protocol.operation.notation.deserializer;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
 import com.vmware.ovsdb.protocol.operation.notation.Condition;
 import com.vmware.ovsdb.protocol.operation.notation.Function;
@@ -39,8 +39,11 @@ public class ConditionDeserializer extends StdDeserializer<Condition> {
   public Condition deserialize(
       JsonParser jp, DeserializationContext ctxt
   ) throws IOException {
-    ArrayNode arrayNode = jp.getCodec().readTree(jp);
-    if (arrayNode.size() != 3) {
+    JsonNode arrayNode = jp.getCodec().readTree(jp);
+    if (arrayNode.isBoolean()) {
+      return arrayNode.booleanValue() ? Condition.TRUE : Condition.FALSE;
+    }
+    if (!arrayNode.isArray() || arrayNode.size() != 3) {
       throw new IOException(
           "<condition> should be a 3-element JSON array. Found "
               + arrayNode.size() + " elements");
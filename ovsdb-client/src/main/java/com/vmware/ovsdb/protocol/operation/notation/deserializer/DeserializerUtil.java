@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.protocol.operation.notation.deserializer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Helpers shared by the notation deserializers.
+ */
+class DeserializerUtil {
+
+  private DeserializerUtil() {
+  }
+
+  /**
+   * Get the tag of a tagged 2-element JSON array such as {@literal ["set", [...]]}. The tag is used
+   * to tell {@literal <uuid>}, {@literal <named-uuid>}, {@literal <set>} and {@literal <map>} apart
+   * without trying each of them in turn.
+   *
+   * @param jsonNode the node to inspect
+   * @return the tag, or null if the node is not a 2-element array starting with a string
+   */
+  static String getArrayTag(JsonNode jsonNode) {
+    if (jsonNode.isArray() && jsonNode.size() == 2 && jsonNode.get(0).isTextual()) {
+      return jsonNode.get(0).asText();
+    }
+    return null;
+  }
+}
@@ -14,17 +14,18 @@
 
 package com.vmware.ovsdb.protocol.operation.notation.deserializer;
 
+import static com.vmware.ovsdb.protocol.operation.notation.deserializer.PairDeserializer.toPair;
+
 import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
 import com.vmware.ovsdb.protocol.operation.notation.Map;
 import com.vmware.ovsdb.protocol.operation.notation.Pair;
 import com.vmware.ovsdb.protocol.util.OvsdbConstant;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 public class MapDeserializer<K, V> extends StdDeserializer<Map<K, V>> {
@@ -41,22 +42,27 @@ public class MapDeserializer<K, V> extends StdDeserializer<Map<K, V>> {
   public Map<K, V> deserialize(
       JsonParser jp, DeserializationContext ctxt
   ) throws IOException {
-    ArrayNode arrayNode = jp.getCodec().readTree(jp);
-    if (arrayNode.size() != 2) {
+    return toMap(jp.getCodec().readTree(jp));
+  }
+
+  static <K, V> Map<K, V> toMap(JsonNode jsonNode) throws IOException {
+    if (jsonNode.size() != 2) {
       throw new IOException(
           "<map> should be a 2-element JSON array. Found "
-              + arrayNode.size() + " elements");
+              + jsonNode.size() + " elements");
     }
 
-    if (!OvsdbConstant.MAP.equals(arrayNode.get(0).asText())) {
+    if (!OvsdbConstant.MAP.equals(jsonNode.get(0).asText())) {
       throw new IOException(
           "First element of <map> should be \"" + OvsdbConstant.MAP
               + "\"");
     }
 
-    List<Pair<K, V>> pairs = JsonUtil.treeToValueNoException(
-        arrayNode.get(1), new TypeReference<List<Pair<K, V>>>() {}
-    );
+    JsonNode pairNodes = jsonNode.get(1);
+    List<Pair<K, V>> pairs = new ArrayList<>(pairNodes.size());
+    for (JsonNode pairNode : pairNodes) {
+      pairs.add(toPair(pairNode));
+    }
     return new Map<>(pairs);
   }
 }
@@ -16,8 +16,8 @@ package com.vmware.ovsdb.protocol.operation.notation.deserializer;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.vmware.ovsdb.protocol.operation.notation.NamedUuid;
 import com.vmware.ovsdb.protocol.util.OvsdbConstant;
 
@@ -37,20 +37,23 @@ public class NamedUuidDeserializer extends StdDeserializer<NamedUuid> {
   public NamedUuid deserialize(
       JsonParser jp, DeserializationContext ctxt
   ) throws IOException {
-    ArrayNode arrayNode = jp.getCodec().readTree(jp);
-    if (arrayNode.size() != 2) {
+    return toNamedUuid(jp.getCodec().readTree(jp));
+  }
+
+  static NamedUuid toNamedUuid(JsonNode jsonNode) throws IOException {
+    if (jsonNode.size() != 2) {
       throw new IOException(
           "<named-uuid> should be a 2-element JSON array. Found "
-              + arrayNode.size() + " elements");
+              + jsonNode.size() + " elements");
     }
 
-    if (!OvsdbConstant.NAMED_UUID.equals(arrayNode.get(0).asText())) {
+    if (!OvsdbConstant.NAMED_UUID.equals(jsonNode.get(0).asText())) {
       throw new IOException(
           "First element of <named-uuid> should be \""
               + OvsdbConstant.NAMED_UUID + "\"");
     }
 
-    String uuidName = arrayNode.get(1).asText();
+    String uuidName = jsonNode.get(1).asText();
     return new NamedUuid(uuidName);
   }
 }
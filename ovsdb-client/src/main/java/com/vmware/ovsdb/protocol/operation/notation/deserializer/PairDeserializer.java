@@ -14,12 +14,12 @@
 
 package com.vmware.ovsdb.protocol.operation.notation.deserializer;
 
+import static com.vmware.ovsdb.protocol.operation.notation.deserializer.AtomDeserializer.toAtom;
+
 import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
 import com.vmware.ovsdb.protocol.operation.notation.Atom;
 import com.vmware.ovsdb.protocol.operation.notation.Pair;
 
@@ -39,21 +39,19 @@ public class PairDeserializer<K, V> extends StdDeserializer<Pair<K, V>> {
   public Pair<K, V> deserialize(
       JsonParser jp, DeserializationContext ctxt
   ) throws IOException {
-    ArrayNode arrayNode = jp.getCodec().readTree(jp);
-    if (arrayNode.size() != 2) {
+    return toPair(jp.getCodec().readTree(jp));
+  }
+
+  @SuppressWarnings("unchecked")
+  static <K, V> Pair<K, V> toPair(JsonNode jsonNode) throws IOException {
+    if (jsonNode.size() != 2) {
       throw new IOException(
           "<pair> should be a 2-element JSON array. Found "
-              + arrayNode.size() + " elements");
+              + jsonNode.size() + " elements");
     }
 
-    Atom<K> key = JsonUtil.treeToValueNoException(
-        arrayNode.get(0),
-        new TypeReference<Atom<K>>() {}
-    );
-    Atom<V> value = JsonUtil.treeToValueNoException(
-        arrayNode.get(1),
-        new TypeReference<Atom<V>>() {}
-    );
+    Atom<K> key = toAtom(jsonNode.get(0));
+    Atom<V> value = toAtom(jsonNode.get(1));
     return new Pair<>(key, value);
   }
 }
@@ -14,18 +14,18 @@
 
 package com.vmware.ovsdb.protocol.operation.notation.deserializer;
 
+import static com.vmware.ovsdb.protocol.operation.notation.deserializer.AtomDeserializer.toAtom;
+
 import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
 import com.vmware.ovsdb.protocol.operation.notation.Atom;
 import com.vmware.ovsdb.protocol.operation.notation.Set;
 import com.vmware.ovsdb.protocol.util.OvsdbConstant;
 
 import java.io.IOException;
+import java.util.HashSet;
 
 public class SetDeserializer extends StdDeserializer<Set> {
 
@@ -41,33 +41,36 @@ public class SetDeserializer extends StdDeserializer<Set> {
   public Set deserialize(
       JsonParser jp, DeserializationContext ctxt
   ) throws IOException {
-    JsonNode jsonNode = jp.getCodec().readTree(jp);
+    return toSet(jp.getCodec().readTree(jp));
+  }
+
+  static Set toSet(JsonNode jsonNode) throws IOException {
     // An <atom> that represents a set with exactly one element
     if (jsonNode.isValueNode()) {
-      JsonUtil.treeToValue(jsonNode, Atom.class);
-      return Set.of(JsonUtil.treeToValue(jsonNode, Atom.class));
+      return Set.of(toAtom(jsonNode));
     }
-    ArrayNode arrayNode = (ArrayNode) jsonNode;
-    if (arrayNode.size() != 2) {
+    if (jsonNode.size() != 2) {
       throw new IOException(
           "<set> should be a 2-element JSON array. Found "
-              + arrayNode.size() + " elements");
+              + jsonNode.size() + " elements");
     }
 
-    if (!OvsdbConstant.SET.equals(arrayNode.get(0).asText())) {
+    String tag = jsonNode.get(0).asText();
+    if (!OvsdbConstant.SET.equals(tag)) {
       // This may be a <uuid>
-      if (OvsdbConstant.UUID.equals(arrayNode.get(0).asText())) {
-        return Set.of(JsonUtil.treeToValue(jsonNode, Atom.class));
+      if (OvsdbConstant.UUID.equals(tag)) {
+        return Set.of(toAtom(jsonNode));
       }
       throw new IOException(
           "First element of <set> should be \"" + OvsdbConstant.SET
               + "\"");
     }
 
-    java.util.Set<Atom> atoms = JsonUtil.treeToValueNoException(
-        arrayNode.get(1),
-        new TypeReference<java.util.Set<Atom>>() {}
-    );
+    JsonNode elements = jsonNode.get(1);
+    java.util.Set<Atom> atoms = new HashSet<>(elements.size() * 4 / 3 + 1);
+    for (JsonNode element : elements) {
+      atoms.add(toAtom(element));
+    }
     return new Set(atoms);
   }
 }
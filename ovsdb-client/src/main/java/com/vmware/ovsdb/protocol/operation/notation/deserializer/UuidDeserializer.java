@@ -17,8 +17,8 @@ package com.vmware.ovsdb.protocol.operation.notation.deserializer;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.vmware.ovsdb.protocol.operation.notation.Uuid;
 import com.vmware.ovsdb.protocol.util.OvsdbConstant;
 
@@ -39,20 +39,23 @@ public class UuidDeserializer extends StdDeserializer<Uuid> {
   public Uuid deserialize(
       JsonParser jp, DeserializationContext ctxt
   ) throws IOException, JsonProcessingException {
-    ArrayNode arrayNode = jp.getCodec().readTree(jp);
-    if (arrayNode.size() != 2) {
+    return toUuid(jp.getCodec().readTree(jp));
+  }
+
+  static Uuid toUuid(JsonNode jsonNode) throws IOException {
+    if (jsonNode.size() != 2) {
       throw new IOException(
           "<uuid> should be a 2-element JSON array. Found "
-              + arrayNode.size() + " elements");
+              + jsonNode.size() + " elements");
     }
 
-    if (!OvsdbConstant.UUID.equals(arrayNode.get(0).asText())) {
+    if (!OvsdbConstant.UUID.equals(jsonNode.get(0).asText())) {
       throw new IOException(
           "First element of <uuid> should be \""
               + OvsdbConstant.UUID + "\"");
     }
 
-    String strUuid = arrayNode.get(1).asText();
+    String strUuid = jsonNode.get(1).asText();
     UUID uuid;
     try {
       uuid = UUID.fromString(strUuid);
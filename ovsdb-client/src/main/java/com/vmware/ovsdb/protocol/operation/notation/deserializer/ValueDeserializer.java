@@ -14,15 +14,16 @@
 
 package com.vmware.ovsdb.protocol.operation.notation.deserializer;
 
+import static com.vmware.ovsdb.protocol.operation.notation.deserializer.AtomDeserializer.toAtom;
+import static com.vmware.ovsdb.protocol.operation.notation.deserializer.MapDeserializer.toMap;
+import static com.vmware.ovsdb.protocol.operation.notation.deserializer.SetDeserializer.toSet;
+
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
-import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
-import com.vmware.ovsdb.protocol.operation.notation.Atom;
-import com.vmware.ovsdb.protocol.operation.notation.Map;
-import com.vmware.ovsdb.protocol.operation.notation.Set;
 import com.vmware.ovsdb.protocol.operation.notation.Value;
+import com.vmware.ovsdb.protocol.util.OvsdbConstant;
 
 import java.io.IOException;
 
@@ -40,18 +41,27 @@ public class ValueDeserializer extends StdDeserializer<Value> {
   public Value deserialize(
       JsonParser jp, DeserializationContext ctxt
   ) throws IOException {
-    JsonNode jsonNode = jp.getCodec().readTree(jp);
-    Atom atom = JsonUtil.treeToValueNoException(jsonNode, Atom.class);
-    if (atom != null) {
-      return atom;
-    }
-    Set set = JsonUtil.treeToValueNoException(jsonNode, Set.class);
-    if (set != null) {
-      return set;
+    return toValue(jp.getCodec().readTree(jp));
+  }
+
+  static Value toValue(JsonNode jsonNode) throws IOException {
+    if (jsonNode.isValueNode()) {
+      return toAtom(jsonNode);
     }
-    Map map = JsonUtil.treeToValueNoException(jsonNode, Map.class);
-    if (map != null) {
-      return map;
+    // A <value> that is not a scalar <atom> is a tagged 2-element array
+    String tag = DeserializerUtil.getArrayTag(jsonNode);
+    if (tag != null) {
+      switch (tag) {
+        case OvsdbConstant.UUID:
+        case OvsdbConstant.NAMED_UUID:
+          return toAtom(jsonNode);
+        case OvsdbConstant.SET:
+          return toSet(jsonNode);
+        case OvsdbConstant.MAP:
+          return toMap(jsonNode);
+        default:
+          break;
+      }
     }
     throw new IOException(jsonNode + " is not a valid <value>");
   }
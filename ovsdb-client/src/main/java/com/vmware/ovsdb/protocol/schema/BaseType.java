@@ -142,6 +142,14 @@ public abstract class BaseType {
     return baseType;
   }
 
+  public AtomicType getType() {
+    return type;
+  }
+
+  public Value getEnums() {
+    return enums;
+  }
+
   @Override
   public boolean equals(Object other) {
     if (this == other) {
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.protocol.schema.decoder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
+import com.vmware.ovsdb.protocol.operation.notation.Atom;
+import com.vmware.ovsdb.protocol.operation.notation.NamedUuid;
+import com.vmware.ovsdb.protocol.operation.notation.Set;
+import com.vmware.ovsdb.protocol.operation.notation.Uuid;
+import com.vmware.ovsdb.protocol.operation.notation.Value;
+import com.vmware.ovsdb.protocol.schema.AtomicType;
+import com.vmware.ovsdb.protocol.schema.BaseType;
+import com.vmware.ovsdb.protocol.util.OvsdbConstant;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.UUID;
+
+/**
+ * Decode an {@literal <atom>} whose {@link BaseType} is known in advance. If the base type has an
+ * "enum" constraint, an atom that is not one of its values is rejected.
+ */
+class AtomDecoder implements ColumnDecoder {
+
+  private final AtomicType atomicType;
+
+  // Null if any value of the type is allowed
+  private final java.util.Set<Atom> enums;
+
+  AtomDecoder(AtomicType atomicType) {
+    this.atomicType = atomicType;
+    this.enums = null;
+  }
+
+  /**
+   * Create an {@link AtomDecoder} for a base type and its "enum" constraint, if any.
+   *
+   * @param baseType the base type
+   * @throws IllegalArgumentException if a value of the "enum" constraint is not of the base type
+   */
+  AtomDecoder(BaseType baseType) {
+    this.atomicType = baseType.getType();
+    Value enumValue = baseType.getEnums();
+    if (enumValue == null) {
+      this.enums = null;
+      return;
+    }
+    Collection<Atom> enumAtoms = enumValue instanceof Set
+        ? ((Set) enumValue).getSet()
+        : Collections.singleton((Atom) enumValue);
+    this.enums = new HashSet<>();
+    for (Atom atom : enumAtoms) {
+      // Decode each value again, so that an integer in the enum of a real type becomes a real
+      try {
+        enums.add(decodeType(JsonUtil.toJsonNode(atom)));
+      } catch (IOException ex) {
+        throw new IllegalArgumentException("Invalid enum of " + baseType, ex);
+      }
+    }
+  }
+
+  @Override
+  public Atom decode(JsonNode jsonNode) throws IOException {
+    Atom atom = decodeType(jsonNode);
+    if (enums != null && !enums.contains(atom)) {
+      throw new IOException("Expected one of " + enums + ". Found " + jsonNode);
+    }
+    return atom;
+  }
+
+  private Atom decodeType(JsonNode jsonNode) throws IOException {
+    switch (atomicType) {
+      case INTEGER:
+        if (jsonNode.isIntegralNumber()) {
+          return Atom.integer(jsonNode.asLong());
+        }
+        break;
+      case REAL:
+        if (jsonNode.isNumber()) {
+          return Atom.real(jsonNode.asDouble());
+        }
+        break;
+      case BOOLEAN:
+        if (jsonNode.isBoolean()) {
+          return Atom.bool(jsonNode.asBoolean());
+        }
+        break;
+      case STRING:
+        if (jsonNode.isTextual()) {
+          return Atom.string(jsonNode.asText());
+        }
+        break;
+      case UUID:
+        if (isTagged(jsonNode, OvsdbConstant.UUID)) {
+          return Atom.uuid(toUuid(jsonNode.get(1)));
+        } else if (isTagged(jsonNode, OvsdbConstant.NAMED_UUID)) {
+          return Atom.namedUuid(new NamedUuid(jsonNode.get(1).asText()));
+        }
+        break;
+      default:
+        break;
+    }
+    throw new IOException("Expected <" + atomicType + ">. Found " + jsonNode);
+  }
+
+  static boolean isTagged(JsonNode jsonNode, String tag) {
+    return jsonNode.isArray() && jsonNode.size() == 2
+        && tag.equals(jsonNode.get(0).textValue());
+  }
+
+  private static Uuid toUuid(JsonNode jsonNode) throws IOException {
+    String strUuid = jsonNode.asText();
+    try {
+      return new Uuid(UUID.fromString(strUuid));
+    } catch (IllegalArgumentException ex) {
+      throw new IOException("Invalid UUID " + strUuid, ex);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " ["
+        + "atomicType=" + atomicType
+        + ", enums=" + enums
+        + "]";
+  }
+}
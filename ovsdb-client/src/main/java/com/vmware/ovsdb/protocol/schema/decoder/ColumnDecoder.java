@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.protocol.schema.decoder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.vmware.ovsdb.protocol.operation.notation.Value;
+
+import java.io.IOException;
+
+/**
+ * Decode the JSON value of a column into a {@link Value}.
+ */
+@FunctionalInterface
+public interface ColumnDecoder {
+
+  /**
+   * Decode a column value.
+   *
+   * @param jsonNode the JSON value of the column
+   * @return the decoded {@link Value}
+   * @throws IOException if the JSON value does not match the column type
+   */
+  Value decode(JsonNode jsonNode) throws IOException;
+}
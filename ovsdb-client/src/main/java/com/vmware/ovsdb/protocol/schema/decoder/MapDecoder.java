@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.protocol.schema.decoder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.vmware.ovsdb.protocol.operation.notation.Map;
+import com.vmware.ovsdb.protocol.operation.notation.Pair;
+import com.vmware.ovsdb.protocol.util.OvsdbConstant;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decode a column whose type is a map from one atomic type to another.
+ */
+class MapDecoder implements ColumnDecoder {
+
+  private final AtomDecoder keyDecoder;
+
+  private final AtomDecoder valueDecoder;
+
+  MapDecoder(AtomDecoder keyDecoder, AtomDecoder valueDecoder) {
+    this.keyDecoder = keyDecoder;
+    this.valueDecoder = valueDecoder;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Map<Object, Object> decode(JsonNode jsonNode) throws IOException {
+    if (!AtomDecoder.isTagged(jsonNode, OvsdbConstant.MAP) || !jsonNode.get(1).isArray()) {
+      throw new IOException("Expected <map>. Found " + jsonNode);
+    }
+    JsonNode pairNodes = jsonNode.get(1);
+    List<Pair<Object, Object>> pairs = new ArrayList<>(pairNodes.size());
+    for (JsonNode pairNode : pairNodes) {
+      if (!pairNode.isArray() || pairNode.size() != 2) {
+        throw new IOException("<pair> should be a 2-element JSON array. Found " + pairNode);
+      }
+      pairs.add(new Pair<>(
+          keyDecoder.decode(pairNode.get(0)), valueDecoder.decode(pairNode.get(1))
+      ));
+    }
+    return new Map<>(pairs);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " ["
+        + "keyDecoder=" + keyDecoder
+        + ", valueDecoder=" + valueDecoder
+        + "]";
+  }
+}
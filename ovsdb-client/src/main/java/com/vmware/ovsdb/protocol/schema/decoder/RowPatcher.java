@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.protocol.schema.decoder;
+
+import com.vmware.ovsdb.protocol.methods.RowUpdate2;
+import com.vmware.ovsdb.protocol.operation.notation.Atom;
+import com.vmware.ovsdb.protocol.operation.notation.Map;
+import com.vmware.ovsdb.protocol.operation.notation.Pair;
+import com.vmware.ovsdb.protocol.operation.notation.Row;
+import com.vmware.ovsdb.protocol.operation.notation.Set;
+import com.vmware.ovsdb.protocol.operation.notation.Value;
+import com.vmware.ovsdb.protocol.schema.ColumnSchema;
+import com.vmware.ovsdb.protocol.schema.TableSchema;
+import com.vmware.ovsdb.protocol.schema.Type;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Apply the "modify" diffs of {@literal <row-update2>} to rows of a table, using the column types
+ * in its {@link TableSchema}. The diff of a column depends on its type.
+ *
+ * <pre>
+ * scalar (min and max are 1)   the new value
+ * set                          the elements to add or remove, that is, the symmetric difference
+ *                              of the old and the new sets
+ * map                          the pairs whose key is new are added, the pairs that are equal to
+ *                              an existing pair are removed, and the other pairs replace the
+ *                              value of their key
+ * </pre>
+ *
+ * <p>Rows are never modified. Patching a row returns a new row with its own column map, in which
+ * only the changed columns get new values and the other columns share the values of the old row,
+ * so rows that were already handed out, including the rows of a delivered notification, stay as
+ * they are. A set with one element is produced as an {@link Atom}, as the
+ * server sends it, so a patched row is equal to the row the server would send. Columns that are
+ * not in the schema are replaced by their new values.</p>
+ */
+public class RowPatcher {
+
+  private enum ColumnKind {
+    SCALAR, SET, MAP
+  }
+
+  private final String tableName;
+
+  private final java.util.Map<String, ColumnKind> columnKinds;
+
+  /**
+   * Create a {@link RowPatcher} object.
+   *
+   * @param tableName name of the table
+   * @param tableSchema schema of the table
+   */
+  public RowPatcher(String tableName, TableSchema tableSchema) {
+    this.tableName = tableName;
+    columnKinds = new HashMap<>();
+    for (java.util.Map.Entry<String, ColumnSchema> entry : tableSchema.getColumns().entrySet()) {
+      columnKinds.put(entry.getKey(), getColumnKind(entry.getValue().getType()));
+    }
+  }
+
+  private static ColumnKind getColumnKind(Type type) {
+    if (type.getValue() != null) {
+      return ColumnKind.MAP;
+    }
+    long min = type.getMin() == null ? 1 : type.getMin();
+    long max = type.getMax() == null ? 1 : type.getMax();
+    return min == 1 && max == 1 ? ColumnKind.SCALAR : ColumnKind.SET;
+  }
+
+  /**
+   * Apply a {@link RowUpdate2} to a row.
+   *
+   * @param row the row before the update, or null if it is not known
+   * @param rowUpdate2 the update of the row
+   * @return the row after the update, which is a patched copy of {@code row} for a "modify", or
+   *     null if the row is deleted
+   * @throws IllegalArgumentException if the update is a "modify" of an unknown row
+   */
+  public Row apply(Row row, RowUpdate2 rowUpdate2) {
+    if (rowUpdate2.isDelete()) {
+      return null;
+    }
+    if (rowUpdate2.getInitial() != null) {
+      return rowUpdate2.getInitial();
+    }
+    if (rowUpdate2.getInsert() != null) {
+      return rowUpdate2.getInsert();
+    }
+    if (rowUpdate2.getModify() == null) {
+      return row;
+    }
+    if (row == null) {
+      throw new IllegalArgumentException("Cannot modify an unknown row of table " + tableName);
+    }
+    return patch(row, rowUpdate2.getModify());
+  }
+
+  /**
+   * Apply a "modify" diff to a row.
+   *
+   * @param row the row to patch, which is not modified
+   * @param diff the "modify" diff
+   * @return a new row with the diff applied
+   */
+  public Row patch(Row row, Row diff) {
+    java.util.Map<String, Value> columns = new HashMap<>(row.getColumns());
+    for (java.util.Map.Entry<String, Value> entry : diff.getColumns().entrySet()) {
+      String column = entry.getKey();
+      ColumnKind columnKind = columnKinds.getOrDefault(column, ColumnKind.SCALAR);
+      Value oldValue = columns.get(column);
+      Value newValue;
+      if (columnKind == ColumnKind.SET) {
+        newValue = patchSet(oldValue, entry.getValue());
+      } else if (columnKind == ColumnKind.MAP) {
+        newValue = patchMap(oldValue, entry.getValue());
+      } else {
+        newValue = entry.getValue();
+      }
+      columns.put(column, newValue);
+    }
+    return new Row(columns);
+  }
+
+  private static Value patchSet(Value oldValue, Value diff) {
+    java.util.Set<Atom> elements = new HashSet<>(toAtoms(oldValue));
+    for (Atom element : toAtoms(diff)) {
+      if (!elements.remove(element)) {
+        elements.add(element);
+      }
+    }
+    return elements.size() == 1 ? elements.iterator().next() : new Set(elements);
+  }
+
+  private static java.util.Set<Atom> toAtoms(Value value) {
+    if (value == null) {
+      return new HashSet<>();
+    }
+    if (value instanceof Atom) {
+      java.util.Set<Atom> atoms = new HashSet<>();
+      atoms.add((Atom) value);
+      return atoms;
+    }
+    return ((Set) value).getSet();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <K, V> Value patchMap(Value oldValue, Value diff) {
+    java.util.Map<Atom<K>, Atom<V>> pairs = new LinkedHashMap<>();
+    if (oldValue != null) {
+      for (Pair<K, V> pair : ((Map<K, V>) oldValue).getPairs()) {
+        pairs.put(pair.getKey(), pair.getValue());
+      }
+    }
+    for (Pair<K, V> pair : ((Map<K, V>) diff).getPairs()) {
+      Atom<V> value = pairs.get(pair.getKey());
+      if (value != null && value.equals(pair.getValue())) {
+        pairs.remove(pair.getKey());
+      } else {
+        pairs.put(pair.getKey(), pair.getValue());
+      }
+    }
+    List<Pair<K, V>> newPairs = new ArrayList<>(pairs.size());
+    pairs.forEach((key, value) -> newPairs.add(new Pair<>(key, value)));
+    return new Map<>(newPairs);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " ["
+        + "tableName=" + tableName
+        + ", columnKinds=" + columnKinds
+        + "]";
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.protocol.schema.decoder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.vmware.ovsdb.protocol.operation.notation.Atom;
+import com.vmware.ovsdb.protocol.operation.notation.Set;
+import com.vmware.ovsdb.protocol.operation.notation.Value;
+import com.vmware.ovsdb.protocol.util.OvsdbConstant;
+
+import java.io.IOException;
+import java.util.HashSet;
+
+/**
+ * Decode a column whose type is a set of atoms. A bare {@literal <atom>} is decoded to an
+ * {@link Atom}, the same as the generic {@link Value} deserializer does.
+ */
+class SetDecoder implements ColumnDecoder {
+
+  private final AtomDecoder elementDecoder;
+
+  SetDecoder(AtomDecoder elementDecoder) {
+    this.elementDecoder = elementDecoder;
+  }
+
+  @Override
+  public Value decode(JsonNode jsonNode) throws IOException {
+    if (!AtomDecoder.isTagged(jsonNode, OvsdbConstant.SET)) {
+      return elementDecoder.decode(jsonNode);
+    }
+    JsonNode elements = jsonNode.get(1);
+    if (!elements.isArray()) {
+      throw new IOException("Second element of <set> should be an array. Found " + elements);
+    }
+    java.util.Set<Atom> atoms = new HashSet<>(elements.size() * 4 / 3 + 1);
+    for (JsonNode element : elements) {
+      atoms.add(elementDecoder.decode(element));
+    }
+    return new Set(atoms);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " ["
+        + "elementDecoder=" + elementDecoder
+        + "]";
+  }
+}
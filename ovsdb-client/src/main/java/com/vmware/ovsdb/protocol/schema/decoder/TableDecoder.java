@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.protocol.schema.decoder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
+import com.vmware.ovsdb.protocol.operation.notation.Row;
+import com.vmware.ovsdb.protocol.operation.notation.Value;
+import com.vmware.ovsdb.protocol.schema.AtomicType;
+import com.vmware.ovsdb.protocol.schema.ColumnSchema;
+import com.vmware.ovsdb.protocol.schema.TableSchema;
+import com.vmware.ovsdb.protocol.schema.Type;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Decode rows of a table using the column types in its {@link TableSchema}. A {@link ColumnDecoder}
+ * is built for every column once, so decoding a row does not have to guess the shape of each
+ * value. Columns that are not in the schema are decoded as a generic {@link Value}.
+ */
+public class TableDecoder {
+
+  private static final String UUID_COLUMN = "_uuid";
+
+  private static final String VERSION_COLUMN = "_version";
+
+  private final String tableName;
+
+  private final Map<String, ColumnDecoder> columnDecoders;
+
+  /**
+   * Create a {@link TableDecoder} object.
+   *
+   * @param tableName name of the table
+   * @param tableSchema schema of the table
+   */
+  public TableDecoder(String tableName, TableSchema tableSchema) {
+    this.tableName = tableName;
+    columnDecoders = new HashMap<>();
+    // Every table has these two columns though they are not in the schema
+    ColumnDecoder uuidDecoder = new AtomDecoder(AtomicType.UUID);
+    columnDecoders.put(UUID_COLUMN, uuidDecoder);
+    columnDecoders.put(VERSION_COLUMN, uuidDecoder);
+    for (Map.Entry<String, ColumnSchema> entry : tableSchema.getColumns().entrySet()) {
+      columnDecoders.put(entry.getKey(), newColumnDecoder(entry.getValue().getType()));
+    }
+  }
+
+  /**
+   * Create a {@link ColumnDecoder} for a column {@link Type}.
+   *
+   * @param type type of the column
+   * @return a {@link ColumnDecoder} for the type
+   * @throws IllegalArgumentException if a value of an "enum" constraint is not of its type
+   */
+  public static ColumnDecoder newColumnDecoder(Type type) {
+    AtomDecoder keyDecoder = new AtomDecoder(type.getKey());
+    if (type.getValue() != null) {
+      return new MapDecoder(keyDecoder, new AtomDecoder(type.getValue()));
+    }
+    long min = type.getMin() == null ? 1 : type.getMin();
+    long max = type.getMax() == null ? 1 : type.getMax();
+    if (min == 1 && max == 1) {
+      return keyDecoder;
+    }
+    return new SetDecoder(keyDecoder);
+  }
+
+  /**
+   * Decode a {@literal <row>}.
+   *
+   * @param jsonNode the JSON object of the row
+   * @return the decoded {@link Row}
+   * @throws IOException if the row is not a JSON object or any column does not match its type
+   */
+  public Row decodeRow(JsonNode jsonNode) throws IOException {
+    if (!jsonNode.isObject()) {
+      throw new IOException("<row> of table " + tableName + " should be a JSON object. Found "
+          + jsonNode);
+    }
+    Map<String, Value> columns = new LinkedHashMap<>(jsonNode.size() * 4 / 3 + 1);
+    Iterator<Map.Entry<String, JsonNode>> fields = jsonNode.fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> field = fields.next();
+      columns.put(field.getKey(), decodeColumn(field.getKey(), field.getValue()));
+    }
+    return new Row(columns);
+  }
+
+  /**
+   * Decode the value of a column.
+   *
+   * @param column name of the column
+   * @param jsonNode the JSON value of the column
+   * @return the decoded {@link Value}
+   * @throws IOException if the value does not match the column type
+   */
+  public Value decodeColumn(String column, JsonNode jsonNode) throws IOException {
+    ColumnDecoder columnDecoder = columnDecoders.get(column);
+    if (columnDecoder == null) {
+      return JsonUtil.treeToValue(jsonNode, Value.class);
+    }
+    try {
+      return columnDecoder.decode(jsonNode);
+    } catch (IOException ex) {
+      throw new IOException(
+          "Failed to decode column " + column + " of table " + tableName + ": "
+              + ex.getMessage(), ex);
+    }
+  }
+
+  public String getTableName() {
+    return tableName;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " ["
+        + "tableName=" + tableName
+        + ", columnDecoders=" + columnDecoders
+        + "]";
+  }
+}
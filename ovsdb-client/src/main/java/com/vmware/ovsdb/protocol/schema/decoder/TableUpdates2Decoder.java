@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.protocol.schema.decoder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
+import com.vmware.ovsdb.protocol.methods.MonitorCondSinceResult;
+import com.vmware.ovsdb.protocol.methods.RowUpdate2;
+import com.vmware.ovsdb.protocol.methods.TableUpdate2;
+import com.vmware.ovsdb.protocol.methods.TableUpdates2;
+import com.vmware.ovsdb.protocol.operation.notation.Row;
+import com.vmware.ovsdb.protocol.schema.DatabaseSchema;
+import com.vmware.ovsdb.protocol.schema.TableSchema;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Decode {@literal <table-updates2>} using a {@link DatabaseSchema}, in the same way as
+ * {@link TableUpdatesDecoder} decodes {@literal <table-updates>}. The diff of a set column in a
+ * "modify" is decoded as a set of the column's key type and the diff of a map column as a map,
+ * so it can be applied by a {@link RowPatcher}. Tables that are not in the schema are decoded by
+ * the generic deserializer.
+ */
+public class TableUpdates2Decoder {
+
+  private static final String INITIAL = "initial";
+
+  private static final String INSERT = "insert";
+
+  private static final String DELETE = "delete";
+
+  private static final String MODIFY = "modify";
+
+  private final Map<String, TableDecoder> tableDecoders;
+
+  /**
+   * Create a {@link TableUpdates2Decoder} object.
+   *
+   * @param databaseSchema schema of the database whose updates are decoded
+   */
+  public TableUpdates2Decoder(DatabaseSchema databaseSchema) {
+    tableDecoders = new HashMap<>();
+    for (Map.Entry<String, TableSchema> entry : databaseSchema.getTables().entrySet()) {
+      tableDecoders.put(entry.getKey(), new TableDecoder(entry.getKey(), entry.getValue()));
+    }
+  }
+
+  /**
+   * Decode a {@literal <table-updates2>}.
+   *
+   * @param jsonNode the JSON object of the table updates
+   * @return the decoded {@link TableUpdates2}
+   * @throws IOException if the JSON does not match the schema
+   */
+  public TableUpdates2 decode(JsonNode jsonNode) throws IOException {
+    if (!jsonNode.isObject()) {
+      throw new IOException("<table-updates2> should be a JSON object. Found " + jsonNode);
+    }
+    Map<String, TableUpdate2> tableUpdates = new LinkedHashMap<>();
+    Iterator<Map.Entry<String, JsonNode>> tables = jsonNode.fields();
+    while (tables.hasNext()) {
+      Map.Entry<String, JsonNode> table = tables.next();
+      TableDecoder tableDecoder = tableDecoders.get(table.getKey());
+      TableUpdate2 tableUpdate2 = tableDecoder == null
+          ? JsonUtil.treeToValue(table.getValue(), TableUpdate2.class)
+          : decodeTableUpdate(tableDecoder, table.getValue());
+      tableUpdates.put(table.getKey(), tableUpdate2);
+    }
+    return new TableUpdates2(tableUpdates);
+  }
+
+  /**
+   * Decode the result of a monitor_cond_since request, whose {@literal <table-updates2>} is
+   * decoded with the schema.
+   *
+   * @param jsonNode the JSON array of the result
+   * @return the decoded {@link MonitorCondSinceResult}
+   * @throws IOException if the JSON is not a valid result or does not match the schema
+   */
+  public MonitorCondSinceResult decodeMonitorCondSinceResult(JsonNode jsonNode)
+      throws IOException {
+    if (!jsonNode.isArray() || jsonNode.size() != 3) {
+      throw new IOException(
+          "monitor_cond_since result should be a 3-element JSON array. Found " + jsonNode);
+    }
+    UUID lastTxnId;
+    try {
+      lastTxnId = UUID.fromString(jsonNode.get(1).asText());
+    } catch (IllegalArgumentException ex) {
+      throw new IOException("Invalid last-txn-id " + jsonNode.get(1), ex);
+    }
+    return new MonitorCondSinceResult(
+        jsonNode.get(0).asBoolean(), lastTxnId, decode(jsonNode.get(2)));
+  }
+
+  private TableUpdate2 decodeTableUpdate(TableDecoder tableDecoder, JsonNode jsonNode)
+      throws IOException {
+    if (!jsonNode.isObject()) {
+      throw new IOException("<table-update2> of table " + tableDecoder.getTableName()
+          + " should be a JSON object. Found " + jsonNode);
+    }
+    Map<UUID, RowUpdate2> rowUpdates = new LinkedHashMap<>(jsonNode.size() * 4 / 3 + 1);
+    Iterator<Map.Entry<String, JsonNode>> rows = jsonNode.fields();
+    while (rows.hasNext()) {
+      Map.Entry<String, JsonNode> row = rows.next();
+      UUID uuid;
+      try {
+        uuid = UUID.fromString(row.getKey());
+      } catch (IllegalArgumentException ex) {
+        throw new IOException("Invalid UUID " + row.getKey(), ex);
+      }
+      rowUpdates.put(uuid, decodeRowUpdate(tableDecoder, row.getValue()));
+    }
+    return new TableUpdate2(rowUpdates);
+  }
+
+  private RowUpdate2 decodeRowUpdate(TableDecoder tableDecoder, JsonNode jsonNode)
+      throws IOException {
+    if (!jsonNode.isObject()) {
+      throw new IOException("<row-update2> of table " + tableDecoder.getTableName()
+          + " should be a JSON object. Found " + jsonNode);
+    }
+    return new RowUpdate2()
+        .setInitial(decodeRow(tableDecoder, jsonNode.get(INITIAL)))
+        .setInsert(decodeRow(tableDecoder, jsonNode.get(INSERT)))
+        .setDelete(jsonNode.has(DELETE))
+        .setModify(decodeRow(tableDecoder, jsonNode.get(MODIFY)));
+  }
+
+  private Row decodeRow(TableDecoder tableDecoder, JsonNode jsonNode) throws IOException {
+    return jsonNode == null || jsonNode.isNull() ? null : tableDecoder.decodeRow(jsonNode);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " ["
+        + "tableDecoders=" + tableDecoders.keySet()
+        + "]";
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.protocol.schema.decoder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
+import com.vmware.ovsdb.protocol.methods.RowUpdate;
+import com.vmware.ovsdb.protocol.methods.TableUpdate;
+import com.vmware.ovsdb.protocol.methods.TableUpdates;
+import com.vmware.ovsdb.protocol.operation.notation.Row;
+import com.vmware.ovsdb.protocol.schema.DatabaseSchema;
+import com.vmware.ovsdb.protocol.schema.TableSchema;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Decode {@literal <table-updates>} using a {@link DatabaseSchema}. The result is equal to what
+ * the generic {@link TableUpdates} deserializer produces, except that a number in a real column is
+ * always a real. Each column is decoded by the {@link ColumnDecoder} of its type and a value that
+ * does not match the type fails the decoding. Tables that are not in the schema are decoded by the
+ * generic deserializer.
+ */
+public class TableUpdatesDecoder {
+
+  private static final String OLD = "old";
+
+  private static final String NEW = "new";
+
+  private final Map<String, TableDecoder> tableDecoders;
+
+  /**
+   * Create a {@link TableUpdatesDecoder} object.
+   *
+   * @param databaseSchema schema of the database whose updates are decoded
+   */
+  public TableUpdatesDecoder(DatabaseSchema databaseSchema) {
+    tableDecoders = new HashMap<>();
+    for (Map.Entry<String, TableSchema> entry : databaseSchema.getTables().entrySet()) {
+      tableDecoders.put(entry.getKey(), new TableDecoder(entry.getKey(), entry.getValue()));
+    }
+  }
+
+  /**
+   * Get the {@link TableDecoder} of a table.
+   *
+   * @param tableName name of the table
+   * @return the {@link TableDecoder} or null if the table is not in the schema
+   */
+  public TableDecoder getTableDecoder(String tableName) {
+    return tableDecoders.get(tableName);
+  }
+
+  /**
+   * Decode a {@literal <table-updates>}.
+   *
+   * @param jsonNode the JSON object of the table updates
+   * @return the decoded {@link TableUpdates}
+   * @throws IOException if the JSON does not match the schema
+   */
+  public TableUpdates decode(JsonNode jsonNode) throws IOException {
+    if (!jsonNode.isObject()) {
+      throw new IOException("<table-updates> should be a JSON object. Found " + jsonNode);
+    }
+    Map<String, TableUpdate> tableUpdates = new LinkedHashMap<>();
+    Iterator<Map.Entry<String, JsonNode>> tables = jsonNode.fields();
+    while (tables.hasNext()) {
+      Map.Entry<String, JsonNode> table = tables.next();
+      TableDecoder tableDecoder = tableDecoders.get(table.getKey());
+      TableUpdate tableUpdate = tableDecoder == null
+          ? JsonUtil.treeToValue(table.getValue(), TableUpdate.class)
+          : decodeTableUpdate(tableDecoder, table.getValue());
+      tableUpdates.put(table.getKey(), tableUpdate);
+    }
+    return new TableUpdates(tableUpdates);
+  }
+
+  private TableUpdate decodeTableUpdate(TableDecoder tableDecoder, JsonNode jsonNode)
+      throws IOException {
+    if (!jsonNode.isObject()) {
+      throw new IOException("<table-update> of table " + tableDecoder.getTableName()
+          + " should be a JSON object. Found " + jsonNode);
+    }
+    Map<UUID, RowUpdate> rowUpdates = new LinkedHashMap<>(jsonNode.size() * 4 / 3 + 1);
+    Iterator<Map.Entry<String, JsonNode>> rows = jsonNode.fields();
+    while (rows.hasNext()) {
+      Map.Entry<String, JsonNode> row = rows.next();
+      UUID uuid;
+      try {
+        uuid = UUID.fromString(row.getKey());
+      } catch (IllegalArgumentException ex) {
+        throw new IOException("Invalid UUID " + row.getKey(), ex);
+      }
+      rowUpdates.put(uuid, decodeRowUpdate(tableDecoder, row.getValue()));
+    }
+    return new TableUpdate(rowUpdates);
+  }
+
+  private RowUpdate decodeRowUpdate(TableDecoder tableDecoder, JsonNode jsonNode)
+      throws IOException {
+    return new RowUpdate(
+        decodeRow(tableDecoder, jsonNode.get(OLD)), decodeRow(tableDecoder, jsonNode.get(NEW))
+    );
+  }
+
+  private Row decodeRow(TableDecoder tableDecoder, JsonNode jsonNode) throws IOException {
+    return jsonNode == null || jsonNode.isNull() ? null : tableDecoder.decodeRow(jsonNode);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " ["
+        + "tableDecoders=" + tableDecoders.keySet()
+        + "]";
+  }
+}
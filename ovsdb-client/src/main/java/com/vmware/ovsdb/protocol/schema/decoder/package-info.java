@@ -0,0 +1,20 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+/**
+ * This package includes decoders that use a {@literal <database-schema>} to decode table updates
+ * without guessing the shape of each column value.
+ */
+
+package com.vmware.ovsdb.protocol.schema.decoder;
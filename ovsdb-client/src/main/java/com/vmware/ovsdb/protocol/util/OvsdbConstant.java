@@ -43,6 +43,17 @@ public class OvsdbConstant {
 
   public static final String ECHO = "echo";
 
+  /* ****************** RPC Methods (ovsdb-server(7)) ****************** */
+  public static final String MONITOR_COND = "monitor_cond";
+
+  public static final String MONITOR_COND_CHANGE = "monitor_cond_change";
+
+  public static final String UPDATE2 = "update2";
+
+  public static final String MONITOR_COND_SINCE = "monitor_cond_since";
+
+  public static final String UPDATE3 = "update3";
+
   /* ****************** Notations (Chapter 3) ****************** */
   public static final String TYPE = "type";
 
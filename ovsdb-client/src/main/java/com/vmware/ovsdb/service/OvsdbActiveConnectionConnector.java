@@ -16,6 +16,7 @@ package com.vmware.ovsdb.service;
 
 import io.netty.handler.ssl.SslContext;
 
+import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
 
 public interface OvsdbActiveConnectionConnector {
@@ -40,4 +41,21 @@ public interface OvsdbActiveConnectionConnector {
    *         object when the connection is established
    */
   CompletableFuture<OvsdbClient> connectWithSsl(String ip, int port, SslContext sslContext);
+
+  /**
+   * Connect to the OVSDB server on a Unix domain socket, such as
+   * /var/run/openvswitch/db.sock. This is only supported where the native epoll transport is
+   * available, that is, on Linux.
+   *
+   * @param socketPath path of the Unix domain socket
+   * @return a {@link CompletableFuture} that will complete with an {@link OvsdbClient}
+   *         object when the connection is established, or with an
+   *         {@link UnsupportedOperationException} if Unix domain sockets are not supported
+   */
+  default CompletableFuture<OvsdbClient> connectUnix(Path socketPath) {
+    CompletableFuture<OvsdbClient> completableFuture = new CompletableFuture<>();
+    completableFuture.completeExceptionally(
+        new UnsupportedOperationException("Unix domain sockets are not supported"));
+    return completableFuture;
+  }
 }
@@ -16,20 +16,35 @@ package com.vmware.ovsdb.service;
 
 import com.vmware.ovsdb.callback.LockCallback;
 import com.vmware.ovsdb.callback.MonitorCallback;
+import com.vmware.ovsdb.callback.MonitorCondCallback;
+import com.vmware.ovsdb.callback.MonitorCondSinceCallback;
 import com.vmware.ovsdb.exception.OvsdbClientException;
 import com.vmware.ovsdb.protocol.methods.LockResult;
+import com.vmware.ovsdb.protocol.methods.MonitorCondRequests;
+import com.vmware.ovsdb.protocol.methods.MonitorCondSinceResult;
 import com.vmware.ovsdb.protocol.methods.MonitorRequests;
 import com.vmware.ovsdb.protocol.methods.TableUpdates;
+import com.vmware.ovsdb.protocol.methods.TableUpdates2;
 import com.vmware.ovsdb.protocol.operation.Operation;
 import com.vmware.ovsdb.protocol.operation.result.OperationResult;
 import com.vmware.ovsdb.protocol.schema.DatabaseSchema;
 
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 /**
  * OVSDB client RPC methods.
  *
+ * <p>Cancelling a {@link CompletableFuture} returned by {@link #transact(String, List)},
+ * {@link #listDatabases()} or {@link #getSchema(String)} sends a "cancel" notification for the
+ * request, so that the server can abandon it. By default, the same is done when a request times
+ * out, which can be turned off with the "rpc.cancel.on.timeout" property.</p>
+ *
+ * <p>The methods that are not in RFC 7047 have default implementations that throw an
+ * {@link OvsdbClientException}, or return a failed future, so that existing implementations of
+ * this interface still compile.</p>
+ *
  * @see <a href=https://tools.ietf.org/html/rfc7047#section-4.1>RFC 7047 Section 4.1 RPC Methods</a>
  */
 public interface OvsdbClient {
@@ -79,6 +94,138 @@ public interface OvsdbClient {
       MonitorCallback monitorCallback
   ) throws OvsdbClientException;
 
+  /**
+   * Send a monitor request to OVSDB server. The initial table updates and subsequent update
+   * notifications of this monitor are decoded with the column types in the given schema instead
+   * of being inferred from the JSON values. A value that does not match its column type fails the
+   * decoding.
+   *
+   * @param dbName the database name
+   * @param monitorId a unique id that is used to match subsequent update notifications to this
+   *                  request.
+   * @param monitorRequests monitor requests
+   * @param monitorCallback will be called when there are updates on the monitored tables
+   * @param databaseSchema schema of the database, as returned by {@link #getSchema(String)}
+   * @return a {@link CompletableFuture} from which the initial table updates can be retrieved
+   * @throws OvsdbClientException when the request doesn't go through
+   */
+  default CompletableFuture<TableUpdates> monitor(
+      String dbName, String monitorId, MonitorRequests monitorRequests,
+      MonitorCallback monitorCallback, DatabaseSchema databaseSchema
+  ) throws OvsdbClientException {
+    throw new OvsdbClientException("Decoding with a schema is not supported");
+  }
+
+  /**
+   * Send a monitor_cond request to OVSDB server. Unlike "monitor", the server only reports the
+   * rows that match the "where" conditions of each table, and reports modifications as diffs in
+   * "update2" notifications. It is an extension to RFC 7047 that ovsdb-server supports since
+   * Open vSwitch 2.6.
+   *
+   * @param dbName the database name
+   * @param monitorId a unique id that is used to match subsequent update2 notifications to this
+   *                  request.
+   * @param monitorCondRequests monitor_cond requests
+   * @param monitorCondCallback will be called when there are updates on the monitored rows
+   * @return a {@link CompletableFuture} from which the initial table updates can be retrieved
+   * @throws OvsdbClientException when the request doesn't go through
+   */
+  default CompletableFuture<TableUpdates2> monitorCond(
+      String dbName, String monitorId, MonitorCondRequests monitorCondRequests,
+      MonitorCondCallback monitorCondCallback
+  ) throws OvsdbClientException {
+    throw new OvsdbClientException("monitor_cond is not supported");
+  }
+
+  /**
+   * Send a monitor_cond request to OVSDB server, and decode the initial table updates and the
+   * subsequent update2 notifications with a {@link DatabaseSchema}. The diffs of set and map
+   * columns in "modify" row updates can then be applied with a
+   * {@link com.vmware.ovsdb.protocol.schema.decoder.RowPatcher}.
+   *
+   * @param dbName the database name
+   * @param monitorId a unique id that is used to match subsequent update2 notifications to this
+   *                  request.
+   * @param monitorCondRequests monitor_cond requests
+   * @param monitorCondCallback will be called when there are updates on the monitored rows
+   * @param databaseSchema schema of the database, usually from {@link #getSchema(String)}
+   * @return a {@link CompletableFuture} from which the initial table updates can be retrieved
+   * @throws OvsdbClientException when the request doesn't go through
+   */
+  default CompletableFuture<TableUpdates2> monitorCond(
+      String dbName, String monitorId, MonitorCondRequests monitorCondRequests,
+      MonitorCondCallback monitorCondCallback, DatabaseSchema databaseSchema
+  ) throws OvsdbClientException {
+    throw new OvsdbClientException("monitor_cond is not supported");
+  }
+
+  /**
+   * Send a monitor_cond_since request to OVSDB server. It is a "monitor_cond" request that also
+   * passes the id of the last transaction the client has seen. If the server still has that
+   * transaction in its history, it only sends the changes made after it, instead of all the
+   * rows. The updates are reported in "update3" notifications, which carry the id of their
+   * transaction. It is an extension to RFC 7047 that ovsdb-server supports since Open vSwitch
+   * 2.12, and only for clustered databases. For other databases, the server always sends all the
+   * rows.
+   *
+   * @param dbName the database name
+   * @param monitorId a unique id that is used to match subsequent update3 notifications to this
+   *                  request.
+   * @param monitorCondRequests monitor_cond requests
+   * @param lastTxnId id of the last transaction seen, or null if there is none
+   * @param monitorCondSinceCallback will be called when there are updates on the monitored rows
+   * @return a {@link CompletableFuture} from which the {@link MonitorCondSinceResult} can be
+   *     retrieved
+   * @throws OvsdbClientException when the request doesn't go through
+   */
+  default CompletableFuture<MonitorCondSinceResult> monitorCondSince(
+      String dbName, String monitorId, MonitorCondRequests monitorCondRequests, UUID lastTxnId,
+      MonitorCondSinceCallback monitorCondSinceCallback
+  ) throws OvsdbClientException {
+    throw new OvsdbClientException("monitor_cond_since is not supported");
+  }
+
+  /**
+   * Send a monitor_cond_since request to OVSDB server, and decode the table updates in the result
+   * and in the subsequent update3 notifications with a {@link DatabaseSchema}.
+   *
+   * @param dbName the database name
+   * @param monitorId a unique id that is used to match subsequent update3 notifications to this
+   *                  request.
+   * @param monitorCondRequests monitor_cond requests
+   * @param lastTxnId id of the last transaction seen, or null if there is none
+   * @param monitorCondSinceCallback will be called when there are updates on the monitored rows
+   * @param databaseSchema schema of the database, usually from {@link #getSchema(String)}
+   * @return a {@link CompletableFuture} from which the {@link MonitorCondSinceResult} can be
+   *     retrieved
+   * @throws OvsdbClientException when the request doesn't go through
+   */
+  default CompletableFuture<MonitorCondSinceResult> monitorCondSince(
+      String dbName, String monitorId, MonitorCondRequests monitorCondRequests, UUID lastTxnId,
+      MonitorCondSinceCallback monitorCondSinceCallback, DatabaseSchema databaseSchema
+  ) throws OvsdbClientException {
+    throw new OvsdbClientException("monitor_cond_since is not supported");
+  }
+
+  /**
+   * Send a monitor_cond_change request to OVSDB server, which changes the conditions of a
+   * monitor_cond or monitor_cond_since monitor. The server reports the rows that start or stop
+   * matching as insertions and deletions. The monitor can be given a new id, which is used by the
+   * subsequent update2 or update3 notifications and by later requests on it.
+   *
+   * @param monitorId id of the monitor to change
+   * @param newMonitorId new id of the monitor. It can be the same as monitorId
+   * @param monitorCondRequests the new "where" conditions of the tables to change. The tables
+   *                            that are not in it keep their conditions
+   * @return a {@link CompletableFuture} that completes when the conditions are changed
+   * @throws OvsdbClientException when the request doesn't go through
+   */
+  default CompletableFuture<Void> monitorCondChange(
+      String monitorId, String newMonitorId, MonitorCondRequests monitorCondRequests
+  ) throws OvsdbClientException {
+    throw new OvsdbClientException("monitor_cond_change is not supported");
+  }
+
   /**
    * Send a monitor request to OVSDB server.
    *
@@ -126,6 +273,19 @@ public interface OvsdbClient {
    */
   OvsdbConnectionInfo getConnectionInfo();
 
+  /**
+   * Get a {@link CompletableFuture} that completes when this client is shut down, either by
+   * {@link #shutdown()} or because the connection is lost.
+   *
+   * @return a {@link CompletableFuture} that completes when this client is shut down
+   */
+  default CompletableFuture<Void> getShutdownFuture() {
+    CompletableFuture<Void> completableFuture = new CompletableFuture<>();
+    completableFuture.completeExceptionally(
+        new OvsdbClientException("Shutdown future is not supported"));
+    return completableFuture;
+  }
+
   /**
    * Shut down this OVSDB client.
    */
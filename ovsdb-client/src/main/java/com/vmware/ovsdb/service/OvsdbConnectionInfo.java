@@ -15,6 +15,7 @@
 package com.vmware.ovsdb.service;
 
 import io.netty.channel.Channel;
+import io.netty.channel.unix.DomainSocketAddress;
 import io.netty.handler.ssl.SslHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,6 +23,7 @@ import org.slf4j.LoggerFactory;
 import java.lang.invoke.MethodHandles;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.security.cert.Certificate;
 import javax.net.ssl.SSLPeerUnverifiedException;
 import javax.net.ssl.SSLSession;
@@ -43,6 +45,8 @@ public class OvsdbConnectionInfo {
 
   private final Certificate remoteCertificate;
 
+  private final String socketPath;
+
   /**
    * Create a {@link OvsdbConnectionInfo} object.
    *
@@ -51,11 +55,12 @@ public class OvsdbConnectionInfo {
    * @param remoteAddress remote address of the connection
    * @param remotePort remove port of the connection
    * @param remoteCertificate remote certificate
+   * @param socketPath path of the Unix domain socket, or null for a TCP connection
    */
   private OvsdbConnectionInfo(
       InetAddress localAddress, int localPort,
       InetAddress remoteAddress, int remotePort,
-      Certificate localCertificate, Certificate remoteCertificate
+      Certificate localCertificate, Certificate remoteCertificate, String socketPath
   ) {
     this.localAddress = localAddress;
     this.localPort = localPort;
@@ -63,6 +68,7 @@ public class OvsdbConnectionInfo {
     this.remotePort = remotePort;
     this.localCertificate = localCertificate;
     this.remoteCertificate = remoteCertificate;
+    this.socketPath = socketPath;
   }
 
   public InetAddress getLocalAddress() {
@@ -89,6 +95,16 @@ public class OvsdbConnectionInfo {
     return remoteCertificate;
   }
 
+  /**
+   * Get the path of the Unix domain socket of the connection. The addresses and ports of such a
+   * connection are null and 0.
+   *
+   * @return the socket path, or null if this is a TCP connection
+   */
+  public String getSocketPath() {
+    return socketPath;
+  }
+
   /**
    * Get the connection info from a Netty channel.
    *
@@ -96,14 +112,25 @@ public class OvsdbConnectionInfo {
    * @return an {@link OvsdbConnectionInfo} object
    */
   public static OvsdbConnectionInfo fromChannel(Channel channel) {
-    InetSocketAddress remoteSocketAddress
-        = (InetSocketAddress) channel.remoteAddress();
-    InetAddress remoteAddress = remoteSocketAddress.getAddress();
-    int remotePort = remoteSocketAddress.getPort();
-    InetSocketAddress localSocketAddress
-        = (InetSocketAddress) channel.localAddress();
-    InetAddress localAddress = localSocketAddress.getAddress();
-    int localPort = localSocketAddress.getPort();
+    InetAddress remoteAddress = null;
+    int remotePort = 0;
+    InetAddress localAddress = null;
+    int localPort = 0;
+    String socketPath = null;
+    SocketAddress remoteSocketAddress = channel.remoteAddress();
+    SocketAddress localSocketAddress = channel.localAddress();
+    if (remoteSocketAddress instanceof InetSocketAddress) {
+      remoteAddress = ((InetSocketAddress) remoteSocketAddress).getAddress();
+      remotePort = ((InetSocketAddress) remoteSocketAddress).getPort();
+      localAddress = ((InetSocketAddress) localSocketAddress).getAddress();
+      localPort = ((InetSocketAddress) localSocketAddress).getPort();
+    } else {
+      // Only one end of a Unix domain socket connection is bound to the path
+      socketPath = getPath(localSocketAddress);
+      if (socketPath == null) {
+        socketPath = getPath(remoteSocketAddress);
+      }
+    }
 
     SslHandler sslHandler = channel.pipeline().get(SslHandler.class);
     Certificate localCertificate = null;
@@ -120,10 +147,19 @@ public class OvsdbConnectionInfo {
       }
     }
     return new OvsdbConnectionInfo(
-        localAddress, localPort, remoteAddress, remotePort, localCertificate, remoteCertificate
+        localAddress, localPort, remoteAddress, remotePort, localCertificate, remoteCertificate,
+        socketPath
     );
   }
 
+  private static String getPath(SocketAddress socketAddress) {
+    if (socketAddress instanceof DomainSocketAddress) {
+      String path = ((DomainSocketAddress) socketAddress).path();
+      return path == null || path.isEmpty() ? null : path;
+    }
+    return null;
+  }
+
   @Override
   public String toString() {
     return getClass().getSimpleName() + " ["
@@ -132,6 +168,7 @@ public class OvsdbConnectionInfo {
         + ", remoteAddress=" + remoteAddress
         + ", remotePort=" + remotePort
         + ", remoteCertificate=" + remoteCertificate
+        + ", socketPath=" + socketPath
         + "]";
   }
 }
@@ -17,6 +17,7 @@ package com.vmware.ovsdb.service;
 import com.vmware.ovsdb.callback.ConnectionCallback;
 import io.netty.handler.ssl.SslContext;
 
+import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
 
 public interface OvsdbPassiveConnectionListener {
@@ -52,4 +53,35 @@ public interface OvsdbPassiveConnectionListener {
    *         successfully or false otherwise
    */
   CompletableFuture<Boolean> stopListening(int port);
+
+  /**
+   * Start listening on a Unix domain socket. The socket file must not exist yet. It is removed
+   * when listening stops. This is only supported where the native epoll transport is available,
+   * that is, on Linux.
+   *
+   * @param socketPath path of the Unix domain socket
+   * @param connectionCallback called when there is a connection from the OVSDB server
+   * @return a {@link CompletableFuture} that will complete with true if listening starts
+   *         successfully or false otherwise, or with an {@link UnsupportedOperationException} if
+   *         Unix domain sockets are not supported
+   */
+  default CompletableFuture<Boolean> startListeningUnix(
+      Path socketPath, ConnectionCallback connectionCallback
+  ) {
+    CompletableFuture<Boolean> completableFuture = new CompletableFuture<>();
+    completableFuture.completeExceptionally(
+        new UnsupportedOperationException("Unix domain sockets are not supported"));
+    return completableFuture;
+  }
+
+  /**
+   * Stop listening on the given Unix domain socket.
+   *
+   * @param socketPath the path of the Unix domain socket to stop listening
+   * @return a {@link CompletableFuture} that will complete with true if listening stops
+   *         successfully or false otherwise
+   */
+  default CompletableFuture<Boolean> stopListeningUnix(Path socketPath) {
+    return CompletableFuture.completedFuture(true);
+  }
 }
@@ -0,0 +1,410 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.service.impl;
+
+import com.vmware.ovsdb.callback.LockCallback;
+import com.vmware.ovsdb.callback.MonitorCallback;
+import com.vmware.ovsdb.callback.MonitorCondCallback;
+import com.vmware.ovsdb.callback.MonitorCondSinceCallback;
+import com.vmware.ovsdb.exception.OvsdbClientException;
+import com.vmware.ovsdb.protocol.methods.LockResult;
+import com.vmware.ovsdb.protocol.methods.MonitorCondRequests;
+import com.vmware.ovsdb.protocol.methods.MonitorCondSinceResult;
+import com.vmware.ovsdb.protocol.methods.MonitorRequests;
+import com.vmware.ovsdb.protocol.methods.TableUpdates;
+import com.vmware.ovsdb.protocol.methods.TableUpdates2;
+import com.vmware.ovsdb.protocol.operation.Abort;
+import com.vmware.ovsdb.protocol.operation.Operation;
+import com.vmware.ovsdb.protocol.operation.Wait;
+import com.vmware.ovsdb.protocol.operation.result.ErrorResult;
+import com.vmware.ovsdb.protocol.operation.result.OperationResult;
+import com.vmware.ovsdb.protocol.schema.DatabaseSchema;
+import com.vmware.ovsdb.service.OvsdbClient;
+import com.vmware.ovsdb.service.OvsdbConnectionInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link OvsdbClient} decorator that merges the transact calls made close together on the
+ * same database into one transaction. A batch is sent when it has been open for maxDelay or
+ * when it holds maxOperations operations, whichever comes first. The "uuid-name"s of each caller
+ * are prefixed so that they do not collide. Each caller gets the slice of the results that
+ * belongs to its own operations.
+ *
+ * <p>The calls of a batch run as one transaction, in the order they arrived. Each call sees the
+ * changes of the calls before it, so a "wait" or "select" can see rows that another caller
+ * inserted but that would not exist yet without batching. The checks that the server makes when it
+ * commits, such as unique indexes, referential integrity and the removal of unreferenced non-root
+ * rows, are made once on the merged transaction, so a call that would fail alone can succeed
+ * because of the operations of another call in the same batch.</p>
+ *
+ * <p>OVSDB transactions are atomic. If the merged transaction fails, nothing of it is committed,
+ * so the calls of the batch are sent again one by one, and one failing call does not fail the
+ * others. If the merged call itself fails, for example because it times out or the connection is
+ * lost, whether it is committed is unknown, and all its callers get the exception.</p>
+ *
+ * <p>Cancelling the future of a call removes it from its batch if the batch is not sent yet.
+ * Once the batch is sent, cancelling the future does not stop the operations.</p>
+ *
+ * <p>A transaction is sent on its own if it contains an "abort" operation, a "wait" operation
+ * with a non-zero timeout, or an operation this class does not know about. All other methods are
+ * passed through to the decorated client.</p>
+ */
+public class BatchingOvsdbClient implements OvsdbClient {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(
+      MethodHandles.lookup().lookupClass());
+
+  private final OvsdbClient ovsdbClient;
+
+  private final ScheduledExecutorService executorService;
+
+  private final long maxDelay;
+
+  private final TimeUnit maxDelayUnit;
+
+  private final int maxOperations;
+
+  private final Map<String, Batch> openBatches = new HashMap<>();
+
+  // Guarded by openBatches
+  private boolean isActive = true;
+
+  /**
+   * Create a {@link BatchingOvsdbClient} object.
+   *
+   * @param ovsdbClient the client to send the merged transactions with
+   * @param executorService used to send a batch after maxDelay
+   * @param maxDelay how long a batch is kept open for more operations
+   * @param maxDelayUnit the time unit of maxDelay
+   * @param maxOperations the number of operations that makes a batch full
+   */
+  public BatchingOvsdbClient(
+      OvsdbClient ovsdbClient, ScheduledExecutorService executorService,
+      long maxDelay, TimeUnit maxDelayUnit, int maxOperations
+  ) {
+    this.ovsdbClient = ovsdbClient;
+    this.executorService = executorService;
+    this.maxDelay = maxDelay;
+    this.maxDelayUnit = maxDelayUnit;
+    this.maxOperations = maxOperations;
+  }
+
+  @Override
+  public CompletableFuture<String[]> listDatabases() throws OvsdbClientException {
+    return ovsdbClient.listDatabases();
+  }
+
+  @Override
+  public CompletableFuture<DatabaseSchema> getSchema(String dbName) throws OvsdbClientException {
+    return ovsdbClient.getSchema(dbName);
+  }
+
+  @Override
+  public CompletableFuture<OperationResult[]> transact(
+      String dbName, List<Operation> operations
+  ) throws OvsdbClientException {
+    if (operations.isEmpty() || !operations.stream().allMatch(BatchingOvsdbClient::canBatch)) {
+      return ovsdbClient.transact(dbName, operations);
+    }
+    BatchedCall call = new BatchedCall(new ArrayList<>(operations));
+    List<Batch> fullBatches = new ArrayList<>(2);
+    Batch openBatch;
+    synchronized (openBatches) {
+      if (!isActive) {
+        throw new OvsdbClientException("This OVSDB client is not active");
+      }
+      Batch batch = openBatches.get(dbName);
+      if (batch != null && batch.size + operations.size() > maxOperations) {
+        // Never split the operations of a call, so send what is there first
+        fullBatches.add(closeBatch(dbName));
+        batch = null;
+      }
+      if (batch == null) {
+        Batch newBatch = new Batch(dbName);
+        openBatches.put(dbName, newBatch);
+        batch = newBatch;
+        executorService.schedule(() -> {
+          synchronized (openBatches) {
+            if (openBatches.get(dbName) != newBatch) {
+              return;
+            }
+            closeBatch(dbName);
+          }
+          send(newBatch);
+        }, maxDelay, maxDelayUnit);
+      }
+      batch.add(call);
+      if (batch.size >= maxOperations) {
+        fullBatches.add(closeBatch(dbName));
+        openBatch = null;
+      } else {
+        openBatch = batch;
+      }
+    }
+    if (openBatch != null) {
+      call.result.whenComplete((results, ex) -> {
+        if (call.result.isCancelled()) {
+          removeCancelled(openBatch, call);
+        }
+      });
+    }
+    fullBatches.forEach(this::send);
+    return call.result;
+  }
+
+  @Override
+  public CompletableFuture<TableUpdates> monitor(
+      String dbName, String monitorId, MonitorRequests monitorRequests,
+      MonitorCallback monitorCallback
+  ) throws OvsdbClientException {
+    return ovsdbClient.monitor(dbName, monitorId, monitorRequests, monitorCallback);
+  }
+
+  @Override
+  public CompletableFuture<TableUpdates> monitor(
+      String dbName, String monitorId, MonitorRequests monitorRequests,
+      MonitorCallback monitorCallback, DatabaseSchema databaseSchema
+  ) throws OvsdbClientException {
+    return ovsdbClient.monitor(
+        dbName, monitorId, monitorRequests, monitorCallback, databaseSchema);
+  }
+
+  @Override
+  public CompletableFuture<TableUpdates2> monitorCond(
+      String dbName, String monitorId, MonitorCondRequests monitorCondRequests,
+      MonitorCondCallback monitorCondCallback
+  ) throws OvsdbClientException {
+    return ovsdbClient.monitorCond(dbName, monitorId, monitorCondRequests, monitorCondCallback);
+  }
+
+  @Override
+  public CompletableFuture<TableUpdates2> monitorCond(
+      String dbName, String monitorId, MonitorCondRequests monitorCondRequests,
+      MonitorCondCallback monitorCondCallback, DatabaseSchema databaseSchema
+  ) throws OvsdbClientException {
+    return ovsdbClient.monitorCond(
+        dbName, monitorId, monitorCondRequests, monitorCondCallback, databaseSchema);
+  }
+
+  @Override
+  public CompletableFuture<MonitorCondSinceResult> monitorCondSince(
+      String dbName, String monitorId, MonitorCondRequests monitorCondRequests, UUID lastTxnId,
+      MonitorCondSinceCallback monitorCondSinceCallback
+  ) throws OvsdbClientException {
+    return ovsdbClient.monitorCondSince(
+        dbName, monitorId, monitorCondRequests, lastTxnId, monitorCondSinceCallback);
+  }
+
+  @Override
+  public CompletableFuture<MonitorCondSinceResult> monitorCondSince(
+      String dbName, String monitorId, MonitorCondRequests monitorCondRequests, UUID lastTxnId,
+      MonitorCondSinceCallback monitorCondSinceCallback, DatabaseSchema databaseSchema
+  ) throws OvsdbClientException {
+    return ovsdbClient.monitorCondSince(dbName, monitorId, monitorCondRequests, lastTxnId,
+        monitorCondSinceCallback, databaseSchema);
+  }
+
+  @Override
+  public CompletableFuture<Void> monitorCondChange(
+      String monitorId, String newMonitorId, MonitorCondRequests monitorCondRequests
+  ) throws OvsdbClientException {
+    return ovsdbClient.monitorCondChange(monitorId, newMonitorId, monitorCondRequests);
+  }
+
+  @Override
+  public CompletableFuture<Void> cancelMonitor(String monitorId) throws OvsdbClientException {
+    return ovsdbClient.cancelMonitor(monitorId);
+  }
+
+  @Override
+  public CompletableFuture<LockResult> lock(String lockId, LockCallback lockCallback)
+      throws OvsdbClientException {
+    return ovsdbClient.lock(lockId, lockCallback);
+  }
+
+  @Override
+  public CompletableFuture<LockResult> steal(String lockId, LockCallback lockCallback)
+      throws OvsdbClientException {
+    return ovsdbClient.steal(lockId, lockCallback);
+  }
+
+  @Override
+  public CompletableFuture<Void> unlock(String lockId) throws OvsdbClientException {
+    return ovsdbClient.unlock(lockId);
+  }
+
+  @Override
+  public OvsdbConnectionInfo getConnectionInfo() {
+    return ovsdbClient.getConnectionInfo();
+  }
+
+  @Override
+  public CompletableFuture<Void> getShutdownFuture() {
+    return ovsdbClient.getShutdownFuture();
+  }
+
+  /**
+   * Shut down the decorated client. The calls that are not sent yet fail.
+   */
+  @Override
+  public void shutdown() {
+    List<Batch> batches;
+    synchronized (openBatches) {
+      isActive = false;
+      batches = new ArrayList<>(openBatches.values());
+      openBatches.clear();
+    }
+    batches.forEach(batch -> batch.calls.forEach(call -> call.result.completeExceptionally(
+        new OvsdbClientException("This OVSDB client is not active"))));
+    ovsdbClient.shutdown();
+  }
+
+  private static boolean canBatch(Operation operation) {
+    if (operation instanceof Wait) {
+      // A wait with a timeout would hold up the whole batch
+      Integer timeout = ((Wait) operation).getTimeout();
+      return timeout != null && timeout == 0;
+    }
+    return !(operation instanceof Abort) && NamedUuidRenamer.isSupported(operation);
+  }
+
+  private Batch closeBatch(String dbName) {
+    return openBatches.remove(dbName);
+  }
+
+  private void removeCancelled(Batch batch, BatchedCall call) {
+    synchronized (openBatches) {
+      // A batch that is closed is being sent as it is
+      if (openBatches.get(batch.dbName) != batch) {
+        return;
+      }
+      batch.remove(call);
+      if (batch.calls.isEmpty()) {
+        closeBatch(batch.dbName);
+      }
+    }
+  }
+
+  private void send(Batch batch) {
+    if (batch.calls.size() == 1) {
+      sendAlone(batch.dbName, batch.calls.get(0));
+      return;
+    }
+    List<Operation> operations = new ArrayList<>(batch.size);
+    for (int i = 0; i < batch.calls.size(); i++) {
+      operations.addAll(
+          new NamedUuidRenamer("b" + i + "_").rename(batch.calls.get(i).operations));
+    }
+    CompletableFuture<OperationResult[]> completableFuture;
+    try {
+      completableFuture = ovsdbClient.transact(batch.dbName, operations);
+    } catch (OvsdbClientException ex) {
+      batch.calls.forEach(call -> call.result.completeExceptionally(ex));
+      return;
+    }
+    completableFuture.whenComplete((results, ex) -> {
+      if (ex != null) {
+        batch.calls.forEach(call -> call.result.completeExceptionally(ex));
+      } else if (isSuccessful(results, operations.size())) {
+        int offset = 0;
+        for (BatchedCall call : batch.calls) {
+          int end = offset + call.operations.size();
+          call.result.complete(Arrays.copyOfRange(results, offset, end));
+          offset = end;
+        }
+      } else {
+        // Nothing is committed, so find out which calls fail by sending them one by one
+        LOGGER.debug("Batch of {} calls on {} failed. Sending them one by one.",
+            batch.calls.size(), batch.dbName);
+        batch.calls.forEach(call -> sendAlone(batch.dbName, call));
+      }
+    });
+  }
+
+  private void sendAlone(String dbName, BatchedCall call) {
+    try {
+      ovsdbClient.transact(dbName, call.operations).whenComplete((results, ex) -> {
+        if (ex != null) {
+          call.result.completeExceptionally(ex);
+        } else {
+          call.result.complete(results);
+        }
+      });
+    } catch (OvsdbClientException ex) {
+      call.result.completeExceptionally(ex);
+    }
+  }
+
+  private static boolean isSuccessful(OperationResult[] results, int operationCount) {
+    // A failed transaction has an error in place of the failed operation, or an extra error
+    // at the end if the commit fails
+    if (results == null || results.length != operationCount) {
+      return false;
+    }
+    for (OperationResult result : results) {
+      if (result == null || result instanceof ErrorResult) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static class Batch {
+
+    private final String dbName;
+
+    private final List<BatchedCall> calls = new ArrayList<>();
+
+    private int size = 0;
+
+    Batch(String dbName) {
+      this.dbName = dbName;
+    }
+
+    void add(BatchedCall call) {
+      calls.add(call);
+      size += call.operations.size();
+    }
+
+    void remove(BatchedCall call) {
+      if (calls.remove(call)) {
+        size -= call.operations.size();
+      }
+    }
+  }
+
+  private static class BatchedCall {
+
+    private final List<Operation> operations;
+
+    private final CompletableFuture<OperationResult[]> result = new CompletableFuture<>();
+
+    BatchedCall(List<Operation> operations) {
+      this.operations = operations;
+    }
+  }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.service.impl;
+
+import com.vmware.ovsdb.exception.OvsdbClientException;
+import com.vmware.ovsdb.jsonrpc.v1.spi.JsonRpcTimer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Bounds the number of calls an {@link com.vmware.ovsdb.service.OvsdbClient} has in flight. A call
+ * holds a permit from the moment it is sent until its future completes, which includes a timeout.
+ * A call can only be started while a permit is free and the channel is writable, that is, while
+ * the bytes pending in the Netty outbound buffer are below the high water mark. Otherwise, the
+ * {@link OverflowPolicy} decides whether the call waits or fails at once. The waiting calls are
+ * started in order. Cancelling the future of a waiting call drops it, and cancelling the future
+ * of a started call cancels the underlying call.
+ *
+ * <p>The number of waiting calls is bounded, and a call that waits longer than the wait timeout
+ * fails with a {@link TimeoutException} without being sent, so callers don't pile up behind a
+ * stalled peer. A window whose maximum number of calls in flight is not positive is disabled: it
+ * starts every call at once and keeps no count.</p>
+ */
+class CallWindow {
+
+  /**
+   * What to do with a call when the window is full or the channel is not writable.
+   */
+  enum OverflowPolicy {
+    /**
+     * Return a future at once and send the call when a permit frees up.
+     */
+    WAIT,
+    /**
+     * Throw an {@link OvsdbClientException}.
+     */
+    FAIL
+  }
+
+  private final boolean isEnabled;
+
+  private final int maxInFlight;
+
+  private final int maxPending;
+
+  private final OverflowPolicy overflowPolicy;
+
+  private final BooleanSupplier isWritable;
+
+  private final JsonRpcTimer timer;
+
+  private final long waitTimeout;
+
+  private final TimeUnit waitTimeoutUnit;
+
+  private final Queue<PendingCall<?>> pendingCalls = new ArrayDeque<>();
+
+  private int inFlight = 0;
+
+  private boolean isClosed = false;
+
+  /**
+   * Create a {@link CallWindow} object.
+   *
+   * @param maxInFlight the maximum number of calls in flight. The window is disabled if it is not
+   *     positive
+   * @param maxPending the maximum number of waiting calls. Not bounded if it is not positive
+   * @param overflowPolicy what to do with a call that cannot be started at once
+   * @param isWritable tells whether the channel is writable
+   * @param timer used to fail the calls that wait too long
+   * @param waitTimeout the maximum time a call waits to be started
+   * @param waitTimeoutUnit the time unit of the waitTimeout parameter
+   */
+  CallWindow(
+      int maxInFlight, int maxPending, OverflowPolicy overflowPolicy, BooleanSupplier isWritable,
+      JsonRpcTimer timer, long waitTimeout, TimeUnit waitTimeoutUnit
+  ) {
+    this.isEnabled = maxInFlight > 0;
+    this.maxInFlight = maxInFlight;
+    this.maxPending = maxPending > 0 ? maxPending : Integer.MAX_VALUE;
+    this.overflowPolicy = overflowPolicy;
+    this.isWritable = isWritable;
+    this.timer = timer;
+    this.waitTimeout = waitTimeout;
+    this.waitTimeoutUnit = waitTimeoutUnit;
+  }
+
+  /**
+   * Start the call if the window allows, or handle it according to the {@link OverflowPolicy}.
+   *
+   * @param call the call to start
+   * @return the future of the call result
+   * @throws OvsdbClientException if the call fails to start, or if it cannot be started at once
+   *     and the policy is {@link OverflowPolicy#FAIL} or too many calls are waiting
+   */
+  <T> CompletableFuture<T> submit(Call<T> call) throws OvsdbClientException {
+    if (!isEnabled) {
+      return call.start();
+    }
+    PendingCall<T> pendingCall;
+    synchronized (this) {
+      if (isClosed) {
+        throw new OvsdbClientException("This OVSDB client is not active");
+      }
+      if (pendingCalls.isEmpty() && canStart()) {
+        inFlight++;
+        pendingCall = null;
+      } else if (overflowPolicy == OverflowPolicy.FAIL) {
+        throw new OvsdbClientException("Too many calls in flight (" + inFlight
+            + ") or the channel is not writable");
+      } else if (pendingCalls.size() >= maxPending) {
+        throw new OvsdbClientException("Too many calls waiting (" + pendingCalls.size() + ")");
+      } else {
+        pendingCall = new PendingCall<>(call);
+        pendingCall.startTimer();
+        pendingCalls.add(pendingCall);
+      }
+    }
+    if (pendingCall != null) {
+      return pendingCall.result;
+    }
+    return start(call);
+  }
+
+  /**
+   * Start the waiting calls that the window now allows. It should be called when the channel
+   * becomes writable.
+   */
+  void drain() {
+    while (true) {
+      PendingCall<?> pendingCall;
+      synchronized (this) {
+        if (pendingCalls.isEmpty() || !canStart()) {
+          return;
+        }
+        inFlight++;
+        pendingCall = pendingCalls.poll();
+        pendingCall.isQueued = false;
+      }
+      pendingCall.start();
+    }
+  }
+
+  /**
+   * Fail all the waiting calls and refuse any new call.
+   */
+  void close() {
+    List<PendingCall<?>> failedCalls;
+    synchronized (this) {
+      isClosed = true;
+      failedCalls = new ArrayList<>(pendingCalls);
+      pendingCalls.clear();
+    }
+    failedCalls.forEach(pendingCall -> pendingCall.result.completeExceptionally(
+        new OvsdbClientException("This OVSDB client is not active")));
+  }
+
+  synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  synchronized int getPending() {
+    return pendingCalls.size();
+  }
+
+  private boolean canStart() {
+    return inFlight < maxInFlight && isWritable.getAsBoolean();
+  }
+
+  private <T> CompletableFuture<T> start(Call<T> call) throws OvsdbClientException {
+    CompletableFuture<T> completableFuture;
+    try {
+      completableFuture = call.start();
+    } catch (OvsdbClientException | RuntimeException ex) {
+      release();
+      throw ex;
+    }
+    completableFuture.whenComplete((result, ex) -> release());
+    return completableFuture;
+  }
+
+  private void release() {
+    synchronized (this) {
+      inFlight--;
+    }
+    drain();
+  }
+
+  /**
+   * A call that is started by the window.
+   */
+  @FunctionalInterface
+  interface Call<T> {
+
+    CompletableFuture<T> start() throws OvsdbClientException;
+  }
+
+  private class PendingCall<T> {
+
+    private final Call<T> call;
+
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+
+    // Guarded by the window
+    private boolean isQueued = true;
+
+    private JsonRpcTimer.Timeout timeout;
+
+    PendingCall(Call<T> call) {
+      this.call = call;
+    }
+
+    void startTimer() {
+      timeout = timer.newTimeout(() -> result.completeExceptionally(
+          new TimeoutException("Call not sent within " + waitTimeout + " "
+              + waitTimeoutUnit.toString().toLowerCase())), waitTimeout, waitTimeoutUnit);
+      result.whenComplete((value, ex) -> {
+        timeout.cancel();
+        // Drop it from the queue at once if it is cancelled or times out while waiting
+        synchronized (CallWindow.this) {
+          if (isQueued) {
+            pendingCalls.remove(this);
+            isQueued = false;
+          }
+        }
+      });
+    }
+
+    void start() {
+      timeout.cancel();
+      if (result.isDone()) {
+        // Cancelled or timed out while waiting, so it is never sent
+        release();
+        return;
+      }
+      try {
+        CompletableFuture<T> completableFuture = CallWindow.this.start(call);
+        completableFuture.whenComplete((value, ex) -> {
+          if (ex != null) {
+            result.completeExceptionally(ex);
+          } else {
+            result.complete(value);
+          }
+        });
+        result.whenComplete((value, ex) -> {
+          if (result.isCancelled()) {
+            completableFuture.cancel(false);
+          }
+        });
+      } catch (OvsdbClientException | RuntimeException ex) {
+        result.completeExceptionally(ex);
+      }
+    }
+  }
+}
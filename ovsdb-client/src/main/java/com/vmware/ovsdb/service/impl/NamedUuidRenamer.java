@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.service.impl;
+
+import com.vmware.ovsdb.protocol.operation.Abort;
+import com.vmware.ovsdb.protocol.operation.Assert;
+import com.vmware.ovsdb.protocol.operation.Comment;
+import com.vmware.ovsdb.protocol.operation.Commit;
+import com.vmware.ovsdb.protocol.operation.Delete;
+import com.vmware.ovsdb.protocol.operation.Insert;
+import com.vmware.ovsdb.protocol.operation.Mutate;
+import com.vmware.ovsdb.protocol.operation.Operation;
+import com.vmware.ovsdb.protocol.operation.Select;
+import com.vmware.ovsdb.protocol.operation.Update;
+import com.vmware.ovsdb.protocol.operation.Wait;
+import com.vmware.ovsdb.protocol.operation.notation.Atom;
+import com.vmware.ovsdb.protocol.operation.notation.Condition;
+import com.vmware.ovsdb.protocol.operation.notation.Map;
+import com.vmware.ovsdb.protocol.operation.notation.Mutation;
+import com.vmware.ovsdb.protocol.operation.notation.NamedUuid;
+import com.vmware.ovsdb.protocol.operation.notation.Pair;
+import com.vmware.ovsdb.protocol.operation.notation.Row;
+import com.vmware.ovsdb.protocol.operation.notation.Set;
+import com.vmware.ovsdb.protocol.operation.notation.Value;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Copies operations with every "uuid-name" and named-uuid reference prefixed, so that the
+ * operations of different callers can be merged into one transaction without name collisions.
+ * With prefixes of the form "b&lt;n&gt;_", the renamed names of different callers never collide.
+ */
+class NamedUuidRenamer {
+
+  private final String prefix;
+
+  NamedUuidRenamer(String prefix) {
+    this.prefix = prefix;
+  }
+
+  /**
+   * Returns true if the operations can be renamed by this class. A transaction with an
+   * {@link Operation} type unknown to this class must be sent on its own.
+   */
+  static boolean isSupported(Operation operation) {
+    return operation instanceof Insert || operation instanceof Update
+        || operation instanceof Mutate || operation instanceof Delete
+        || operation instanceof Select || operation instanceof Wait
+        || operation instanceof Comment || operation instanceof Assert
+        || operation instanceof Commit || operation instanceof Abort;
+  }
+
+  List<Operation> rename(List<Operation> operations) {
+    return operations.stream().map(this::renameOperation).collect(Collectors.toList());
+  }
+
+  private Operation renameOperation(Operation operation) {
+    if (operation instanceof Insert) {
+      Insert insert = (Insert) operation;
+      String uuidName = insert.getUuidName();
+      return new Insert(insert.getTable(), renameRow(insert.getRow()),
+          uuidName == null ? null : prefix + uuidName);
+    } else if (operation instanceof Update) {
+      Update update = (Update) operation;
+      return new Update(update.getTable(), renameConditions(update.getWhere()),
+          renameRow(update.getRow()));
+    } else if (operation instanceof Mutate) {
+      Mutate mutate = (Mutate) operation;
+      return new Mutate(mutate.getTable(), renameConditions(mutate.getWhere()),
+          mutate.getMutations().stream()
+              .map(mutation -> new Mutation(mutation.getColumn(), mutation.getMutator(),
+                  renameValue(mutation.getValue())))
+              .collect(Collectors.toList()));
+    } else if (operation instanceof Delete) {
+      Delete delete = (Delete) operation;
+      return new Delete(delete.getTable(), renameConditions(delete.getWhere()));
+    } else if (operation instanceof Select) {
+      Select select = (Select) operation;
+      return new Select(select.getTable(), renameConditions(select.getWhere()),
+          select.getColumns());
+    } else if (operation instanceof Wait) {
+      Wait wait = (Wait) operation;
+      return new Wait(wait.getTable(), wait.getTimeout(), renameConditions(wait.getWhere()),
+          wait.getColumns(), wait.getUntil(),
+          wait.getRows() == null ? null
+              : wait.getRows().stream().map(this::renameRow).collect(Collectors.toList()));
+    }
+    // The other operations do not refer to any named-uuid
+    return operation;
+  }
+
+  private List<Condition> renameConditions(List<Condition> conditions) {
+    if (conditions == null) {
+      return null;
+    }
+    return conditions.stream()
+        .map(condition -> new Condition(condition.getColumn(), condition.getFunction(),
+            renameValue((Value) condition.getValue())))
+        .collect(Collectors.toList());
+  }
+
+  private Row renameRow(Row row) {
+    if (row == null) {
+      return null;
+    }
+    java.util.Map<String, Value> columns = new LinkedHashMap<>();
+    row.getColumns().forEach((column, value) -> columns.put(column, renameValue(value)));
+    return new Row(columns);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Value renameValue(Value value) {
+    if (value instanceof Atom) {
+      return renameAtom((Atom) value);
+    } else if (value instanceof Set) {
+      return new Set(((Set) value).getSet().stream().map(this::renameAtom)
+          .collect(Collectors.toCollection(LinkedHashSet::new)));
+    } else if (value instanceof Map) {
+      List<Pair> pairs = ((Map<?, ?>) value).getPairs().stream()
+          .map(pair -> new Pair(renameAtom(pair.getKey()), renameAtom(pair.getValue())))
+          .collect(Collectors.toList());
+      return new Map(pairs);
+    }
+    return value;
+  }
+
+  private Atom renameAtom(Atom atom) {
+    if (atom != null && atom.getValue() instanceof NamedUuid) {
+      return Atom.namedUuid(prefix + ((NamedUuid) atom.getValue()).getUuidName());
+    }
+    return atom;
+  }
+}
@@ -16,25 +16,72 @@ package com.vmware.ovsdb.service.impl;
 
 import static com.vmware.ovsdb.netty.OvsdbChannelInitializer.newOvsdbChannelInitializer;
 
+import com.vmware.ovsdb.netty.NettyTransport;
 import com.vmware.ovsdb.service.OvsdbActiveConnectionConnector;
 import com.vmware.ovsdb.service.OvsdbClient;
+import com.vmware.ovsdb.util.PropertyManager;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.unix.DomainSocketAddress;
 import io.netty.handler.ssl.SslContext;
+import io.netty.util.concurrent.DefaultThreadFactory;
 
+import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 
+/**
+ * An {@link OvsdbActiveConnectionConnector} that runs all its connections on one
+ * {@link EventLoopGroup}. A connection takes no thread of its own, so thousands of connections can
+ * share a small, fixed number of event loops.
+ *
+ * <p>The group is either given by the caller, who then owns it and shuts it down, or is a default
+ * group shared by all the connectors of this process. The default group uses daemon threads and
+ * lives as long as the process. Its size is read from "channel.active.event.loop.threads", where
+ * 0 means the Netty default of twice the number of cores. The transport, NIO or epoll, is chosen
+ * by {@link NettyTransport}.</p>
+ *
+ * <p>Unix domain socket connections need an epoll group. They run on the group of the connector if
+ * it is one, or on a default epoll group shared by the process otherwise.</p>
+ */
 public class OvsdbActiveConnectionConnectorImpl implements OvsdbActiveConnectionConnector {
 
+  private static final int DEFAULT_EVENT_LOOP_THREADS = PropertyManager
+      .getIntProperty("channel.active.event.loop.threads", 0);
+
   private final ScheduledExecutorService executorService;
 
+  private final Bootstrap bootstrap;
+
+  private final EventLoopGroup eventLoopGroup;
+
+  /**
+   * Create an {@link OvsdbActiveConnectionConnectorImpl} that uses the default event loop group.
+   *
+   * @param executorService used for asynchronous operations
+   */
   public OvsdbActiveConnectionConnectorImpl(ScheduledExecutorService executorService) {
+    this(executorService, DefaultEventLoopGroupHolder.GROUP);
+  }
+
+  /**
+   * Create an {@link OvsdbActiveConnectionConnectorImpl} that runs its connections on the given
+   * event loop group. The connector never shuts the group down.
+   *
+   * @param executorService used for asynchronous operations
+   * @param eventLoopGroup the {@link EventLoopGroup} to run the connections on, either an NIO or
+   *     an epoll group
+   */
+  public OvsdbActiveConnectionConnectorImpl(
+      ScheduledExecutorService executorService, EventLoopGroup eventLoopGroup
+  ) {
     this.executorService = executorService;
+    this.eventLoopGroup = eventLoopGroup;
+    this.bootstrap = NettyTransport.configure(new Bootstrap().group(eventLoopGroup))
+        .option(ChannelOption.TCP_NODELAY, true);
   }
 
   @Override
@@ -47,17 +94,51 @@ public class OvsdbActiveConnectionConnectorImpl implements OvsdbActiveConnection
     return doConnect(ip, port, sslContext);
   }
 
+  @Override
+  public CompletableFuture<OvsdbClient> connectUnix(Path socketPath) {
+    CompletableFuture<OvsdbClient> ovsdbClientFuture = new CompletableFuture<>();
+    if (!NettyTransport.isDomainSocketAvailable()) {
+      ovsdbClientFuture.completeExceptionally(new UnsupportedOperationException(
+          "Unix domain sockets are not supported",
+          NettyTransport.domainSocketUnavailabilityCause()));
+      return ovsdbClientFuture;
+    }
+    EventLoopGroup group = eventLoopGroup instanceof EpollEventLoopGroup
+        ? eventLoopGroup
+        : DefaultDomainSocketEventLoopGroupHolder.GROUP;
+    ChannelFuture channelFuture = NettyTransport.configureDomainSocket(new Bootstrap().group(group))
+        .handler(newOvsdbChannelInitializer(null, executorService, ovsdbClientFuture))
+        .connect(new DomainSocketAddress(socketPath.toFile()));
+    channelFuture.addListener(future -> {
+      if (!future.isSuccess()) {
+        ovsdbClientFuture.completeExceptionally(future.cause());
+      }
+    });
+    return ovsdbClientFuture;
+  }
+
   private CompletableFuture<OvsdbClient> doConnect(String ip, int port, SslContext sslContext) {
     CompletableFuture<OvsdbClient> ovsdbClientFuture = new CompletableFuture<>();
-    EventLoopGroup group = new NioEventLoopGroup();
-    Bootstrap bootstrap = new Bootstrap();
-    bootstrap.group(group)
-        .channel(NioSocketChannel.class)
-        .option(ChannelOption.TCP_NODELAY, true)
-        .handler(newOvsdbChannelInitializer(sslContext, executorService, ovsdbClientFuture));
-    ChannelFuture channelFuture = bootstrap.connect(ip, port);
-    channelFuture.channel().closeFuture()
-        .addListener(future -> group.shutdownGracefully());
+    ChannelFuture channelFuture = bootstrap.clone()
+        .handler(newOvsdbChannelInitializer(sslContext, executorService, ovsdbClientFuture))
+        .connect(ip, port);
+    channelFuture.addListener(future -> {
+      if (!future.isSuccess()) {
+        ovsdbClientFuture.completeExceptionally(future.cause());
+      }
+    });
     return ovsdbClientFuture;
   }
+
+  private static class DefaultEventLoopGroupHolder {
+
+    private static final EventLoopGroup GROUP = NettyTransport.newEventLoopGroup(
+        DEFAULT_EVENT_LOOP_THREADS, new DefaultThreadFactory("ovsdb-active", true));
+  }
+
+  private static class DefaultDomainSocketEventLoopGroupHolder {
+
+    private static final EventLoopGroup GROUP = NettyTransport.newDomainSocketEventLoopGroup(
+        DEFAULT_EVENT_LOOP_THREADS, new DefaultThreadFactory("ovsdb-active-unix", true));
+  }
 }
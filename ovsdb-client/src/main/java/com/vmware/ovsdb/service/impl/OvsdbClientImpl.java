@@ -17,56 +17,117 @@ package com.vmware.ovsdb.service.impl;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.vmware.ovsdb.callback.LockCallback;
 import com.vmware.ovsdb.callback.MonitorCallback;
+import com.vmware.ovsdb.callback.MonitorCondCallback;
+import com.vmware.ovsdb.callback.MonitorCondSinceCallback;
 import com.vmware.ovsdb.exception.OvsdbClientException;
 import com.vmware.ovsdb.jsonrpc.v1.annotation.JsonRpcServiceMethod;
 import com.vmware.ovsdb.jsonrpc.v1.exception.JsonRpcException;
 import com.vmware.ovsdb.jsonrpc.v1.exception.JsonRpcTransportException;
+import com.vmware.ovsdb.jsonrpc.v1.model.JsonRpcV1Request;
 import com.vmware.ovsdb.jsonrpc.v1.service.JsonRpcV1Client;
 import com.vmware.ovsdb.jsonrpc.v1.service.JsonRpcV1Server;
 import com.vmware.ovsdb.jsonrpc.v1.service.impl.JsonRpcV1ClientImpl;
 import com.vmware.ovsdb.jsonrpc.v1.service.impl.JsonRpcV1ServerImpl;
+import com.vmware.ovsdb.jsonrpc.v1.spi.JsonRpcTimer;
 import com.vmware.ovsdb.jsonrpc.v1.spi.JsonRpcTransporter;
+import com.vmware.ovsdb.jsonrpc.v1.util.JsonRpcConstant;
 import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
+import com.vmware.ovsdb.netty.HashedWheelJsonRpcTimer;
 import com.vmware.ovsdb.netty.JsonRpcHandler;
+import com.vmware.ovsdb.netty.OrderedDispatcher;
 import com.vmware.ovsdb.protocol.methods.LockResult;
+import com.vmware.ovsdb.protocol.methods.MonitorCondRequests;
+import com.vmware.ovsdb.protocol.methods.MonitorCondSinceResult;
 import com.vmware.ovsdb.protocol.methods.MonitorRequests;
 import com.vmware.ovsdb.protocol.methods.TableUpdates;
+import com.vmware.ovsdb.protocol.methods.TableUpdates2;
 import com.vmware.ovsdb.protocol.operation.Operation;
 import com.vmware.ovsdb.protocol.operation.result.OperationResult;
 import com.vmware.ovsdb.protocol.schema.DatabaseSchema;
+import com.vmware.ovsdb.protocol.schema.decoder.TableUpdates2Decoder;
+import com.vmware.ovsdb.protocol.schema.decoder.TableUpdatesDecoder;
 import com.vmware.ovsdb.protocol.util.OvsdbConstant;
 import com.vmware.ovsdb.service.OvsdbClient;
 import com.vmware.ovsdb.service.OvsdbConnectionInfo;
 import com.vmware.ovsdb.util.PropertyManager;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
 import io.netty.channel.Channel;
-
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class OvsdbClientImpl implements OvsdbClient {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(
+      MethodHandles.lookup().lookupClass());
+
   private static long RPC_TIMEOUT_SEC = PropertyManager.getLongProperty("rpc.timeout.sec", 60);
 
+  private static final int MAX_INFLIGHT_CALLS = PropertyManager
+      .getIntProperty("rpc.max.inflight", 0);
+
+  private static final int MAX_PENDING_CALLS = PropertyManager
+      .getIntProperty("rpc.inflight.max.pending", 1024);
+
+  private static final CallWindow.OverflowPolicy INFLIGHT_OVERFLOW_POLICY = PropertyManager
+      .getEnumProperty("rpc.inflight.overflow.policy", CallWindow.OverflowPolicy.WAIT);
+
+  private static final boolean CANCEL_ON_TIMEOUT = PropertyManager
+      .getBooleanProperty("rpc.cancel.on.timeout", true);
+
   private static final AtomicLong callId = new AtomicLong(0);
 
+  // The last-txn-id of a monitor_cond_since request that has seen no transaction
+  private static final UUID ZERO_TXN_ID = new UUID(0, 0);
+
   private final OvsdbConnectionInfo connectionInfo;
 
   private final JsonRpcV1Client jsonRpcClient;
 
   private final JsonRpcV1Server jsonRpcServer;
 
+  private final CallWindow callWindow;
+
+  private final OrderedDispatcher dispatcher;
+
+  // The lanes of the calls whose responses must be ordered with notifications, keyed by call id
+  private final ConcurrentMap<Long, String> callLanes = new ConcurrentHashMap<>();
+
   private final ConcurrentMap<String, MonitorCallback> monitorCallbacks = new ConcurrentHashMap<>();
 
+  private final ConcurrentMap<String, TableUpdatesDecoder> monitorDecoders =
+      new ConcurrentHashMap<>();
+
+  // The handlers of both monitor_cond and monitor_cond_since monitors, which share
+  // monitor_cond_change
+  private final ConcurrentMap<String, MonitorCondHandler> monitorCondHandlers =
+      new ConcurrentHashMap<>();
+
   private final ConcurrentMap<String, LockCallback> lockCallbacks = new ConcurrentHashMap<>();
 
   private final AtomicBoolean isActive = new AtomicBoolean(true);
 
+  private final CompletableFuture<Void> shutdownFuture = new CompletableFuture<>();
+
   /**
    * Create an {@link OvsdbClient} instance from a Netty channel.
    *
@@ -79,11 +140,38 @@ public class OvsdbClientImpl implements OvsdbClient {
     JsonRpcTransporter transporter = new JsonRpcTransporter() {
       @Override
       public void send(JsonNode data) throws JsonRpcTransportException {
+        write(data);
+      }
+
+      @Override
+      public CompletableFuture<Void> sendRequest(JsonRpcV1Request request)
+          throws JsonRpcTransportException {
+        // Serialized on the caller's thread straight into a ByteBuf, so that an error is thrown
+        // to the caller and the params are not read once the call returns
+        ByteBuf byteBuf = channel.alloc().buffer();
+        try (OutputStream outputStream = new ByteBufOutputStream(byteBuf)) {
+          JsonUtil.serialize(outputStream, request);
+        } catch (Throwable ex) {
+          byteBuf.release();
+          throw new JsonRpcTransportException(ex);
+        }
+        return write(byteBuf);
+      }
+
+      private CompletableFuture<Void> write(Object message) throws JsonRpcTransportException {
+        CompletableFuture<Void> writeFuture = new CompletableFuture<>();
         try {
-          channel.writeAndFlush(JsonUtil.serialize(data));
+          channel.writeAndFlush(message).addListener(future -> {
+            if (future.isSuccess()) {
+              writeFuture.complete(null);
+            } else {
+              writeFuture.completeExceptionally(future.cause());
+            }
+          });
         } catch (Throwable ex) {
           throw new JsonRpcTransportException(ex);
         }
+        return writeFuture;
       }
 
       @Override
@@ -91,12 +179,28 @@ public class OvsdbClientImpl implements OvsdbClient {
         channel.close();
       }
     };
-    jsonRpcClient = new JsonRpcV1ClientImpl(
-        transporter, executorService, RPC_TIMEOUT_SEC, TimeUnit.SECONDS);
+    JsonRpcTimer timer = HashedWheelJsonRpcTimer.newSharedTimer(executorService);
+    jsonRpcClient = new JsonRpcV1ClientImpl(transporter, timer, RPC_TIMEOUT_SEC, TimeUnit.SECONDS);
     jsonRpcServer = new JsonRpcV1ServerImpl(transporter, new OvsdbRequestHandler());
+    // A call waits to be sent at most as long as it then waits for its response
+    callWindow = new CallWindow(MAX_INFLIGHT_CALLS, MAX_PENDING_CALLS, INFLIGHT_OVERFLOW_POLICY,
+        channel::isWritable, timer, RPC_TIMEOUT_SEC, TimeUnit.SECONDS);
+
+    dispatcher = new OrderedDispatcher(executorService);
 
     channel.pipeline().addAfter("ovsdbConnectionHandler", "jsonRpcHandler",
-        new JsonRpcHandler(jsonRpcClient, jsonRpcServer, executorService));
+        new JsonRpcHandler(jsonRpcClient, jsonRpcServer, dispatcher, this::getLane));
+    channel.pipeline().addAfter("jsonRpcHandler", "callWindowHandler",
+        new ChannelInboundHandlerAdapter() {
+          @Override
+          public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+            if (ctx.channel().isWritable()) {
+              // Start the calls that were held back while the outbound buffer was full
+              executorService.execute(callWindow::drain);
+            }
+            ctx.fireChannelWritabilityChanged();
+          }
+        });
   }
 
   @Override
@@ -127,22 +231,161 @@ public class OvsdbClientImpl implements OvsdbClient {
       String dbName, String monitorId, MonitorRequests monitorRequests,
       MonitorCallback monitorCallback
   ) throws OvsdbClientException {
-    CompletableFuture<TableUpdates> completableFuture = callMethod(
-        OvsdbConstant.MONITOR, TableUpdates.class, dbName, monitorId, monitorRequests
+    CompletableFuture<TableUpdates> completableFuture = callMethodInLane(
+        getMonitorLane(monitorId), OvsdbConstant.MONITOR, TableUpdates.class, dbName, monitorId,
+        monitorRequests
     );
     // If this monitor request succeeds, save the callback
     return completableFuture.thenApply(tableUpdates -> {
+      monitorDecoders.remove(monitorId);
+      monitorCallbacks.put(monitorId, monitorCallback);
+      return tableUpdates;
+    });
+  }
+
+  @Override
+  public CompletableFuture<TableUpdates> monitor(
+      String dbName, String monitorId, MonitorRequests monitorRequests,
+      MonitorCallback monitorCallback, DatabaseSchema databaseSchema
+  ) throws OvsdbClientException {
+    TableUpdatesDecoder decoder = new TableUpdatesDecoder(databaseSchema);
+    // The decoder must be in place before any update notification of this monitor arrives
+    monitorDecoders.put(monitorId, decoder);
+    CompletableFuture<JsonNode> completableFuture;
+    try {
+      completableFuture = callMethodInLane(
+          getMonitorLane(monitorId), OvsdbConstant.MONITOR, JsonNode.class, dbName, monitorId,
+          monitorRequests
+      );
+    } catch (OvsdbClientException ex) {
+      monitorDecoders.remove(monitorId, decoder);
+      throw ex;
+    }
+    return completableFuture.thenApply(jsonNode -> {
+      TableUpdates tableUpdates;
+      try {
+        tableUpdates = decoder.decode(jsonNode);
+      } catch (IOException ex) {
+        throw new CompletionException(ex);
+      }
+      // If this monitor request succeeds, save the callback
       monitorCallbacks.put(monitorId, monitorCallback);
       return tableUpdates;
+    }).whenComplete((tableUpdates, ex) -> {
+      if (ex != null) {
+        monitorDecoders.remove(monitorId, decoder);
+      }
+    });
+  }
+
+  @Override
+  public CompletableFuture<TableUpdates2> monitorCond(
+      String dbName, String monitorId, MonitorCondRequests monitorCondRequests,
+      MonitorCondCallback monitorCondCallback
+  ) throws OvsdbClientException {
+    return monitorCond(dbName, monitorId, monitorCondRequests, monitorCondCallback, null);
+  }
+
+  @Override
+  public CompletableFuture<TableUpdates2> monitorCond(
+      String dbName, String monitorId, MonitorCondRequests monitorCondRequests,
+      MonitorCondCallback monitorCondCallback, DatabaseSchema databaseSchema
+  ) throws OvsdbClientException {
+    MonitorCondHandler handler = new MonitorCondHandler(
+        (lastTxnId, tableUpdates2) -> monitorCondCallback.update(tableUpdates2),
+        databaseSchema == null ? null : new TableUpdates2Decoder(databaseSchema)
+    );
+    CompletableFuture<JsonNode> completableFuture = callMethodInLane(
+        getMonitorLane(monitorId), OvsdbConstant.MONITOR_COND, JsonNode.class, dbName, monitorId,
+        monitorCondRequests
+    );
+    return completableFuture.thenApply(jsonNode -> {
+      TableUpdates2 tableUpdates2;
+      try {
+        tableUpdates2 = handler.decode(jsonNode);
+      } catch (IOException ex) {
+        throw new CompletionException(ex);
+      }
+      // If this monitor_cond request succeeds, save the handler
+      monitorCondHandlers.put(monitorId, handler);
+      return tableUpdates2;
+    });
+  }
+
+  @Override
+  public CompletableFuture<MonitorCondSinceResult> monitorCondSince(
+      String dbName, String monitorId, MonitorCondRequests monitorCondRequests, UUID lastTxnId,
+      MonitorCondSinceCallback monitorCondSinceCallback
+  ) throws OvsdbClientException {
+    return monitorCondSince(
+        dbName, monitorId, monitorCondRequests, lastTxnId, monitorCondSinceCallback, null);
+  }
+
+  @Override
+  public CompletableFuture<MonitorCondSinceResult> monitorCondSince(
+      String dbName, String monitorId, MonitorCondRequests monitorCondRequests, UUID lastTxnId,
+      MonitorCondSinceCallback monitorCondSinceCallback, DatabaseSchema databaseSchema
+  ) throws OvsdbClientException {
+    MonitorCondHandler handler = new MonitorCondHandler(monitorCondSinceCallback,
+        databaseSchema == null ? null : new TableUpdates2Decoder(databaseSchema));
+    CompletableFuture<JsonNode> completableFuture = callMethodInLane(
+        getMonitorLane(monitorId), OvsdbConstant.MONITOR_COND_SINCE, JsonNode.class, dbName,
+        monitorId, monitorCondRequests, lastTxnId == null ? ZERO_TXN_ID : lastTxnId
+    );
+    return completableFuture.thenApply(jsonNode -> {
+      MonitorCondSinceResult monitorCondSinceResult;
+      try {
+        monitorCondSinceResult = handler.decodeMonitorCondSinceResult(jsonNode);
+      } catch (IOException ex) {
+        throw new CompletionException(ex);
+      }
+      // If this monitor_cond_since request succeeds, save the handler
+      monitorCondHandlers.put(monitorId, handler);
+      return monitorCondSinceResult;
+    });
+  }
+
+  @Override
+  public CompletableFuture<Void> monitorCondChange(
+      String monitorId, String newMonitorId, MonitorCondRequests monitorCondRequests
+  ) throws OvsdbClientException {
+    MonitorCondHandler handler = monitorCondHandlers.get(monitorId);
+    if (handler == null) {
+      throw new OvsdbClientException("No monitor_cond with id " + monitorId);
+    }
+    boolean isRenamed = !monitorId.equals(newMonitorId);
+    // The notifications after the change carry the new id, and may be handled in the lane of the
+    // new id before the response in it, so the handler must already be found by the new id
+    if (isRenamed && monitorCondHandlers.putIfAbsent(newMonitorId, handler) != null) {
+      throw new OvsdbClientException("A monitor with id " + newMonitorId + " already exists");
+    }
+    CompletableFuture<Void> completableFuture;
+    try {
+      completableFuture = callMethodInLane(
+          getMonitorLane(newMonitorId), OvsdbConstant.MONITOR_COND_CHANGE, Void.class, monitorId,
+          newMonitorId, monitorCondRequests
+      );
+    } catch (OvsdbClientException ex) {
+      if (isRenamed) {
+        monitorCondHandlers.remove(newMonitorId, handler);
+      }
+      throw ex;
+    }
+    return completableFuture.whenComplete((result, ex) -> {
+      if (isRenamed) {
+        monitorCondHandlers.remove(ex == null ? monitorId : newMonitorId, handler);
+      }
     });
   }
 
   @Override
   public CompletableFuture<Void> cancelMonitor(String monitorId) throws OvsdbClientException {
-    CompletableFuture<Void> completableFuture = callMethod(
-        OvsdbConstant.MONITOR_CANCEL, Void.class, monitorId);
+    CompletableFuture<Void> completableFuture = callMethodInLane(
+        getMonitorLane(monitorId), OvsdbConstant.MONITOR_CANCEL, Void.class, monitorId);
     return completableFuture.thenApply(result -> {
       monitorCallbacks.remove(monitorId);
+      monitorDecoders.remove(monitorId);
+      monitorCondHandlers.remove(monitorId);
       return result;
     });
   }
@@ -150,7 +393,7 @@ public class OvsdbClientImpl implements OvsdbClient {
   @Override
   public CompletableFuture<LockResult> lock(String lockId, LockCallback lockCallback)
       throws OvsdbClientException {
-    return callMethod(OvsdbConstant.LOCK, LockResult.class, lockId)
+    return callMethodInLane(getLockLane(lockId), OvsdbConstant.LOCK, LockResult.class, lockId)
         .thenApply(lockResult -> {
           lockCallbacks.put(lockId, lockCallback);
           return lockResult;
@@ -160,7 +403,7 @@ public class OvsdbClientImpl implements OvsdbClient {
   @Override
   public CompletableFuture<LockResult> steal(String lockId, LockCallback lockCallback)
       throws OvsdbClientException {
-    return callMethod(OvsdbConstant.STEAL, LockResult.class, lockId)
+    return callMethodInLane(getLockLane(lockId), OvsdbConstant.STEAL, LockResult.class, lockId)
         .thenApply(lockResult -> {
           lockCallbacks.put(lockId, lockCallback);
           return lockResult;
@@ -169,8 +412,8 @@ public class OvsdbClientImpl implements OvsdbClient {
 
   @Override
   public CompletableFuture<Void> unlock(String lockId) throws OvsdbClientException {
-    CompletableFuture<Void> completableFuture = callMethod(
-        OvsdbConstant.UNLOCK, Void.class, lockId);
+    CompletableFuture<Void> completableFuture = callMethodInLane(
+        getLockLane(lockId), OvsdbConstant.UNLOCK, Void.class, lockId);
     return completableFuture.thenApply(result -> {
       lockCallbacks.remove(lockId);
       return result;
@@ -182,30 +425,153 @@ public class OvsdbClientImpl implements OvsdbClient {
     return connectionInfo;
   }
 
+  @Override
+  public CompletableFuture<Void> getShutdownFuture() {
+    return shutdownFuture;
+  }
+
+  /**
+   * Get the number of inbound messages waiting to be handled in each lane. A lane holds the
+   * messages of one monitor or one lock, which are handled in order. Other messages are handled in
+   * parallel and are not counted.
+   *
+   * @return the queue depths, keyed by lane
+   */
+  public Map<String, Integer> getQueueDepths() {
+    return dispatcher.getQueueDepths();
+  }
+
+  /**
+   * Get the largest number of inbound messages that have waited in one lane so far.
+   *
+   * @return the largest queue depth
+   */
+  public int getMaxQueueDepth() {
+    return dispatcher.getMaxQueueDepth();
+  }
+
   @Override
   public void shutdown() {
     if (isActive.getAndSet(false)) {
+      callWindow.close();
       jsonRpcClient.shutdown();
       jsonRpcServer.shutdown();
 
       monitorCallbacks.clear();
+      monitorDecoders.clear();
+      monitorCondHandlers.clear();
       lockCallbacks.clear();
+      callLanes.clear();
+      shutdownFuture.complete(null);
     }
   }
 
-  private String getNextId() {
-    return String.valueOf(callId.getAndIncrement());
+  private long getNextId() {
+    return callId.getAndIncrement();
   }
 
   private <T> CompletableFuture<T> callMethod(
       String method, Class<T> returnType, Object... params
+  ) throws OvsdbClientException {
+    return callMethodInLane(null, method, returnType, params);
+  }
+
+  /**
+   * Call a method whose response is handled in a lane, after the notifications of the lane that
+   * arrive before it and before the ones that arrive after it.
+   */
+  private <T> CompletableFuture<T> callMethodInLane(
+      String lane, String method, Class<T> returnType, Object... params
   ) throws OvsdbClientException {
     exceptionIfNotActive();
+    return callWindow.submit(() -> sendCall(lane, method, returnType, params));
+  }
+
+  private <T> CompletableFuture<T> sendCall(
+      String lane, String method, Class<T> returnType, Object... params
+  ) throws OvsdbClientException {
+    long id = getNextId();
+    if (lane != null) {
+      callLanes.put(id, lane);
+    }
+    CompletableFuture<T> completableFuture;
     try {
-      return jsonRpcClient.call(getNextId(), method, returnType, params);
+      completableFuture = jsonRpcClient.call(id, method, returnType, params);
     } catch (JsonRpcException ex) {
+      callLanes.remove(id);
       throw new OvsdbClientException(ex);
     }
+    completableFuture.whenComplete((result, ex) -> {
+      if (lane != null) {
+        callLanes.remove(id);
+      }
+      // Tell the server to stop working on a call that no one waits for any more, such as a
+      // transaction blocked by a "wait" operation
+      if (ex instanceof CancellationException
+          || (CANCEL_ON_TIMEOUT && ex instanceof TimeoutException)) {
+        cancelCall(id);
+      }
+    });
+    return completableFuture;
+  }
+
+  private void cancelCall(long id) {
+    if (!isActive.get()) {
+      return;
+    }
+    try {
+      jsonRpcClient.notify(OvsdbConstant.CANCEL, Long.toString(id));
+    } catch (JsonRpcException ex) {
+      LOGGER.warn("Failed to cancel call " + id, ex);
+    }
+  }
+
+  /**
+   * Get the lane of an inbound message. The "update", "update2" and "update3" notifications of a
+   * monitor and the responses to its "monitor", "monitor_cond", "monitor_cond_since" and
+   * "monitor_cond_change" requests share a lane, so are the "locked" and "stolen" notifications
+   * of a lock and the responses to its requests. Everything else, including the other responses,
+   * is handled in parallel.
+   */
+  private String getLane(JsonNode jsonNode) {
+    JsonNode methodNode = jsonNode.get(JsonRpcConstant.METHOD);
+    if (methodNode == null) {
+      return callLanes.isEmpty() ? null : getCallLane(jsonNode.get(JsonRpcConstant.ID));
+    }
+    JsonNode paramsNode = jsonNode.get(JsonRpcConstant.PARAMS);
+    if (paramsNode == null || !paramsNode.isArray() || paramsNode.size() == 0) {
+      return null;
+    }
+    switch (methodNode.asText()) {
+      case OvsdbConstant.UPDATE:
+      case OvsdbConstant.UPDATE2:
+      case OvsdbConstant.UPDATE3:
+        return getMonitorLane(paramsNode.get(0).asText());
+      case OvsdbConstant.LOCKED:
+      case OvsdbConstant.STOLEN:
+        return getLockLane(paramsNode.get(0).asText());
+      default:
+        return null;
+    }
+  }
+
+  private String getCallLane(JsonNode idNode) {
+    if (idNode == null || !idNode.isValueNode()) {
+      return null;
+    }
+    try {
+      return callLanes.get(Long.parseLong(idNode.asText()));
+    } catch (NumberFormatException ex) {
+      return null;
+    }
+  }
+
+  private static String getMonitorLane(String monitorId) {
+    return "monitor/" + monitorId;
+  }
+
+  private static String getLockLane(String lockId) {
+    return "lock/" + lockId;
   }
 
   private void exceptionIfNotActive() throws OvsdbClientException {
@@ -230,16 +596,55 @@ public class OvsdbClientImpl implements OvsdbClient {
      * Handle "update" notification.
      *
      * @param monitorId monitor id of this update
-     * @param tableUpdates table updates
+     * @param tableUpdatesNode table updates, decoded with the schema of the monitor if it has one
+     * @throws IOException if fail to decode the table updates
      */
     @JsonRpcServiceMethod(value = OvsdbConstant.UPDATE)
-    public void handleUpdate(String monitorId, TableUpdates tableUpdates) {
+    public void handleUpdate(String monitorId, JsonNode tableUpdatesNode) throws IOException {
       MonitorCallback monitorCallback = monitorCallbacks.get(monitorId);
       if (monitorCallback != null) {
+        TableUpdatesDecoder decoder = monitorDecoders.get(monitorId);
+        TableUpdates tableUpdates = decoder == null
+            ? JsonUtil.treeToValue(tableUpdatesNode, TableUpdates.class)
+            : decoder.decode(tableUpdatesNode);
         monitorCallback.update(tableUpdates);
       }
     }
 
+    /**
+     * Handle "update2" notification.
+     *
+     * @param monitorId monitor id of this update
+     * @param tableUpdates2Node table updates, decoded with the schema of the monitor if it has
+     *                          one
+     * @throws IOException if fail to decode the table updates
+     */
+    @JsonRpcServiceMethod(value = OvsdbConstant.UPDATE2)
+    public void handleUpdate2(String monitorId, JsonNode tableUpdates2Node) throws IOException {
+      MonitorCondHandler handler = monitorCondHandlers.get(monitorId);
+      if (handler != null) {
+        handler.callback.update(null, handler.decode(tableUpdates2Node));
+      }
+    }
+
+    /**
+     * Handle "update3" notification.
+     *
+     * @param monitorId monitor id of this update
+     * @param lastTxnId id of the transaction that made this update
+     * @param tableUpdates2Node table updates, decoded with the schema of the monitor if it has
+     *                          one
+     * @throws IOException if fail to decode the table updates
+     */
+    @JsonRpcServiceMethod(value = OvsdbConstant.UPDATE3)
+    public void handleUpdate3(String monitorId, UUID lastTxnId, JsonNode tableUpdates2Node)
+        throws IOException {
+      MonitorCondHandler handler = monitorCondHandlers.get(monitorId);
+      if (handler != null) {
+        handler.callback.update(lastTxnId, handler.decode(tableUpdates2Node));
+      }
+    }
+
     /**
      * Handle "locked" notification.
      *
@@ -267,6 +672,34 @@ public class OvsdbClientImpl implements OvsdbClient {
     }
   }
 
+  /**
+   * The callback of a monitor_cond or monitor_cond_since monitor and the decoder of its updates,
+   * which is null if the monitor has no schema.
+   */
+  private static class MonitorCondHandler {
+
+    private final MonitorCondSinceCallback callback;
+
+    private final TableUpdates2Decoder decoder;
+
+    MonitorCondHandler(MonitorCondSinceCallback callback, TableUpdates2Decoder decoder) {
+      this.callback = callback;
+      this.decoder = decoder;
+    }
+
+    TableUpdates2 decode(JsonNode jsonNode) throws IOException {
+      return decoder == null
+          ? JsonUtil.treeToValue(jsonNode, TableUpdates2.class)
+          : decoder.decode(jsonNode);
+    }
+
+    MonitorCondSinceResult decodeMonitorCondSinceResult(JsonNode jsonNode) throws IOException {
+      return decoder == null
+          ? JsonUtil.treeToValue(jsonNode, MonitorCondSinceResult.class)
+          : decoder.decodeMonitorCondSinceResult(jsonNode);
+    }
+  }
+
   @Override
   public String toString() {
     return getClass().getSimpleName() + " ["
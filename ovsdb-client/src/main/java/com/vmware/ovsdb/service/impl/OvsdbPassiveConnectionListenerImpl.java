@@ -17,43 +17,122 @@ package com.vmware.ovsdb.service.impl;
 import static com.vmware.ovsdb.netty.OvsdbChannelInitializer.newOvsdbChannelInitializer;
 
 import com.vmware.ovsdb.callback.ConnectionCallback;
+import com.vmware.ovsdb.netty.AcceptRateLimiter;
+import com.vmware.ovsdb.netty.NettyTransport;
 import com.vmware.ovsdb.service.OvsdbPassiveConnectionListener;
+import com.vmware.ovsdb.util.PropertyManager;
 import io.netty.bootstrap.ServerBootstrap;
-import io.netty.channel.AdaptiveRecvByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.unix.DomainSocketAddress;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
 import io.netty.handler.ssl.SslContext;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.invoke.MethodHandles;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
+/**
+ * An {@link OvsdbPassiveConnectionListener} that runs the accepted connections of all its ports on
+ * one worker {@link EventLoopGroup}, so that the number of threads does not grow with the number
+ * of ports. Each port only has its own acceptor threads, which are stopped with the port.
+ *
+ * <p>The worker group is either given by the caller, who then owns it and shuts it down, or is a
+ * default group shared by all the listeners of this process. The default group uses daemon threads
+ * and lives as long as the process. Its size is read from "channel.passive.event.loop.threads",
+ * where 0 means the Netty default of twice the number of cores.</p>
+ *
+ * <p>Unix domain socket connections need an epoll worker group. They run on the worker group of
+ * the listener if it is one, or on a default epoll group shared by the process otherwise.</p>
+ *
+ * <p>The following properties protect the listener when many OVSDB servers connect at once, for
+ * example when they all reconnect after a controller failover:
+ * <ul>
+ * <li>"channel.passive.backlog": the accept backlog of the server channels. The kernel caps it at
+ * net.core.somaxconn</li>
+ * <li>"channel.passive.accept.rate": the number of connections accepted per second on a port. 0,
+ * the default, means no limit. See {@link AcceptRateLimiter}</li>
+ * <li>"channel.passive.accept.burst": the number of connections accepted at once on a port when
+ * the rate is limited</li>
+ * </ul>
+ * </p>
+ */
 public class OvsdbPassiveConnectionListenerImpl
     implements OvsdbPassiveConnectionListener {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(
       MethodHandles.lookup().lookupClass());
 
-  // Map from port to server Channel
-  private final ConcurrentMap<Integer, Channel> serverChannelMap = new ConcurrentHashMap<>();
+  private static final int DEFAULT_EVENT_LOOP_THREADS = PropertyManager
+      .getIntProperty("channel.passive.event.loop.threads", 0);
+
+  private static final int BACKLOG = PropertyManager
+      .getIntProperty("channel.passive.backlog", 1024);
+
+  private static final int ACCEPT_RATE = PropertyManager
+      .getIntProperty("channel.passive.accept.rate", 0);
+
+  private static final int ACCEPT_BURST = PropertyManager
+      .getIntProperty("channel.passive.accept.burst", 100);
+
+  // Map from port to server Channels. There is more than one channel on a port only if
+  // SO_REUSEPORT is set
+  private final ConcurrentMap<Integer, List<Channel>> serverChannelMap =
+      new ConcurrentHashMap<>();
 
   // Map from port to server status (started/not started)
   private final ConcurrentMap<Integer, Boolean> serverStatusMap = new ConcurrentHashMap<>();
 
+  // Map from Unix domain socket path to server Channel
+  private final ConcurrentMap<Path, Channel> unixServerChannelMap = new ConcurrentHashMap<>();
+
+  // Map from Unix domain socket path to server status (started/not started)
+  private final ConcurrentMap<Path, Boolean> unixServerStatusMap = new ConcurrentHashMap<>();
+
   private final ScheduledExecutorService executorService;
 
+  private final EventLoopGroup workerGroup;
+
+  /**
+   * Create an {@link OvsdbPassiveConnectionListenerImpl} that uses the default worker group.
+   *
+   * @param executorService used for asynchronous operations
+   */
   public OvsdbPassiveConnectionListenerImpl(ScheduledExecutorService executorService) {
+    this(executorService, DefaultEventLoopGroupHolder.GROUP);
+  }
+
+  /**
+   * Create an {@link OvsdbPassiveConnectionListenerImpl} that runs the accepted connections on the
+   * given worker group. The listener never shuts the group down.
+   *
+   * @param executorService used for asynchronous operations
+   * @param workerGroup the {@link EventLoopGroup} to run the accepted connections on. The TCP
+   *     ports use epoll if it is an epoll group, and NIO otherwise
+   */
+  public OvsdbPassiveConnectionListenerImpl(
+      ScheduledExecutorService executorService, EventLoopGroup workerGroup
+  ) {
     this.executorService = executorService;
+    this.workerGroup = workerGroup;
   }
 
   @Override
@@ -72,19 +151,24 @@ public class OvsdbPassiveConnectionListenerImpl
 
   @Override
   public CompletableFuture<Boolean> stopListening(int port) {
-    Channel serverChannel = serverChannelMap.remove(port);
+    List<Channel> serverChannels = serverChannelMap.remove(port);
     CompletableFuture<Boolean> stopFuture = new CompletableFuture<>();
-    if (serverChannel != null) {
-      LOGGER.info("Closing server channel: {}", serverChannel);
-      serverChannel.closeFuture().addListener(future -> {
-        if (future.isSuccess()) {
-          stopFuture.complete(true);
-        } else {
-          stopFuture.complete(false);
-        }
-        serverStatusMap.remove(port);
-      });
-      serverChannel.close();
+    if (serverChannels != null) {
+      AtomicInteger remaining = new AtomicInteger(serverChannels.size());
+      AtomicBoolean isSuccess = new AtomicBoolean(true);
+      for (Channel serverChannel : serverChannels) {
+        LOGGER.info("Closing server channel: {}", serverChannel);
+        serverChannel.closeFuture().addListener(future -> {
+          if (!future.isSuccess()) {
+            isSuccess.set(false);
+          }
+          if (remaining.decrementAndGet() == 0) {
+            serverStatusMap.remove(port);
+            stopFuture.complete(isSuccess.get());
+          }
+        });
+        serverChannel.close();
+      }
     } else {
       LOGGER.warn("Port {} is not listening", port);
       stopFuture.complete(true);
@@ -92,47 +176,164 @@ public class OvsdbPassiveConnectionListenerImpl
     return stopFuture;
   }
 
-  private CompletableFuture<Boolean> startListeningOnPort(
-      int port, final SslContext sslContext, ConnectionCallback connectionCallback
+  @Override
+  public CompletableFuture<Boolean> startListeningUnix(
+      Path socketPath, ConnectionCallback connectionCallback
   ) {
-    isListeningCheckWithThrow(port);
-    EventLoopGroup bossGroup = new NioEventLoopGroup();
-    EventLoopGroup workerGroup = new NioEventLoopGroup();
-    ServerBootstrap serverBootstrap = new ServerBootstrap();
-    serverBootstrap.group(bossGroup, workerGroup)
-        .channel(NioServerSocketChannel.class)
-        .option(ChannelOption.SO_BACKLOG, 100)
-        .handler(new LoggingHandler(LogLevel.DEBUG))
-        .childHandler(newOvsdbChannelInitializer(sslContext, executorService, connectionCallback))
-        .option(ChannelOption.RCVBUF_ALLOCATOR,
-          new AdaptiveRecvByteBufAllocator(65535, 65535, 65535));
+    if (!NettyTransport.isDomainSocketAvailable()) {
+      CompletableFuture<Boolean> completableFuture = new CompletableFuture<>();
+      completableFuture.completeExceptionally(new UnsupportedOperationException(
+          "Unix domain sockets are not supported",
+          NettyTransport.domainSocketUnavailabilityCause()));
+      return completableFuture;
+    }
+    if (unixServerStatusMap.putIfAbsent(socketPath, true) != null) {
+      throw new IllegalStateException("A listener has already started at " + socketPath);
+    }
+    EventLoopGroup bossGroup = NettyTransport.newDomainSocketEventLoopGroup(
+        1, new DefaultThreadFactory("ovsdb-passive-unix-boss"));
+    EventLoopGroup unixWorkerGroup = workerGroup instanceof EpollEventLoopGroup
+        ? workerGroup
+        : DefaultDomainSocketEventLoopGroupHolder.GROUP;
+    ServerBootstrap serverBootstrap = NettyTransport.configureDomainSocket(
+        new ServerBootstrap().group(bossGroup, unixWorkerGroup));
+    serverBootstrap.option(ChannelOption.SO_BACKLOG, BACKLOG)
+        .handler(newServerChannelInitializer(newAcceptRateLimiter()))
+        .childHandler(newOvsdbChannelInitializer(null, executorService, connectionCallback));
 
     CompletableFuture<Boolean> completableFuture = new CompletableFuture<>();
-    ChannelFuture channelFuture = serverBootstrap.bind(port);
-    channelFuture.addListener(future -> {
+    ChannelFuture bindFuture = serverBootstrap.bind(new DomainSocketAddress(socketPath.toFile()));
+    bindFuture.addListener(future -> {
       if (future.isSuccess()) {
-        LOGGER.info("Listening on port {} started successfully.", port);
-        serverChannelMap.put(port,  channelFuture.channel());
+        LOGGER.info("Listening on {} started successfully.", socketPath);
+        unixServerChannelMap.put(socketPath, bindFuture.channel());
         completableFuture.complete(true);
       } else {
-        LOGGER.info("Failed to listen on port {}.", port);
-        serverStatusMap.remove(port);
+        LOGGER.info("Failed to listen on {}.", socketPath, future.cause());
+        bindFuture.channel().close();
+        unixServerStatusMap.remove(socketPath);
         completableFuture.complete(false);
       }
     });
-
-    channelFuture.channel().closeFuture().addListener(future -> {
-      // Shut down all event loops to terminate all threads.
+    bindFuture.channel().closeFuture().addListener(future -> {
+      // Shut down the event loops of the listener to terminate their threads.
       bossGroup.shutdownGracefully();
-      workerGroup.shutdownGracefully();
-      LOGGER.info("Ovsdb listener at port {} stopped.", port);
+      LOGGER.info("Ovsdb listener at {} stopped.", socketPath);
     });
     return completableFuture;
   }
 
+  @Override
+  public CompletableFuture<Boolean> stopListeningUnix(Path socketPath) {
+    Channel serverChannel = unixServerChannelMap.remove(socketPath);
+    CompletableFuture<Boolean> stopFuture = new CompletableFuture<>();
+    if (serverChannel != null) {
+      LOGGER.info("Closing server channel: {}", serverChannel);
+      serverChannel.close().addListener(future -> {
+        unixServerStatusMap.remove(socketPath);
+        stopFuture.complete(future.isSuccess());
+      });
+    } else {
+      LOGGER.warn("{} is not listening", socketPath);
+      stopFuture.complete(true);
+    }
+    return stopFuture;
+  }
+
+  private CompletableFuture<Boolean> startListeningOnPort(
+      int port, final SslContext sslContext, ConnectionCallback connectionCallback
+  ) {
+    isListeningCheckWithThrow(port);
+    // One acceptor thread for each server channel bound on the port. The acceptors use the
+    // transport of the worker group, so that the server channel class fits both groups.
+    int acceptorCount = NettyTransport.getAcceptorCount(workerGroup);
+    DefaultThreadFactory bossThreadFactory = new DefaultThreadFactory("ovsdb-passive-boss");
+    EventLoopGroup bossGroup = workerGroup instanceof EpollEventLoopGroup
+        ? new EpollEventLoopGroup(acceptorCount, bossThreadFactory)
+        : new NioEventLoopGroup(acceptorCount, bossThreadFactory);
+    ServerBootstrap serverBootstrap = NettyTransport.configure(
+        new ServerBootstrap().group(bossGroup, workerGroup));
+    // The acceptors of the port share one limiter, and thus the rate
+    serverBootstrap.option(ChannelOption.SO_BACKLOG, BACKLOG)
+        .handler(newServerChannelInitializer(newAcceptRateLimiter()))
+        .childHandler(newOvsdbChannelInitializer(sslContext, executorService, connectionCallback));
+
+    CompletableFuture<Boolean> completableFuture = new CompletableFuture<>();
+    List<ChannelFuture> bindFutures = new ArrayList<>(acceptorCount);
+    for (int i = 0; i < acceptorCount; i++) {
+      bindFutures.add(serverBootstrap.bind(port));
+    }
+    AtomicInteger pendingBinds = new AtomicInteger(acceptorCount);
+    AtomicInteger openChannels = new AtomicInteger(acceptorCount);
+    for (ChannelFuture channelFuture : bindFutures) {
+      channelFuture.addListener(future -> {
+        if (pendingBinds.decrementAndGet() == 0) {
+          onBindComplete(port, bindFutures, completableFuture);
+        }
+      });
+      channelFuture.channel().closeFuture().addListener(future -> {
+        if (openChannels.decrementAndGet() == 0) {
+          // Shut down the acceptor event loops to terminate their threads. The worker group is
+          // shared and outlives the port.
+          bossGroup.shutdownGracefully();
+          LOGGER.info("Ovsdb listener at port {} stopped.", port);
+        }
+      });
+    }
+    return completableFuture;
+  }
+
+  private void onBindComplete(
+      int port, List<ChannelFuture> bindFutures, CompletableFuture<Boolean> completableFuture
+  ) {
+    List<Channel> serverChannels = bindFutures.stream()
+        .map(ChannelFuture::channel).collect(Collectors.toList());
+    if (bindFutures.stream().allMatch(ChannelFuture::isSuccess)) {
+      LOGGER.info("Listening on port {} started successfully.", port);
+      serverChannelMap.put(port, serverChannels);
+      completableFuture.complete(true);
+    } else {
+      LOGGER.info("Failed to listen on port {}.", port);
+      serverChannels.forEach(Channel::close);
+      serverStatusMap.remove(port);
+      completableFuture.complete(false);
+    }
+  }
+
+  private static AcceptRateLimiter newAcceptRateLimiter() {
+    return ACCEPT_RATE > 0 ? new AcceptRateLimiter(ACCEPT_RATE, ACCEPT_BURST) : null;
+  }
+
+  private static ChannelInitializer<Channel> newServerChannelInitializer(
+      AcceptRateLimiter acceptRateLimiter
+  ) {
+    return new ChannelInitializer<Channel>() {
+      @Override
+      protected void initChannel(Channel ch) {
+        ChannelPipeline pipeline = ch.pipeline();
+        pipeline.addLast("logger", new LoggingHandler(LogLevel.DEBUG));
+        if (acceptRateLimiter != null) {
+          pipeline.addLast("acceptRateLimiter", acceptRateLimiter);
+        }
+      }
+    };
+  }
+
   private void isListeningCheckWithThrow(int port) {
     if (serverStatusMap.putIfAbsent(port, true) != null) {
       throw new IllegalStateException("A listener has already started at port " + port);
     }
   }
+
+  private static class DefaultEventLoopGroupHolder {
+
+    private static final EventLoopGroup GROUP = NettyTransport.newEventLoopGroup(
+        DEFAULT_EVENT_LOOP_THREADS, new DefaultThreadFactory("ovsdb-passive-worker", true));
+  }
+
+  private static class DefaultDomainSocketEventLoopGroupHolder {
+
+    private static final EventLoopGroup GROUP = NettyTransport.newDomainSocketEventLoopGroup(
+        DEFAULT_EVENT_LOOP_THREADS, new DefaultThreadFactory("ovsdb-passive-unix-worker", true));
+  }
 }
@@ -0,0 +1,1019 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.service.impl;
+
+import com.vmware.ovsdb.callback.LockCallback;
+import com.vmware.ovsdb.callback.MonitorCallback;
+import com.vmware.ovsdb.callback.MonitorCondCallback;
+import com.vmware.ovsdb.callback.MonitorCondSinceCallback;
+import com.vmware.ovsdb.exception.OvsdbClientException;
+import com.vmware.ovsdb.protocol.methods.LockResult;
+import com.vmware.ovsdb.protocol.methods.MonitorCondRequest;
+import com.vmware.ovsdb.protocol.methods.MonitorCondRequests;
+import com.vmware.ovsdb.protocol.methods.MonitorCondSinceResult;
+import com.vmware.ovsdb.protocol.methods.MonitorRequest;
+import com.vmware.ovsdb.protocol.methods.MonitorRequests;
+import com.vmware.ovsdb.protocol.methods.MonitorSelect;
+import com.vmware.ovsdb.protocol.methods.RowUpdate;
+import com.vmware.ovsdb.protocol.methods.RowUpdate2;
+import com.vmware.ovsdb.protocol.methods.TableUpdate;
+import com.vmware.ovsdb.protocol.methods.TableUpdate2;
+import com.vmware.ovsdb.protocol.methods.TableUpdates;
+import com.vmware.ovsdb.protocol.methods.TableUpdates2;
+import com.vmware.ovsdb.protocol.operation.Operation;
+import com.vmware.ovsdb.protocol.operation.notation.Row;
+import com.vmware.ovsdb.protocol.operation.notation.Value;
+import com.vmware.ovsdb.protocol.operation.result.OperationResult;
+import com.vmware.ovsdb.protocol.schema.DatabaseSchema;
+import com.vmware.ovsdb.service.OvsdbClient;
+import com.vmware.ovsdb.service.OvsdbConnectionInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * An {@link OvsdbClient} that survives the loss of its connection. When the connection is lost,
+ * it connects again with an exponential, jittered backoff, and then issues the "monitor", "lock"
+ * and "steal" requests that were in effect again, with the same ids and callbacks.
+ *
+ * <p>Each monitor keeps a copy of the rows its callback has seen. When the monitor is
+ * re-established, the new initial contents are compared with this copy, and the callback only
+ * gets the rows that were inserted, modified or deleted while the connection was down, in one
+ * update. Updates that arrive before this comparison is done are held back and delivered after
+ * it. The copy costs as much memory as the monitored rows. Tables whose initial contents are not
+ * selected by the monitor request cannot be compared and are left alone.</p>
+ *
+ * <p>A "monitor_cond" or "monitor_cond_since" monitor is re-established with the conditions of
+ * its last successful "monitor_cond_change" request. A "monitor_cond_since" monitor passes the id
+ * of the last transaction its callback has seen, and if the server still has it, the callback
+ * only gets the changes made after it, so that the cost of a reconnection is proportional to the
+ * changes rather than to the database. Otherwise, and always for a "monitor_cond" monitor, the
+ * server sends all the rows. Only the UUIDs of the rows the callback has seen are kept, so the
+ * callback then gets every current row as "initial", which replaces what it had of that row,
+ * and the rows that are gone as "delete".</p>
+ *
+ * <p>A lock is released by the server when the connection is lost, so {@link LockCallback#stolen()}
+ * is called for a lock that was held at that time. The lock is requested again on the new
+ * connection and {@link LockCallback#locked()} is called once it is acquired.</p>
+ *
+ * <p>A monitor or lock that cannot be established again on a new connection is retried with the
+ * same backoff as the connection, until it succeeds, the connection is lost again, or it is
+ * cancelled.</p>
+ *
+ * <p>While there is no connection, all the requests fail with an {@link OvsdbClientException},
+ * except "monitor_cancel" and "unlock". The server has already dropped the monitors and locks of
+ * the lost connection, so these only forget them, and they are not established again. A request
+ * that was in flight when the connection was lost fails as it would on an
+ * {@link OvsdbClientImpl}, so whether a transaction was committed is unknown to the caller.</p>
+ */
+public class ReconnectingOvsdbClient implements OvsdbClient {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(
+      MethodHandles.lookup().lookupClass());
+
+  private final Supplier<CompletableFuture<OvsdbClient>> connector;
+
+  private final ScheduledExecutorService executorService;
+
+  private final long minBackoffMillis;
+
+  private final long maxBackoffMillis;
+
+  private final ConcurrentMap<String, MonitorRegistration> monitors = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, MonitorCondRegistration> condMonitors =
+      new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, LockRegistration> locks = new ConcurrentHashMap<>();
+
+  private final CompletableFuture<Void> shutdownFuture = new CompletableFuture<>();
+
+  private volatile OvsdbClient ovsdbClient;
+
+  private ReconnectingOvsdbClient(
+      Supplier<CompletableFuture<OvsdbClient>> connector,
+      ScheduledExecutorService executorService, long minBackoff, long maxBackoff,
+      TimeUnit backoffUnit
+  ) {
+    this.connector = connector;
+    this.executorService = executorService;
+    this.minBackoffMillis = Math.max(1, backoffUnit.toMillis(minBackoff));
+    this.maxBackoffMillis = Math.max(minBackoffMillis, backoffUnit.toMillis(maxBackoff));
+  }
+
+  /**
+   * Create a {@link ReconnectingOvsdbClient} and connect it. The first connection is retried with
+   * the same backoff as the later ones, until it succeeds or the client is shut down.
+   *
+   * @param connector makes a new connection each time it is called, for example
+   *     {@code () -> activeConnector.connect(ip, port)}
+   * @param executorService used to schedule the reconnections and run the callbacks
+   * @param minBackoff the delay before the first reconnection attempt. It doubles with each
+   *     failed attempt
+   * @param maxBackoff the longest delay between two reconnection attempts
+   * @param backoffUnit the time unit of minBackoff and maxBackoff
+   * @return a {@link CompletableFuture} that completes with the client once it is connected. It
+   *     fails if a connected client does not support {@link OvsdbClient#getShutdownFuture()},
+   *     since the loss of its connection could not be noticed
+   */
+  public static CompletableFuture<ReconnectingOvsdbClient> connect(
+      Supplier<CompletableFuture<OvsdbClient>> connector,
+      ScheduledExecutorService executorService, long minBackoff, long maxBackoff,
+      TimeUnit backoffUnit
+  ) {
+    ReconnectingOvsdbClient reconnectingClient = new ReconnectingOvsdbClient(
+        connector, executorService, minBackoff, maxBackoff, backoffUnit);
+    CompletableFuture<ReconnectingOvsdbClient> connectedFuture = new CompletableFuture<>();
+    reconnectingClient.tryConnect(0, connectedFuture);
+    reconnectingClient.shutdownFuture.thenRun(() -> connectedFuture.completeExceptionally(
+        new OvsdbClientException("This OVSDB client is not active")));
+    return connectedFuture;
+  }
+
+  @Override
+  public CompletableFuture<String[]> listDatabases() throws OvsdbClientException {
+    return getOvsdbClient().listDatabases();
+  }
+
+  @Override
+  public CompletableFuture<DatabaseSchema> getSchema(String dbName) throws OvsdbClientException {
+    return getOvsdbClient().getSchema(dbName);
+  }
+
+  @Override
+  public CompletableFuture<OperationResult[]> transact(
+      String dbName, List<Operation> operations
+  ) throws OvsdbClientException {
+    return getOvsdbClient().transact(dbName, operations);
+  }
+
+  @Override
+  public CompletableFuture<TableUpdates> monitor(
+      String dbName, String monitorId, MonitorRequests monitorRequests,
+      MonitorCallback monitorCallback
+  ) throws OvsdbClientException {
+    return monitor(dbName, monitorId, monitorRequests, monitorCallback, null);
+  }
+
+  @Override
+  public CompletableFuture<TableUpdates> monitor(
+      String dbName, String monitorId, MonitorRequests monitorRequests,
+      MonitorCallback monitorCallback, DatabaseSchema databaseSchema
+  ) throws OvsdbClientException {
+    MonitorRegistration registration = new MonitorRegistration(
+        dbName, monitorId, monitorRequests, monitorCallback, databaseSchema);
+    return registration.start(getOvsdbClient()).thenApply(tableUpdates -> {
+      monitors.put(monitorId, registration);
+      return tableUpdates;
+    });
+  }
+
+  @Override
+  public CompletableFuture<TableUpdates2> monitorCond(
+      String dbName, String monitorId, MonitorCondRequests monitorCondRequests,
+      MonitorCondCallback monitorCondCallback
+  ) throws OvsdbClientException {
+    return monitorCond(dbName, monitorId, monitorCondRequests, monitorCondCallback, null);
+  }
+
+  @Override
+  public CompletableFuture<TableUpdates2> monitorCond(
+      String dbName, String monitorId, MonitorCondRequests monitorCondRequests,
+      MonitorCondCallback monitorCondCallback, DatabaseSchema databaseSchema
+  ) throws OvsdbClientException {
+    MonitorCondRegistration registration = new MonitorCondRegistration(
+        dbName, monitorId, monitorCondRequests,
+        (lastTxnId, tableUpdates2) -> monitorCondCallback.update(tableUpdates2), false, null,
+        databaseSchema);
+    return registration.start(getOvsdbClient()).thenApply(result -> {
+      condMonitors.put(monitorId, registration);
+      return result.getTableUpdates2();
+    });
+  }
+
+  @Override
+  public CompletableFuture<MonitorCondSinceResult> monitorCondSince(
+      String dbName, String monitorId, MonitorCondRequests monitorCondRequests, UUID lastTxnId,
+      MonitorCondSinceCallback monitorCondSinceCallback
+  ) throws OvsdbClientException {
+    return monitorCondSince(
+        dbName, monitorId, monitorCondRequests, lastTxnId, monitorCondSinceCallback, null);
+  }
+
+  @Override
+  public CompletableFuture<MonitorCondSinceResult> monitorCondSince(
+      String dbName, String monitorId, MonitorCondRequests monitorCondRequests, UUID lastTxnId,
+      MonitorCondSinceCallback monitorCondSinceCallback, DatabaseSchema databaseSchema
+  ) throws OvsdbClientException {
+    MonitorCondRegistration registration = new MonitorCondRegistration(dbName, monitorId,
+        monitorCondRequests, monitorCondSinceCallback, true, lastTxnId, databaseSchema);
+    return registration.start(getOvsdbClient()).thenApply(result -> {
+      condMonitors.put(monitorId, registration);
+      return result;
+    });
+  }
+
+  @Override
+  public CompletableFuture<Void> monitorCondChange(
+      String monitorId, String newMonitorId, MonitorCondRequests monitorCondRequests
+  ) throws OvsdbClientException {
+    return getOvsdbClient().monitorCondChange(monitorId, newMonitorId, monitorCondRequests)
+        .thenApply(result -> {
+          MonitorCondRegistration registration = condMonitors.remove(monitorId);
+          if (registration != null) {
+            registration.change(newMonitorId, monitorCondRequests);
+            condMonitors.put(newMonitorId, registration);
+          }
+          return result;
+        });
+  }
+
+  @Override
+  public CompletableFuture<Void> cancelMonitor(String monitorId) throws OvsdbClientException {
+    if (isDisconnected()) {
+      // The server dropped the monitor with the connection, so only keep it from coming back
+      monitors.remove(monitorId);
+      condMonitors.remove(monitorId);
+      return CompletableFuture.completedFuture(null);
+    }
+    return getOvsdbClient().cancelMonitor(monitorId).thenApply(result -> {
+      monitors.remove(monitorId);
+      condMonitors.remove(monitorId);
+      return result;
+    });
+  }
+
+  @Override
+  public CompletableFuture<LockResult> lock(String lockId, LockCallback lockCallback)
+      throws OvsdbClientException {
+    return requestLock(new LockRegistration(lockId, lockCallback, false));
+  }
+
+  @Override
+  public CompletableFuture<LockResult> steal(String lockId, LockCallback lockCallback)
+      throws OvsdbClientException {
+    return requestLock(new LockRegistration(lockId, lockCallback, true));
+  }
+
+  @Override
+  public CompletableFuture<Void> unlock(String lockId) throws OvsdbClientException {
+    if (isDisconnected()) {
+      // The server released the lock with the connection, so only keep it from coming back
+      locks.remove(lockId);
+      return CompletableFuture.completedFuture(null);
+    }
+    return getOvsdbClient().unlock(lockId).thenApply(result -> {
+      locks.remove(lockId);
+      return result;
+    });
+  }
+
+  /**
+   * Get the {@link OvsdbConnectionInfo} of the current connection.
+   *
+   * @return the {@link OvsdbConnectionInfo} of the current connection, or null if there is no
+   *     connection
+   */
+  @Override
+  public OvsdbConnectionInfo getConnectionInfo() {
+    OvsdbClient client = ovsdbClient;
+    return client == null ? null : client.getConnectionInfo();
+  }
+
+  /**
+   * Get a {@link CompletableFuture} that completes when this client is shut down by
+   * {@link #shutdown()}. Losing the connection does not shut this client down.
+   *
+   * @return a {@link CompletableFuture} that completes when this client is shut down
+   */
+  @Override
+  public CompletableFuture<Void> getShutdownFuture() {
+    return shutdownFuture;
+  }
+
+  /**
+   * Returns true if this client is connected.
+   */
+  public boolean isConnected() {
+    return ovsdbClient != null;
+  }
+
+  /**
+   * Shut down this client and its connection. It does not connect again.
+   */
+  @Override
+  public void shutdown() {
+    if (shutdownFuture.complete(null)) {
+      OvsdbClient client = ovsdbClient;
+      ovsdbClient = null;
+      if (client != null) {
+        client.shutdown();
+      }
+      monitors.clear();
+      condMonitors.clear();
+      locks.clear();
+    }
+  }
+
+  private boolean isDisconnected() {
+    return ovsdbClient == null && !shutdownFuture.isDone();
+  }
+
+  private OvsdbClient getOvsdbClient() throws OvsdbClientException {
+    OvsdbClient client = ovsdbClient;
+    if (client == null) {
+      throw new OvsdbClientException(shutdownFuture.isDone()
+          ? "This OVSDB client is not active" : "This OVSDB client is not connected");
+    }
+    return client;
+  }
+
+  private CompletableFuture<LockResult> requestLock(LockRegistration registration)
+      throws OvsdbClientException {
+    return registration.request(getOvsdbClient(), false).thenApply(lockResult -> {
+      locks.put(registration.lockId, registration);
+      return lockResult;
+    });
+  }
+
+  private void tryConnect(int attempt, CompletableFuture<ReconnectingOvsdbClient> connectedFuture) {
+    if (shutdownFuture.isDone()) {
+      return;
+    }
+    CompletableFuture<OvsdbClient> clientFuture;
+    try {
+      clientFuture = connector.get();
+    } catch (RuntimeException ex) {
+      clientFuture = new CompletableFuture<>();
+      clientFuture.completeExceptionally(ex);
+    }
+    clientFuture.whenCompleteAsync((client, ex) -> {
+      if (ex != null) {
+        long delayMillis = getBackoffMillis(attempt);
+        LOGGER.warn("Failed to connect (attempt {}). Retrying in {} ms", attempt + 1, delayMillis,
+            ex);
+        executorService.schedule(
+            () -> tryConnect(attempt + 1, connectedFuture), delayMillis, TimeUnit.MILLISECONDS);
+        return;
+      }
+      if (client.getShutdownFuture().isCompletedExceptionally()) {
+        // Such as a client that keeps the default of getShutdownFuture()
+        LOGGER.error("{} cannot tell when its connection is lost. Shutting down.", client);
+        client.shutdown();
+        connectedFuture.completeExceptionally(new OvsdbClientException(
+            "The connected client does not support getShutdownFuture()"));
+        shutdown();
+        return;
+      }
+      onConnected(client);
+      connectedFuture.complete(this);
+    }, executorService);
+  }
+
+  private void onConnected(OvsdbClient client) {
+    if (shutdownFuture.isDone()) {
+      client.shutdown();
+      return;
+    }
+    LOGGER.info("Connected {}", client);
+    ovsdbClient = client;
+    client.getShutdownFuture().whenCompleteAsync(
+        (result, ex) -> onDisconnected(client), executorService);
+    for (MonitorRegistration registration : monitors.values()) {
+      restartMonitor(client, registration.monitorId, 0,
+          () -> monitors.get(registration.monitorId) == registration,
+          () -> registration.restart(client));
+    }
+    for (MonitorCondRegistration registration : condMonitors.values()) {
+      restartMonitor(client, registration.getMonitorId(), 0,
+          () -> condMonitors.get(registration.getMonitorId()) == registration,
+          () -> registration.restart(client));
+    }
+    for (LockRegistration registration : locks.values()) {
+      try {
+        registration.request(client, true).whenComplete((lockResult, ex) -> {
+          if (ex != null) {
+            LOGGER.error("Failed to lock " + registration.lockId + " again", ex);
+          }
+        });
+      } catch (OvsdbClientException ex) {
+        LOGGER.error("Failed to lock " + registration.lockId + " again", ex);
+      }
+    }
+  }
+
+  /**
+   * Establish a monitor again on a new connection, and retry with the backoff if it fails, for as
+   * long as the connection is up and the monitor is not cancelled.
+   */
+  private void restartMonitor(
+      OvsdbClient client, String monitorId, int attempt, BooleanSupplier isRegistered,
+      MonitorRestart restart
+  ) {
+    CompletableFuture<?> restartFuture;
+    try {
+      restartFuture = restart.run();
+    } catch (OvsdbClientException ex) {
+      restartFuture = new CompletableFuture<>();
+      restartFuture.completeExceptionally(ex);
+    }
+    restartFuture.whenComplete((result, ex) -> {
+      if (ex == null) {
+        return;
+      }
+      if (ovsdbClient != client || !isRegistered.getAsBoolean()) {
+        LOGGER.warn("Failed to monitor " + monitorId + " again. Giving up", ex);
+        return;
+      }
+      long delayMillis = getBackoffMillis(attempt);
+      LOGGER.error("Failed to monitor " + monitorId + " again (attempt " + (attempt + 1)
+          + "). Retrying in " + delayMillis + " ms", ex);
+      executorService.schedule(() -> {
+        if (ovsdbClient == client && isRegistered.getAsBoolean()) {
+          restartMonitor(client, monitorId, attempt + 1, isRegistered, restart);
+        }
+      }, delayMillis, TimeUnit.MILLISECONDS);
+    });
+  }
+
+  private void onDisconnected(OvsdbClient client) {
+    if (ovsdbClient != client) {
+      return;
+    }
+    ovsdbClient = null;
+    LOGGER.warn("Lost connection {}", client);
+    // The server releases the locks of a connection when it is gone
+    locks.values().forEach(LockRegistration::release);
+    tryConnect(0, new CompletableFuture<>());
+  }
+
+  /**
+   * Get the delay before a reconnection attempt. It is a random delay between half and all of
+   * the exponential backoff, so that many clients that lost their connections at the same time
+   * do not all connect again at the same time.
+   */
+  private long getBackoffMillis(int attempt) {
+    long backoffMillis = minBackoffMillis << Math.min(attempt, 30);
+    if (backoffMillis <= 0 || backoffMillis > maxBackoffMillis) {
+      backoffMillis = maxBackoffMillis;
+    }
+    long halfMillis = backoffMillis / 2;
+    return halfMillis + ThreadLocalRandom.current().nextLong(backoffMillis - halfMillis + 1);
+  }
+
+  /**
+   * Compute the updates that turn the rows seen so far into the current rows, as an "update"
+   * notification of the monitor would have reported them. A modification carries the changed
+   * columns only in the old row, and all the columns in the new row.
+   *
+   * @param seenRows the rows seen so far, keyed by UUID
+   * @param currentRows the current rows, keyed by UUID
+   * @param select the kinds of changes to report
+   * @return the updates, keyed by UUID
+   */
+  static Map<UUID, RowUpdate> diff(
+      Map<UUID, Row> seenRows, Map<UUID, Row> currentRows, MonitorSelect select
+  ) {
+    Map<UUID, RowUpdate> rowUpdates = new HashMap<>();
+    for (Map.Entry<UUID, Row> entry : currentRows.entrySet()) {
+      Row seenRow = seenRows.get(entry.getKey());
+      Row currentRow = entry.getValue();
+      if (seenRow == null) {
+        if (isSelected(select == null ? null : select.getInsert())) {
+          rowUpdates.put(entry.getKey(), new RowUpdate(null, currentRow));
+        }
+      } else if (!seenRow.equals(currentRow)) {
+        if (isSelected(select == null ? null : select.getModify())) {
+          rowUpdates.put(entry.getKey(), new RowUpdate(changedColumns(seenRow, currentRow),
+              currentRow));
+        }
+      }
+    }
+    if (isSelected(select == null ? null : select.getDelete())) {
+      for (Map.Entry<UUID, Row> entry : seenRows.entrySet()) {
+        if (!currentRows.containsKey(entry.getKey())) {
+          rowUpdates.put(entry.getKey(), new RowUpdate(entry.getValue(), null));
+        }
+      }
+    }
+    return rowUpdates;
+  }
+
+  private static Row changedColumns(Row oldRow, Row newRow) {
+    Map<String, Value> changedColumns = new HashMap<>();
+    Set<String> columns = new HashSet<>(oldRow.getColumns().keySet());
+    columns.addAll(newRow.getColumns().keySet());
+    for (String column : columns) {
+      Value oldValue = oldRow.getColumns().get(column);
+      if (!Objects.equals(oldValue, newRow.getColumns().get(column)) && oldValue != null) {
+        changedColumns.put(column, oldValue);
+      }
+    }
+    return new Row(changedColumns);
+  }
+
+  private static boolean isSelected(Boolean flag) {
+    // A missing flag means the default, which is true
+    return flag == null || flag;
+  }
+
+  private static boolean isInitialSelected(MonitorRequest monitorRequest) {
+    return monitorRequest == null || isInitialSelected(monitorRequest.getSelect());
+  }
+
+  private static boolean isInitialSelected(MonitorSelect monitorSelect) {
+    return monitorSelect == null || isSelected(monitorSelect.getInitial());
+  }
+
+  @FunctionalInterface
+  private interface MonitorRestart {
+
+    CompletableFuture<?> run() throws OvsdbClientException;
+  }
+
+  /**
+   * A monitor in effect, with a copy of the rows its callback has seen.
+   */
+  private class MonitorRegistration {
+
+    private final String dbName;
+
+    private final String monitorId;
+
+    private final MonitorRequests monitorRequests;
+
+    private final MonitorCallback monitorCallback;
+
+    private final DatabaseSchema databaseSchema;
+
+    // The rows seen so far, keyed by table and UUID. Guarded by this
+    private final Map<String, Map<UUID, Row>> seenRows = new HashMap<>();
+
+    // Updates that arrived before the initial contents were handled, or null once they are.
+    // Guarded by this
+    private List<TableUpdates> pendingUpdates;
+
+    // The callback registered on the current connection
+    private MonitorCallback currentCallback;
+
+    MonitorRegistration(
+        String dbName, String monitorId, MonitorRequests monitorRequests,
+        MonitorCallback monitorCallback, DatabaseSchema databaseSchema
+    ) {
+      this.dbName = dbName;
+      this.monitorId = monitorId;
+      this.monitorRequests = monitorRequests;
+      this.monitorCallback = monitorCallback;
+      this.databaseSchema = databaseSchema;
+    }
+
+    /**
+     * Start the monitor. The initial contents go to the caller, as with a plain client.
+     */
+    CompletableFuture<TableUpdates> start(OvsdbClient client) throws OvsdbClientException {
+      return send(client).thenApply(tableUpdates -> {
+        synchronized (this) {
+          apply(tableUpdates);
+          drainPendingUpdates();
+        }
+        return tableUpdates;
+      });
+    }
+
+    /**
+     * Start the monitor again on a new connection. The callback gets what changed since it last
+     * saw the rows.
+     */
+    CompletableFuture<TableUpdates> restart(OvsdbClient client) throws OvsdbClientException {
+      return send(client).thenApply(tableUpdates -> {
+        synchronized (this) {
+          TableUpdates changes = reconcile(tableUpdates);
+          if (!changes.getTableUpdates().isEmpty()) {
+            monitorCallback.update(changes);
+          }
+          drainPendingUpdates();
+        }
+        return tableUpdates;
+      });
+    }
+
+    private CompletableFuture<TableUpdates> send(OvsdbClient client)
+        throws OvsdbClientException {
+      MonitorCallback callback = new MonitorCallback() {
+        @Override
+        public void update(TableUpdates tableUpdates) {
+          onUpdate(this, tableUpdates);
+        }
+      };
+      synchronized (this) {
+        pendingUpdates = new ArrayList<>();
+        currentCallback = callback;
+      }
+      return databaseSchema == null
+          ? client.monitor(dbName, monitorId, monitorRequests, callback)
+          : client.monitor(dbName, monitorId, monitorRequests, callback, databaseSchema);
+    }
+
+    private synchronized void onUpdate(MonitorCallback callback, TableUpdates tableUpdates) {
+      if (callback != currentCallback) {
+        // A late update from a previous connection
+        return;
+      }
+      if (pendingUpdates != null) {
+        pendingUpdates.add(tableUpdates);
+        return;
+      }
+      apply(tableUpdates);
+      monitorCallback.update(tableUpdates);
+    }
+
+    private void drainPendingUpdates() {
+      List<TableUpdates> updates = pendingUpdates;
+      pendingUpdates = null;
+      for (TableUpdates tableUpdates : updates) {
+        apply(tableUpdates);
+        monitorCallback.update(tableUpdates);
+      }
+    }
+
+    private void apply(TableUpdates tableUpdates) {
+      for (Map.Entry<String, TableUpdate> tableEntry
+          : tableUpdates.getTableUpdates().entrySet()) {
+        Map<UUID, Row> rows = seenRows.computeIfAbsent(tableEntry.getKey(), t -> new HashMap<>());
+        for (Map.Entry<UUID, RowUpdate> rowEntry
+            : tableEntry.getValue().getRowUpdates().entrySet()) {
+          Row newRow = rowEntry.getValue().getNew();
+          if (newRow == null) {
+            rows.remove(rowEntry.getKey());
+          } else {
+            rows.put(rowEntry.getKey(), newRow);
+          }
+        }
+      }
+    }
+
+    private TableUpdates reconcile(TableUpdates initialUpdates) {
+      Map<String, TableUpdate> changes = new HashMap<>();
+      Map<String, MonitorRequest> requests = monitorRequests.getMonitorRequests();
+      for (String table : requests.keySet()) {
+        MonitorRequest monitorRequest = requests.get(table);
+        if (!isInitialSelected(monitorRequest)) {
+          continue;
+        }
+        Map<UUID, Row> currentRows = new HashMap<>();
+        TableUpdate tableUpdate = initialUpdates.getTableUpdates().get(table);
+        if (tableUpdate != null) {
+          tableUpdate.getRowUpdates().forEach((uuid, rowUpdate) -> {
+            if (rowUpdate.getNew() != null) {
+              currentRows.put(uuid, rowUpdate.getNew());
+            }
+          });
+        }
+        Map<UUID, Row> rows = seenRows.getOrDefault(table, new HashMap<>());
+        Map<UUID, RowUpdate> rowUpdates = diff(rows, currentRows, monitorRequest.getSelect());
+        if (!rowUpdates.isEmpty()) {
+          changes.put(table, new TableUpdate(rowUpdates));
+        }
+        seenRows.put(table, currentRows);
+      }
+      return new TableUpdates(changes);
+    }
+  }
+
+  /**
+   * A "monitor_cond" or "monitor_cond_since" monitor in effect, with its current conditions, the
+   * UUIDs of the rows its callback has seen and, for "monitor_cond_since", the id of the last
+   * transaction seen.
+   */
+  private class MonitorCondRegistration {
+
+    private final String dbName;
+
+    private final MonitorCondSinceCallback monitorCondCallback;
+
+    private final boolean since;
+
+    private final DatabaseSchema databaseSchema;
+
+    // The id and the requests, as changed by monitor_cond_change. Guarded by this
+    private String monitorId;
+
+    private MonitorCondRequests monitorCondRequests;
+
+    // The id of the last transaction seen, or null. Guarded by this
+    private UUID lastTxnId;
+
+    // The UUIDs of the rows seen so far, keyed by table. Guarded by this
+    private final Map<String, Set<UUID>> seenUuids = new HashMap<>();
+
+    // Updates that arrived before the initial contents were handled, or null once they are.
+    // Guarded by this
+    private List<PendingUpdate> pendingUpdates;
+
+    // The callback registered on the current connection
+    private Object currentCallback;
+
+    MonitorCondRegistration(
+        String dbName, String monitorId, MonitorCondRequests monitorCondRequests,
+        MonitorCondSinceCallback monitorCondCallback, boolean since, UUID lastTxnId,
+        DatabaseSchema databaseSchema
+    ) {
+      this.dbName = dbName;
+      this.monitorId = monitorId;
+      this.monitorCondRequests = monitorCondRequests;
+      this.monitorCondCallback = monitorCondCallback;
+      this.since = since;
+      this.lastTxnId = lastTxnId;
+      this.databaseSchema = databaseSchema;
+    }
+
+    synchronized String getMonitorId() {
+      return monitorId;
+    }
+
+    /**
+     * Start the monitor. The initial contents go to the caller, as with a plain client.
+     */
+    CompletableFuture<MonitorCondSinceResult> start(OvsdbClient client)
+        throws OvsdbClientException {
+      return send(client).thenApply(result -> {
+        synchronized (this) {
+          apply(result.getLastTxnId(), result.getTableUpdates2());
+          drainPendingUpdates();
+        }
+        return result;
+      });
+    }
+
+    /**
+     * Start the monitor again on a new connection. If the server found the last transaction
+     * seen, the callback gets the changes made after it. Otherwise it gets the current rows and
+     * the deletions of the rows that are gone.
+     */
+    CompletableFuture<MonitorCondSinceResult> restart(OvsdbClient client)
+        throws OvsdbClientException {
+      return send(client).thenApply(result -> {
+        synchronized (this) {
+          TableUpdates2 changes;
+          if (result.isFound()) {
+            changes = result.getTableUpdates2();
+            apply(result.getLastTxnId(), changes);
+          } else {
+            changes = reconcile(result.getTableUpdates2());
+            lastTxnId = result.getLastTxnId();
+          }
+          if (!changes.getTableUpdates().isEmpty()) {
+            monitorCondCallback.update(lastTxnId, changes);
+          }
+          drainPendingUpdates();
+        }
+        return result;
+      });
+    }
+
+    /**
+     * Record a successful monitor_cond_change, so that a new connection uses the new id and
+     * conditions. The tables that are not in the change keep their conditions.
+     */
+    synchronized void change(String newMonitorId, MonitorCondRequests changeRequests) {
+      Map<String, MonitorCondRequest> requests =
+          new HashMap<>(monitorCondRequests.getMonitorCondRequests());
+      changeRequests.getMonitorCondRequests().forEach((table, changeRequest) -> {
+        MonitorCondRequest request = requests.get(table);
+        List<String> columns = changeRequest.getColumns() != null
+            ? changeRequest.getColumns() : request == null ? null : request.getColumns();
+        requests.put(table, new MonitorCondRequest(
+            columns, changeRequest.getWhere(), request == null ? null : request.getSelect()));
+      });
+      monitorId = newMonitorId;
+      monitorCondRequests = new MonitorCondRequests(requests);
+    }
+
+    private CompletableFuture<MonitorCondSinceResult> send(OvsdbClient client)
+        throws OvsdbClientException {
+      String id;
+      MonitorCondRequests requests;
+      UUID txnId;
+      if (since) {
+        MonitorCondSinceCallback callback = new MonitorCondSinceCallback() {
+          @Override
+          public void update(UUID lastTxnId, TableUpdates2 tableUpdates2) {
+            onUpdate(this, lastTxnId, tableUpdates2);
+          }
+        };
+        synchronized (this) {
+          pendingUpdates = new ArrayList<>();
+          currentCallback = callback;
+          id = monitorId;
+          requests = monitorCondRequests;
+          txnId = lastTxnId;
+        }
+        return databaseSchema == null
+            ? client.monitorCondSince(dbName, id, requests, txnId, callback)
+            : client.monitorCondSince(dbName, id, requests, txnId, callback, databaseSchema);
+      }
+      MonitorCondCallback callback = new MonitorCondCallback() {
+        @Override
+        public void update(TableUpdates2 tableUpdates2) {
+          onUpdate(this, null, tableUpdates2);
+        }
+      };
+      synchronized (this) {
+        pendingUpdates = new ArrayList<>();
+        currentCallback = callback;
+        id = monitorId;
+        requests = monitorCondRequests;
+      }
+      CompletableFuture<TableUpdates2> future = databaseSchema == null
+          ? client.monitorCond(dbName, id, requests, callback)
+          : client.monitorCond(dbName, id, requests, callback, databaseSchema);
+      return future.thenApply(
+          tableUpdates2 -> new MonitorCondSinceResult(false, null, tableUpdates2));
+    }
+
+    private synchronized void onUpdate(
+        Object callback, UUID txnId, TableUpdates2 tableUpdates2
+    ) {
+      if (callback != currentCallback) {
+        // A late update from a previous connection
+        return;
+      }
+      if (pendingUpdates != null) {
+        pendingUpdates.add(new PendingUpdate(txnId, tableUpdates2));
+        return;
+      }
+      apply(txnId, tableUpdates2);
+      monitorCondCallback.update(txnId, tableUpdates2);
+    }
+
+    private void drainPendingUpdates() {
+      List<PendingUpdate> updates = pendingUpdates;
+      pendingUpdates = null;
+      for (PendingUpdate update : updates) {
+        apply(update.lastTxnId, update.tableUpdates2);
+        monitorCondCallback.update(update.lastTxnId, update.tableUpdates2);
+      }
+    }
+
+    private void apply(UUID txnId, TableUpdates2 tableUpdates2) {
+      if (txnId != null) {
+        lastTxnId = txnId;
+      }
+      for (Map.Entry<String, TableUpdate2> tableEntry
+          : tableUpdates2.getTableUpdates().entrySet()) {
+        Set<UUID> uuids = seenUuids.computeIfAbsent(tableEntry.getKey(), t -> new HashSet<>());
+        tableEntry.getValue().getRowUpdates().forEach((uuid, rowUpdate2) -> {
+          if (rowUpdate2.isDelete()) {
+            uuids.remove(uuid);
+          } else {
+            uuids.add(uuid);
+          }
+        });
+      }
+    }
+
+    private TableUpdates2 reconcile(TableUpdates2 initialUpdates) {
+      Map<String, TableUpdate2> changes = new HashMap<>();
+      Map<String, MonitorCondRequest> requests = monitorCondRequests.getMonitorCondRequests();
+      for (String table : requests.keySet()) {
+        MonitorCondRequest request = requests.get(table);
+        if (request != null && !isInitialSelected(request.getSelect())) {
+          continue;
+        }
+        Map<UUID, RowUpdate2> rowUpdates = new HashMap<>();
+        TableUpdate2 tableUpdate2 = initialUpdates.getTableUpdates().get(table);
+        if (tableUpdate2 != null) {
+          rowUpdates.putAll(tableUpdate2.getRowUpdates());
+        }
+        Set<UUID> currentUuids = new HashSet<>(rowUpdates.keySet());
+        for (UUID uuid : seenUuids.getOrDefault(table, new HashSet<>())) {
+          if (!currentUuids.contains(uuid)) {
+            rowUpdates.put(uuid, new RowUpdate2().setDelete(true));
+          }
+        }
+        if (!rowUpdates.isEmpty()) {
+          changes.put(table, new TableUpdate2(rowUpdates));
+        }
+        seenUuids.put(table, currentUuids);
+      }
+      return new TableUpdates2(changes);
+    }
+  }
+
+  /**
+   * An update held back until the initial contents are handled.
+   */
+  private static class PendingUpdate {
+
+    private final UUID lastTxnId;
+
+    private final TableUpdates2 tableUpdates2;
+
+    PendingUpdate(UUID lastTxnId, TableUpdates2 tableUpdates2) {
+      this.lastTxnId = lastTxnId;
+      this.tableUpdates2 = tableUpdates2;
+    }
+  }
+
+  /**
+   * A lock in effect, and whether it is held.
+   */
+  private class LockRegistration {
+
+    private final String lockId;
+
+    private final LockCallback lockCallback;
+
+    private final boolean steal;
+
+    // Guarded by this
+    private boolean held;
+
+    LockRegistration(String lockId, LockCallback lockCallback, boolean steal) {
+      this.lockId = lockId;
+      this.lockCallback = lockCallback;
+      this.steal = steal;
+    }
+
+    /**
+     * Request the lock. If notify is false, the caller learns from the result that the lock is
+     * acquired, so the callback is not called for it, as with a plain client.
+     */
+    CompletableFuture<LockResult> request(OvsdbClient client, boolean notify)
+        throws OvsdbClientException {
+      LockCallback callback = new LockCallback() {
+        @Override
+        public void locked() {
+          setHeld(true);
+        }
+
+        @Override
+        public void stolen() {
+          setHeld(false);
+        }
+      };
+      CompletableFuture<LockResult> completableFuture = steal
+          ? client.steal(lockId, callback)
+          : client.lock(lockId, callback);
+      return completableFuture.thenApply(lockResult -> {
+        if (lockResult.isLocked()) {
+          if (notify) {
+            setHeld(true);
+          } else {
+            synchronized (this) {
+              held = true;
+            }
+          }
+        }
+        return lockResult;
+      });
+    }
+
+    void release() {
+      setHeld(false);
+    }
+
+    private void setHeld(boolean held) {
+      synchronized (this) {
+        if (this.held == held) {
+          return;
+        }
+        this.held = held;
+      }
+      if (held) {
+        lockCallback.locked();
+      } else {
+        lockCallback.stolen();
+      }
+    }
+  }
+}
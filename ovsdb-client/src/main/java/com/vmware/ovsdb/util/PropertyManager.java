@@ -20,6 +20,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.invoke.MethodHandles;
+import java.util.Locale;
 import java.util.Properties;
 import java.util.function.Function;
 
@@ -68,4 +69,25 @@ public class PropertyManager {
   public static long getLongProperty(String propertyName, long defaultValue) {
     return getProperty(propertyName, defaultValue, Long::valueOf);
   }
+
+  /**
+   * Get a boolean property. Only "true" and "false", in any case, are valid values.
+   */
+  public static boolean getBooleanProperty(String propertyName, boolean defaultValue) {
+    return getProperty(propertyName, defaultValue, value -> {
+      if (!"true".equalsIgnoreCase(value) && !"false".equalsIgnoreCase(value)) {
+        throw new IllegalArgumentException("Invalid boolean value " + value);
+      }
+      return Boolean.valueOf(value);
+    });
+  }
+
+  /**
+   * Get an enum property. The valid values are the names of the constants of the enum, in any
+   * case, such as "edge_triggered" for EDGE_TRIGGERED.
+   */
+  public static <E extends Enum<E>> E getEnumProperty(String propertyName, E defaultValue) {
+    return getProperty(propertyName, defaultValue, value -> Enum.valueOf(
+        defaultValue.getDeclaringClass(), value.trim().toUpperCase(Locale.ROOT)));
+  }
 }
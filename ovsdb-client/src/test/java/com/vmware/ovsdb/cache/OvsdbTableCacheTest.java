@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.vmware.ovsdb.callback.MonitorCallback;
+import com.vmware.ovsdb.exception.OvsdbClientException;
+import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
+import com.vmware.ovsdb.protocol.methods.MonitorRequest;
+import com.vmware.ovsdb.protocol.methods.MonitorRequests;
+import com.vmware.ovsdb.protocol.methods.RowUpdate;
+import com.vmware.ovsdb.protocol.methods.TableUpdate;
+import com.vmware.ovsdb.protocol.methods.TableUpdates;
+import com.vmware.ovsdb.protocol.operation.Select;
+import com.vmware.ovsdb.protocol.operation.notation.Atom;
+import com.vmware.ovsdb.protocol.operation.notation.Function;
+import com.vmware.ovsdb.protocol.operation.notation.Row;
+import com.vmware.ovsdb.protocol.operation.notation.Uuid;
+import com.vmware.ovsdb.protocol.operation.notation.Value;
+import com.vmware.ovsdb.protocol.operation.result.OperationResult;
+import com.vmware.ovsdb.protocol.operation.result.SelectResult;
+import com.vmware.ovsdb.protocol.schema.DatabaseSchema;
+import com.vmware.ovsdb.service.OvsdbClient;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class OvsdbTableCacheTest {
+
+  private static final String DB_NAME = "hardware_vtep";
+
+  private static final String TABLE = "Logical_Switch";
+
+  private static final String MONITOR_ID = "cache";
+
+  private static final UUID UUID_1 = UUID.randomUUID();
+
+  private static final UUID UUID_2 = UUID.randomUUID();
+
+  private static final UUID UUID_3 = UUID.randomUUID();
+
+  private final OvsdbClient ovsdbClient = mock(OvsdbClient.class);
+
+  private final CompletableFuture<TableUpdates> monitorFuture = new CompletableFuture<>();
+
+  private final MonitorRequests monitorRequests = new MonitorRequests(
+      ImmutableMap.of(TABLE, new MonitorRequest()));
+
+  private volatile MonitorCallback monitorCallback;
+
+  @Before
+  public void setUp() throws OvsdbClientException {
+    when(ovsdbClient.monitor(anyString(), anyString(), any(), any())).thenAnswer(invocation -> {
+      monitorCallback = invocation.getArgument(3);
+      return monitorFuture;
+    });
+    when(ovsdbClient.monitor(anyString(), anyString(), any(), any(), any()))
+        .thenAnswer(invocation -> {
+          monitorCallback = invocation.getArgument(3);
+          return monitorFuture;
+        });
+  }
+
+  @Test
+  public void testApplyUpdates() throws Exception {
+    CompletableFuture<OvsdbTableCache> cacheFuture = OvsdbTableCache.create(
+        ovsdbClient, DB_NAME, MONITOR_ID, monitorRequests);
+    verify(ovsdbClient).monitor(eq(DB_NAME), eq(MONITOR_ID), eq(monitorRequests), any());
+
+    Row ls1 = new Row().stringColumn("name", "ls1");
+    Row ls2 = new Row().stringColumn("name", "ls2");
+    monitorFuture.complete(tableUpdates(ImmutableMap.of(
+        UUID_1, new RowUpdate(null, ls1), UUID_2, new RowUpdate(null, ls2))));
+    OvsdbTableCache cache = cacheFuture.join();
+    assertEquals(ls1, cache.getRow(TABLE, UUID_1));
+    assertEquals(ImmutableMap.of(UUID_1, ls1, UUID_2, ls2), cache.getRows(TABLE));
+
+    Row ls1Renamed = new Row().stringColumn("name", "ls1-renamed");
+    monitorCallback.update(tableUpdates(ImmutableMap.of(
+        UUID_1, new RowUpdate(ls1, ls1Renamed), UUID_2, new RowUpdate(ls2, null))));
+    assertEquals(ls1Renamed, cache.getRow(TABLE, UUID_1));
+    assertNull(cache.getRow(TABLE, UUID_2));
+    assertEquals(1, cache.size(TABLE));
+
+    when(ovsdbClient.cancelMonitor(MONITOR_ID))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    cache.close().join();
+    // Updates after close are ignored
+    monitorCallback.update(tableUpdates(ImmutableMap.of(UUID_1, new RowUpdate(ls1, null))));
+    assertEquals(ls1Renamed, cache.getRow(TABLE, UUID_1));
+  }
+
+  @Test
+  public void testUpdateBeforeInitialContents() throws Exception {
+    CompletableFuture<OvsdbTableCache> cacheFuture = OvsdbTableCache.create(
+        ovsdbClient, DB_NAME, MONITOR_ID, monitorRequests);
+    Row ls1 = new Row().stringColumn("name", "ls1");
+    Row ls1Renamed = new Row().stringColumn("name", "ls1-renamed");
+    monitorCallback.update(tableUpdates(ImmutableMap.of(
+        UUID_1, new RowUpdate(ls1, ls1Renamed))));
+    monitorFuture.complete(tableUpdates(ImmutableMap.of(UUID_1, new RowUpdate(null, ls1))));
+
+    assertEquals(ls1Renamed, cacheFuture.join().getRow(TABLE, UUID_1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTableNotCached() throws Exception {
+    CompletableFuture<OvsdbTableCache> cacheFuture = OvsdbTableCache.create(
+        ovsdbClient, DB_NAME, MONITOR_ID, monitorRequests);
+    monitorFuture.complete(new TableUpdates(Collections.emptyMap()));
+    cacheFuture.join().getRows("Physical_Switch");
+  }
+
+  @Test
+  public void testScanSeesWholeUpdates() throws Exception {
+    CompletableFuture<OvsdbTableCache> cacheFuture = OvsdbTableCache.create(
+        ovsdbClient, DB_NAME, MONITOR_ID, monitorRequests);
+    // A switch that moves between two UUIDs, so there is always exactly one of them
+    Row row = new Row().stringColumn("name", "ls");
+    monitorFuture.complete(tableUpdates(ImmutableMap.of(UUID_1, new RowUpdate(null, row))));
+    OvsdbTableCache cache = cacheFuture.join();
+
+    AtomicBoolean done = new AtomicBoolean();
+    AtomicReference<Map<UUID, Row>> badScan = new AtomicReference<>();
+    Thread reader = new Thread(() -> {
+      while (!done.get()) {
+        Map<UUID, Row> rows = cache.getRows(TABLE);
+        if (rows.size() != 1) {
+          badScan.set(rows);
+        }
+      }
+    });
+    reader.start();
+    UUID from = UUID_1;
+    UUID to = UUID_2;
+    for (int i = 0; i < 20000; i++) {
+      monitorCallback.update(tableUpdates(ImmutableMap.of(
+          from, new RowUpdate(row, null), to, new RowUpdate(null, row))));
+      UUID tmp = from;
+      from = to;
+      to = tmp;
+    }
+    done.set(true);
+    reader.join();
+    assertNull(String.valueOf(badScan.get()), badScan.get());
+    assertTrue(cache.getRows(TABLE).containsKey(from));
+  }
+
+  @Test
+  public void testSchemaIndex() throws Exception {
+    CompletableFuture<OvsdbTableCache> cacheFuture = OvsdbTableCache.create(
+        ovsdbClient, DB_NAME, MONITOR_ID, monitorRequests, readSchema());
+    Row ls1 = new Row().stringColumn("name", "ls1");
+    Row ls2 = new Row().stringColumn("name", "ls2");
+    monitorFuture.complete(tableUpdates(ImmutableMap.of(
+        UUID_1, new RowUpdate(null, ls1), UUID_2, new RowUpdate(null, ls2))));
+    OvsdbTableCache cache = cacheFuture.join();
+    assertEquals(ImmutableSet.of(ImmutableSet.of("name")), cache.getIndexes(TABLE));
+    assertEquals(ImmutableMap.of(UUID_1, ls1), cache.getRows(TABLE, name("ls1")));
+
+    Row ls3 = new Row().stringColumn("name", "ls3");
+    monitorCallback.update(tableUpdates(ImmutableMap.of(
+        UUID_1, new RowUpdate(ls1, ls3), UUID_2, new RowUpdate(ls2, null))));
+    assertEquals(Collections.emptyMap(), cache.getRows(TABLE, name("ls1")));
+    assertEquals(Collections.emptyMap(), cache.getRows(TABLE, name("ls2")));
+    assertEquals(ImmutableMap.of(UUID_1, ls3), cache.getRows(TABLE, name("ls3")));
+  }
+
+  @Test
+  public void testAddIndex() throws Exception {
+    CompletableFuture<OvsdbTableCache> cacheFuture = OvsdbTableCache.create(
+        ovsdbClient, DB_NAME, MONITOR_ID, monitorRequests);
+    Row ls1 = new Row().stringColumn("name", "ls1").integerColumn("tunnel_key", 5001L);
+    Row ls2 = new Row().stringColumn("name", "ls2").integerColumn("tunnel_key", 5001L);
+    Row ls3 = new Row().stringColumn("name", "ls3");
+    monitorFuture.complete(tableUpdates(ImmutableMap.of(
+        UUID_1, new RowUpdate(null, ls1), UUID_2, new RowUpdate(null, ls2),
+        UUID_3, new RowUpdate(null, ls3))));
+    OvsdbTableCache cache = cacheFuture.join();
+    assertEquals(Collections.emptySet(), cache.getIndexes(TABLE));
+
+    cache.addIndex(TABLE, ImmutableSet.of("tunnel_key"));
+    assertEquals(ImmutableMap.of(UUID_1, ls1, UUID_2, ls2), cache.getRows(TABLE, tunnelKey(5001L)));
+    Map<String, Value> noTunnelKey = new HashMap<>();
+    noTunnelKey.put("tunnel_key", null);
+    assertEquals(ImmutableMap.of(UUID_3, ls3), cache.getRows(TABLE, noTunnelKey));
+
+    Row ls2Moved = new Row().stringColumn("name", "ls2").integerColumn("tunnel_key", 5002L);
+    monitorCallback.update(tableUpdates(ImmutableMap.of(UUID_2, new RowUpdate(ls2, ls2Moved))));
+    assertEquals(ImmutableMap.of(UUID_1, ls1), cache.getRows(TABLE, tunnelKey(5001L)));
+    assertEquals(ImmutableMap.of(UUID_2, ls2Moved), cache.getRows(TABLE, tunnelKey(5002L)));
+
+    monitorCallback.update(tableUpdates(ImmutableMap.of(UUID_1, new RowUpdate(ls1, null))));
+    assertEquals(Collections.emptyMap(), cache.getRows(TABLE, tunnelKey(5001L)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoIndex() throws Exception {
+    CompletableFuture<OvsdbTableCache> cacheFuture = OvsdbTableCache.create(
+        ovsdbClient, DB_NAME, MONITOR_ID, monitorRequests);
+    monitorFuture.complete(new TableUpdates(Collections.emptyMap()));
+    cacheFuture.join().getRows(TABLE, name("ls1"));
+  }
+
+  @Test
+  public void testSelect() throws Exception {
+    CompletableFuture<OvsdbTableCache> cacheFuture = OvsdbTableCache.create(
+        ovsdbClient, DB_NAME, MONITOR_ID, monitorRequests, readSchema());
+    Row ls1 = new Row().stringColumn("name", "ls1").integerColumn("tunnel_key", 5001L);
+    Row ls2 = new Row().stringColumn("name", "ls2").integerColumn("tunnel_key", 5002L);
+    monitorFuture.complete(tableUpdates(ImmutableMap.of(
+        UUID_1, new RowUpdate(null, ls1), UUID_2, new RowUpdate(null, ls2))));
+    OvsdbTableCache cache = cacheFuture.join();
+
+    // The same result as the server's
+    String serverResult = "{\"rows\":[{\"_uuid\":[\"uuid\",\"" + UUID_1 + "\"],"
+        + "\"tunnel_key\":5001}]}";
+    assertEquals(JsonUtil.deserializeNoException(serverResult, OperationResult.class),
+        cache.select(new Select(TABLE).where("name", Function.EQUALS, "ls1")
+            .columns("_uuid", "tunnel_key")));
+
+    // Looks up the index on name
+    PreparedSelect byName = cache.prepare(new Select(TABLE)
+        .where("name", Function.EQUALS, "ls2")
+        .where("tunnel_key", Function.GREATER_THAN, 5000)
+        .columns("name"));
+    assertTrue(byName.toString().contains("indexKey={name="));
+    assertEquals(new SelectResult(ImmutableList.of(new Row().stringColumn("name", "ls2"))),
+        byName.execute());
+    monitorCallback.update(tableUpdates(ImmutableMap.of(UUID_2, new RowUpdate(ls2, null))));
+    assertEquals(new SelectResult(ImmutableList.of()), byName.execute());
+
+    // Reads the row by UUID
+    assertEquals(
+        new SelectResult(ImmutableList.of(new Row(ImmutableMap.of(
+            "name", Atom.string("ls1"), "tunnel_key", Atom.integer(5001),
+            "_uuid", Atom.uuid(UUID_1))))),
+        cache.select(new Select(TABLE).where("_uuid", Function.EQUALS, Uuid.of(UUID_1))));
+
+    // Scans the table
+    assertEquals(new SelectResult(ImmutableList.of(new Row().stringColumn("name", "ls1"))),
+        cache.select(new Select(TABLE)
+            .where("tunnel_key", Function.LESS_THAN_OR_EQUALS, 5001)
+            .columns("name")));
+  }
+
+  private static Map<String, Value> name(String name) {
+    return ImmutableMap.of("name", Atom.string(name));
+  }
+
+  private static Map<String, Value> tunnelKey(long tunnelKey) {
+    return ImmutableMap.of("tunnel_key", Atom.integer(tunnelKey));
+  }
+
+  private static DatabaseSchema readSchema() {
+    try {
+      return JsonUtil.deserialize(
+          OvsdbTableCacheTest.class.getClassLoader().getResource("vtep_schema.json"),
+          DatabaseSchema.class
+      );
+    } catch (IOException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private static TableUpdates tableUpdates(Map<UUID, RowUpdate> rowUpdates) {
+    Map<String, TableUpdate> tableUpdates = new HashMap<>();
+    tableUpdates.put(TABLE, new TableUpdate(rowUpdates));
+    return new TableUpdates(tableUpdates);
+  }
+}
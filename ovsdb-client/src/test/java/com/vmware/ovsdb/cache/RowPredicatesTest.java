@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.cache;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.vmware.ovsdb.protocol.operation.notation.Atom;
+import com.vmware.ovsdb.protocol.operation.notation.Condition;
+import com.vmware.ovsdb.protocol.operation.notation.Function;
+import com.vmware.ovsdb.protocol.operation.notation.Map;
+import com.vmware.ovsdb.protocol.operation.notation.Row;
+import com.vmware.ovsdb.protocol.operation.notation.Set;
+import com.vmware.ovsdb.protocol.operation.notation.Value;
+import org.junit.Test;
+
+import java.util.UUID;
+
+public class RowPredicatesTest {
+
+  private static final UUID uuid = UUID.randomUUID();
+
+  private final Row row = new Row()
+      .stringColumn("name", "port1")
+      .integerColumn("vlan", 100L)
+      .setColumn("port_fault_status", ImmutableSet.of("down", "flapping"))
+      .mapColumn("other_config", ImmutableMap.of("a", "1", "b", "2"))
+      .setColumn("empty", ImmutableSet.of());
+
+  @Test
+  public void testEquality() {
+    assertTrue(test("name", Function.EQUALS, Atom.string("port1")));
+    assertFalse(test("name", Function.EQUALS, Atom.string("port2")));
+    assertTrue(test("name", Function.NOT_EQUALS, Atom.string("port2")));
+    assertTrue(test("name", Function.EQUALS, Set.of("port1")));
+    assertTrue(test("port_fault_status", Function.EQUALS, Set.of("flapping", "down")));
+    assertFalse(test("port_fault_status", Function.EQUALS, Set.of("down")));
+    assertTrue(test("other_config", Function.EQUALS,
+        Map.of(ImmutableMap.of("b", "2", "a", "1"))));
+    assertTrue(test("_uuid", Function.EQUALS, Atom.uuid(uuid)));
+    // A missing column is empty
+    assertTrue(test("missing", Function.EQUALS, new Set()));
+    assertTrue(test("missing", Function.EQUALS, Map.of(ImmutableMap.of())));
+    assertTrue(test("empty", Function.EQUALS, new Set()));
+  }
+
+  @Test
+  public void testIncludesExcludes() {
+    assertTrue(test("port_fault_status", Function.INCLUDES, Set.of("down")));
+    assertFalse(test("port_fault_status", Function.INCLUDES, Set.of("down", "up")));
+    assertTrue(test("port_fault_status", Function.EXCLUDES, Set.of("up")));
+    assertFalse(test("port_fault_status", Function.EXCLUDES, Set.of("down", "up")));
+    assertTrue(test("other_config", Function.INCLUDES, Map.of(ImmutableMap.of("a", "1"))));
+    assertFalse(test("other_config", Function.INCLUDES, Map.of(ImmutableMap.of("a", "2"))));
+    assertTrue(test("other_config", Function.EXCLUDES, Map.of(ImmutableMap.of("a", "2"))));
+    assertFalse(test("other_config", Function.EXCLUDES, Map.of(ImmutableMap.of("b", "2"))));
+    // On a scalar, includes is == and excludes is !=
+    assertTrue(test("vlan", Function.INCLUDES, Atom.integer(100)));
+    assertTrue(test("vlan", Function.EXCLUDES, Atom.integer(200)));
+  }
+
+  @Test
+  public void testComparison() {
+    assertTrue(test("vlan", Function.LESS_THAN, Atom.integer(101)));
+    assertFalse(test("vlan", Function.LESS_THAN, Atom.integer(100)));
+    assertTrue(test("vlan", Function.LESS_THAN_OR_EQUALS, Atom.integer(100)));
+    assertTrue(test("vlan", Function.GREATER_THAN, Atom.real(99.5)));
+    assertTrue(test("vlan", Function.GREATER_THAN_OR_EQUALS, Set.of(100L)));
+    assertFalse(test("vlan", Function.GREATER_THAN, Atom.integer(100)));
+    // An empty optional column compares false
+    assertFalse(test("empty", Function.LESS_THAN, Atom.integer(1)));
+    assertFalse(test("empty", Function.GREATER_THAN_OR_EQUALS, Atom.integer(1)));
+  }
+
+  @Test
+  public void testConjunction() {
+    assertTrue(RowPredicates.compile(ImmutableList.of(
+        new Condition("name", Function.EQUALS, Atom.string("port1")),
+        new Condition("vlan", Function.GREATER_THAN, Atom.integer(10))
+    )).test(uuid, row));
+    assertFalse(RowPredicates.compile(ImmutableList.of(
+        new Condition("name", Function.EQUALS, Atom.string("port1")),
+        new Condition("vlan", Function.GREATER_THAN, Atom.integer(100))
+    )).test(uuid, row));
+    assertTrue(RowPredicates.compile(ImmutableList.of()).test(uuid, row));
+  }
+
+  @Test
+  public void testConstant() {
+    assertTrue(RowPredicates.compile(ImmutableList.of(Condition.TRUE)).test(uuid, row));
+    assertFalse(RowPredicates.compile(ImmutableList.of(
+        new Condition("name", Function.EQUALS, Atom.string("port1")),
+        Condition.FALSE
+    )).test(uuid, row));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidComparison() {
+    test("name", Function.LESS_THAN, Atom.string("port2"));
+  }
+
+  private boolean test(String column, Function function, Value value) {
+    return RowPredicates.compile(ImmutableList.of(new Condition(column, function, value)))
+        .test(uuid, row);
+  }
+}
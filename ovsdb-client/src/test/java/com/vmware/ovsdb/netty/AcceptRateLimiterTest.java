@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.netty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AcceptRateLimiterTest {
+
+  private static final long INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private final AtomicLong clock = new AtomicLong(0);
+
+  @Test
+  public void testBurst() {
+    // 100 connections per second, 3 at once
+    AcceptRateLimiter acceptRateLimiter = new AcceptRateLimiter(100, 3, clock::get);
+    assertFalse(acceptRateLimiter.acquire() > 0);
+    assertFalse(acceptRateLimiter.acquire() > 0);
+    assertEquals(INTERVAL_NANOS, acceptRateLimiter.acquire());
+    assertEquals(2 * INTERVAL_NANOS, acceptRateLimiter.acquire());
+
+    // The burst is available again after a quiet period
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    assertFalse(acceptRateLimiter.acquire() > 0);
+    assertFalse(acceptRateLimiter.acquire() > 0);
+    assertEquals(INTERVAL_NANOS, acceptRateLimiter.acquire());
+  }
+
+  @Test
+  public void testSteadyRate() {
+    AcceptRateLimiter acceptRateLimiter = new AcceptRateLimiter(100, 1, clock::get);
+    for (int i = 0; i < 10; i++) {
+      assertEquals(INTERVAL_NANOS, acceptRateLimiter.acquire());
+      clock.addAndGet(INTERVAL_NANOS);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidRate() {
+    new AcceptRateLimiter(0, 1);
+  }
+
+  @Test
+  public void testPauseAutoRead() throws Exception {
+    EmbeddedChannel channel = new EmbeddedChannel(new AcceptRateLimiter(100, 2, clock::get));
+    channel.writeInbound("connection1");
+    assertTrue(channel.config().isAutoRead());
+    channel.writeInbound("connection2");
+    assertFalse(channel.config().isAutoRead());
+    // Accepted connections are passed on even when the rate is exceeded
+    assertEquals("connection1", channel.readInbound());
+    assertEquals("connection2", channel.readInbound());
+
+    TimeUnit.NANOSECONDS.sleep(INTERVAL_NANOS);
+    channel.runScheduledPendingTasks();
+    assertTrue(channel.config().isAutoRead());
+    channel.finish();
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.netty;
+
+import com.vmware.ovsdb.jsonrpc.v1.model.JsonRpcV1Request;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.flush.FlushConsolidationHandler;
+import io.netty.util.ReferenceCountUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends bursts of transact requests from a user thread over a loopback connection, the way
+ * {@code OvsdbClientImpl} does, with and without a {@link FlushConsolidationHandler}. Every flush
+ * that reaches the head of the pipeline costs one write to the socket, so the number of flushes
+ * per request, printed at the end of each trial, is the number of write syscalls per request.
+ * Run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FlushCoalescingBenchmark {
+
+  @Param({"false", "true"})
+  private boolean coalesce;
+
+  @Param({"1", "16", "128"})
+  private int burst;
+
+  private final LongAdder flushes = new LongAdder();
+
+  private final LongAdder requests = new LongAdder();
+
+  private EventLoopGroup group;
+
+  private Channel serverChannel;
+
+  private Channel channel;
+
+  private JsonRpcV1Request request;
+
+  @Setup
+  public void setUp() throws InterruptedException {
+    group = new NioEventLoopGroup(2);
+    serverChannel = new ServerBootstrap()
+        .group(group)
+        .channel(NioServerSocketChannel.class)
+        .childHandler(new ChannelInboundHandlerAdapter() {
+          @Override
+          public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ReferenceCountUtil.release(msg);
+          }
+        })
+        .bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+    channel = new Bootstrap()
+        .group(group)
+        .channel(NioSocketChannel.class)
+        .handler(new ChannelInitializer<SocketChannel>() {
+          @Override
+          protected void initChannel(SocketChannel ch) {
+            ch.pipeline().addLast(new ChannelOutboundHandlerAdapter() {
+              @Override
+              public void flush(ChannelHandlerContext ctx) {
+                flushes.increment();
+                ctx.flush();
+              }
+            });
+            if (coalesce) {
+              ch.pipeline().addLast(new FlushConsolidationHandler(64, true));
+            }
+            ch.pipeline().addLast(new JsonMessageEncoder());
+          }
+        })
+        .connect(serverChannel.localAddress()).sync().channel();
+    request = new JsonRpcV1Request("1", "transact", "hardware_vtep",
+        new Object[] {"op", "insert", "table", "Logical_Switch"});
+  }
+
+  @TearDown
+  public void tearDown() throws InterruptedException {
+    System.out.println();
+    System.out.printf("coalesce=%s burst=%d: %.3f write syscalls per request%n",
+        coalesce, burst, flushes.doubleValue() / requests.doubleValue());
+    channel.close().sync();
+    serverChannel.close().sync();
+    group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+  }
+
+  @Benchmark
+  public void sendBurst() throws InterruptedException {
+    ChannelFuture future = null;
+    for (int i = 0; i < burst; i++) {
+      future = channel.writeAndFlush(request);
+    }
+    requests.add(burst);
+    future.sync();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(FlushCoalescingBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.netty;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.vmware.ovsdb.jsonrpc.v1.spi.JsonRpcTimer;
+import io.netty.util.HashedWheelTimer;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class HashedWheelJsonRpcTimerTest {
+
+  private static final HashedWheelTimer wheelTimer = new HashedWheelTimer(
+      10, TimeUnit.MILLISECONDS);
+
+  private static final ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+  private final JsonRpcTimer timer = new HashedWheelJsonRpcTimer(wheelTimer, executorService);
+
+  @AfterClass
+  public static void tearDown() {
+    wheelTimer.stop();
+    executorService.shutdownNow();
+  }
+
+  @Test(timeout = 5000)
+  public void testExpire() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(1);
+    Thread[] taskThread = new Thread[1];
+    timer.newTimeout(() -> {
+      taskThread[0] = Thread.currentThread();
+      latch.countDown();
+    }, 50, TimeUnit.MILLISECONDS);
+
+    latch.await();
+    // The expired task must be handed off to the executor instead of running on the wheel thread
+    assertFalse(taskThread[0].getName().contains("HashedWheelTimer"));
+  }
+
+  @Test
+  public void testCancel() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(1);
+    JsonRpcTimer.Timeout timeout = timer.newTimeout(
+        latch::countDown, 50, TimeUnit.MILLISECONDS);
+
+    assertTrue(timeout.cancel());
+    assertFalse(latch.await(200, TimeUnit.MILLISECONDS));
+    assertFalse(timeout.cancel());
+  }
+
+  @Test(timeout = 5000)
+  public void testSharedTimer() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(1);
+    HashedWheelJsonRpcTimer.newSharedTimer(executorService)
+        .newTimeout(latch::countDown, 10, TimeUnit.MILLISECONDS);
+
+    latch.await();
+  }
+}
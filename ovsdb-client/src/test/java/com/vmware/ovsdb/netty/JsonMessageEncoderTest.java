@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.netty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableMap;
+import com.vmware.ovsdb.jsonrpc.v1.model.JsonRpcV1Request;
+import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.CharsetUtil;
+import org.junit.Test;
+
+import java.io.IOException;
+
+public class JsonMessageEncoderTest {
+
+  private final EmbeddedChannel channel = new EmbeddedChannel(new JsonMessageEncoder());
+
+  @Test
+  public void testEncodeRequest() {
+    JsonRpcV1Request request = new JsonRpcV1Request(
+        "1", "transact", "hardware_vtep", ImmutableMap.of("op", "comment", "comment", "中文"));
+    channel.writeOutbound(request);
+
+    assertEquals(
+        "{\"method\":\"transact\",\"params\":[\"hardware_vtep\","
+            + "{\"op\":\"comment\",\"comment\":\"中文\"}],\"id\":\"1\"}",
+        readOutboundString()
+    );
+  }
+
+  @Test
+  public void testEncodeJsonNode() throws IOException {
+    String json = "{\"result\":[],\"error\":null,\"id\":\"echo\"}";
+    JsonNode jsonNode = JsonUtil.readTree(json);
+    channel.writeOutbound(jsonNode);
+
+    assertEquals(json, readOutboundString());
+  }
+
+  @Test
+  public void testEncodeString() {
+    String json = "{\"method\":\"echo\",\"params\":[],\"id\":\"1\"}";
+    channel.writeOutbound(json);
+
+    assertEquals(json, readOutboundString());
+  }
+
+  @Test
+  public void testPassThroughByteBuf() {
+    ByteBuf byteBuf = Unpooled.copiedBuffer("[]", CharsetUtil.UTF_8);
+    channel.writeOutbound(byteBuf);
+
+    ByteBuf out = channel.readOutbound();
+    assertSame(byteBuf, out);
+    out.release();
+  }
+
+  private String readOutboundString() {
+    ByteBuf out = channel.readOutbound();
+    try {
+      return out.toString(CharsetUtil.UTF_8);
+    } finally {
+      out.release();
+    }
+  }
+}
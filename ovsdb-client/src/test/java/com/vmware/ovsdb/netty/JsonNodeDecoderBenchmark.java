@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.netty;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.Unpooled;
+import io.netty.util.CharsetUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decoding a framed {@link ByteBuf} through an intermediate {@link String} with
+ * streaming it into Jackson through a {@link ByteBufInputStream}. The payload is a monitor reply
+ * with the given number of rows. Run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JsonNodeDecoderBenchmark {
+
+  @Param({"10", "1000", "100000"})
+  private int rows;
+
+  private ByteBuf message;
+
+  @Setup
+  public void setUp() {
+    StringBuilder sb = new StringBuilder(
+        "{\"id\":\"1\",\"error\":null,\"result\":{\"Logical_Switch\":{");
+    for (int i = 0; i < rows; i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append('"').append(new UUID(0, i)).append("\":{\"new\":{")
+          .append("\"name\":\"ls-").append(i).append("\",")
+          .append("\"tunnel_key\":").append(i).append(',')
+          .append("\"description\":\"logical switch ").append(i).append("\"}}");
+    }
+    sb.append("}}}");
+    message = Unpooled.unreleasableBuffer(
+        Unpooled.directBuffer().writeBytes(sb.toString().getBytes(CharsetUtil.UTF_8)));
+  }
+
+  @Benchmark
+  public JsonNode decodeViaString() throws IOException {
+    ByteBuf json = message.duplicate();
+    return JsonUtil.readTree(json.toString(CharsetUtil.UTF_8));
+  }
+
+  @Benchmark
+  public JsonNode decodeViaInputStream() throws IOException {
+    ByteBuf json = message.duplicate();
+    try (InputStream inputStream = new ByteBufInputStream(json)) {
+      return JsonUtil.readTree(inputStream);
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(JsonNodeDecoderBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
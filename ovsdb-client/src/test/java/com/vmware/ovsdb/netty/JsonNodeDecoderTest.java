@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.netty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.CharsetUtil;
+import org.junit.Test;
+
+import java.io.IOException;
+
+public class JsonNodeDecoderTest {
+
+  private final EmbeddedChannel channel = new EmbeddedChannel(new JsonNodeDecoder());
+
+  @Test
+  public void testDecodeSingleMessage() throws IOException {
+    String json = "{\"method\":\"echo\",\"params\":[],\"id\":\"1\"}";
+    ByteBuf byteBuf = toByteBuf(json);
+    channel.writeInbound(byteBuf);
+
+    assertEquals(JsonUtil.readTree(json), channel.readInbound());
+    assertNull(channel.readInbound());
+    assertEquals(0, byteBuf.refCnt());
+  }
+
+  @Test
+  public void testDecodeFragmentedMessages() throws IOException {
+    String json1 = "{\"result\":{\"key\":\"中文\"},\"error\":null,\"id\":\"1\"}";
+    String json2 = "{\"method\":\"update\",\"params\":[null,{}],\"id\":null}";
+    String stream = json1 + json2;
+    int split = json1.length() / 2;
+
+    channel.writeInbound(toByteBuf(stream.substring(0, split)));
+    assertNull(channel.readInbound());
+    channel.writeInbound(toByteBuf(stream.substring(split)));
+
+    JsonNode node1 = channel.readInbound();
+    JsonNode node2 = channel.readInbound();
+    assertEquals(JsonUtil.readTree(json1), node1);
+    assertEquals(JsonUtil.readTree(json2), node2);
+    assertNull(channel.readInbound());
+    assertFalse(channel.finish());
+  }
+
+  private static ByteBuf toByteBuf(String string) {
+    return Unpooled.copiedBuffer(string, CharsetUtil.UTF_8);
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.netty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class OrderedDispatcherTest {
+
+  private final ExecutorService executorService = Executors.newFixedThreadPool(4);
+
+  private final OrderedDispatcher dispatcher = new OrderedDispatcher(executorService);
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testOrderInLane() throws Exception {
+    List<Integer> lane1 = Collections.synchronizedList(new ArrayList<>());
+    List<Integer> lane2 = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch done = new CountDownLatch(2000);
+    for (int i = 0; i < 1000; i++) {
+      int value = i;
+      dispatcher.dispatch("lane1", () -> {
+        lane1.add(value);
+        done.countDown();
+      });
+      dispatcher.dispatch("lane2", () -> {
+        lane2.add(value);
+        done.countDown();
+      });
+    }
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i, lane1.get(i).intValue());
+      assertEquals(i, lane2.get(i).intValue());
+    }
+  }
+
+  @Test
+  public void testBlockedLane() throws Exception {
+    CountDownLatch unblock = new CountDownLatch(1);
+    CountDownLatch otherDone = new CountDownLatch(2);
+    dispatcher.dispatch("slow", () -> await(unblock));
+    dispatcher.dispatch("slow", () -> { });
+    dispatcher.dispatch("fast", otherDone::countDown);
+    dispatcher.dispatch(null, otherDone::countDown);
+
+    // A slow lane does not hold up the other lanes or the tasks without a lane
+    assertTrue(otherDone.await(5, TimeUnit.SECONDS));
+    assertEquals(ImmutableMap.of("slow", 2), dispatcher.getQueueDepths());
+    assertEquals(2, dispatcher.getQueueDepth("slow"));
+    assertEquals(0, dispatcher.getQueueDepth("fast"));
+
+    unblock.countDown();
+    CountDownLatch laneDone = new CountDownLatch(1);
+    dispatcher.dispatch("slow", laneDone::countDown);
+    assertTrue(laneDone.await(5, TimeUnit.SECONDS));
+    assertTrue(dispatcher.getMaxQueueDepth() >= 2);
+  }
+
+  @Test
+  public void testFailedTask() throws Exception {
+    CountDownLatch done = new CountDownLatch(1);
+    dispatcher.dispatch("lane", () -> {
+      throw new RuntimeException("Expected failure");
+    });
+    dispatcher.dispatch("lane", done::countDown);
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testRejectedLane() {
+    AtomicBoolean reject = new AtomicBoolean(true);
+    OrderedDispatcher rejectingDispatcher = new OrderedDispatcher(task -> {
+      if (reject.get()) {
+        throw new RejectedExecutionException("Saturated");
+      }
+      task.run();
+    });
+    List<Integer> values = new ArrayList<>();
+    rejectingDispatcher.dispatch("lane", () -> values.add(1));
+    assertEquals(1, rejectingDispatcher.getQueueDepth("lane"));
+
+    // The lane runs again with the next task, in order
+    reject.set(false);
+    rejectingDispatcher.dispatch("lane", () -> values.add(2));
+    assertEquals(ImmutableList.of(1, 2), values);
+    assertEquals(0, rejectingDispatcher.getQueueDepth("lane"));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
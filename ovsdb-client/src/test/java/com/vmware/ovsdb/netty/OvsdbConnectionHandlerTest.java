@@ -14,21 +14,31 @@
 
 package com.vmware.ovsdb.netty;
 
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.vmware.ovsdb.callback.ConnectionCallback;
+import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
 import com.vmware.ovsdb.util.PropertyManager;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.util.CharsetUtil;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
+import java.io.IOException;
 import java.util.concurrent.ScheduledExecutorService;
 
 public class OvsdbConnectionHandlerTest {
@@ -50,13 +60,33 @@ public class OvsdbConnectionHandlerTest {
     OvsdbConnectionHandler heartBeatHandler = newOvsdbConnectionHandler();
     JsonNode jsonNode = JsonNodeFactory.instance.objectNode();
     ((ObjectNode) jsonNode).put("id", "123");
-    ((ObjectNode) jsonNode).put("method", "echo");
+    ((ObjectNode) jsonNode).put("method", "list_dbs");
     ((ObjectNode) jsonNode).putArray("params");
     heartBeatHandler.channelRead(ctx, jsonNode);
 
     verify(ctx).fireChannelRead(jsonNode);
   }
 
+  @Test
+  public void testReplyEcho() throws IOException {
+    when(ctx.alloc()).thenReturn(UnpooledByteBufAllocator.DEFAULT);
+    OvsdbConnectionHandler heartBeatHandler = newOvsdbConnectionHandler();
+    JsonNode jsonNode = JsonUtil.readTree(
+        "{\"method\":\"echo\",\"params\":[123,\"456\",true],\"id\":\"echo\"}");
+    heartBeatHandler.channelRead(ctx, jsonNode);
+
+    ArgumentCaptor<ByteBuf> captor = ArgumentCaptor.forClass(ByteBuf.class);
+    verify(ctx).writeAndFlush(captor.capture());
+    verify(ctx, never()).fireChannelRead(any());
+    ByteBuf reply = captor.getValue();
+    try {
+      assertEquals("{\"result\":[123,\"456\",true],\"error\":null,\"id\":\"echo\"}",
+          reply.toString(CharsetUtil.UTF_8));
+    } finally {
+      reply.release();
+    }
+  }
+
   @Test
   public void testReadRegularEvent() {
     OvsdbConnectionHandler heartBeatHandler = newOvsdbConnectionHandler();
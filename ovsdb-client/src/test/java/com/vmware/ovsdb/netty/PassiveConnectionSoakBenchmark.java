@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.netty;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.vmware.ovsdb.callback.ConnectionCallback;
+import com.vmware.ovsdb.service.OvsdbClient;
+import com.vmware.ovsdb.service.OvsdbPassiveConnectionListener;
+import com.vmware.ovsdb.service.impl.OvsdbPassiveConnectionListenerImpl;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connects a storm of OVSDB servers to an {@link OvsdbPassiveConnectionListenerImpl} at once, the
+ * way hardware VTEPs reconnect after a controller failover, and keeps them connected and idle. The
+ * score is the time until the listener has handed every connection to the
+ * {@link ConnectionCallback}.
+ *
+ * <p>After each iteration, the heap retained by the idle connections is measured and divided by
+ * the number of connections. The iteration fails if it exceeds {@link #HEAP_BUDGET_PER_CONNECTION}.
+ * The figure covers both ends of each connection, since the emulated servers run in the same JVM,
+ * so the listener alone uses less. The emulated servers answer the echo requests of the listener,
+ * so the connections stay up however long they are idle.</p>
+ *
+ * <p>Each connection takes two file descriptors in the benchmark process, so 10000 connections
+ * need an open file limit of more than 20000. Run the main method from the test classpath.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class PassiveConnectionSoakBenchmark {
+
+  static final long HEAP_BUDGET_PER_CONNECTION = 16 * 1024;
+
+  private static final String HOST = "127.0.0.1";
+
+  private static final int PORT = 6641;
+
+  // Connections being set up at once. Keep it below the accept backlog of the listener.
+  private static final int MAX_PENDING_CONNECTS = 512;
+
+  @Param({"10000"})
+  private int connections;
+
+  private final AtomicInteger connected = new AtomicInteger();
+
+  private final AtomicInteger disconnected = new AtomicInteger();
+
+  private final List<Channel> clientChannels = new ArrayList<>();
+
+  private final MemoryMXBean memoryMxBean = ManagementFactory.getMemoryMXBean();
+
+  private ScheduledExecutorService executorService;
+
+  private OvsdbPassiveConnectionListener passiveListener;
+
+  private EventLoopGroup clientGroup;
+
+  private Bootstrap clientBootstrap;
+
+  private long baselineHeap;
+
+  /**
+   * Start the listener and prepare the emulated OVSDB servers.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    executorService = Executors.newScheduledThreadPool(4);
+    passiveListener = new OvsdbPassiveConnectionListenerImpl(executorService);
+    passiveListener.startListening(PORT, new ConnectionCallback() {
+      @Override
+      public void connected(OvsdbClient ovsdbClient) {
+        connected.incrementAndGet();
+      }
+
+      @Override
+      public void disconnected(OvsdbClient ovsdbClient) {
+        disconnected.incrementAndGet();
+      }
+    }).join();
+
+    clientGroup = new NioEventLoopGroup(1);
+    clientBootstrap = new Bootstrap().group(clientGroup).channel(NioSocketChannel.class)
+        .handler(new ChannelInitializer<Channel>() {
+          @Override
+          protected void initChannel(Channel ch) {
+            ch.pipeline().addLast(new JsonNodeDecoder(), new EchoReplier());
+          }
+        });
+  }
+
+  /**
+   * Record the heap in use before the connections are made.
+   */
+  @Setup(Level.Iteration)
+  public void setUpIteration() throws InterruptedException {
+    connected.set(0);
+    disconnected.set(0);
+    baselineHeap = usedHeapAfterGc();
+  }
+
+  /**
+   * Connect all the emulated OVSDB servers and wait until the listener has accepted them all.
+   */
+  @Benchmark
+  public int connectAll() throws InterruptedException {
+    Semaphore pendingConnects = new Semaphore(MAX_PENDING_CONNECTS);
+    for (int i = 0; i < connections; i++) {
+      pendingConnects.acquire();
+      clientBootstrap.connect(HOST, PORT).addListener(future -> {
+        pendingConnects.release();
+        if (!future.isSuccess()) {
+          throw new IllegalStateException("Failed to connect", future.cause());
+        }
+      });
+    }
+    while (connected.get() < connections) {
+      TimeUnit.MILLISECONDS.sleep(1);
+    }
+    return connected.get();
+  }
+
+  /**
+   * Measure the heap retained by the idle connections, then close them.
+   */
+  @TearDown(Level.Iteration)
+  public void tearDownIteration() throws InterruptedException {
+    long heapPerConnection = (usedHeapAfterGc() - baselineHeap) / connections;
+    System.out.println();
+    System.out.println("Heap per idle connection: " + heapPerConnection + " bytes (budget "
+        + HEAP_BUDGET_PER_CONNECTION + " bytes)");
+
+    synchronized (clientChannels) {
+      clientChannels.forEach(Channel::close);
+      clientChannels.clear();
+    }
+    while (disconnected.get() < connections) {
+      TimeUnit.MILLISECONDS.sleep(1);
+    }
+    if (heapPerConnection > HEAP_BUDGET_PER_CONNECTION) {
+      throw new IllegalStateException("Heap per idle connection " + heapPerConnection
+          + " exceeds the budget of " + HEAP_BUDGET_PER_CONNECTION + " bytes");
+    }
+  }
+
+  /**
+   * Stop the listener and the emulated OVSDB servers.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    passiveListener.stopListening(PORT).join();
+    clientGroup.shutdownGracefully();
+    executorService.shutdownNow();
+  }
+
+  private long usedHeapAfterGc() throws InterruptedException {
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+      TimeUnit.MILLISECONDS.sleep(200);
+    }
+    return memoryMxBean.getHeapMemoryUsage().getUsed();
+  }
+
+  private class EchoReplier extends SimpleChannelInboundHandler<JsonNode> {
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+      synchronized (clientChannels) {
+        clientChannels.add(ctx.channel());
+      }
+      super.channelActive(ctx);
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, JsonNode msg) {
+      if ("echo".equals(msg.path("method").asText())) {
+        ObjectNode reply = JsonNodeFactory.instance.objectNode();
+        reply.set("id", msg.get("id"));
+        reply.set("result", msg.get("params"));
+        reply.putNull("error");
+        ctx.writeAndFlush(Unpooled.copiedBuffer(reply.toString(), StandardCharsets.UTF_8));
+      }
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(PassiveConnectionSoakBenchmark.class.getSimpleName()).build()).run();
+  }
+}
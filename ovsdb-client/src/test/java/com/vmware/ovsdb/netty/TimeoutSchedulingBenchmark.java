@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.netty;
+
+import com.vmware.ovsdb.jsonrpc.v1.spi.JsonRpcTimer;
+import io.netty.util.HashedWheelTimer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of arming and then cancelling an RPC timeout, which is what every call that
+ * gets a reply in time does. Compares a {@link ScheduledThreadPoolExecutor}, whose delay queue is
+ * a lock-protected heap, with a {@link HashedWheelTimer}. Several threads issue calls at once.
+ * Run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@Threads(4)
+public class TimeoutSchedulingBenchmark {
+
+  private static final Runnable NO_OP = () -> { };
+
+  private ScheduledThreadPoolExecutor scheduler;
+
+  private HashedWheelTimer wheelTimer;
+
+  private JsonRpcTimer schedulerTimer;
+
+  private JsonRpcTimer hashedWheelTimer;
+
+  @Setup
+  public void setUp() {
+    scheduler = new ScheduledThreadPoolExecutor(1);
+    // Same as the default of Executors.newScheduledThreadPool()
+    scheduler.setRemoveOnCancelPolicy(false);
+    wheelTimer = new HashedWheelTimer(100, TimeUnit.MILLISECONDS, 512);
+    schedulerTimer = JsonRpcTimer.fromScheduler(scheduler);
+    hashedWheelTimer = new HashedWheelJsonRpcTimer(wheelTimer, Runnable::run);
+  }
+
+  @TearDown
+  public void tearDown() {
+    scheduler.shutdownNow();
+    wheelTimer.stop();
+  }
+
+  @Benchmark
+  public boolean scheduledExecutor() {
+    return schedulerTimer.newTimeout(NO_OP, 60, TimeUnit.SECONDS).cancel();
+  }
+
+  @Benchmark
+  public boolean hashedWheel() {
+    return hashedWheelTimer.newTimeout(NO_OP, 60, TimeUnit.SECONDS).cancel();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(TimeoutSchedulingBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
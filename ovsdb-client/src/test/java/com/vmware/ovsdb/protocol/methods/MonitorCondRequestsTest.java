@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.protocol.methods;
+
+import static org.junit.Assert.assertEquals;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.testing.EqualsTester;
+import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
+import com.vmware.ovsdb.protocol.operation.notation.Atom;
+import com.vmware.ovsdb.protocol.operation.notation.Condition;
+import com.vmware.ovsdb.protocol.operation.notation.Function;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MonitorCondRequestsTest {
+
+  @Test
+  public void testSerialization() throws JsonProcessingException {
+    String expectedResult = "{}";
+    MonitorCondRequests monitorCondRequests = new MonitorCondRequests(ImmutableMap.of());
+    assertEquals(expectedResult, JsonUtil.serialize(monitorCondRequests));
+
+    expectedResult
+        = "{\"Logical_Switch\":{\"columns\":[\"name\",\"tunnel_key\"],"
+        + "\"where\":[[\"tunnel_key\",\"==\",5001]]},"
+        + "\"Physical_Switch\":{\"where\":[],"
+        + "\"select\":{\"initial\":true,\"insert\":false}},"
+        + "\"Ucast_Macs_Remote\":{}}";
+    monitorCondRequests = new MonitorCondRequests(
+        ImmutableMap.of(
+            "Logical_Switch", new MonitorCondRequest(
+                ImmutableList.of("name", "tunnel_key"),
+                ImmutableList.of(new Condition("tunnel_key", Function.EQUALS, Atom.integer(5001))),
+                null
+            ),
+            "Physical_Switch", new MonitorCondRequest(
+                null, ImmutableList.of(), new MonitorSelect(true, false, null, null)
+            ),
+            "Ucast_Macs_Remote", new MonitorCondRequest()
+        )
+    );
+    assertEquals(expectedResult, JsonUtil.serialize(monitorCondRequests));
+  }
+
+  @Test
+  public void testEquals() {
+    Condition condition = new Condition("name", Function.INCLUDES, Atom.string("ls1"));
+    List<Condition> where = new ArrayList<>();
+    where.add(new Condition("name", Function.INCLUDES, Atom.string("ls1")));
+
+    new EqualsTester()
+        .addEqualityGroup(
+            new MonitorCondRequests(
+                ImmutableMap.of("table", new MonitorCondRequest(ImmutableList.of(condition)))),
+            new MonitorCondRequests(
+                ImmutableMap.of("table", new MonitorCondRequest(null, where, null)))
+        )
+        .addEqualityGroup(
+            new MonitorCondRequests(ImmutableMap.of("table", new MonitorCondRequest()))
+        )
+        .testEquals();
+  }
+}
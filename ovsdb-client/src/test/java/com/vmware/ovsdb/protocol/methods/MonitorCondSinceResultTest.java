@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.protocol.methods;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.testing.EqualsTester;
+import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
+import com.vmware.ovsdb.protocol.operation.notation.Row;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.UUID;
+
+public class MonitorCondSinceResultTest {
+
+  @Test
+  public void testDeserialization() throws IOException {
+    UUID lastTxnId = UUID.randomUUID();
+    UUID uuid = UUID.randomUUID();
+    String text = "[true,\"" + lastTxnId + "\",{\"Logical_Switch\":{\"" + uuid
+        + "\":{\"modify\":{\"name\":\"ls1\"}}}}]";
+
+    MonitorCondSinceResult expectedResult = new MonitorCondSinceResult(
+        true, lastTxnId, new TableUpdates2(ImmutableMap.of("Logical_Switch",
+            new TableUpdate2(ImmutableMap.of(
+                uuid, new RowUpdate2().setModify(new Row().stringColumn("name", "ls1")))))));
+    assertEquals(expectedResult, JsonUtil.deserialize(text, MonitorCondSinceResult.class));
+
+    text = "[false,\"00000000-0000-0000-0000-000000000000\",{}]";
+    expectedResult = new MonitorCondSinceResult(
+        false, new UUID(0, 0), new TableUpdates2(ImmutableMap.of()));
+    assertEquals(expectedResult, JsonUtil.deserialize(text, MonitorCondSinceResult.class));
+  }
+
+  @Test(expected = IOException.class)
+  public void testInvalidDeserialization() throws IOException {
+    JsonUtil.deserialize("[true,{}]", MonitorCondSinceResult.class);
+  }
+
+  @Test
+  public void testEquals() {
+    UUID lastTxnId = UUID.randomUUID();
+    TableUpdates2 tableUpdates2 = new TableUpdates2(ImmutableMap.of());
+    new EqualsTester()
+        .addEqualityGroup(
+            new MonitorCondSinceResult(true, lastTxnId, tableUpdates2),
+            new MonitorCondSinceResult(true, lastTxnId, new TableUpdates2(ImmutableMap.of())))
+        .addEqualityGroup(new MonitorCondSinceResult(false, lastTxnId, tableUpdates2))
+        .testEquals();
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.protocol.methods;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.testing.EqualsTester;
+import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
+import com.vmware.ovsdb.protocol.operation.notation.Row;
+import com.vmware.ovsdb.protocol.operation.notation.Uuid;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.UUID;
+
+public class RowUpdate2Test {
+
+  @Test
+  public void testDeserialization() throws IOException {
+    Row row = new Row().stringColumn("name", "ls1").integerColumn("tunnel_key", 5001L);
+    String jsonRow = JsonUtil.serialize(row);
+
+    assertEquals(
+        new RowUpdate2().setInitial(row),
+        JsonUtil.deserialize("{\"initial\":" + jsonRow + "}", RowUpdate2.class)
+    );
+    assertEquals(
+        new RowUpdate2().setInsert(row),
+        JsonUtil.deserialize("{\"insert\":" + jsonRow + "}", RowUpdate2.class)
+    );
+    assertEquals(
+        new RowUpdate2().setModify(row),
+        JsonUtil.deserialize("{\"modify\":" + jsonRow + "}", RowUpdate2.class)
+    );
+    assertEquals(
+        new RowUpdate2().setDelete(true),
+        JsonUtil.deserialize("{\"delete\":null}", RowUpdate2.class)
+    );
+  }
+
+  @Test
+  public void testTableUpdates2Deserialization() throws IOException {
+    UUID uuid1 = UUID.randomUUID();
+    UUID uuid2 = UUID.randomUUID();
+    Row row = new Row().stringColumn("name", "ls1");
+    String text = "{\"Logical_Switch\":{"
+        + "\"" + uuid1 + "\":{\"insert\":" + JsonUtil.serialize(row) + "},"
+        + "\"" + uuid2 + "\":{\"delete\":null}}}";
+
+    TableUpdates2 expectedResult = new TableUpdates2(ImmutableMap.of(
+        "Logical_Switch", new TableUpdate2(ImmutableMap.of(
+            uuid1, new RowUpdate2().setInsert(row),
+            uuid2, new RowUpdate2().setDelete(true)
+        ))
+    ));
+    assertEquals(expectedResult, JsonUtil.deserialize(text, TableUpdates2.class));
+  }
+
+  @Test
+  public void testEquals() {
+    Row row1 = new Row().uuidColumn("_uuid", Uuid.of(new UUID(0, 1)));
+    Row row2 = new Row().uuidColumn("_uuid", Uuid.of(new UUID(0, 1)));
+
+    new EqualsTester()
+        .addEqualityGroup(new RowUpdate2(), new RowUpdate2())
+        .addEqualityGroup(new RowUpdate2().setInitial(row1), new RowUpdate2().setInitial(row2))
+        .addEqualityGroup(new RowUpdate2().setInsert(row1), new RowUpdate2().setInsert(row2))
+        .addEqualityGroup(new RowUpdate2().setModify(row1), new RowUpdate2().setModify(row2))
+        .addEqualityGroup(new RowUpdate2().setDelete(true), new RowUpdate2().setDelete(true))
+        .testEquals();
+  }
+}
@@ -21,6 +21,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.common.testing.EqualsTester;
 import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
 import java.io.IOException;
+import java.util.Arrays;
 import org.junit.Test;
 
 public class ConditionTest {
@@ -41,6 +42,8 @@ public class ConditionTest {
   public void testSerialization() throws JsonProcessingException {
     assertEquals(jsonString1, JsonUtil.serialize(condition1));
     assertEquals(jsonString2, JsonUtil.serialize(condition2));
+    assertEquals("[true,false]", JsonUtil.serialize(
+        Arrays.asList(Condition.TRUE, Condition.FALSE)));
   }
 
   @Test
@@ -50,6 +53,9 @@ public class ConditionTest {
 
     assertEquals(
         condition2, JsonUtil.deserialize(jsonString2, Condition.class));
+
+    assertEquals(Condition.TRUE, JsonUtil.deserialize("true", Condition.class));
+    assertEquals(Condition.FALSE, JsonUtil.deserialize("false", Condition.class));
   }
 
   @Test(expected = IOException.class)
@@ -62,6 +68,8 @@ public class ConditionTest {
     new EqualsTester()
         .addEqualityGroup(new Condition("name", Function.EQUALS, Atom.string("name1")),
             new Condition("name", Function.EQUALS, new Atom<>("name1")))
+        .addEqualityGroup(Condition.TRUE)
+        .addEqualityGroup(Condition.FALSE)
         .testEquals();
   }
 }
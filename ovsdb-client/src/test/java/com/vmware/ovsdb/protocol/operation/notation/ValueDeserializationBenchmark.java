@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.protocol.operation.notation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
+import com.vmware.ovsdb.protocol.methods.TableUpdates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Value} deserialization on a monitor reply shaped like a hardware_vtep
+ * Physical_Port table, with a mix of strings, integers, uuids, sets and maps in every row.
+ * {@code trialAndError} replays the former strategy of trying {@link Atom}, {@link Set} and
+ * {@link Map} in turn and discarding the failures.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ValueDeserializationBenchmark {
+
+  @Param({"100", "10000"})
+  private int rows;
+
+  private JsonNode tableUpdatesNode;
+
+  private List<JsonNode> columnNodes;
+
+  @Setup
+  public void setUp() throws IOException {
+    StringBuilder sb = new StringBuilder("{\"Physical_Port\":{");
+    for (int i = 0; i < rows; i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append('"').append(new UUID(0, i)).append("\":{\"new\":{")
+          .append("\"name\":\"port-").append(i).append("\",")
+          .append("\"description\":\"\",")
+          .append("\"port_fault_status\":[\"set\",[]],")
+          .append("\"vlan_bindings\":[\"map\",[[").append(i % 4096).append(",[\"uuid\",\"")
+          .append(new UUID(1, i)).append("\"]]]],")
+          .append("\"vlan_stats\":[\"map\",[]],")
+          .append("\"acl_bindings\":[\"map\",[]],")
+          .append("\"other_config\":[\"map\",[[\"k1\",\"v1\"],[\"k2\",\"v2\"]]],")
+          .append("\"_uuid\":[\"uuid\",\"").append(new UUID(0, i)).append("\"],")
+          .append("\"_version\":[\"uuid\",\"").append(new UUID(2, i)).append("\"]")
+          .append("}}");
+    }
+    sb.append("}}");
+    tableUpdatesNode = JsonUtil.readTree(sb.toString());
+
+    columnNodes = new ArrayList<>();
+    tableUpdatesNode.get("Physical_Port").forEach(
+        rowUpdate -> rowUpdate.get("new").forEach(columnNodes::add));
+  }
+
+  @Benchmark
+  public TableUpdates tableUpdates() throws IOException {
+    return JsonUtil.treeToValue(tableUpdatesNode, TableUpdates.class);
+  }
+
+  @Benchmark
+  public void typeDirected(Blackhole blackhole) throws IOException {
+    for (JsonNode columnNode : columnNodes) {
+      blackhole.consume(JsonUtil.treeToValue(columnNode, Value.class));
+    }
+  }
+
+  @Benchmark
+  public void trialAndError(Blackhole blackhole) {
+    for (JsonNode columnNode : columnNodes) {
+      Value value = JsonUtil.treeToValueNoException(columnNode, Atom.class);
+      if (value == null) {
+        value = JsonUtil.treeToValueNoException(columnNode, Set.class);
+      }
+      if (value == null) {
+        value = JsonUtil.treeToValueNoException(columnNode, Map.class);
+      }
+      blackhole.consume(value);
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(ValueDeserializationBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
@@ -16,6 +16,7 @@ package com.vmware.ovsdb.protocol.operation.notation;
 
 import static org.junit.Assert.assertEquals;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
 import org.junit.Test;
@@ -57,9 +58,34 @@ public class ValueTest {
     );
   }
 
+  @Test
+  public void testNestedValue() throws IOException {
+    UUID uuid = UUID.randomUUID();
+    assertEquals(
+        Set.of(Atom.uuid(uuid), Atom.namedUuid("uuid-name")),
+        JsonUtil.deserialize(
+            "[\"set\",[[\"uuid\",\"" + uuid + "\"],[\"named-uuid\",\"uuid-name\"]]]",
+            Value.class)
+    );
+    assertEquals(
+        new Map<>(ImmutableList.of(new Pair<>(Atom.integer(100), Atom.uuid(uuid)))),
+        JsonUtil.deserialize("[\"map\",[[100,[\"uuid\",\"" + uuid + "\"]]]]", Value.class)
+    );
+  }
+
   @Test(expected = IOException.class)
   public void testInvalidValue() throws IOException {
     JsonUtil.deserialize("[\"value\",123]", Value.class);
   }
 
+  @Test(expected = IOException.class)
+  public void testInvalidSetElement() throws IOException {
+    JsonUtil.deserialize("[\"set\",[[\"uuid\",\"not-a-uuid\"]]]", Value.class);
+  }
+
+  @Test(expected = IOException.class)
+  public void testInvalidMapPair() throws IOException {
+    JsonUtil.deserialize("[\"map\",[[\"key\"]]]", Value.class);
+  }
+
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.protocol.schema.decoder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
+import com.vmware.ovsdb.protocol.methods.RowUpdate2;
+import com.vmware.ovsdb.protocol.operation.notation.Atom;
+import com.vmware.ovsdb.protocol.operation.notation.Row;
+import com.vmware.ovsdb.protocol.operation.notation.Value;
+import com.vmware.ovsdb.protocol.schema.DatabaseSchema;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.UUID;
+
+public class RowPatcherTest {
+
+  private static final DatabaseSchema vtepSchema = readSchema();
+
+  private final TableDecoder tableDecoder = new TableDecoder(
+      "Physical_Port", vtepSchema.getTables().get("Physical_Port"));
+
+  private final RowPatcher rowPatcher = new RowPatcher(
+      "Physical_Port", vtepSchema.getTables().get("Physical_Port"));
+
+  private final UUID switchUuid1 = UUID.randomUUID();
+
+  private final UUID switchUuid2 = UUID.randomUUID();
+
+  @Test
+  public void testPatch() throws IOException {
+    Row row = decodeRow("{\"name\":\"port1\",\"description\":\"old\","
+        + "\"port_fault_status\":[\"set\",[\"fault1\",\"fault2\"]],"
+        + "\"vlan_bindings\":[\"map\",[[100,[\"uuid\",\"" + switchUuid1 + "\"]],"
+        + "[200,[\"uuid\",\"" + switchUuid1 + "\"]]]],"
+        + "\"other_config\":[\"map\",[[\"key\",\"value\"]]]}");
+    Value name = row.getColumns().get("name");
+    Value otherConfig = row.getColumns().get("other_config");
+
+    // fault1 is removed and fault3 added. The binding of 100 is removed, 200 is changed and 300
+    // is added
+    Row diff = decodeRow("{\"description\":\"new\","
+        + "\"port_fault_status\":[\"set\",[\"fault1\",\"fault3\"]],"
+        + "\"vlan_bindings\":[\"map\",[[100,[\"uuid\",\"" + switchUuid1 + "\"]],"
+        + "[200,[\"uuid\",\"" + switchUuid2 + "\"]],[300,[\"uuid\",\"" + switchUuid2 + "\"]]]]}");
+
+    Row oldRow = new Row(new HashMap<>(row.getColumns()));
+    Row newRow = rowPatcher.patch(row, diff);
+    assertEquals(decodeRow("{\"name\":\"port1\",\"description\":\"new\","
+        + "\"port_fault_status\":[\"set\",[\"fault2\",\"fault3\"]],"
+        + "\"vlan_bindings\":[\"map\",[[200,[\"uuid\",\"" + switchUuid2 + "\"]],"
+        + "[300,[\"uuid\",\"" + switchUuid2 + "\"]]]],"
+        + "\"other_config\":[\"map\",[[\"key\",\"value\"]]]}"), newRow);
+    // The old row is not modified and the columns that are not in the diff are not copied
+    assertEquals(oldRow, row);
+    assertSame(name, newRow.getColumns().get("name"));
+    assertSame(otherConfig, newRow.getColumns().get("other_config"));
+  }
+
+  @Test
+  public void testPatchSingleElementSet() throws IOException {
+    Row row = decodeRow("{\"port_fault_status\":\"fault1\"}");
+
+    row = rowPatcher.patch(row, decodeRow("{\"port_fault_status\":\"fault2\"}"));
+    assertEquals(decodeRow("{\"port_fault_status\":[\"set\",[\"fault1\",\"fault2\"]]}"), row);
+
+    row = rowPatcher.patch(row, decodeRow("{\"port_fault_status\":\"fault1\"}"));
+    assertEquals(Atom.string("fault2"), row.getColumns().get("port_fault_status"));
+
+    row = rowPatcher.patch(row, decodeRow("{\"port_fault_status\":\"fault2\"}"));
+    assertEquals(decodeRow("{\"port_fault_status\":[\"set\",[]]}"), row);
+
+    // A column that the row does not have yet
+    row = rowPatcher.patch(row, decodeRow("{\"vlan_bindings\":[\"map\",[[1,[\"uuid\",\""
+        + switchUuid1 + "\"]]]]}"));
+    assertEquals(decodeRow("{\"port_fault_status\":[\"set\",[]],"
+        + "\"vlan_bindings\":[\"map\",[[1,[\"uuid\",\"" + switchUuid1 + "\"]]]]}"), row);
+  }
+
+  @Test
+  public void testApply() throws IOException {
+    Row row = decodeRow("{\"name\":\"port1\"}");
+    Row newRow = decodeRow("{\"name\":\"port2\"}");
+
+    assertSame(newRow, rowPatcher.apply(null, new RowUpdate2().setInitial(newRow)));
+    assertSame(newRow, rowPatcher.apply(row, new RowUpdate2().setInsert(newRow)));
+    assertNull(rowPatcher.apply(row, new RowUpdate2().setDelete(true)));
+    assertEquals(newRow, rowPatcher.apply(row, new RowUpdate2().setModify(newRow)));
+    assertEquals(decodeRow("{\"name\":\"port1\"}"), row);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testModifyUnknownRow() throws IOException {
+    rowPatcher.apply(null, new RowUpdate2().setModify(decodeRow("{\"name\":\"port1\"}")));
+  }
+
+  private Row decodeRow(String json) throws IOException {
+    return tableDecoder.decodeRow(JsonUtil.readTree(json));
+  }
+
+  private static DatabaseSchema readSchema() {
+    try {
+      return JsonUtil.deserialize(
+          RowPatcherTest.class.getClassLoader().getResource("vtep_schema.json"),
+          DatabaseSchema.class
+      );
+    } catch (IOException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+}
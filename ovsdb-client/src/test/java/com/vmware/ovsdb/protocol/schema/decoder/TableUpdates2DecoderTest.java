@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.protocol.schema.decoder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableMap;
+import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
+import com.vmware.ovsdb.protocol.methods.MonitorCondSinceResult;
+import com.vmware.ovsdb.protocol.methods.RowUpdate2;
+import com.vmware.ovsdb.protocol.methods.TableUpdate2;
+import com.vmware.ovsdb.protocol.methods.TableUpdates2;
+import com.vmware.ovsdb.protocol.operation.notation.Atom;
+import com.vmware.ovsdb.protocol.operation.notation.Row;
+import com.vmware.ovsdb.protocol.operation.notation.Set;
+import com.vmware.ovsdb.protocol.schema.DatabaseSchema;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.UUID;
+
+public class TableUpdates2DecoderTest {
+
+  private static final DatabaseSchema vtepSchema = readSchema();
+
+  private final TableUpdates2Decoder decoder = new TableUpdates2Decoder(vtepSchema);
+
+  private final UUID uuid = UUID.randomUUID();
+
+  @Test
+  public void testSameAsGenericDeserializer() throws IOException {
+    UUID switchUuid = UUID.randomUUID();
+    String json = "{\"Physical_Port\":{"
+        + "\"" + uuid + "\":{\"initial\":{\"name\":\"port1\","
+        + "\"vlan_bindings\":[\"map\",[[100,[\"uuid\",\"" + switchUuid + "\"]]]],"
+        + "\"port_fault_status\":[\"set\",[\"fault1\",\"fault2\"]]}},"
+        + "\"" + UUID.randomUUID() + "\":{\"insert\":{\"name\":\"port2\"}},"
+        + "\"" + UUID.randomUUID() + "\":{\"delete\":null},"
+        + "\"" + UUID.randomUUID() + "\":{\"modify\":{\"port_fault_status\":\"fault3\","
+        + "\"vlan_bindings\":[\"map\",[]]}}},"
+        + "\"Unknown_Table\":{\"" + uuid + "\":{\"modify\":{\"column\":[\"set\",[1,2]]}}}}";
+
+    assertEquals(
+        JsonUtil.deserialize(json, TableUpdates2.class),
+        decoder.decode(JsonUtil.readTree(json))
+    );
+  }
+
+  @Test
+  public void testMonitorCondSinceResult() throws IOException {
+    UUID lastTxnId = UUID.randomUUID();
+    String json = "[true,\"" + lastTxnId + "\",{\"Logical_Switch\":{\"" + uuid + "\":"
+        + "{\"modify\":{\"tunnel_key\":[\"set\",[1,2]]}}}}]";
+
+    MonitorCondSinceResult expected = new MonitorCondSinceResult(true, lastTxnId,
+        new TableUpdates2(ImmutableMap.of("Logical_Switch", new TableUpdate2(ImmutableMap.of(
+            uuid, new RowUpdate2().setModify(new Row(ImmutableMap.of(
+                "tunnel_key", Set.of(Atom.integer(1), Atom.integer(2)))))))))
+    );
+    assertEquals(expected, decoder.decodeMonitorCondSinceResult(JsonUtil.readTree(json)));
+  }
+
+  @Test
+  public void testMalformedModify() throws IOException {
+    assertDecodeFails(
+        "{\"Physical_Port\":{\"" + uuid + "\":{\"modify\":"
+            + "{\"port_fault_status\":[\"set\",[\"fault\",42]]}}}}",
+        "port_fault_status"
+    );
+    assertDecodeFails("{\"Physical_Port\":{\"" + uuid + "\":[]}}", "<row-update2>");
+  }
+
+  private void assertDecodeFails(String json, String expectedMessage) throws IOException {
+    try {
+      decoder.decode(JsonUtil.readTree(json));
+    } catch (IOException ex) {
+      assertTrue(ex.getMessage(), ex.getMessage().contains(expectedMessage));
+      return;
+    }
+    fail();
+  }
+
+  private static DatabaseSchema readSchema() {
+    try {
+      return JsonUtil.deserialize(
+          TableUpdates2DecoderTest.class.getClassLoader().getResource("vtep_schema.json"),
+          DatabaseSchema.class
+      );
+    } catch (IOException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.protocol.schema.decoder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
+import com.vmware.ovsdb.protocol.methods.RowUpdate;
+import com.vmware.ovsdb.protocol.methods.TableUpdate;
+import com.vmware.ovsdb.protocol.methods.TableUpdates;
+import com.vmware.ovsdb.protocol.operation.notation.Atom;
+import com.vmware.ovsdb.protocol.operation.notation.Map;
+import com.vmware.ovsdb.protocol.operation.notation.Pair;
+import com.vmware.ovsdb.protocol.operation.notation.Row;
+import com.vmware.ovsdb.protocol.operation.notation.Set;
+import com.vmware.ovsdb.protocol.schema.DatabaseSchema;
+import com.vmware.ovsdb.protocol.schema.RealBaseType;
+import com.vmware.ovsdb.protocol.schema.Type;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.UUID;
+
+public class TableUpdatesDecoderTest {
+
+  private static final DatabaseSchema vtepSchema = readSchema();
+
+  private final TableUpdatesDecoder decoder = new TableUpdatesDecoder(vtepSchema);
+
+  private final UUID uuid = UUID.randomUUID();
+
+  @Test
+  public void testSameAsGenericDeserializer() throws IOException {
+    UUID switchUuid = UUID.randomUUID();
+    String json = "{\"Physical_Port\":{\"" + uuid + "\":{"
+        + "\"old\":{\"description\":\"old\"},"
+        + "\"new\":{\"name\":\"port1\",\"description\":\"new\","
+        + "\"vlan_bindings\":[\"map\",[[100,[\"uuid\",\"" + switchUuid + "\"]]]],"
+        + "\"vlan_stats\":[\"map\",[]],"
+        + "\"port_fault_status\":[\"set\",[\"fault1\",\"fault2\"]],"
+        + "\"_uuid\":[\"uuid\",\"" + uuid + "\"],"
+        + "\"_version\":[\"uuid\",\"" + UUID.randomUUID() + "\"]}}},"
+        + "\"Physical_Switch\":{\"" + switchUuid + "\":{\"new\":{"
+        + "\"name\":\"switch1\","
+        + "\"management_ips\":\"10.0.0.1\","
+        + "\"ports\":[\"uuid\",\"" + uuid + "\"],"
+        + "\"tunnel_ips\":[\"set\",[]]}}},"
+        + "\"Unknown_Table\":{\"" + uuid + "\":{\"new\":{\"column\":[\"set\",[1,2]]}}}}";
+
+    assertEquals(
+        JsonUtil.deserialize(json, TableUpdates.class),
+        decoder.decode(JsonUtil.readTree(json))
+    );
+  }
+
+  @Test
+  public void testColumnTypes() throws IOException {
+    UUID switchUuid = UUID.randomUUID();
+    String json = "{\"Physical_Port\":{\"" + uuid + "\":{\"new\":{"
+        + "\"name\":\"port1\","
+        + "\"vlan_bindings\":[\"map\",[[100,[\"uuid\",\"" + switchUuid + "\"]]]],"
+        + "\"port_fault_status\":[\"set\",[]]}}}}";
+
+    Row expectedRow = new Row(ImmutableMap.of(
+        "name", Atom.string("port1"),
+        "vlan_bindings", new Map<>(Collections.singletonList(
+            new Pair<>(Atom.integer(100), Atom.uuid(switchUuid)))),
+        "port_fault_status", new Set()
+    ));
+    TableUpdates expected = new TableUpdates(ImmutableMap.of(
+        "Physical_Port",
+        new TableUpdate(ImmutableMap.of(uuid, new RowUpdate(null, expectedRow)))
+    ));
+    assertEquals(expected, decoder.decode(JsonUtil.readTree(json)));
+  }
+
+  @Test
+  public void testRealColumn() throws IOException {
+    ColumnDecoder columnDecoder = TableDecoder.newColumnDecoder(new Type(new RealBaseType()));
+    assertEquals(Atom.real(1.0), columnDecoder.decode(JsonUtil.readTree("1")));
+    assertEquals(Atom.real(2.5), columnDecoder.decode(JsonUtil.readTree("2.5")));
+  }
+
+  @Test
+  public void testEnum() throws IOException {
+    String json = "{\"Logical_Switch\":{\"" + uuid + "\":{\"new\":"
+        + "{\"replication_mode\":\"source_node\"}}}}";
+    TableUpdates expected = new TableUpdates(ImmutableMap.of(
+        "Logical_Switch",
+        new TableUpdate(ImmutableMap.of(uuid, new RowUpdate(
+            null, new Row(ImmutableMap.of("replication_mode", Atom.string("source_node"))))))
+    ));
+    assertEquals(expected, decoder.decode(JsonUtil.readTree(json)));
+
+    assertDecodeFails(
+        "{\"Logical_Switch\":{\"" + uuid + "\":{\"new\":"
+            + "{\"replication_mode\":\"other_node\"}}}}",
+        "replication_mode"
+    );
+  }
+
+  @Test
+  public void testRealEnum() throws IOException {
+    // The integer in the enum matches the same real value
+    ColumnDecoder columnDecoder = TableDecoder.newColumnDecoder(new Type(new RealBaseType(
+        new Set(ImmutableSet.of(Atom.integer(1), Atom.real(2.5))))));
+    assertEquals(Atom.real(1.0), columnDecoder.decode(JsonUtil.readTree("1")));
+    assertEquals(Atom.real(2.5), columnDecoder.decode(JsonUtil.readTree("2.5")));
+    try {
+      columnDecoder.decode(JsonUtil.readTree("3"));
+      fail();
+    } catch (IOException ex) {
+      assertTrue(ex.getMessage(), ex.getMessage().contains("Expected one of"));
+    }
+  }
+
+  @Test
+  public void testMalformedScalar() throws IOException {
+    assertDecodeFails(
+        "{\"Physical_Port\":{\"" + uuid + "\":{\"new\":{\"name\":42}}}}",
+        "name"
+    );
+  }
+
+  @Test
+  public void testMalformedSetElement() throws IOException {
+    assertDecodeFails(
+        "{\"Physical_Port\":{\"" + uuid + "\":{\"new\":"
+            + "{\"port_fault_status\":[\"set\",[\"fault\",42]]}}}}",
+        "port_fault_status"
+    );
+  }
+
+  @Test
+  public void testMalformedMap() throws IOException {
+    assertDecodeFails(
+        "{\"Physical_Port\":{\"" + uuid + "\":{\"new\":"
+            + "{\"vlan_bindings\":[\"map\",[[100,\"not-a-uuid\"]]]}}}}",
+        "vlan_bindings"
+    );
+    assertDecodeFails(
+        "{\"Physical_Port\":{\"" + uuid + "\":{\"new\":"
+            + "{\"vlan_bindings\":[\"set\",[]]}}}}",
+        "vlan_bindings"
+    );
+  }
+
+  @Test
+  public void testMalformedRowUuid() throws IOException {
+    assertDecodeFails("{\"Physical_Port\":{\"not-a-uuid\":{\"new\":{}}}}", "not-a-uuid");
+  }
+
+  private void assertDecodeFails(String json, String expectedMessage) throws IOException {
+    try {
+      decoder.decode(JsonUtil.readTree(json));
+    } catch (IOException ex) {
+      assertTrue(ex.getMessage(), ex.getMessage().contains(expectedMessage));
+      return;
+    }
+    fail();
+  }
+
+  private static DatabaseSchema readSchema() {
+    try {
+      return JsonUtil.deserialize(
+          TableUpdatesDecoderTest.class.getClassLoader().getResource("vtep_schema.json"),
+          DatabaseSchema.class
+      );
+    } catch (IOException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+}
@@ -15,16 +15,26 @@
 package com.vmware.ovsdb.service;
 
 import static com.vmware.ovsdb.testutils.SslUtil.newSelfSignedSslContextPair;
+import static junit.framework.TestCase.assertFalse;
 import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+import static org.junit.Assume.assumeTrue;
 
 import com.vmware.ovsdb.service.impl.OvsdbActiveConnectionConnectorImpl;
 import com.vmware.ovsdb.util.PropertyManager;
 import com.vmware.ovsdb.testutils.PassiveOvsdbServerEmulator;
 import com.vmware.ovsdb.testutils.SslUtil.SelfSignedSslContextPair;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
 import org.junit.Test;
 
+import java.net.ConnectException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -60,6 +70,58 @@ public class OvsdbActiveConnectionConnectorTest {
     testChannelTimeout(sslContextPair);
   }
 
+  @Test(timeout = TEST_TIMEOUT_MILLIS)
+  public void testSharedEventLoopGroup() {
+    EventLoopGroup eventLoopGroup = new NioEventLoopGroup(1);
+    OvsdbActiveConnectionConnector connector = new OvsdbActiveConnectionConnectorImpl(
+        executorService, eventLoopGroup);
+    try {
+      PassiveOvsdbServerEmulator passiveOvsdbServer = new PassiveOvsdbServerEmulator(PORT);
+      passiveOvsdbServer.startListening().join();
+      // All the connections run on the single event loop
+      List<OvsdbClient> ovsdbClients = new ArrayList<>();
+      for (int i = 0; i < 5; i++) {
+        ovsdbClients.add(connector.connect(HOST, PORT).join());
+      }
+      passiveOvsdbServer.stopListening().join();
+      ovsdbClients.forEach(OvsdbClient::shutdown);
+
+      // The group belongs to the caller and outlives the connections
+      assertFalse(eventLoopGroup.isShuttingDown());
+    } finally {
+      eventLoopGroup.shutdownGracefully();
+    }
+  }
+
+  @Test(timeout = TEST_TIMEOUT_MILLIS)
+  public void testEpollEventLoopGroup() {
+    assumeTrue(Epoll.isAvailable());
+    EventLoopGroup eventLoopGroup = new EpollEventLoopGroup(1);
+    OvsdbActiveConnectionConnector connector = new OvsdbActiveConnectionConnectorImpl(
+        executorService, eventLoopGroup);
+    try {
+      PassiveOvsdbServerEmulator passiveOvsdbServer = new PassiveOvsdbServerEmulator(PORT);
+      passiveOvsdbServer.startListening().join();
+      OvsdbClient ovsdbClient = connector.connect(HOST, PORT).join();
+      passiveOvsdbServer.stopListening().join();
+      ovsdbClient.shutdown();
+    } finally {
+      eventLoopGroup.shutdownGracefully();
+    }
+  }
+
+  @Test(timeout = TEST_TIMEOUT_MILLIS)
+  public void testConnectionRefused() {
+    // Nothing listens on this port
+    try {
+      activeConnectionConnector.connect(HOST, PORT + 100).join();
+    } catch (CompletionException ex) {
+      assertTrue(ex.getCause() instanceof ConnectException);
+      return;
+    }
+    fail("The connection should fail");
+  }
+
   private void testConnectionBasic(SelfSignedSslContextPair sslCtxPair) {
     final int ovsdbServerCnt = 10;
     final List<Integer> ports = IntStream.range(PORT, PORT + ovsdbServerCnt)
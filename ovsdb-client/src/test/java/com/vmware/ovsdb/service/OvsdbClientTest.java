@@ -25,28 +25,41 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.vmware.ovsdb.callback.LockCallback;
 import com.vmware.ovsdb.callback.MonitorCallback;
+import com.vmware.ovsdb.callback.MonitorCondCallback;
+import com.vmware.ovsdb.callback.MonitorCondSinceCallback;
 import com.vmware.ovsdb.exception.OvsdbClientException;
 import com.vmware.ovsdb.jsonrpc.v1.util.JsonUtil;
 import com.vmware.ovsdb.protocol.methods.LockResult;
+import com.vmware.ovsdb.protocol.methods.MonitorCondRequest;
+import com.vmware.ovsdb.protocol.methods.MonitorCondRequests;
+import com.vmware.ovsdb.protocol.methods.MonitorCondSinceResult;
 import com.vmware.ovsdb.protocol.methods.MonitorRequest;
 import com.vmware.ovsdb.protocol.methods.MonitorRequests;
 import com.vmware.ovsdb.protocol.methods.RowUpdate;
+import com.vmware.ovsdb.protocol.methods.RowUpdate2;
 import com.vmware.ovsdb.protocol.methods.TableUpdate;
+import com.vmware.ovsdb.protocol.methods.TableUpdate2;
 import com.vmware.ovsdb.protocol.methods.TableUpdates;
+import com.vmware.ovsdb.protocol.methods.TableUpdates2;
 import com.vmware.ovsdb.protocol.operation.Delete;
 import com.vmware.ovsdb.protocol.operation.Insert;
 import com.vmware.ovsdb.protocol.operation.Mutate;
+import com.vmware.ovsdb.protocol.operation.Operation;
 import com.vmware.ovsdb.protocol.operation.Select;
 import com.vmware.ovsdb.protocol.operation.Update;
+import com.vmware.ovsdb.protocol.operation.Wait;
 import com.vmware.ovsdb.protocol.operation.notation.Atom;
+import com.vmware.ovsdb.protocol.operation.notation.Condition;
 import com.vmware.ovsdb.protocol.operation.notation.Function;
 import com.vmware.ovsdb.protocol.operation.notation.Mutator;
 import com.vmware.ovsdb.protocol.operation.notation.NamedUuid;
@@ -135,10 +148,15 @@ abstract class OvsdbClientTest {
     testDeleteTransact();
     testMultiOperationTransact();
     testTransactErrorResult();
+    testCancelTransact();
     testMonitor();
     testCancelMonitor();
+    testMonitorWithSchema();
+    testMonitorCond();
+    testMonitorCondSince();
     testConnectionInfo();
     testErrorOperation();
+    testUnserializableOperation();
     testLock();
     testEcho();
   }
@@ -359,6 +377,41 @@ abstract class OvsdbClientTest {
     assertArrayEquals(expectedResult, f.join());
   }
 
+  private void testCancelTransact() throws OvsdbClientException {
+    Wait wait = new Wait("Logical_Switch", 0,
+        ImmutableList.of(new Condition("name", Function.EQUALS, Atom.string("ls1"))),
+        ImmutableList.of("name"), Wait.Until.EQUAL, ImmutableList.of());
+    String expectedRequest = getJsonRequestString(OvsdbConstant.TRANSACT,
+        "hardware_vtep", wait
+    );
+    String expectedCancel = "{\"method\":\"cancel\",\"params\":[\"" + id.get()
+        + "\"],\"id\":null}";
+    CompletableFuture<Void> requestReceived = new CompletableFuture<>();
+    CompletableFuture<Void> cancelReceived = new CompletableFuture<>();
+    ovsdbServerEmulator.registerReadCallback(msg -> {
+      if (msg.equals(expectedRequest)) {
+        // Leave the transaction pending
+        requestReceived.complete(null);
+      } else if (msg.equals(expectedCancel)) {
+        // The server answers a cancelled request with a "canceled" error
+        ovsdbServerEmulator.write("{\"id\":\"" + id.getAndIncrement() + "\", "
+            + "\"result\":null, \"error\":\"canceled\"}");
+        cancelReceived.complete(null);
+      }
+    });
+
+    CompletableFuture<OperationResult[]> f =
+        ovsdbClient.transact("hardware_vtep", ImmutableList.of(wait));
+    try {
+      requestReceived.get(VERIFY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+      assertTrue(f.cancel(true));
+      assertTrue(f.isCancelled());
+      cancelReceived.get(VERIFY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException | ExecutionException | TimeoutException e) {
+      fail(e.getMessage());
+    }
+  }
+
   private void testMonitor() throws OvsdbClientException {
     String monitorId = "1";
     MonitorRequest monitorRequest = new MonitorRequest();
@@ -465,6 +518,162 @@ abstract class OvsdbClientTest {
     f.join();
   }
 
+  private void testMonitorCond() throws OvsdbClientException {
+    String monitorId = "cond1";
+    MonitorCondRequests monitorCondRequests = new MonitorCondRequests(ImmutableMap.of(
+        "Logical_Switch",
+        new MonitorCondRequest(ImmutableList.of(
+            new Condition("tunnel_key", Function.EQUALS, Atom.integer(5001))))
+    ));
+    UUID uuid = UUID.randomUUID();
+    Row row = new Row().stringColumn("name", "ls1").integerColumn("tunnel_key", 5001L);
+
+    String expectedRequest = getJsonRequestString(
+        OvsdbConstant.MONITOR_COND, "hardware_vtep", monitorId, monitorCondRequests);
+    setupOvsdbEmulator(
+        expectedRequest,
+        "{\"Logical_Switch\":{\"" + uuid
+            + "\":{\"initial\":{\"name\":\"ls1\",\"tunnel_key\":5001}}}}",
+        null
+    );
+
+    MonitorCondCallback monitorCondCallback = mock(MonitorCondCallback.class);
+    CompletableFuture<TableUpdates2> f = ovsdbClient.monitorCond(
+        "hardware_vtep", monitorId, monitorCondRequests, monitorCondCallback);
+
+    assertEquals(
+        new TableUpdates2(ImmutableMap.of("Logical_Switch",
+            new TableUpdate2(ImmutableMap.of(uuid, new RowUpdate2().setInitial(row))))),
+        f.join()
+    );
+
+    // Verify that the update2 notifications go to the callback
+    ovsdbServerEmulator.write(
+        "{\"method\":\"update2\",\"params\":[\"" + monitorId + "\","
+            + "{\"Logical_Switch\":{\"" + uuid + "\":"
+            + "{\"modify\":{\"name\":\"ls2\"}}}}],\"id\":null}");
+    TableUpdates2 expectedModify = new TableUpdates2(ImmutableMap.of("Logical_Switch",
+        new TableUpdate2(ImmutableMap.of(
+            uuid, new RowUpdate2().setModify(new Row().stringColumn("name", "ls2"))))));
+    verify(monitorCondCallback, timeout(VERIFY_TIMEOUT_MILLIS)).update(expectedModify);
+
+    // Change the conditions and the id of the monitor
+    String newMonitorId = "cond2";
+    MonitorCondRequests changeRequests = new MonitorCondRequests(ImmutableMap.of(
+        "Logical_Switch", new MonitorCondRequest(ImmutableList.of())));
+    expectedRequest = getJsonRequestString(
+        OvsdbConstant.MONITOR_COND_CHANGE, monitorId, newMonitorId, changeRequests);
+    setupOvsdbEmulator(expectedRequest, "{}", null);
+    ovsdbClient.monitorCondChange(monitorId, newMonitorId, changeRequests).join();
+
+    ovsdbServerEmulator.write(
+        "{\"method\":\"update2\",\"params\":[\"" + newMonitorId + "\","
+            + "{\"Logical_Switch\":{\"" + uuid + "\":{\"delete\":null}}}],\"id\":null}");
+    TableUpdates2 expectedDelete = new TableUpdates2(ImmutableMap.of("Logical_Switch",
+        new TableUpdate2(ImmutableMap.of(uuid, new RowUpdate2().setDelete(true)))));
+    verify(monitorCondCallback, timeout(VERIFY_TIMEOUT_MILLIS)).update(expectedDelete);
+
+    // The old id is no longer known
+    try {
+      ovsdbClient.monitorCondChange(monitorId, monitorId, changeRequests);
+      fail();
+    } catch (OvsdbClientException ex) {
+      // Expected
+    }
+
+    expectedRequest = getJsonRequestString(OvsdbConstant.MONITOR_CANCEL, newMonitorId);
+    setupOvsdbEmulator(expectedRequest, "{}", null);
+    ovsdbClient.cancelMonitor(newMonitorId).join();
+  }
+
+  private void testMonitorCondSince() throws OvsdbClientException {
+    String monitorId = "since1";
+    MonitorCondRequests monitorCondRequests = new MonitorCondRequests(ImmutableMap.of(
+        "Logical_Switch", new MonitorCondRequest()));
+    UUID lastTxnId = UUID.randomUUID();
+    UUID newTxnId = UUID.randomUUID();
+    UUID uuid = UUID.randomUUID();
+
+    String expectedRequest = getJsonRequestString(
+        OvsdbConstant.MONITOR_COND_SINCE, "hardware_vtep", monitorId, monitorCondRequests,
+        lastTxnId);
+    setupOvsdbEmulator(
+        expectedRequest,
+        "[true,\"" + newTxnId + "\",{\"Logical_Switch\":{\"" + uuid
+            + "\":{\"delete\":null}}}]",
+        null
+    );
+
+    MonitorCondSinceCallback monitorCondSinceCallback = mock(MonitorCondSinceCallback.class);
+    CompletableFuture<MonitorCondSinceResult> f = ovsdbClient.monitorCondSince(
+        "hardware_vtep", monitorId, monitorCondRequests, lastTxnId, monitorCondSinceCallback);
+
+    assertEquals(
+        new MonitorCondSinceResult(true, newTxnId, new TableUpdates2(ImmutableMap.of(
+            "Logical_Switch",
+            new TableUpdate2(ImmutableMap.of(uuid, new RowUpdate2().setDelete(true)))))),
+        f.join()
+    );
+
+    // Verify that the update3 notifications go to the callback with their transaction ids
+    UUID txnId = UUID.randomUUID();
+    ovsdbServerEmulator.write(
+        "{\"method\":\"update3\",\"params\":[\"" + monitorId + "\",\"" + txnId + "\","
+            + "{\"Logical_Switch\":{\"" + uuid + "\":"
+            + "{\"insert\":{\"name\":\"ls1\"}}}}],\"id\":null}");
+    TableUpdates2 expectedInsert = new TableUpdates2(ImmutableMap.of("Logical_Switch",
+        new TableUpdate2(ImmutableMap.of(
+            uuid, new RowUpdate2().setInsert(new Row().stringColumn("name", "ls1"))))));
+    verify(monitorCondSinceCallback, timeout(VERIFY_TIMEOUT_MILLIS))
+        .update(txnId, expectedInsert);
+
+    expectedRequest = getJsonRequestString(OvsdbConstant.MONITOR_CANCEL, monitorId);
+    setupOvsdbEmulator(expectedRequest, "{}", null);
+    ovsdbClient.cancelMonitor(monitorId).join();
+  }
+
+  private void testMonitorWithSchema() throws OvsdbClientException, IOException {
+    String monitorId = "2";
+    MonitorRequests monitorRequests = new MonitorRequests(
+        ImmutableMap.of("Physical_Port", new MonitorRequest()));
+    DatabaseSchema databaseSchema = JsonUtil.deserialize(
+        getClass().getClassLoader().getResource("vtep_schema.json"), DatabaseSchema.class);
+
+    UUID uuid = UUID.randomUUID();
+    UUID bindingUuid = UUID.randomUUID();
+    String rowUpdateString = "{\"Physical_Port\":{\"" + uuid + "\":{\"new\":{"
+        + "\"name\":\"port1\","
+        + "\"vlan_bindings\":[\"map\",[[100,[\"uuid\",\"" + bindingUuid + "\"]]]],"
+        + "\"port_fault_status\":[\"set\",[]],"
+        + "\"_uuid\":[\"uuid\",\"" + uuid + "\"]}}}}";
+    TableUpdates expectedTableUpdates = JsonUtil.deserialize(rowUpdateString, TableUpdates.class);
+
+    String expectedRequest = getJsonRequestString(
+        "monitor", "hardware_vtep", monitorId, monitorRequests);
+    setupOvsdbEmulator(expectedRequest, rowUpdateString, null);
+
+    MonitorCallback monitorCallback = mock(MonitorCallback.class);
+    CompletableFuture<TableUpdates> f = ovsdbClient.monitor(
+        "hardware_vtep", monitorId, monitorRequests, monitorCallback, databaseSchema);
+    assertEquals(expectedTableUpdates, f.join());
+
+    ovsdbServerEmulator.write(
+        "{\"method\":\"update\",\"params\":[\"" + monitorId + "\","
+            + rowUpdateString + "],\"id\":null}");
+    verify(monitorCallback, timeout(1000).times(1)).update(expectedTableUpdates);
+
+    // An update that does not match the schema is not delivered
+    ovsdbServerEmulator.write(
+        "{\"method\":\"update\",\"params\":[\"" + monitorId + "\","
+            + "{\"Physical_Port\":{\"" + uuid + "\":{\"new\":{\"name\":42}}}}"
+            + "],\"id\":null}");
+
+    expectedRequest = getJsonRequestString("monitor_cancel", monitorId);
+    setupOvsdbEmulator(expectedRequest, "{}", null);
+    ovsdbClient.cancelMonitor(monitorId).join();
+    verify(monitorCallback, times(1)).update(any());
+  }
+
   private void testConnectionInfo() {
     OvsdbConnectionInfo ovsdbClientConnectionInfo = ovsdbClient.getConnectionInfo();
     OvsdbConnectionInfo ovsdbServerConnectionInfo = ovsdbServerEmulator.getConnectionInfo();
@@ -500,6 +709,21 @@ abstract class OvsdbClientTest {
     assertEquals(ovsdbClientLocalCertificate, ovsdbServerRemoteCertificate);
   }
 
+  private void testUnserializableOperation() {
+    Operation operation = new Operation("insert") {
+      public String getTable() {
+        throw new IllegalStateException("Not serializable");
+      }
+    };
+    try {
+      ovsdbClient.transact("hardware_vtep", ImmutableList.of(operation));
+      fail();
+    } catch (OvsdbClientException ex) {
+      // The caller gets the error at once instead of a timeout. The call still used an id
+      id.getAndIncrement();
+    }
+  }
+
   private void testErrorOperation() throws OvsdbClientException {
     Map<String, Value> columns = ImmutableMap.of(
         "name", Atom.string("ls1"),
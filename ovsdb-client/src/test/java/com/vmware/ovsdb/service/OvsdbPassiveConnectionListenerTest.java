@@ -15,7 +15,11 @@
 package com.vmware.ovsdb.service;
 
 import static com.vmware.ovsdb.testutils.SslUtil.newSelfSignedSslContextPair;
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
 import static junit.framework.TestCase.fail;
+import static org.junit.Assume.assumeTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
@@ -23,11 +27,17 @@ import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 
 import com.vmware.ovsdb.callback.ConnectionCallback;
+import com.vmware.ovsdb.service.impl.OvsdbActiveConnectionConnectorImpl;
 import com.vmware.ovsdb.service.impl.OvsdbPassiveConnectionListenerImpl;
 import com.vmware.ovsdb.util.PropertyManager;
 import com.vmware.ovsdb.testutils.ActiveOvsdbServerEmulator;
 import com.vmware.ovsdb.testutils.SslUtil.SelfSignedSslContextPair;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.handler.ssl.SslContext;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -77,6 +87,49 @@ public class OvsdbPassiveConnectionListenerTest {
     passiveListener.stopListening(PORT).join();
   }
 
+  @Test(timeout = TEST_TIMEOUT_MILLIS)
+  public void testTcpConnectionWithEpollWorkerGroup() throws Exception {
+    assumeTrue(Epoll.isAvailable());
+    // The listener follows the transport of the given group, whatever the epoll properties say
+    EventLoopGroup workerGroup = new EpollEventLoopGroup(1);
+    OvsdbPassiveConnectionListener epollListener =
+        new OvsdbPassiveConnectionListenerImpl(executorService, workerGroup);
+    try {
+      assertTrue(epollListener.startListening(PORT, mockConnectionCallback).join());
+      testConnectionBasic(null);
+      epollListener.stopListening(PORT).join();
+    } finally {
+      workerGroup.shutdownGracefully();
+    }
+  }
+
+  @Test(timeout = TEST_TIMEOUT_MILLIS)
+  public void testUnixConnection() throws Exception {
+    assumeTrue(Epoll.isAvailable());
+    Path directory = Files.createTempDirectory("ovsdb");
+    Path socketPath = directory.resolve("db.sock");
+    ConnectionCallback connectionCallback = mock(ConnectionCallback.class);
+    OvsdbActiveConnectionConnector connector =
+        new OvsdbActiveConnectionConnectorImpl(executorService);
+    try {
+      assertTrue(passiveListener.startListeningUnix(socketPath, connectionCallback).join());
+      assertTrue(Files.exists(socketPath));
+
+      OvsdbClient ovsdbClient = connector.connectUnix(socketPath).join();
+      assertEquals(socketPath.toString(), ovsdbClient.getConnectionInfo().getSocketPath());
+      verify(connectionCallback, timeout(VERIFY_TIMEOUT_MILLIS)).connected(any());
+
+      ovsdbClient.shutdown();
+      verify(connectionCallback, timeout(VERIFY_TIMEOUT_MILLIS)).disconnected(any());
+
+      assertTrue(passiveListener.stopListeningUnix(socketPath).join());
+      assertFalse(Files.exists(socketPath));
+    } finally {
+      Files.deleteIfExists(socketPath);
+      Files.delete(directory);
+    }
+  }
+
   private void testConnectionBasic(SslContext sslCtx) {
     reset(mockConnectionCallback);
     final int expectedConnectionCnt = 10;
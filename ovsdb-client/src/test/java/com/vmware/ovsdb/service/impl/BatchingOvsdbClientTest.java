@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.service.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.vmware.ovsdb.exception.OvsdbClientException;
+import com.vmware.ovsdb.protocol.operation.Delete;
+import com.vmware.ovsdb.protocol.operation.Insert;
+import com.vmware.ovsdb.protocol.operation.Operation;
+import com.vmware.ovsdb.protocol.operation.Wait;
+import com.vmware.ovsdb.protocol.operation.notation.Atom;
+import com.vmware.ovsdb.protocol.operation.notation.Condition;
+import com.vmware.ovsdb.protocol.operation.notation.Function;
+import com.vmware.ovsdb.protocol.operation.notation.Row;
+import com.vmware.ovsdb.protocol.operation.notation.Set;
+import com.vmware.ovsdb.protocol.operation.notation.Uuid;
+import com.vmware.ovsdb.protocol.operation.notation.Value;
+import com.vmware.ovsdb.protocol.operation.result.EmptyResult;
+import com.vmware.ovsdb.protocol.operation.result.ErrorResult;
+import com.vmware.ovsdb.protocol.operation.result.InsertResult;
+import com.vmware.ovsdb.protocol.operation.result.OperationResult;
+import com.vmware.ovsdb.protocol.operation.result.UpdateResult;
+import com.vmware.ovsdb.service.OvsdbClient;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class BatchingOvsdbClientTest {
+
+  private static final String DB_NAME = "hardware_vtep";
+
+  private static final String TABLE = "Logical_Switch";
+
+  private final OvsdbClient ovsdbClient = mock(OvsdbClient.class);
+
+  private final ScheduledExecutorService executorService = mock(ScheduledExecutorService.class);
+
+  private final List<List<Operation>> sentOperations = new ArrayList<>();
+
+  private final List<CompletableFuture<OperationResult[]>> sentCalls = new ArrayList<>();
+
+  private final List<Runnable> scheduledTasks = new ArrayList<>();
+
+  private final BatchingOvsdbClient batchingOvsdbClient = new BatchingOvsdbClient(
+      ovsdbClient, executorService, 1, TimeUnit.MILLISECONDS, 4);
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setUp() throws OvsdbClientException {
+    when(ovsdbClient.transact(anyString(), any())).thenAnswer(invocation -> {
+      sentOperations.add(invocation.getArgument(1));
+      CompletableFuture<OperationResult[]> completableFuture = new CompletableFuture<>();
+      sentCalls.add(completableFuture);
+      return completableFuture;
+    });
+    when(executorService.schedule(any(Runnable.class), anyLong(), any())).thenAnswer(
+        invocation -> {
+          scheduledTasks.add(invocation.getArgument(0));
+          return null;
+        });
+  }
+
+  @Test
+  public void testMergeAndSlice() throws Exception {
+    CompletableFuture<OperationResult[]> first = batchingOvsdbClient.transact(
+        DB_NAME, ImmutableList.of(newInsert("ls1", null), newDelete("ls2")));
+    CompletableFuture<OperationResult[]> second = batchingOvsdbClient.transact(
+        DB_NAME, ImmutableList.of(newInsert("ls3", null)));
+    assertTrue(sentCalls.isEmpty());
+
+    runScheduledTasks();
+    assertEquals(1, sentCalls.size());
+    assertEquals(3, sentOperations.get(0).size());
+
+    InsertResult insertResult1 = new InsertResult(Uuid.of(UUID.randomUUID()));
+    UpdateResult deleteResult = new UpdateResult(1);
+    InsertResult insertResult2 = new InsertResult(Uuid.of(UUID.randomUUID()));
+    sentCalls.get(0).complete(
+        new OperationResult[]{insertResult1, deleteResult, insertResult2});
+    assertArrayEquals(new OperationResult[]{insertResult1, deleteResult}, first.get());
+    assertArrayEquals(new OperationResult[]{insertResult2}, second.get());
+  }
+
+  @Test
+  public void testSingleCallNotRenamed() throws Exception {
+    List<Operation> operations = ImmutableList.of(newInsert("ls1", "row"));
+    CompletableFuture<OperationResult[]> result = batchingOvsdbClient.transact(
+        DB_NAME, operations);
+    runScheduledTasks();
+    assertEquals(operations, sentOperations.get(0));
+
+    OperationResult[] results = {new InsertResult(Uuid.of(UUID.randomUUID()))};
+    sentCalls.get(0).complete(results);
+    assertSame(results, result.get());
+  }
+
+  @Test
+  public void testRenameNamedUuid() throws Exception {
+    Row row = newRowWithRefs("row");
+    batchingOvsdbClient.transact(DB_NAME, ImmutableList.of(newInsert("ls1", "row")));
+    batchingOvsdbClient.transact(DB_NAME, ImmutableList.of(new Insert(TABLE, row, "row")));
+    runScheduledTasks();
+
+    assertEquals(
+        ImmutableList.of(
+            newInsert("ls1", "b0_row"), new Insert(TABLE, newRowWithRefs("b1_row"), "b1_row")),
+        sentOperations.get(0));
+  }
+
+  @Test
+  public void testSendWhenFull() throws Exception {
+    batchingOvsdbClient.transact(
+        DB_NAME, ImmutableList.of(newInsert("ls1", null), newInsert("ls2", null)));
+    batchingOvsdbClient.transact(
+        DB_NAME, ImmutableList.of(newInsert("ls3", null), newInsert("ls4", null)));
+    assertEquals(1, sentCalls.size());
+    assertEquals(4, sentOperations.get(0).size());
+
+    // The operations of one call are never split between batches
+    batchingOvsdbClient.transact(
+        DB_NAME, ImmutableList.of(newInsert("ls5", null), newInsert("ls6", null)));
+    batchingOvsdbClient.transact(
+        DB_NAME, ImmutableList.of(newInsert("ls7", null), newInsert("ls8", null),
+            newInsert("ls9", null)));
+    assertEquals(2, sentCalls.size());
+    assertEquals(2, sentOperations.get(1).size());
+
+    // The timer of a batch that is sent already does nothing
+    runScheduledTasks();
+    assertEquals(3, sentCalls.size());
+    assertEquals(3, sentOperations.get(2).size());
+  }
+
+  @Test
+  public void testFailureIsolation() throws Exception {
+    CompletableFuture<OperationResult[]> first = batchingOvsdbClient.transact(
+        DB_NAME, ImmutableList.of(newInsert("ls1", null)));
+    CompletableFuture<OperationResult[]> second = batchingOvsdbClient.transact(
+        DB_NAME, ImmutableList.of(newDelete("ls2")));
+    runScheduledTasks();
+
+    ErrorResult errorResult = new ErrorResult("constraint violation", "details");
+    sentCalls.get(0).complete(new OperationResult[]{new EmptyResult(), errorResult});
+    assertFalse(first.isDone());
+    assertFalse(second.isDone());
+
+    // Both calls are sent again on their own
+    assertEquals(3, sentCalls.size());
+    assertEquals(ImmutableList.of(newInsert("ls1", null)), sentOperations.get(1));
+    assertEquals(ImmutableList.of(newDelete("ls2")), sentOperations.get(2));
+
+    OperationResult[] firstResults = {new InsertResult(Uuid.of(UUID.randomUUID()))};
+    OperationResult[] secondResults = {errorResult};
+    sentCalls.get(1).complete(firstResults);
+    sentCalls.get(2).complete(secondResults);
+    assertSame(firstResults, first.get());
+    assertSame(secondResults, second.get());
+  }
+
+  @Test
+  public void testCallFailure() throws Exception {
+    CompletableFuture<OperationResult[]> first = batchingOvsdbClient.transact(
+        DB_NAME, ImmutableList.of(newInsert("ls1", null)));
+    CompletableFuture<OperationResult[]> second = batchingOvsdbClient.transact(
+        DB_NAME, ImmutableList.of(newDelete("ls2")));
+    runScheduledTasks();
+
+    OvsdbClientException exception = new OvsdbClientException("Connection lost");
+    sentCalls.get(0).completeExceptionally(exception);
+    assertEquals(1, sentCalls.size());
+    assertSame(exception, getCause(first));
+    assertSame(exception, getCause(second));
+  }
+
+  @Test
+  public void testWaitSentAlone() throws Exception {
+    List<Operation> operations = ImmutableList.of(
+        new Wait(TABLE, 1000, ImmutableList.of(), ImmutableList.of("name"),
+            Wait.Until.EQUAL, ImmutableList.of()));
+    batchingOvsdbClient.transact(DB_NAME, operations);
+    assertEquals(1, sentCalls.size());
+    assertSame(operations, sentOperations.get(0));
+    assertTrue(scheduledTasks.isEmpty());
+  }
+
+  @Test
+  public void testShutdown() throws Exception {
+    CompletableFuture<OperationResult[]> result = batchingOvsdbClient.transact(
+        DB_NAME, ImmutableList.of(newInsert("ls1", null)));
+    batchingOvsdbClient.shutdown();
+    verify(ovsdbClient).shutdown();
+    assertTrue(getCause(result) instanceof OvsdbClientException);
+
+    runScheduledTasks();
+    assertTrue(sentCalls.isEmpty());
+
+    try {
+      batchingOvsdbClient.transact(DB_NAME, ImmutableList.of(newInsert("ls2", null)));
+      fail();
+    } catch (OvsdbClientException ex) {
+      assertTrue(scheduledTasks.isEmpty());
+    }
+  }
+
+  @Test
+  public void testCancel() throws Exception {
+    CompletableFuture<OperationResult[]> first = batchingOvsdbClient.transact(
+        DB_NAME, ImmutableList.of(newInsert("ls1", null)));
+    CompletableFuture<OperationResult[]> second = batchingOvsdbClient.transact(
+        DB_NAME, ImmutableList.of(newInsert("ls2", null), newInsert("ls3", null)));
+    second.cancel(false);
+    // The cancelled operations no longer count towards a full batch
+    CompletableFuture<OperationResult[]> third = batchingOvsdbClient.transact(
+        DB_NAME, ImmutableList.of(newDelete("ls4"), newDelete("ls5")));
+    assertTrue(sentCalls.isEmpty());
+
+    runScheduledTasks();
+    assertEquals(1, sentCalls.size());
+    assertEquals(3, sentOperations.get(0).size());
+    assertFalse(first.isDone());
+    assertFalse(third.isDone());
+
+    // A batch whose only call is cancelled is not sent
+    batchingOvsdbClient.transact(DB_NAME, ImmutableList.of(newInsert("ls6", null)))
+        .cancel(false);
+    runScheduledTasks();
+    assertEquals(1, sentCalls.size());
+  }
+
+  private void runScheduledTasks() {
+    List<Runnable> tasks = new ArrayList<>(scheduledTasks);
+    scheduledTasks.clear();
+    tasks.forEach(Runnable::run);
+  }
+
+  private static Throwable getCause(CompletableFuture<?> completableFuture)
+      throws InterruptedException {
+    try {
+      completableFuture.get();
+    } catch (ExecutionException ex) {
+      return ex.getCause();
+    }
+    throw new AssertionError("The call should fail");
+  }
+
+  private static Insert newInsert(String name, String uuidName) {
+    return new Insert(TABLE, new Row().stringColumn("name", name), uuidName);
+  }
+
+  private static Row newRowWithRefs(String uuidName) {
+    Map<String, Value> columns = new LinkedHashMap<>();
+    columns.put("ref", Atom.namedUuid(uuidName));
+    columns.put("refs", new Set(Collections.singleton(Atom.namedUuid(uuidName))));
+    return new Row(columns);
+  }
+
+  private static Delete newDelete(String name) {
+    return new Delete(TABLE, ImmutableList.of(
+        new Condition("name", Function.EQUALS, Atom.string(name))));
+  }
+}
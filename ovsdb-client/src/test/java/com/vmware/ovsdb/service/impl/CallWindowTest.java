@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.vmware.ovsdb.exception.OvsdbClientException;
+import com.vmware.ovsdb.jsonrpc.v1.spi.JsonRpcTimer;
+import com.vmware.ovsdb.service.impl.CallWindow.OverflowPolicy;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class CallWindowTest {
+
+  private final List<CompletableFuture<String>> sentCalls = new ArrayList<>();
+
+  private final List<Runnable> timeoutTasks = new ArrayList<>();
+
+  private boolean isWritable = true;
+
+  private CallWindow newCallWindow(int maxInFlight, OverflowPolicy overflowPolicy) {
+    return newCallWindow(maxInFlight, 0, overflowPolicy);
+  }
+
+  private CallWindow newCallWindow(int maxInFlight, int maxPending, OverflowPolicy overflowPolicy) {
+    JsonRpcTimer timer = (task, delay, unit) -> {
+      timeoutTasks.add(task);
+      return () -> timeoutTasks.remove(task);
+    };
+    return new CallWindow(maxInFlight, maxPending, overflowPolicy, () -> isWritable, timer,
+        60, TimeUnit.SECONDS);
+  }
+
+  private CallWindow.Call<String> newCall() {
+    return () -> {
+      CompletableFuture<String> completableFuture = new CompletableFuture<>();
+      sentCalls.add(completableFuture);
+      return completableFuture;
+    };
+  }
+
+  @Test
+  public void testWaitForPermit() throws Exception {
+    CallWindow callWindow = newCallWindow(2, OverflowPolicy.WAIT);
+    callWindow.submit(newCall());
+    callWindow.submit(newCall());
+    CompletableFuture<String> third = callWindow.submit(newCall());
+    assertEquals(2, sentCalls.size());
+    assertEquals(2, callWindow.getInFlight());
+    assertEquals(1, callWindow.getPending());
+
+    sentCalls.get(0).complete("first");
+    assertEquals(3, sentCalls.size());
+    assertEquals(2, callWindow.getInFlight());
+    assertEquals(0, callWindow.getPending());
+
+    sentCalls.get(2).complete("third");
+    assertEquals("third", third.get());
+    assertEquals(1, callWindow.getInFlight());
+  }
+
+  @Test
+  public void testCancel() throws OvsdbClientException {
+    CallWindow callWindow = newCallWindow(1, OverflowPolicy.WAIT);
+    callWindow.submit(newCall());
+    CompletableFuture<String> second = callWindow.submit(newCall());
+    CompletableFuture<String> third = callWindow.submit(newCall());
+
+    // A cancelled waiting call is never sent
+    second.cancel(true);
+    sentCalls.get(0).complete("first");
+    assertEquals(2, sentCalls.size());
+
+    // Cancelling a started call cancels the call that is sent
+    third.cancel(true);
+    assertTrue(sentCalls.get(1).isCancelled());
+    assertEquals(0, callWindow.getInFlight());
+  }
+
+  @Test
+  public void testFailFast() throws OvsdbClientException {
+    CallWindow callWindow = newCallWindow(1, OverflowPolicy.FAIL);
+    callWindow.submit(newCall());
+    try {
+      callWindow.submit(newCall());
+      fail();
+    } catch (OvsdbClientException ex) {
+      assertEquals(1, sentCalls.size());
+    }
+
+    // A failed call also frees its permit
+    sentCalls.get(0).completeExceptionally(new RuntimeException());
+    callWindow.submit(newCall());
+    assertEquals(2, sentCalls.size());
+  }
+
+  @Test
+  public void testWaitForWritable() throws OvsdbClientException {
+    CallWindow callWindow = newCallWindow(2, OverflowPolicy.WAIT);
+    isWritable = false;
+    callWindow.submit(newCall());
+    assertEquals(0, sentCalls.size());
+
+    isWritable = true;
+    callWindow.drain();
+    assertEquals(1, sentCalls.size());
+  }
+
+  @Test
+  public void testDisabled() throws OvsdbClientException {
+    CallWindow callWindow = newCallWindow(0, OverflowPolicy.FAIL);
+    isWritable = false;
+    for (int i = 0; i < 10000; i++) {
+      callWindow.submit(newCall());
+    }
+    assertEquals(10000, sentCalls.size());
+    assertEquals(0, callWindow.getInFlight());
+  }
+
+  @Test
+  public void testMaxPending() throws OvsdbClientException {
+    CallWindow callWindow = newCallWindow(1, 1, OverflowPolicy.WAIT);
+    callWindow.submit(newCall());
+    callWindow.submit(newCall());
+    try {
+      callWindow.submit(newCall());
+      fail();
+    } catch (OvsdbClientException ex) {
+      assertEquals(1, callWindow.getPending());
+    }
+  }
+
+  @Test
+  public void testWaitTimeout() throws Exception {
+    CallWindow callWindow = newCallWindow(1, OverflowPolicy.WAIT);
+    callWindow.submit(newCall());
+    CompletableFuture<String> second = callWindow.submit(newCall());
+    assertEquals(1, timeoutTasks.size());
+
+    timeoutTasks.get(0).run();
+    try {
+      second.get();
+      fail();
+    } catch (ExecutionException ex) {
+      assertTrue(ex.getCause() instanceof TimeoutException);
+    }
+    assertEquals(0, callWindow.getPending());
+
+    // A call that is started no longer times out while waiting
+    CompletableFuture<String> third = callWindow.submit(newCall());
+    sentCalls.get(0).complete("first");
+    assertEquals(2, sentCalls.size());
+    assertTrue(timeoutTasks.isEmpty());
+    sentCalls.get(1).complete("third");
+    assertEquals("third", third.get());
+  }
+
+  @Test
+  public void testStartFailure() throws OvsdbClientException {
+    CallWindow callWindow = newCallWindow(1, OverflowPolicy.FAIL);
+    try {
+      callWindow.submit(() -> {
+        throw new OvsdbClientException("send failure");
+      });
+      fail();
+    } catch (OvsdbClientException ex) {
+      assertEquals("send failure", ex.getMessage());
+    }
+    assertEquals(0, callWindow.getInFlight());
+  }
+
+  @Test
+  public void testClose() throws Exception {
+    CallWindow callWindow = newCallWindow(1, OverflowPolicy.WAIT);
+    callWindow.submit(newCall());
+    CompletableFuture<String> pending = callWindow.submit(newCall());
+
+    callWindow.close();
+    assertTrue(pending.isCompletedExceptionally());
+    try {
+      pending.get();
+    } catch (ExecutionException ex) {
+      assertTrue(ex.getCause() instanceof OvsdbClientException);
+    }
+    try {
+      callWindow.submit(newCall());
+      fail();
+    } catch (OvsdbClientException ex) {
+      assertFalse(sentCalls.size() > 1);
+    }
+  }
+}
@@ -0,0 +1,521 @@
+/*
+ * Copyright (c) 2018 VMware, Inc. All Rights Reserved.
+ *
+ * This product is licensed to you under the BSD-2 license (the "License").
+ * You may not use this product except in compliance with the BSD-2 License.
+ *
+ * This product may include a number of subcomponents with separate copyright
+ * notices and license terms. Your use of these subcomponents is subject to the
+ * terms and conditions of the subcomponent's license, as noted in the LICENSE
+ * file.
+ *
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.vmware.ovsdb.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.vmware.ovsdb.callback.LockCallback;
+import com.vmware.ovsdb.callback.MonitorCallback;
+import com.vmware.ovsdb.callback.MonitorCondCallback;
+import com.vmware.ovsdb.callback.MonitorCondSinceCallback;
+import com.vmware.ovsdb.exception.OvsdbClientException;
+import com.vmware.ovsdb.protocol.methods.LockResult;
+import com.vmware.ovsdb.protocol.methods.MonitorCondRequest;
+import com.vmware.ovsdb.protocol.methods.MonitorCondRequests;
+import com.vmware.ovsdb.protocol.methods.MonitorCondSinceResult;
+import com.vmware.ovsdb.protocol.methods.MonitorRequest;
+import com.vmware.ovsdb.protocol.methods.MonitorRequests;
+import com.vmware.ovsdb.protocol.methods.MonitorSelect;
+import com.vmware.ovsdb.protocol.methods.RowUpdate;
+import com.vmware.ovsdb.protocol.methods.RowUpdate2;
+import com.vmware.ovsdb.protocol.methods.TableUpdate;
+import com.vmware.ovsdb.protocol.methods.TableUpdate2;
+import com.vmware.ovsdb.protocol.methods.TableUpdates;
+import com.vmware.ovsdb.protocol.methods.TableUpdates2;
+import com.vmware.ovsdb.protocol.operation.notation.Atom;
+import com.vmware.ovsdb.protocol.operation.notation.Condition;
+import com.vmware.ovsdb.protocol.operation.notation.Function;
+import com.vmware.ovsdb.protocol.operation.notation.Row;
+import com.vmware.ovsdb.service.OvsdbClient;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class ReconnectingOvsdbClientTest {
+
+  private static final String DB_NAME = "hardware_vtep";
+
+  private static final String TABLE = "Logical_Switch";
+
+  private static final String MONITOR_ID = "monitor";
+
+  private static final String LOCK_ID = "lock";
+
+  private static final String OTHER_LOCK_ID = "other_lock";
+
+  private static final int VERIFY_TIMEOUT_MILLIS = 5000;
+
+  private static final UUID UUID_1 = UUID.randomUUID();
+
+  private static final UUID UUID_2 = UUID.randomUUID();
+
+  private static final UUID UUID_3 = UUID.randomUUID();
+
+  private final ScheduledExecutorService executorService = Executors.newScheduledThreadPool(2);
+
+  // The results of the connection attempts, in order
+  private final BlockingQueue<CompletableFuture<OvsdbClient>> connections =
+      new LinkedBlockingQueue<>();
+
+  private final MonitorRequests monitorRequests = new MonitorRequests(
+      ImmutableMap.of(TABLE, new MonitorRequest()));
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testRetryFirstConnection() throws Exception {
+    CompletableFuture<OvsdbClient> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new RuntimeException("Connection refused"));
+    connections.add(failed);
+    connections.add(failed);
+    MockClient mockClient = new MockClient();
+    connections.add(CompletableFuture.completedFuture(mockClient.ovsdbClient));
+
+    ReconnectingOvsdbClient reconnectingClient = connect()
+        .get(VERIFY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    assertTrue(reconnectingClient.isConnected());
+    assertTrue(connections.isEmpty());
+    reconnectingClient.shutdown();
+  }
+
+  @Test
+  public void testReconcileMonitor() throws Exception {
+    MockClient mockClient1 = new MockClient();
+    connections.add(CompletableFuture.completedFuture(mockClient1.ovsdbClient));
+    ReconnectingOvsdbClient reconnectingClient = connect().join();
+
+    MonitorCallback monitorCallback = mock(MonitorCallback.class);
+    CompletableFuture<TableUpdates> monitorFuture = reconnectingClient.monitor(
+        DB_NAME, MONITOR_ID, monitorRequests, monitorCallback);
+    TableUpdates initial1 = tableUpdates(ImmutableMap.of(
+        UUID_1, new RowUpdate(null, new Row().stringColumn("name", "ls1")),
+        UUID_2, new RowUpdate(null, new Row().stringColumn("name", "ls2")
+            .integerColumn("tunnel_key", 2L))));
+    mockClient1.monitorFuture.complete(initial1);
+    assertEquals(initial1, monitorFuture.join());
+
+    // Seen by the callback before the connection is lost
+    TableUpdates update = tableUpdates(ImmutableMap.of(
+        UUID_2, new RowUpdate(new Row().integerColumn("tunnel_key", 2L),
+            new Row().stringColumn("name", "ls2").integerColumn("tunnel_key", 20L))));
+    mockClient1.monitorCallback.update(update);
+    verify(monitorCallback).update(update);
+
+    MockClient mockClient2 = new MockClient();
+    connections.add(CompletableFuture.completedFuture(mockClient2.ovsdbClient));
+    mockClient1.disconnect();
+
+    // While the connection was down, ls1 was deleted, ls2 modified and ls3 inserted
+    verify(mockClient2.ovsdbClient, timeout(VERIFY_TIMEOUT_MILLIS))
+        .monitor(eq(DB_NAME), eq(MONITOR_ID), eq(monitorRequests), any());
+    mockClient2.monitorFuture.complete(tableUpdates(ImmutableMap.of(
+        UUID_2, new RowUpdate(null, new Row().stringColumn("name", "ls2")
+            .integerColumn("tunnel_key", 200L)),
+        UUID_3, new RowUpdate(null, new Row().stringColumn("name", "ls3")))));
+
+    verify(monitorCallback).update(tableUpdates(ImmutableMap.of(
+        UUID_1, new RowUpdate(new Row().stringColumn("name", "ls1"), null),
+        UUID_2, new RowUpdate(new Row().integerColumn("tunnel_key", 20L),
+            new Row().stringColumn("name", "ls2").integerColumn("tunnel_key", 200L)),
+        UUID_3, new RowUpdate(null, new Row().stringColumn("name", "ls3")))));
+
+    // Nothing changed across the next reconnection, so the callback gets nothing
+    MockClient mockClient3 = new MockClient();
+    connections.add(CompletableFuture.completedFuture(mockClient3.ovsdbClient));
+    mockClient2.disconnect();
+    verify(mockClient3.ovsdbClient, timeout(VERIFY_TIMEOUT_MILLIS))
+        .monitor(eq(DB_NAME), eq(MONITOR_ID), eq(monitorRequests), any());
+    mockClient3.monitorFuture.complete(tableUpdates(ImmutableMap.of(
+        UUID_2, new RowUpdate(null, new Row().stringColumn("name", "ls2")
+            .integerColumn("tunnel_key", 200L)),
+        UUID_3, new RowUpdate(null, new Row().stringColumn("name", "ls3")))));
+    TableUpdates update3 = tableUpdates(ImmutableMap.of(
+        UUID_3, new RowUpdate(new Row().stringColumn("name", "ls3"), null)));
+    mockClient3.monitorCallback.update(update3);
+    verify(monitorCallback).update(update3);
+    verify(monitorCallback, timeout(VERIFY_TIMEOUT_MILLIS).times(3)).update(any());
+
+    reconnectingClient.shutdown();
+  }
+
+  @Test
+  public void testHoldUpdatesUntilReconciled() throws Exception {
+    MockClient mockClient1 = new MockClient();
+    connections.add(CompletableFuture.completedFuture(mockClient1.ovsdbClient));
+    ReconnectingOvsdbClient reconnectingClient = connect().join();
+    MonitorCallback monitorCallback = mock(MonitorCallback.class);
+    CompletableFuture<TableUpdates> monitorFuture = reconnectingClient.monitor(
+        DB_NAME, MONITOR_ID, monitorRequests, monitorCallback);
+    mockClient1.monitorFuture.complete(new TableUpdates(Collections.emptyMap()));
+    monitorFuture.join();
+
+    MockClient mockClient2 = new MockClient();
+    connections.add(CompletableFuture.completedFuture(mockClient2.ovsdbClient));
+    mockClient1.disconnect();
+    verify(mockClient2.ovsdbClient, timeout(VERIFY_TIMEOUT_MILLIS))
+        .monitor(eq(DB_NAME), eq(MONITOR_ID), eq(monitorRequests), any());
+
+    // An update that arrives before the initial contents is held back
+    TableUpdates update = tableUpdates(ImmutableMap.of(
+        UUID_1, new RowUpdate(new Row().stringColumn("name", "ls1"),
+            new Row().stringColumn("name", "ls1-renamed"))));
+    mockClient2.monitorCallback.update(update);
+    verify(monitorCallback, never()).update(any());
+
+    TableUpdates initial = tableUpdates(ImmutableMap.of(
+        UUID_1, new RowUpdate(null, new Row().stringColumn("name", "ls1"))));
+    mockClient2.monitorFuture.complete(initial);
+    verify(monitorCallback).update(initial);
+    verify(monitorCallback).update(update);
+
+    // A late update of the lost connection is dropped
+    mockClient1.monitorCallback.update(update);
+    verify(monitorCallback, times(2)).update(any());
+
+    reconnectingClient.shutdown();
+  }
+
+  @Test
+  public void testMonitorCondAgain() throws Exception {
+    MockClient mockClient1 = new MockClient();
+    connections.add(CompletableFuture.completedFuture(mockClient1.ovsdbClient));
+    ReconnectingOvsdbClient reconnectingClient = connect().join();
+
+    MonitorCondCallback monitorCondCallback = mock(MonitorCondCallback.class);
+    CompletableFuture<TableUpdates2> monitorFuture = reconnectingClient.monitorCond(
+        DB_NAME, MONITOR_ID, new MonitorCondRequests(ImmutableMap.of(
+            TABLE, new MonitorCondRequest(ImmutableList.of("name"), null, null))),
+        monitorCondCallback);
+    TableUpdates2 initial1 = tableUpdates2(ImmutableMap.of(
+        UUID_1, new RowUpdate2().setInitial(new Row().stringColumn("name", "ls1")),
+        UUID_2, new RowUpdate2().setInitial(new Row().stringColumn("name", "ls2"))));
+    mockClient1.monitorCondFuture.complete(initial1);
+    assertEquals(initial1, monitorFuture.join());
+
+    // The new id and conditions are used on the next connection
+    String newMonitorId = "new-monitor";
+    MonitorCondRequests changeRequests = new MonitorCondRequests(ImmutableMap.of(
+        TABLE, new MonitorCondRequest(ImmutableList.of(
+            new Condition("name", Function.NOT_EQUALS, Atom.string("ls1"))))));
+    reconnectingClient.monitorCondChange(MONITOR_ID, newMonitorId, changeRequests).join();
+
+    MockClient mockClient2 = new MockClient();
+    connections.add(CompletableFuture.completedFuture(mockClient2.ovsdbClient));
+    mockClient1.disconnect();
+
+    MonitorCondRequests expectedRequests = new MonitorCondRequests(ImmutableMap.of(
+        TABLE, new MonitorCondRequest(ImmutableList.of("name"), ImmutableList.of(
+            new Condition("name", Function.NOT_EQUALS, Atom.string("ls1"))), null)));
+    verify(mockClient2.ovsdbClient, timeout(VERIFY_TIMEOUT_MILLIS))
+        .monitorCond(eq(DB_NAME), eq(newMonitorId), eq(expectedRequests), any());
+    RowUpdate2 ls2 = new RowUpdate2().setInitial(new Row().stringColumn("name", "ls2"));
+    mockClient2.monitorCondFuture.complete(tableUpdates2(ImmutableMap.of(UUID_2, ls2)));
+
+    // The row that no longer matches is deleted, and the current rows are delivered again
+    verify(monitorCondCallback).update(tableUpdates2(ImmutableMap.of(
+        UUID_1, new RowUpdate2().setDelete(true), UUID_2, ls2)));
+
+    reconnectingClient.shutdown();
+  }
+
+  @Test
+  public void testMonitorCondSinceAgain() throws Exception {
+    MockClient mockClient1 = new MockClient();
+    connections.add(CompletableFuture.completedFuture(mockClient1.ovsdbClient));
+    ReconnectingOvsdbClient reconnectingClient = connect().join();
+
+    MonitorCondRequests monitorCondRequests = new MonitorCondRequests(
+        ImmutableMap.of(TABLE, new MonitorCondRequest()));
+    MonitorCondSinceCallback monitorCondSinceCallback = mock(MonitorCondSinceCallback.class);
+    UUID txnId1 = UUID.randomUUID();
+    CompletableFuture<MonitorCondSinceResult> monitorFuture = reconnectingClient.monitorCondSince(
+        DB_NAME, MONITOR_ID, monitorCondRequests, null, monitorCondSinceCallback);
+    verify(mockClient1.ovsdbClient).monitorCondSince(
+        eq(DB_NAME), eq(MONITOR_ID), eq(monitorCondRequests), eq(null), any());
+    MonitorCondSinceResult result1 = new MonitorCondSinceResult(false, txnId1,
+        tableUpdates2(ImmutableMap.of(
+            UUID_1, new RowUpdate2().setInitial(new Row().stringColumn("name", "ls1")),
+            UUID_2, new RowUpdate2().setInitial(new Row().stringColumn("name", "ls2")))));
+    mockClient1.monitorCondSinceFuture.complete(result1);
+    assertEquals(result1, monitorFuture.join());
+
+    UUID txnId2 = UUID.randomUUID();
+    TableUpdates2 update = tableUpdates2(ImmutableMap.of(
+        UUID_2, new RowUpdate2().setModify(new Row().stringColumn("name", "ls2-renamed"))));
+    mockClient1.monitorCondSinceCallback.update(txnId2, update);
+    verify(monitorCondSinceCallback).update(txnId2, update);
+
+    // The server still has the last transaction seen, so only the changes after it are sent
+    MockClient mockClient2 = new MockClient();
+    connections.add(CompletableFuture.completedFuture(mockClient2.ovsdbClient));
+    mockClient1.disconnect();
+    verify(mockClient2.ovsdbClient, timeout(VERIFY_TIMEOUT_MILLIS)).monitorCondSince(
+        eq(DB_NAME), eq(MONITOR_ID), eq(monitorCondRequests), eq(txnId2), any());
+    UUID txnId3 = UUID.randomUUID();
+    TableUpdates2 changes = tableUpdates2(ImmutableMap.of(
+        UUID_1, new RowUpdate2().setDelete(true)));
+    mockClient2.monitorCondSinceFuture.complete(new MonitorCondSinceResult(true, txnId3, changes));
+    verify(monitorCondSinceCallback).update(txnId3, changes);
+
+    // The server no longer has it, so it sends all the rows, which are reconciled
+    MockClient mockClient3 = new MockClient();
+    connections.add(CompletableFuture.completedFuture(mockClient3.ovsdbClient));
+    mockClient2.disconnect();
+    verify(mockClient3.ovsdbClient, timeout(VERIFY_TIMEOUT_MILLIS)).monitorCondSince(
+        eq(DB_NAME), eq(MONITOR_ID), eq(monitorCondRequests), eq(txnId3), any());
+    UUID txnId4 = UUID.randomUUID();
+    RowUpdate2 ls3 = new RowUpdate2().setInitial(new Row().stringColumn("name", "ls3"));
+    mockClient3.monitorCondSinceFuture.complete(new MonitorCondSinceResult(false, txnId4,
+        tableUpdates2(ImmutableMap.of(UUID_3, ls3))));
+    verify(monitorCondSinceCallback).update(txnId4, tableUpdates2(ImmutableMap.of(
+        UUID_2, new RowUpdate2().setDelete(true), UUID_3, ls3)));
+
+    reconnectingClient.shutdown();
+  }
+
+  @Test
+  public void testLockAgain() throws Exception {
+    MockClient mockClient1 = new MockClient();
+    connections.add(CompletableFuture.completedFuture(mockClient1.ovsdbClient));
+    ReconnectingOvsdbClient reconnectingClient = connect().join();
+
+    LockCallback lockCallback = mock(LockCallback.class);
+    CompletableFuture<LockResult> lockFuture = reconnectingClient.lock(LOCK_ID, lockCallback);
+    mockClient1.lockFuture.complete(new LockResult(true));
+    assertTrue(lockFuture.join().isLocked());
+    // The caller learns from the result, as with a plain client
+    verify(lockCallback, never()).locked();
+
+    CompletableFuture<OvsdbClient> connection2 = new CompletableFuture<>();
+    connections.add(connection2);
+    mockClient1.disconnect();
+    verify(lockCallback, timeout(VERIFY_TIMEOUT_MILLIS)).stolen();
+    // There is no connection until connection2 completes
+    assertFalse(reconnectingClient.isConnected());
+    assertNull(reconnectingClient.getConnectionInfo());
+    try {
+      reconnectingClient.transact(DB_NAME, Collections.emptyList());
+      fail("A request without a connection should fail");
+    } catch (OvsdbClientException ex) {
+      // Expected
+    }
+
+    MockClient mockClient2 = new MockClient();
+    connection2.complete(mockClient2.ovsdbClient);
+    verify(mockClient2.ovsdbClient, timeout(VERIFY_TIMEOUT_MILLIS)).lock(eq(LOCK_ID), any());
+    // Another client holds the lock now
+    mockClient2.lockFuture.complete(new LockResult(false));
+    verify(lockCallback, never()).locked();
+    mockClient2.lockCallback.locked();
+    verify(lockCallback).locked();
+
+    reconnectingClient.shutdown();
+    verify(mockClient2.ovsdbClient).shutdown();
+  }
+
+  @Test
+  public void testCancelWhileDisconnected() throws Exception {
+    MockClient mockClient1 = new MockClient();
+    connections.add(CompletableFuture.completedFuture(mockClient1.ovsdbClient));
+    ReconnectingOvsdbClient reconnectingClient = connect().join();
+
+    reconnectingClient.monitor(DB_NAME, MONITOR_ID, monitorRequests, mock(MonitorCallback.class));
+    mockClient1.monitorFuture.complete(tableUpdates(Collections.emptyMap()));
+    LockCallback lockCallback = mock(LockCallback.class);
+    reconnectingClient.lock(LOCK_ID, lockCallback);
+    reconnectingClient.lock(OTHER_LOCK_ID, mock(LockCallback.class));
+    mockClient1.lockFuture.complete(new LockResult(true));
+
+    CompletableFuture<OvsdbClient> connection2 = new CompletableFuture<>();
+    connections.add(connection2);
+    mockClient1.disconnect();
+    verify(lockCallback, timeout(VERIFY_TIMEOUT_MILLIS)).stolen();
+    // Neither needs a connection
+    assertTrue(reconnectingClient.cancelMonitor(MONITOR_ID).isDone());
+    assertTrue(reconnectingClient.unlock(LOCK_ID).isDone());
+
+    MockClient mockClient2 = new MockClient();
+    connection2.complete(mockClient2.ovsdbClient);
+    // The locks are requested again after the monitors
+    verify(mockClient2.ovsdbClient, timeout(VERIFY_TIMEOUT_MILLIS))
+        .lock(eq(OTHER_LOCK_ID), any());
+    verify(mockClient2.ovsdbClient, never()).lock(eq(LOCK_ID), any());
+    verify(mockClient2.ovsdbClient, never()).monitor(anyString(), anyString(), any(), any());
+    verify(mockClient1.ovsdbClient, never()).cancelMonitor(anyString());
+    verify(mockClient1.ovsdbClient, never()).unlock(anyString());
+
+    reconnectingClient.shutdown();
+  }
+
+  @Test
+  public void testMonitorAgainAfterFailure() throws Exception {
+    MockClient mockClient1 = new MockClient();
+    connections.add(CompletableFuture.completedFuture(mockClient1.ovsdbClient));
+    ReconnectingOvsdbClient reconnectingClient = connect().join();
+
+    MonitorCallback monitorCallback = mock(MonitorCallback.class);
+    reconnectingClient.monitor(DB_NAME, MONITOR_ID, monitorRequests, monitorCallback);
+    mockClient1.monitorFuture.complete(tableUpdates(Collections.emptyMap()));
+
+    MockClient mockClient2 = new MockClient();
+    CompletableFuture<TableUpdates> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new OvsdbClientException("Server busy"));
+    when(mockClient2.ovsdbClient.monitor(anyString(), anyString(), any(), any()))
+        .thenReturn(failed)
+        .thenReturn(mockClient2.monitorFuture);
+    connections.add(CompletableFuture.completedFuture(mockClient2.ovsdbClient));
+    mockClient1.disconnect();
+
+    // Retried on the same connection with the backoff
+    verify(mockClient2.ovsdbClient, timeout(VERIFY_TIMEOUT_MILLIS).times(2))
+        .monitor(eq(DB_NAME), eq(MONITOR_ID), any(), any());
+    TableUpdates initial = tableUpdates(ImmutableMap.of(
+        UUID_1, new RowUpdate(null, new Row().stringColumn("name", "ls1"))));
+    mockClient2.monitorFuture.complete(initial);
+    verify(monitorCallback, timeout(VERIFY_TIMEOUT_MILLIS)).update(initial);
+
+    reconnectingClient.shutdown();
+  }
+
+  @Test
+  public void testRejectClientWithoutShutdownFuture() throws Exception {
+    OvsdbClient ovsdbClient = mock(OvsdbClient.class);
+    CompletableFuture<Void> unsupported = new CompletableFuture<>();
+    unsupported.completeExceptionally(new UnsupportedOperationException());
+    when(ovsdbClient.getShutdownFuture()).thenReturn(unsupported);
+    connections.add(CompletableFuture.completedFuture(ovsdbClient));
+
+    try {
+      connect().get(VERIFY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+      fail("A client that cannot report a lost connection should be rejected");
+    } catch (ExecutionException ex) {
+      assertTrue(ex.getCause() instanceof OvsdbClientException);
+    }
+    verify(ovsdbClient).shutdown();
+  }
+
+  @Test
+  public void testDiffSelect() {
+    Map<UUID, Row> seenRows = ImmutableMap.of(
+        UUID_1, new Row().stringColumn("name", "ls1"),
+        UUID_2, new Row().stringColumn("name", "ls2"));
+    Map<UUID, Row> currentRows = ImmutableMap.of(
+        UUID_2, new Row().stringColumn("name", "ls2-renamed"),
+        UUID_3, new Row().stringColumn("name", "ls3"));
+
+    assertEquals(3, ReconnectingOvsdbClient.diff(seenRows, currentRows, null).size());
+    Map<UUID, RowUpdate> rowUpdates = ReconnectingOvsdbClient.diff(
+        seenRows, currentRows, new MonitorSelect(true, false, true, false));
+    assertEquals(ImmutableMap.of(
+        UUID_1, new RowUpdate(new Row().stringColumn("name", "ls1"), null)), rowUpdates);
+  }
+
+  private CompletableFuture<ReconnectingOvsdbClient> connect() {
+    return ReconnectingOvsdbClient.connect(
+        connections::remove, executorService, 10, 100, TimeUnit.MILLISECONDS);
+  }
+
+  private static TableUpdates tableUpdates(Map<UUID, RowUpdate> rowUpdates) {
+    Map<String, TableUpdate> tableUpdates = new HashMap<>();
+    tableUpdates.put(TABLE, new TableUpdate(rowUpdates));
+    return new TableUpdates(tableUpdates);
+  }
+
+  private static TableUpdates2 tableUpdates2(Map<UUID, RowUpdate2> rowUpdates) {
+    Map<String, TableUpdate2> tableUpdates = new HashMap<>();
+    tableUpdates.put(TABLE, new TableUpdate2(rowUpdates));
+    return new TableUpdates2(tableUpdates);
+  }
+
+  /**
+   * A mock {@link OvsdbClient} that records the callbacks of its monitor and lock requests and
+   * answers them with futures completed by the test.
+   */
+  private static class MockClient {
+
+    private final OvsdbClient ovsdbClient = mock(OvsdbClient.class);
+
+    private final CompletableFuture<Void> shutdownFuture = new CompletableFuture<>();
+
+    private final CompletableFuture<TableUpdates> monitorFuture = new CompletableFuture<>();
+
+    private final CompletableFuture<TableUpdates2> monitorCondFuture = new CompletableFuture<>();
+
+    private final CompletableFuture<MonitorCondSinceResult> monitorCondSinceFuture =
+        new CompletableFuture<>();
+
+    private final CompletableFuture<LockResult> lockFuture = new CompletableFuture<>();
+
+    private volatile MonitorCallback monitorCallback;
+
+    private volatile MonitorCondSinceCallback monitorCondSinceCallback;
+
+    private volatile LockCallback lockCallback;
+
+    MockClient() throws OvsdbClientException {
+      when(ovsdbClient.getShutdownFuture()).thenReturn(shutdownFuture);
+      when(ovsdbClient.monitor(anyString(), anyString(), any(), any())).thenAnswer(invocation -> {
+        monitorCallback = invocation.getArgument(3);
+        return monitorFuture;
+      });
+      when(ovsdbClient.monitorCond(anyString(), anyString(), any(), any()))
+          .thenReturn(monitorCondFuture);
+      when(ovsdbClient.monitorCondSince(anyString(), anyString(), any(), any(), any()))
+          .thenAnswer(invocation -> {
+            monitorCondSinceCallback = invocation.getArgument(4);
+            return monitorCondSinceFuture;
+          });
+      when(ovsdbClient.monitorCondChange(anyString(), anyString(), any()))
+          .thenReturn(CompletableFuture.completedFuture(null));
+      when(ovsdbClient.lock(anyString(), any())).thenAnswer(invocation -> {
+        lockCallback = invocation.getArgument(1);
+        return lockFuture;
+      });
+    }
+
+    void disconnect() {
+      shutdownFuture.complete(null);
+    }
+  }
+}
@@ -15,9 +15,12 @@
 package com.vmware.ovsdb.util;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 
+import java.util.concurrent.TimeUnit;
+
 public class PropertyManagerTest {
 
   @Test
@@ -28,5 +31,13 @@ public class PropertyManagerTest {
     assertEquals(42, PropertyManager.getLongProperty("non.existent.prop", 42));
     // An invalid integer property should return default value
     assertEquals(42, PropertyManager.getLongProperty("invalid.int", 42));
+    // Only "true" and "false" are valid boolean properties
+    assertTrue(PropertyManager.getBooleanProperty("rpc.cancel.on.timeout", false));
+    assertTrue(PropertyManager.getBooleanProperty("invalid.int", true));
+    // Enum properties are case-insensitive
+    assertEquals(TimeUnit.SECONDS,
+        PropertyManager.getEnumProperty("time.unit", TimeUnit.MILLISECONDS));
+    assertEquals(TimeUnit.MILLISECONDS,
+        PropertyManager.getEnumProperty("invalid.int", TimeUnit.MILLISECONDS));
   }
 }